@@ -88,7 +88,7 @@ rput[PSTContext pstctx]
 @init {
 	PSTContext newpstctx = new PSTContext(pstctx, false);
 }
-    : cmd=('\\rput*' | '\\rput') ('[' textpos? { newpstctx.textPosition = $textpos.text; } ']')?
+    : cmd=('\\rput*' | '\\rput') ('[' textpos? { newpstctx.set(PSTParam.TEXT_POSITION, $textpos.text); } ']')?
     (BRACE_OPEN star='*'? (rot=valueDim | angleChar=put) {newpstctx.setRputAngle($star, $rot.ctx, $angleChar.ctx);} BRACE_CLOSE)? coord pstBlock[newpstctx] ;
 
 scalebox[PSTContext pstctx] : '\\scalebox' BRACE_OPEN hscale=NUMBER BRACE_CLOSE ('[' vscale=NUMBER ']')? pstBlock[pstctx] ;
@@ -173,19 +173,19 @@ color[PSTContext pstctx] : '\\color' BRACE_OPEN name=WORD BRACE_CLOSE ;
 
 unknowncmds[PSTContext pstctx] : LATEXCMD ( ('[' ~(']') ']') | (BRACE_OPEN ~BRACE_CLOSE BRACE_CLOSE) | ('(' ~(')') ')') )* ;
 
-readdata[PSTContext pstctx] : '\\readdata' paramBlock[pstctx]? BRACE_OPEN LATEXCMD BRACE_CLOSE BRACE_OPEN (.|'/'|':')*? ~(BRACE_CLOSE) BRACE_CLOSE ;
+readdata[PSTContext pstctx] : '\\readdata' paramBlock[pstctx]? BRACE_OPEN name=LATEXCMD BRACE_CLOSE BRACE_OPEN path=valueText BRACE_CLOSE ;
 
-savedata[PSTContext pstctx] : '\\savedata' BRACE_OPEN LATEXCMD BRACE_CLOSE '[' .*? ~(']') ']' ;
+savedata[PSTContext pstctx] : '\\savedata' BRACE_OPEN name=LATEXCMD BRACE_CLOSE open='[' .*? ~(']') close=']' ;
 
 parametricplot[PSTContext pstctx] : cmd=('\\parametricplot*' | '\\parametricplot') paramBlock[pstctx]? BRACE_OPEN xmin=NUMBER BRACE_CLOSE BRACE_OPEN xmax=NUMBER BRACE_CLOSE BRACE_OPEN fct+=text[pstctx, false]+ ~(BRACE_CLOSE) BRACE_CLOSE ;
 
 psplot[PSTContext pstctx] : cmd=('\\psplot*' | '\\psplot') paramBlock[pstctx]? BRACE_OPEN x0=NUMBER BRACE_CLOSE BRACE_OPEN x1=NUMBER BRACE_CLOSE BRACE_OPEN fct+=text[pstctx, false]+ BRACE_CLOSE ;
 
-listplot[PSTContext pstctx] : cmd=('\\listplot*' | '\\listplot') paramBlock[pstctx]? BRACE_OPEN LATEXCMD+ BRACE_CLOSE ;
+listplot[PSTContext pstctx] : cmd=('\\listplot*' | '\\listplot') paramBlock[pstctx]? BRACE_OPEN (names+=LATEXCMD+ | values+=NUMBER+) BRACE_CLOSE ;
 
-dataplot[PSTContext pstctx] : cmd=('\\listplot*' | '\\listplot') paramBlock[pstctx]? BRACE_OPEN LATEXCMD+ BRACE_CLOSE ;
+dataplot[PSTContext pstctx] : cmd=('\\dataplot*' | '\\dataplot') paramBlock[pstctx]? BRACE_OPEN names+=LATEXCMD+ BRACE_CLOSE ;
 
-fileplot[PSTContext pstctx] : cmd=('\\listplot*' | '\\listplot') paramBlock[pstctx]? BRACE_OPEN LATEXCMD+ BRACE_CLOSE ;
+fileplot[PSTContext pstctx] : cmd=('\\fileplot*' | '\\fileplot') paramBlock[pstctx]? BRACE_OPEN path=valueText BRACE_CLOSE ;
 
 newpsobject[PSTContext pstctx] : '\\newpsobject' BRACE_OPEN name=IDENT BRACE_CLOSE BRACE_OPEN obj=IDENT BRACE_CLOSE BRACE_OPEN attrs=.*? ~(BRACE_CLOSE) BRACE_CLOSE ;
 
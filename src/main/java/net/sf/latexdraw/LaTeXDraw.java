@@ -12,6 +12,7 @@ package net.sf.latexdraw;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
@@ -22,6 +23,8 @@ import javafx.concurrent.Worker;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
@@ -37,9 +40,13 @@ import net.sf.latexdraw.instrument.PreferencesSetter;
 import net.sf.latexdraw.instrument.StatusBarController;
 import net.sf.latexdraw.instrument.TabSelector;
 import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.service.BatchConverter;
+import net.sf.latexdraw.service.CommandJournal;
 import net.sf.latexdraw.service.PreferencesService;
+import net.sf.latexdraw.service.UndoMemoryBudget;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.util.Injector;
+import net.sf.latexdraw.util.LCommandLine;
 import net.sf.latexdraw.util.VersionChecker;
 import net.sf.latexdraw.view.jfx.Canvas;
 import org.malai.command.CommandsRegistry;
@@ -66,6 +73,7 @@ public class LaTeXDraw extends JfxUI {
 //		}
 
 		UndoCollector.INSTANCE.setSizeMax(30);
+		UndoCollector.INSTANCE.addHandler(UndoMemoryBudget.INSTANCE);
 		CommandsRegistry.INSTANCE.setSizeMax(30);
 	}
 
@@ -74,7 +82,24 @@ public class LaTeXDraw extends JfxUI {
 	 * @param args The parameters.
 	 */
 	public static void main(final String[] args) {
-		launch(args);
+		final LCommandLine cmdLine = new LCommandLine();
+
+		switch(cmdLine.parse(args)) {
+			case STOP:
+				break;
+			case ERROR:
+				System.exit(2);
+				break;
+			case BATCH:
+				// Converts the files without any display.
+				final BatchConverter converter = new BatchConverter(cmdLine.getBatchFormat(), cmdLine.getNbWorkers(), cmdLine.getOutputDir(),
+					new PreferencesService().getBundle());
+				System.exit(converter.convert(cmdLine.getBatchFiles(), System.out) == 0 ? 0 : 1);
+				break;
+			default:
+				launch(args);
+				break;
+		}
 	}
 
 	private Stage mainStage;
@@ -145,6 +170,10 @@ public class LaTeXDraw extends JfxUI {
 
 				final PreferencesService prefs = injector.getInstance(PreferencesService.class);
 				prefs.readPreferences();
+				// The undo history is bounded by the memory budget of the preferences.
+				UndoMemoryBudget.INSTANCE.setBudget(prefs.getUndoMemory() * 1024L * 1024L);
+				prefs.undoMemoryProperty().addListener((observable, oldValue, memory) ->
+					UndoMemoryBudget.INSTANCE.setBudget(memory.longValue() * 1024L * 1024L));
 
 				final Parent root = FXMLLoader.load(getClass().getResource("/fxml/UI.fxml"), prefs.getBundle(), //NON-NLS
 					injector.getInstance(BuilderFactory.class), cl -> injector.getInstance(cl));
@@ -173,6 +202,7 @@ public class LaTeXDraw extends JfxUI {
 						new Thread(new VersionChecker(injector.getInstance(StatusBarController.class), prefs.getBundle())).start();
 					}
 					setModified(false);
+					startJournal(prefs.getBundle());
 				});
 				return null;
 			}
@@ -183,6 +213,33 @@ public class LaTeXDraw extends JfxUI {
 		new Thread(task).start();
 	}
 
+	/**
+	 * Starts the journal of the modifications. If the previous session did not end properly,
+	 * the user is asked whether its unsaved modifications must be recovered.
+	 */
+	private void startJournal(final ResourceBundle lang) {
+		final CommandJournal journal = injector.getInstance(CommandJournal.class);
+		final StatusBarController statusBar = injector.getInstance(StatusBarController.class);
+
+		if(journal.canRecover()) {
+			final Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+			alert.setTitle(LABEL_APP);
+			alert.setHeaderText(lang.getString("recover.drawing")); //NON-NLS
+			alert.getButtonTypes().setAll(ButtonType.NO, ButtonType.YES);
+
+			if(alert.showAndWait().orElse(ButtonType.NO) == ButtonType.YES) {
+				journal.recover(statusBar.getProgressBar(), statusBar.getLabel());
+			}else {
+				journal.start();
+			}
+		}else {
+			journal.start();
+		}
+
+		// The journal is removed when the app is closed normally.
+		mainStage.addEventHandler(WindowEvent.WINDOW_HIDDEN, evt -> journal.close());
+	}
+
 	@Override
 	public Set<JfxInstrument> getInstruments() {
 		return injector.getInstances().stream().filter(ins -> ins instanceof JfxInstrument).map(obj -> (JfxInstrument) obj).collect(Collectors.toSet());
@@ -61,6 +61,7 @@ import net.sf.latexdraw.instrument.TextSetter;
 import net.sf.latexdraw.instrument.UndoRedoManager;
 import net.sf.latexdraw.instrument.Zoomer;
 import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.service.CommandJournal;
 import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.service.LaTeXDataService;
 import net.sf.latexdraw.service.PreferencesService;
@@ -115,6 +116,7 @@ public class LatexdrawInjector extends Injector {
 		bindWithCommand(Drawing.class, Canvas.class, canvas -> canvas.getDrawing());
 		bindWithCommand(ViewsSynchroniserHandler.class, Canvas.class, canvas -> canvas);
 		bindAsEagerSingleton(SVGDocumentGenerator.class);
+		bindAsEagerSingleton(CommandJournal.class);
 		bindAsEagerSingleton(Zoomer.class);
 		bindAsEagerSingleton(UndoRedoManager.class);
 		bindAsEagerSingleton(PSTCodeGenerator.class);
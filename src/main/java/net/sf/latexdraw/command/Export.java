@@ -10,40 +10,77 @@
  */
 package net.sf.latexdraw.command;
 
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.geometry.Bounds;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.scene.Group;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
-import javafx.scene.transform.Scale;
+import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.stage.FileChooser;
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.view.jfx.Canvas;
+import net.sf.latexdraw.view.jfx.TiledSnapshot;
+import net.sf.latexdraw.view.jfx.ViewPicture;
+import net.sf.latexdraw.view.jfx.ViewShape;
+import net.sf.latexdraw.view.jfx.ViewText;
 import net.sf.latexdraw.view.pst.PSTCodeGenerator;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.malai.command.CommandImpl;
 
 /**
  * This command allows to export a drawing in different formats.
+ * The export runs in background. Several exports can run at once. The export job reports its stages and can be cancelled.
+ * The LaTeX-based exports work on a copy of the drawing taken when the command is executed, so that the drawing can be modified
+ * during the export. Pictures are rendered by tiles from views of a copy of the drawing, encoded as they are rendered, so that
+ * large drawings can be exported at high resolutions without being fully in memory while the drawing can be modified.
  * @author Arnaud Blouin
  */
 public class Export extends CommandImpl {
+	/** The exports run in background, a few at once since LaTeX compilations are heavy. The next ones are queued. */
+	private static final ExecutorService EXPORTS = Executors.newFixedThreadPool(3, runnable -> {
+		final Thread thread = new Thread(runnable, "latexdraw-export"); //NON-NLS
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	/** The format with which the drawing must be exported. */
 	private final @NotNull ExportFormat format;
 
 	/** The canvas that contains views. */
 	private final @NotNull Canvas canvas;
 
-	/** Defines if the shapes have been successfully exported. */
+	/** Defines if the export has been started. */
 	private boolean exported;
 
 	/** The dialogue chooser used to select the targeted file. */
@@ -52,15 +89,26 @@ public class Export extends CommandImpl {
 	/** The PST generator to use. */
 	private final @NotNull PSTCodeGenerator pstGen;
 
+	private final @NotNull ResourceBundle lang;
+
+	/** The resolution of the exported pictures, in dots per inch. */
+	private final int dpi;
+
+	/** The export job. Its value is true if the file has been created. */
+	private @Nullable Task<Boolean> job;
+
 	/**
 	 * Creates the command.
 	 */
-	public Export(final @NotNull Canvas canvas, final @NotNull PSTCodeGenerator pstGen, final @NotNull ExportFormat format, final @NotNull FileChooser dialogueBox) {
+	public Export(final @NotNull Canvas canvas, final @NotNull PSTCodeGenerator pstGen, final @NotNull ExportFormat format, final @NotNull FileChooser dialogueBox,
+				final @NotNull ResourceBundle lang, final int dpi) {
 		super();
+		this.dpi = dpi;
 		this.canvas = canvas;
 		this.pstGen = pstGen;
 		this.format = format;
 		this.dialogueBox = dialogueBox;
+		this.lang = lang;
 		exported = false;
 	}
 
@@ -80,76 +128,241 @@ public class Export extends CommandImpl {
 		}
 
 		if(exported) {
-			exported = export(file);
+			job = createJob(file);
+			EXPORTS.execute(job);
 		}
 	}
 
-	private boolean export(final @NotNull File file) {
+	/**
+	 * Creates the export job, in the JFX thread.
+	 */
+	private @NotNull Task<Boolean> createJob(final @NotNull File file) {
 		switch(format) {
 			case BMP:
-				return exportAsPicture(file, "bmp", false); //NON-NLS
-			case EPS_LATEX:
-				return exportAsEPS(file);
+				return createPictureJob(file, "bmp", false); //NON-NLS
 			case JPG:
-				return exportAsPicture(file, "jpg", false); //NON-NLS
-			case PDF:
-				return exportAsPDF(file);
-			case PDF_CROP:
-				return exportAsPDF(file);
+				return createPictureJob(file, "jpg", false); //NON-NLS
 			case PNG:
-				return exportAsPicture(file, "png", true); //NON-NLS
-			case TEX:
-				return exportAsPST(file);
+				return createPictureJob(file, "png", true); //NON-NLS
+			default:
+				return createLaTeXJob(file, pstGen.createSnapshot());
 		}
-		return false;
 	}
 
+	private @NotNull Task<Boolean> createLaTeXJob(final @NotNull File file, final @NotNull PSTCodeGenerator snapshot) {
+		return new Task<>() {
+			@Override
+			protected Boolean call() {
+				snapshot.setStageListener(stage -> {
+					updateProgress(stage.getProgress(), 1d);
+					updateMessage(stage.getMessage(lang));
+				});
+
+				switch(format) {
+					case EPS_LATEX:
+						return exportAsEPS(file, snapshot);
+					case PDF:
+					case PDF_CROP:
+						return exportAsPDF(file, snapshot);
+					default:
+						updateMessage(ExportStage.GENERATE.getMessage(lang));
+						return exportAsPST(file, snapshot);
+				}
+			}
+		};
+	}
+
+	private @NotNull Task<Boolean> createPictureJob(final @NotNull File file, final @NotNull String pictureFormat, final boolean alpha) {
+		// The drawing coordinates are in pixels at Shape.PPC pixels per centimetre.
+		final double scale = dpi / (Shape.PPC * 2.54);
+		final Group views = canvas.createDetachedViews();
+		final List<Future<?>> renderings = new ArrayList<>();
+		getPendingRenderings(views, scale, renderings);
+
+		return new Task<>() {
+			@Override
+			protected Boolean call() {
+				updateProgress(ExportStage.WRITE.getProgress(), 1d);
+				updateMessage(ExportStage.WRITE.getMessage(lang));
+				final double start = ExportStage.WRITE.getProgress();
+
+				try {
+					// The texts of the copied views are compiled again and their pictures are loaded at the export resolution.
+					// A text that cannot be compiled is rendered as a raw text.
+					for(final Future<?> rendering : renderings) {
+						try {
+							rendering.get();
+						}catch(final ExecutionException ex) {
+							BadaboomCollector.INSTANCE.add(ex.getCause());
+						}
+					}
+					// Created in the JFX thread once the compiled texts set (their setting is queued in the JFX thread).
+					final FutureTask<TiledSnapshot> picture = new FutureTask<>(() -> new TiledSnapshot(views, scale, alpha, TiledSnapshot.TILE_SIZE));
+					Platform.runLater(picture);
+					return exportAsPicture(file, pictureFormat, picture.get(), dpi, progress -> updateProgress(start + (1d - start) * progress, 1d), this::isCancelled);
+				}catch(final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return false;
+				}catch(final ExecutionException ex) {
+					BadaboomCollector.INSTANCE.add(ex.getCause());
+					return false;
+				}finally {
+					Platform.runLater(() -> views.getChildren().forEach(view -> ((ViewShape<?>) view).flush()));
+				}
+			}
+		};
+	}
+
+	/**
+	 * Gathers the current LaTeX compilations of the texts of the given views and
+	 * loads the pictures of the given views at the given scale (the screen previews being too small for the export).
+	 */
+	private static void getPendingRenderings(final @NotNull Parent views, final double scale, final @NotNull List<Future<?>> renderings) {
+		for(final Node node : views.getChildrenUnmodifiable()) {
+			if(node instanceof ViewText) {
+				final Future<?> compilation = ((ViewText) node).getCurrentCompilation();
+				if(compilation != null) {
+					renderings.add(compilation);
+				}
+			}else if(node instanceof ViewPicture) {
+				renderings.add(((ViewPicture) node).setRenderScale(scale));
+			}else if(node instanceof Parent) {
+				getPendingRenderings((Parent) node, scale, renderings);
+			}
+		}
+	}
 
 	@Override
 	public boolean hadEffect() {
 		return exported && super.hadEffect();
 	}
 
+	/**
+	 * @return The export job, if the export has been started.
+	 */
+	public @NotNull Optional<Task<Boolean>> getJob() {
+		return Optional.ofNullable(job);
+	}
 
 	/**
-	 * Exports the drawing as a PNG picture.
+	 * Exports the drawing as a picture. The picture is encoded as its tiles are rendered.
 	 * @param file The targeted location.
+	 * @param progress Notified of the progress of the encoding, between 0 and 1.
+	 * @param cancelled Polled during the encoding: the encoding stops when it returns true.
 	 * @return true if the picture was well created.
 	 */
-	private boolean exportAsPicture(final @NotNull File file, final @NotNull String format, final boolean alpha) {
-		BufferedImage rendImage = createRenderedImage();
-		boolean success = false;
+	static boolean exportAsPicture(final @NotNull File file, final @NotNull String format, final @NotNull RenderedImage picture, final int dpi,
+									final @NotNull DoubleConsumer progress, final @NotNull BooleanSupplier cancelled) {
+		final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
 
-		if(!alpha) {
-			final BufferedImage copy = new BufferedImage(rendImage.getWidth(), rendImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-			final Graphics2D g2d = copy.createGraphics();
-			g2d.drawImage(rendImage, 0, 0, null);
-			g2d.dispose();
-			rendImage.flush();
-			rendImage = copy;
+		if(!writers.hasNext()) {
+			BadaboomCollector.INSTANCE.add(new IllegalArgumentException("No writer for the format " + format)); //NON-NLS
+			return false;
 		}
 
+		final ImageWriter writer = writers.next();
+		boolean success = false;
+
 		try {
-			ImageIO.write(rendImage, format, file);
-			success = true;
-		}catch(final IOException ex) {
+			// The output stream does not truncate existing files.
+			Files.deleteIfExists(file.toPath());
+
+			try(final ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+				final ImageWriteParam param = writer.getDefaultWriteParam();
+				final IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(picture), param);
+
+				setResolution(metadata, dpi);
+				writer.setOutput(out);
+				writer.addIIOWriteProgressListener(new IIOWriteProgressListener() {
+					@Override
+					public void imageStarted(final ImageWriter source, final int imageIndex) {
+					}
+
+					@Override
+					public void imageProgress(final ImageWriter source, final float percentageDone) {
+						progress.accept(percentageDone / 100d);
+						if(cancelled.getAsBoolean()) {
+							source.abort();
+						}
+					}
+
+					@Override
+					public void imageComplete(final ImageWriter source) {
+					}
+
+					@Override
+					public void thumbnailStarted(final ImageWriter source, final int imageIndex, final int thumbnailIndex) {
+					}
+
+					@Override
+					public void thumbnailProgress(final ImageWriter source, final float percentageDone) {
+					}
+
+					@Override
+					public void thumbnailComplete(final ImageWriter source) {
+					}
+
+					@Override
+					public void writeAborted(final ImageWriter source) {
+					}
+				});
+				writer.write(null, new IIOImage(picture, null, metadata), param);
+				success = !cancelled.getAsBoolean();
+			}
+
+			if(!success) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}catch(final CancellationException ex) {
+			file.delete();
+		}catch(final IOException | IllegalStateException ex) {
 			BadaboomCollector.INSTANCE.add(ex);
+		}finally {
+			writer.dispose();
 		}
-		rendImage.flush();
+
 		return success;
 	}
 
+	/**
+	 * Sets the resolution of the picture in its metadata, if supported by the format.
+	 */
+	private static void setResolution(final IIOMetadata metadata, final int dpi) {
+		if(metadata == null || metadata.isReadOnly() || !metadata.isStandardMetadataFormatSupported()) {
+			return;
+		}
+
+		// The standard format defines the size of a pixel in millimetres.
+		final String pixelSize = String.valueOf(25.4 / dpi);
+		final IIOMetadataNode horizontal = new IIOMetadataNode("HorizontalPixelSize"); //NON-NLS
+		final IIOMetadataNode vertical = new IIOMetadataNode("VerticalPixelSize"); //NON-NLS
+		final IIOMetadataNode dimension = new IIOMetadataNode("Dimension"); //NON-NLS
+		final IIOMetadataNode root = new IIOMetadataNode(IIOMetadataFormatImpl.standardMetadataFormatName);
+
+		horizontal.setAttribute("value", pixelSize); //NON-NLS
+		vertical.setAttribute("value", pixelSize); //NON-NLS
+		dimension.appendChild(horizontal);
+		dimension.appendChild(vertical);
+		root.appendChild(dimension);
+
+		try {
+			metadata.mergeTree(IIOMetadataFormatImpl.standardMetadataFormatName, root);
+		}catch(final IIOInvalidTreeException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+	}
+
 
 	/**
 	 * Creates a ps document of the given views (compiled using latex).
 	 * @param file The targeted location.
 	 * @return True: the file has been created.
 	 */
-	private boolean exportAsEPS(final @NotNull File file) {
+	private static boolean exportAsEPS(final @NotNull File file, final @NotNull PSTCodeGenerator gen) {
 		File psFile;
 
 		try {
-			psFile = pstGen.createEPSFile(file.getAbsolutePath()).orElse(null);
+			psFile = gen.createEPSFile(file.getAbsolutePath()).orElse(null);
 		}catch(final @NotNull SecurityException ex) {
 			BadaboomCollector.INSTANCE.add(ex);
 			psFile = null;
@@ -164,11 +377,11 @@ public class Export extends CommandImpl {
 	 * @param file The targeted location.
 	 * @return True: the file has been created.
 	 */
-	private boolean exportAsPDF(final @NotNull File file) {
+	private boolean exportAsPDF(final @NotNull File file, final @NotNull PSTCodeGenerator gen) {
 		File pdfFile;
 
 		try {
-			pdfFile = pstGen.createPDFFile(file.getAbsolutePath(), format == ExportFormat.PDF_CROP).orElse(null);
+			pdfFile = gen.createPDFFile(file.getAbsolutePath(), format == ExportFormat.PDF_CROP).orElse(null);
 		}catch(final @NotNull SecurityException ex) {
 			BadaboomCollector.INSTANCE.add(ex);
 			pdfFile = null;
@@ -183,14 +396,15 @@ public class Export extends CommandImpl {
 	 * @param file The targeted location.
 	 * @return true if the PST document was been successfully created.
 	 */
-	private boolean exportAsPST(final @NotNull File file) {
+	private static boolean exportAsPST(final @NotNull File file, final @NotNull PSTCodeGenerator gen) {
 		boolean ok;
 
 		try {
 			try(final FileWriter fw = new FileWriter(file);
-				final BufferedWriter bw = new BufferedWriter(fw);
-				final PrintWriter out = new PrintWriter(bw)) {
-				out.println(pstGen.getDrawingCode());
+				final BufferedWriter bw = new BufferedWriter(fw)) {
+				// The code is streamed into the file rather than built in memory.
+				gen.writeDrawingCode(bw);
+				bw.newLine();
 				ok = true;
 			}
 		}catch(final @NotNull IOException ex) {
@@ -199,22 +413,4 @@ public class Export extends CommandImpl {
 		}
 		return ok;
 	}
-
-
-	/**
-	 * @return A writable image that contains given views (not null).
-	 */
-	private @NotNull BufferedImage createRenderedImage() {
-		final Group views = canvas.getViews();
-		final Bounds bounds = views.getBoundsInParent();
-		final double scale = 3d;
-		final WritableImage img = new WritableImage((int) (bounds.getWidth() * scale), (int) (bounds.getHeight() * scale));
-		final SnapshotParameters snapshotParameters = new SnapshotParameters();
-
-		snapshotParameters.setFill(Color.WHITE);
-		snapshotParameters.setTransform(new Scale(scale, scale));
-		views.snapshot(snapshotParameters, img);
-
-		return SwingFXUtils.fromFXImage(img, null);
-	}
 }
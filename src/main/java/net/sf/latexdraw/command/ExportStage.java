@@ -0,0 +1,45 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.command;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The successive stages of the export of a drawing. Depending on the format, some stages are skipped.
+ * @author Arnaud Blouin
+ */
+public enum ExportStage {
+	/** The generation of the code or the snapshot of the drawing. */
+	GENERATE,
+	/** The compilation of the LaTeX document. */
+	COMPILE,
+	/** The conversion of the compiled document or of the snapshot (e.g. dvips, ps2pdf, pdfcrop). */
+	CONVERT,
+	/** The writing of the exported file. */
+	WRITE;
+
+	/**
+	 * @return The progress of the export when this stage starts, between 0 and 1.
+	 */
+	public double getProgress() {
+		return ordinal() / (double) values().length;
+	}
+
+	/**
+	 * @param lang The resource bundle to use.
+	 * @return The message that describes the stage.
+	 */
+	public @NotNull String getMessage(final @NotNull ResourceBundle lang) {
+		return lang.getString("export." + name().toLowerCase(Locale.ENGLISH)); //NON-NLS
+	}
+}
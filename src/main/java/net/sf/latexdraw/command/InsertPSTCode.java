@@ -11,21 +11,23 @@
 package net.sf.latexdraw.command;
 
 
+import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collectors;
+import javafx.concurrent.Task;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Shape;
-import net.sf.latexdraw.parser.pst.PSTContext;
-import net.sf.latexdraw.parser.pst.PSTLatexdrawListener;
-import net.sf.latexdraw.parser.pst.PSTLexer;
-import net.sf.latexdraw.parser.pst.PSTParser;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+import net.sf.latexdraw.parser.pst.PSTDocumentParser;
+import net.sf.latexdraw.parser.pst.PSTIncrementalParser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -33,66 +35,159 @@ import org.malai.undo.Undoable;
 
 /**
  * This command converts PST code into shapes and add them to the drawing.
+ * Large documents are converted in background: the shapes are added once converted. Undoing the command cancels the conversion,
+ * redoing it restarts the conversion.
  * @author Arnaud Blouin
  */
-public class InsertPSTCode extends DrawingCmdImpl implements Undoable, Modifying {
+public class InsertPSTCode extends DrawingCmdImpl implements Undoable, Modifying, UndoFootprint {
 	/** The code to parse. */
 	private final @NotNull String code;
 	/** The status bar. */
 	private final @Nullable Label statusBar;
+	/** The progress bar that shows the conversion of large documents. */
+	private final @Nullable ProgressBar progressBar;
 	/** The added shapes. */
 	private @NotNull Optional<Shape> shapes;
+	/** The estimated memory retained by the added shapes. Computed once the shapes converted. */
+	private long shapesFootprint;
+	/** The conversion in progress of a large document. */
+	private @Nullable Task<List<Shape>> conversion;
+	/** True when the background conversion has been cancelled by an undo: a redo must restart it. */
+	private boolean conversionCancelled;
+	/** The parser that may have already converted parts of the code. */
+	private final @Nullable PSTIncrementalParser incrementalParser;
 	private final @NotNull ResourceBundle lang;
 
 
-	public InsertPSTCode(final @NotNull String codeToInsert, final @Nullable Label status, final @NotNull Drawing drawingToFill, final @NotNull ResourceBundle lang) {
+	public InsertPSTCode(final @NotNull String codeToInsert, final @Nullable Label status, final @Nullable ProgressBar progressBar,
+						final @NotNull Drawing drawingToFill, final @NotNull ResourceBundle lang) {
+		this(codeToInsert, null, status, progressBar, drawingToFill, lang);
+	}
+
+	/**
+	 * @param incrementalParser The parser that parsed the previous versions of the code (e.g. while edited): only the modified
+	 * commands of the code are converted.
+	 */
+	public InsertPSTCode(final @NotNull String codeToInsert, final @Nullable PSTIncrementalParser incrementalParser, final @Nullable Label status,
+						final @Nullable ProgressBar progressBar, final @NotNull Drawing drawingToFill, final @NotNull ResourceBundle lang) {
 		super(drawingToFill);
 		code = codeToInsert;
+		this.incrementalParser = incrementalParser;
 		statusBar = status;
+		this.progressBar = progressBar;
 		shapes = Optional.empty();
+		shapesFootprint = 0L;
+		conversionCancelled = false;
 		this.lang = lang;
 	}
 
 	@Override
 	protected void doCmdBody() {
-		try {
-			final PSTLatexdrawListener listener = new PSTLatexdrawListener();
-			final PSTLexer lexer = new PSTLexer(CharStreams.fromString(code));
-			final PSTParser parser = new PSTParser(new CommonTokenStream(lexer));
-			parser.addParseListener(listener);
-			parser.pstCode(new PSTContext());
-
-			final Group group = ShapeFactory.INST.createGroup();
-			group.getShapes().addAll(listener.flatShapes());
-
-			if(!group.isEmpty()) {
-				final Shape sh = group.size() > 1 ? group : group.getShapeAt(0).orElseThrow();
-				final Point tl = sh.getTopLeftPoint();
-				final double tx = tl.getX() < 0d ? -tl.getX() + 50d : 0d;
-				final double ty = tl.getY() < 0d ? -tl.getY() + 50d : 0d;
-
-				shapes = Optional.of(sh);
-				sh.translate(tx, ty);
-				redo();
-
-				if(statusBar != null) {
-					statusBar.setText(lang.getString("LaTeXDrawFrame.36"));
-				}
-			}
-			parser.getInterpreter().clearDFA();
-			lexer.getInterpreter().clearDFA();
-		}catch(final RecognitionException ex) {
-			BadaboomCollector.INSTANCE.add(ex);
-			if(statusBar != null) {
-				statusBar.setText(lang.getString("LaTeXDrawFrame.34"));
+		final PSTDocumentParser parser = new PSTDocumentParser(code);
+
+		if(parser.isChunked()) {
+			convertInBackground(parser);
+		}else {
+			try {
+				insert(convert(parser, progress -> { }, () -> false));
+			}catch(final RecognitionException ex) {
+				onConversionFailed(ex);
 			}
 		}
 
 		done();
 	}
 
+	private void convertInBackground(final @NotNull PSTDocumentParser parser) {
+		final Task<List<Shape>> task = new Task<>() {
+			@Override
+			protected List<Shape> call() {
+				return convert(parser, progress -> updateProgress(progress, 1d), this::isCancelled);
+			}
+		};
+
+		conversion = task;
+		if(progressBar != null) {
+			progressBar.progressProperty().bind(task.progressProperty());
+			progressBar.setVisible(true);
+		}
+		// The conversion may have succeeded before being cancelled by an undo: the shapes are only inserted if still expected.
+		task.setOnSucceeded(evt -> {
+			onConversionEnded();
+			if(conversion == task) {
+				conversion = null;
+				insert(task.getValue());
+			}
+		});
+		task.setOnFailed(evt -> {
+			onConversionEnded();
+			if(conversion == task) {
+				conversion = null;
+				onConversionFailed(task.getException());
+			}
+		});
+		task.setOnCancelled(evt -> onConversionEnded());
+
+		final Thread thread = new Thread(task, "latexdraw-pst-import"); //NON-NLS
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private @NotNull List<Shape> convert(final @NotNull PSTDocumentParser parser, final @NotNull DoubleConsumer progress,
+										final @NotNull BooleanSupplier cancelled) {
+		if(incrementalParser == null) {
+			return parser.parse(progress, cancelled);
+		}
+		// The shapes of the incremental parser are reused by its next parsings: copies are inserted.
+		return incrementalParser.parse(code, progress, cancelled).stream().map(sh -> sh.duplicate()).collect(Collectors.toList());
+	}
+
+	private void onConversionEnded() {
+		if(progressBar != null) {
+			progressBar.progressProperty().unbind();
+			progressBar.setVisible(false);
+		}
+	}
+
+	private void onConversionFailed(final Throwable ex) {
+		BadaboomCollector.INSTANCE.add(ex);
+		if(statusBar != null) {
+			statusBar.setText(lang.getString("LaTeXDrawFrame.34"));
+		}
+	}
+
+	/**
+	 * Adds the converted shapes to the drawing, translated to be visible.
+	 */
+	private void insert(final @NotNull List<Shape> converted) {
+		final Group group = ShapeFactory.INST.createGroup();
+		group.getShapes().addAll(converted);
+
+		if(!group.isEmpty()) {
+			final Shape sh = group.size() > 1 ? group : group.getShapeAt(0).orElseThrow();
+			final Point tl = sh.getTopLeftPoint();
+			final double tx = tl.getX() < 0d ? -tl.getX() + 50d : 0d;
+			final double ty = tl.getY() < 0d ? -tl.getY() + 50d : 0d;
+
+			shapes = Optional.of(sh);
+			shapesFootprint = UndoFootprint.estimate(sh);
+			sh.translate(tx, ty);
+			redo();
+
+			if(statusBar != null) {
+				statusBar.setText(lang.getString("LaTeXDrawFrame.36"));
+			}
+		}
+	}
+
 	@Override
 	public void undo() {
+		if(conversion != null) {
+			conversion.cancel();
+			conversion = null;
+			conversionCancelled = true;
+			return;
+		}
 		shapes.ifPresent(sh -> {
 			drawing.removeShape(sh);
 			drawing.setModified(true);
@@ -101,6 +196,11 @@ public class InsertPSTCode extends DrawingCmdImpl implements Undoable, Modifying
 
 	@Override
 	public void redo() {
+		if(conversionCancelled) {
+			conversionCancelled = false;
+			convertInBackground(new PSTDocumentParser(code));
+			return;
+		}
 		shapes.ifPresent(sh -> {
 			drawing.addShape(sh);
 			drawing.setModified(true);
@@ -112,8 +212,14 @@ public class InsertPSTCode extends DrawingCmdImpl implements Undoable, Modifying
 		return bundle.getString("Actions.4");
 	}
 
+	@Override
+	public long getUndoFootprint() {
+		// The code and the converted shapes (only referenced by the command once undone).
+		return 2L * code.length() + shapesFootprint;
+	}
+
 	@Override
 	public boolean hadEffect() {
-		return isDone() && shapes.isPresent();
+		return isDone() && (shapes.isPresent() || conversion != null || conversionCancelled);
 	}
 }
@@ -41,5 +41,6 @@ public class ModifyEditingParameter<T> extends ShapePropertyCmd<T> {
 	@Override
 	protected void applyValue(final T obj) {
 		property.setPropertyValue(editing.getGroupParams(), value);
+		editing.invalidateShapePrototype();
 	}
 }
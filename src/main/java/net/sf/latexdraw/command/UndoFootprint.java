@@ -0,0 +1,71 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.command;
+
+import java.util.Collection;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.model.api.shape.Text;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This interface permits undoable commands to give an estimation of the memory their undo data retain,
+ * so that the undo history can be bounded by a memory budget (see UndoMemoryBudget).
+ * @author Arnaud Blouin
+ */
+public interface UndoFootprint {
+	/** The estimated size of a shape without its points (its properties, their listeners, etc.), in bytes. */
+	long SHAPE_SIZE = 2048L;
+	/** The estimated size of a point of a shape (the point and its two coordinate properties), in bytes. */
+	long POINT_SIZE = 160L;
+	/** The size of a reference, in bytes. */
+	long REF_SIZE = 8L;
+
+	/**
+	 * Estimates the memory retained by the given shape, its sub-shapes included.
+	 * @param shape The shape to measure.
+	 * @return The estimated number of bytes.
+	 */
+	static long estimate(final @NotNull Shape shape) {
+		if(shape instanceof Group) {
+			return SHAPE_SIZE + REF_SIZE * ((Group) shape).size() + estimate(((Group) shape).getShapes());
+		}
+
+		long size = SHAPE_SIZE + POINT_SIZE * shape.getNbPoints();
+
+		if(shape instanceof Text) {
+			size += 2L * ((Text) shape).getText().length();
+		}
+		if(shape instanceof Plot) {
+			final PlotData data = ((Plot) shape).getPlotData();
+			if(data != null) {
+				size += 2L * Double.BYTES * data.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Estimates the memory retained by the given shapes, their sub-shapes included.
+	 * @param shapes The shapes to measure.
+	 * @return The estimated number of bytes.
+	 */
+	static long estimate(final @NotNull Collection<? extends Shape> shapes) {
+		return shapes.stream().mapToLong(sh -> estimate(sh)).sum();
+	}
+
+	/**
+	 * @return The estimated number of bytes retained by the command to be undone and redone.
+	 */
+	long getUndoFootprint();
+}
@@ -13,6 +13,7 @@ package net.sf.latexdraw.command.shape;
 import java.util.ResourceBundle;
 import net.sf.latexdraw.command.Modifying;
 import net.sf.latexdraw.command.ShapeCmdImpl;
+import net.sf.latexdraw.command.UndoFootprint;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Shape;
 import org.jetbrains.annotations.NotNull;
@@ -22,7 +23,7 @@ import org.malai.undo.Undoable;
  * This command adds a shape to a drawing.
  * @author Arnaud Blouin
  */
-public class AddShape extends ShapeCmdImpl<Shape> implements Undoable, Modifying {
+public class AddShape extends ShapeCmdImpl<Shape> implements Undoable, Modifying, UndoFootprint {
 	/** The drawing that will be handled by the command. */
 	protected final @NotNull Drawing drawing;
 
@@ -57,4 +58,10 @@ public class AddShape extends ShapeCmdImpl<Shape> implements Undoable, Modifying
 	public boolean canDo() {
 		return true;
 	}
+
+	@Override
+	public long getUndoFootprint() {
+		// The added shape is only referenced by the command once undone.
+		return UndoFootprint.estimate(shape);
+	}
 }
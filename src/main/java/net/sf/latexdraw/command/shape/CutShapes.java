@@ -17,6 +17,7 @@ import java.util.ResourceBundle;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import net.sf.latexdraw.command.Modifying;
+import net.sf.latexdraw.command.UndoFootprint;
 import net.sf.latexdraw.model.api.shape.Shape;
 import org.jetbrains.annotations.NotNull;
 import org.malai.undo.Undoable;
@@ -25,13 +26,16 @@ import org.malai.undo.Undoable;
  * This command cuts the selected shapes.
  * @author Arnaud Blouin
  */
-public class CutShapes extends CopyShapes implements Undoable, Modifying {
+public class CutShapes extends CopyShapes implements Undoable, Modifying, UndoFootprint {
 	/** The index of the cut shapes. */
 	private List<Integer> positionShapes;
+	/** The estimated memory retained by the cut shapes. Computed once the shapes cut. */
+	private long footprint;
 
 
 	public CutShapes(final @NotNull Optional<SelectShapes> selection) {
 		super(selection);
+		footprint = -1L;
 	}
 
 	@Override
@@ -71,6 +75,15 @@ public class CutShapes extends CopyShapes implements Undoable, Modifying {
 		});
 	}
 
+	@Override
+	public long getUndoFootprint() {
+		// The cut shapes are only referenced by the command.
+		if(footprint < 0L) {
+			footprint = copiedShapes == null ? 0L : UndoFootprint.estimate(copiedShapes) + 2L * UndoFootprint.REF_SIZE * copiedShapes.size();
+		}
+		return footprint;
+	}
+
 	@Override
 	public @NotNull String getUndoName(final @NotNull ResourceBundle bundle) {
 		return bundle.getString("LaTeXDrawFrame.44");
@@ -17,6 +17,7 @@ import java.util.stream.Collectors;
 import net.sf.latexdraw.command.DrawingCmdImpl;
 import net.sf.latexdraw.command.Modifying;
 import net.sf.latexdraw.command.ShapesCmd;
+import net.sf.latexdraw.command.UndoFootprint;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Shape;
 import org.jetbrains.annotations.NotNull;
@@ -26,17 +27,21 @@ import org.malai.undo.Undoable;
  * This command removes shapes from a drawing.
  * @author Arnaud Blouin
  */
-public class DeleteShapes extends DrawingCmdImpl implements ShapesCmd, Undoable, Modifying {
+public class DeleteShapes extends DrawingCmdImpl implements ShapesCmd, Undoable, Modifying, UndoFootprint {
 	/** The index of the deleted shapes into the original list. */
 	private List<Integer> positionShapes;
 
 	/** The shapes to handle. */
 	private final @NotNull List<Shape> shapes;
 
+	/** The estimated memory retained by the deleted shapes. Computed once the shapes deleted. */
+	private long footprint;
+
 
 	public DeleteShapes(final @NotNull Drawing drawing) {
 		super(drawing);
 		shapes = new ArrayList<>();
+		footprint = -1L;
 	}
 
 	@Override
@@ -73,6 +78,15 @@ public class DeleteShapes extends DrawingCmdImpl implements ShapesCmd, Undoable,
 		return bundle.getString("Actions.5");
 	}
 
+	@Override
+	public long getUndoFootprint() {
+		// The deleted shapes are only referenced by the command.
+		if(footprint < 0L) {
+			footprint = UndoFootprint.estimate(shapes) + 2L * UndoFootprint.REF_SIZE * shapes.size();
+		}
+		return footprint;
+	}
+
 	@Override
 	public @NotNull List<Shape> getShapes() {
 		return shapes;
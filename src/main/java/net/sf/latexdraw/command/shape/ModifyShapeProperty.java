@@ -10,11 +10,11 @@
  */
 package net.sf.latexdraw.command.shape;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import net.sf.latexdraw.command.Modifying;
+import net.sf.latexdraw.command.UndoFootprint;
 import net.sf.latexdraw.model.api.shape.Group;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -22,25 +22,31 @@ import org.malai.undo.Undoable;
 
 /**
  * This command modifies a shape property of the given shape.
+ * The old values are stored run-length encoded: the shapes of large selections usually share a few values.
+ * A command can be merged into a previous one that modifies the same property of the same shapes (e.g. when a spinner is
+ * scrolled): it then updates the value of the previous command and is not registered, so that only one undoable command remains.
  * @author Arnaud Blouin
  */
-public class ModifyShapeProperty<T> extends ShapePropertyCmd<T> implements Undoable, Modifying {
+public class ModifyShapeProperty<T> extends ShapePropertyCmd<T> implements Undoable, Modifying, UndoFootprint {
 	/** The shape to modify. */
 	private final @NotNull Group shapes;
 
-	/** The old value of the property. */
-	private @NotNull List<Optional<T>> oldValue;
+	/** The old values of the property. */
+	private @NotNull RunLengthValues<T> oldValue;
+
+	/** The command this command is merged into, if any. */
+	private @Nullable ModifyShapeProperty<T> mergedInto;
 
 	public ModifyShapeProperty(final @NotNull ShapeProperties<T> property, final @NotNull Group shapes, final @Nullable T value) {
 		super(property, value);
 		this.shapes = shapes;
-		oldValue = Collections.emptyList();
+		oldValue = RunLengthValues.empty();
 	}
 
 
 	@Override
 	public void undo() {
-		property.setPropertyValueList(shapes, oldValue);
+		property.setPropertyValueList(shapes, oldValue.toList());
 		shapes.setModified(true);
 	}
 
@@ -66,14 +72,68 @@ public class ModifyShapeProperty<T> extends ShapePropertyCmd<T> implements Undoa
 
 	@Override
 	protected void doCmdBody() {
-		oldValue = property.getPropertyValues(shapes);
-		applyValue(value);
+		if(mergedInto == null) {
+			oldValue = RunLengthValues.of(property.getPropertyValues(shapes));
+			applyValue(value);
+		}else {
+			// The old values of the previous command remain: undoing it restores the values before both commands.
+			mergedInto.setValue(value);
+			mergedInto.applyValue(value);
+		}
+	}
+
+	@Override
+	public @NotNull RegistrationPolicy getRegistrationPolicy() {
+		return mergedInto == null ? super.getRegistrationPolicy() : RegistrationPolicy.NONE;
+	}
+
+	/**
+	 * Merges this command into the given one if both modify the same property of the same shapes.
+	 * Must be called before the execution of this command.
+	 * @param previous The previous command. It must be the latest undoable command.
+	 * @return True if the commands are merged.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean mergeInto(final @NotNull ModifyShapeProperty<?> previous) {
+		if(previous == this || previous.mergedInto != null || previous.property != property || !previous.isDone() ||
+			previous.shapes.size() != shapes.size()) {
+			return false;
+		}
+
+		for(int i = 0, size = shapes.size(); i < size; i++) {
+			if(previous.shapes.getShapeAt(i).orElse(null) != shapes.getShapeAt(i).orElse(null)) {
+				return false;
+			}
+		}
+
+		mergedInto = (ModifyShapeProperty<T>) previous;
+		return true;
 	}
 
 	public @NotNull Group getShapes() {
 		return shapes;
 	}
 
+	/**
+	 * @return The value the command sets.
+	 */
+	public @Nullable T getNewValue() {
+		return value;
+	}
+
+	/**
+	 * @return The values of the property before the command (and the commands merged into it), one per shape.
+	 */
+	public @NotNull List<Optional<T>> getOldValues() {
+		return (mergedInto == null ? oldValue : mergedInto.oldValue).toList();
+	}
+
+	@Override
+	public long getUndoFootprint() {
+		// The group of the command (a copy of the selection that refers to the shapes of the drawing) and the runs of old values.
+		return UndoFootprint.SHAPE_SIZE + UndoFootprint.REF_SIZE * shapes.size() + 32L * oldValue.getNbRuns();
+	}
+
 	@Override
 	protected boolean isPropertySupported() {
 		return super.isPropertySupported() && property.accept(shapes);
@@ -85,4 +85,8 @@ public class MoveCtrlPoint extends MovePoint implements Undoable {
 	public @NotNull String getUndoName(final @NotNull ResourceBundle bundle) {
 		return bundle.getString("Actions.9"); //NON-NLS
 	}
+
+	public @NotNull ControlPointShape getShape() {
+		return shape;
+	}
 }
@@ -61,4 +61,11 @@ public abstract class MovePoint extends CommandImpl implements Modifying {
 	public void setNewCoord(final Point coord) {
 		newCoord = coord;
 	}
+
+	/**
+	 * @return The moved point.
+	 */
+	public @NotNull Point getPoint() {
+		return point;
+	}
 }
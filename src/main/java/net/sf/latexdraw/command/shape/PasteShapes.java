@@ -16,6 +16,7 @@ import java.util.Optional;
 import java.util.ResourceBundle;
 import net.sf.latexdraw.command.DrawingCmdImpl;
 import net.sf.latexdraw.command.Modifying;
+import net.sf.latexdraw.command.UndoFootprint;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Shape;
@@ -28,18 +29,21 @@ import org.malai.undo.Undoable;
  * This command pastes the copied or cut shapes.
  * @author Arnaud Blouin
  */
-public class PasteShapes extends DrawingCmdImpl implements Undoable, Modifying {
+public class PasteShapes extends DrawingCmdImpl implements Undoable, Modifying, UndoFootprint {
 	/** The cut or copy command. */
 	private final @NotNull Optional<CopyShapes> copy;
 	/** The magnetic grid to use. */
 	private final @NotNull PreferencesService prefs;
 	private final @NotNull List<Shape> pastedShapes;
+	/** The estimated memory retained by the pasted shapes. Computed once the shapes pasted. */
+	private long footprint;
 
 	public PasteShapes(final @NotNull Optional<CopyShapes> copyCmd, final @NotNull PreferencesService prefs, final @NotNull Drawing drawing) {
 		super(drawing);
 		copy = copyCmd;
 		this.prefs = prefs;
 		pastedShapes = new ArrayList<>();
+		footprint = -1L;
 	}
 
 	@Override
@@ -111,6 +115,15 @@ public class PasteShapes extends DrawingCmdImpl implements Undoable, Modifying {
 		return bundle.getString("LaTeXDrawFrame.43");
 	}
 
+	@Override
+	public long getUndoFootprint() {
+		// The pasted shapes are copies only referenced by the command once undone.
+		if(footprint < 0L) {
+			footprint = UndoFootprint.estimate(pastedShapes) + UndoFootprint.REF_SIZE * pastedShapes.size();
+		}
+		return footprint;
+	}
+
 	@Override
 	public @NotNull List<Command> followingCmds() {
 		final List<Command> list = new ArrayList<>();
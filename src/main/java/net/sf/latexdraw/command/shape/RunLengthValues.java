@@ -0,0 +1,106 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.command.shape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A compact and immutable list of optional values: the consecutive equal values are stored once (run-length encoding).
+ * Used to store the old values of the shapes of large selections, that usually share a few values.
+ * @author Arnaud Blouin
+ */
+final class RunLengthValues<T> {
+	private static final RunLengthValues<?> EMPTY = new RunLengthValues<>(new Object[0], new int[0]);
+
+	/** The value of each run (null for an empty value). */
+	private final @NotNull Object[] values;
+	/** The index (exclusive) where each run ends. */
+	private final @NotNull int[] ends;
+
+	private RunLengthValues(final @NotNull Object[] values, final @NotNull int[] ends) {
+		super();
+		this.values = values;
+		this.ends = ends;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> @NotNull RunLengthValues<T> empty() {
+		return (RunLengthValues<T>) EMPTY;
+	}
+
+	/**
+	 * Encodes the given values.
+	 * @param list The values to encode.
+	 * @return The encoded values.
+	 */
+	static <T> @NotNull RunLengthValues<T> of(final @NotNull List<Optional<T>> list) {
+		final List<Object> runValues = new ArrayList<>();
+		int[] runEnds = new int[8];
+		int nbRuns = 0;
+
+		for(int i = 0, size = list.size(); i < size; i++) {
+			final Object value = list.get(i).orElse(null);
+			if(nbRuns == 0 || !Objects.equals(runValues.get(nbRuns - 1), value)) {
+				if(nbRuns == runEnds.length) {
+					runEnds = Arrays.copyOf(runEnds, nbRuns * 2);
+				}
+				runValues.add(value);
+				nbRuns++;
+			}
+			runEnds[nbRuns - 1] = i + 1;
+		}
+
+		return new RunLengthValues<>(runValues.toArray(), Arrays.copyOf(runEnds, nbRuns));
+	}
+
+	/**
+	 * @return The decoded values.
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull List<Optional<T>> toList() {
+		if(ends.length == 0) {
+			return Collections.emptyList();
+		}
+
+		final List<Optional<T>> list = new ArrayList<>(ends[ends.length - 1]);
+		int start = 0;
+
+		for(int run = 0; run < ends.length; run++) {
+			final Optional<T> value = Optional.ofNullable((T) values[run]);
+			for(int i = start; i < ends[run]; i++) {
+				list.add(value);
+			}
+			start = ends[run];
+		}
+
+		return list;
+	}
+
+	/**
+	 * @return The number of values.
+	 */
+	int size() {
+		return ends.length == 0 ? 0 : ends[ends.length - 1];
+	}
+
+	/**
+	 * @return The number of runs of equal values.
+	 */
+	int getNbRuns() {
+		return ends.length;
+	}
+}
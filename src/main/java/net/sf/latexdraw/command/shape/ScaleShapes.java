@@ -149,6 +149,27 @@ public class ScaleShapes extends ShapeCmdImpl<Group> implements Undoable, Modify
 		return refPosition;
 	}
 
+	/**
+	 * @return The scale factor along the X-axis that the command applies, 1 if the shapes are not scaled along this axis.
+	 */
+	public double getScaleX() {
+		return refPosition.isEast() || refPosition.isWest() ? scaledWidth(newX) / bound.getWidth() : 1d;
+	}
+
+	/**
+	 * @return The scale factor along the Y-axis that the command applies, 1 if the shapes are not scaled along this axis.
+	 */
+	public double getScaleY() {
+		return refPosition.isNorth() || refPosition.isSouth() ? scaledHeight(newY) / bound.getHeight() : 1d;
+	}
+
+	/**
+	 * @return The point that the scaling does not move.
+	 */
+	public @NotNull Point getReferencePoint() {
+		return refPosition.getReferencePoint(bound);
+	}
+
 	public void setNewX(final double x) {
 		if(scaledWidth(x) > 1d) {
 			newX = x;
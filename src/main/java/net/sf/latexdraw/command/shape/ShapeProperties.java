@@ -10,12 +10,17 @@
  */
 package net.sf.latexdraw.command.shape;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import net.sf.latexdraw.model.api.property.ArcProp;
 import net.sf.latexdraw.model.api.property.AxesProp;
 import net.sf.latexdraw.model.api.property.ClosableProp;
@@ -405,4 +410,40 @@ public final class ShapeProperties<T> {
 	public boolean accept(final @NotNull Group g) {
 		return acceptPred.test(g);
 	}
+
+	/**
+	 * @return The name of the property (the name of its constant), stable across sessions (e.g. to journal the property).
+	 */
+	public @NotNull String getName() {
+		return Names.NAMES.entrySet().stream().filter(entry -> entry.getValue() == this).map(entry -> entry.getKey()).findFirst().orElseThrow();
+	}
+
+	/**
+	 * @param name The name of the property to get (see getName).
+	 * @return The property that has the given name or nothing.
+	 */
+	public static @NotNull Optional<ShapeProperties<?>> fromName(final @NotNull String name) {
+		return Optional.ofNullable(Names.NAMES.get(name));
+	}
+
+	/**
+	 * The properties by names. A holder class: the properties are all initialised when it is loaded.
+	 */
+	private static final class Names {
+		static final @NotNull Map<String, ShapeProperties<?>> NAMES = Arrays.stream(ShapeProperties.class.getFields()).
+			filter(field -> Modifier.isStatic(field.getModifiers()) && field.getType() == ShapeProperties.class).
+			collect(Collectors.toUnmodifiableMap(field -> field.getName(), field -> getProperty(field)));
+
+		private Names() {
+			super();
+		}
+
+		private static @NotNull ShapeProperties<?> getProperty(final @NotNull Field field) {
+			try {
+				return (ShapeProperties<?>) field.get(null);
+			}catch(final IllegalAccessException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	}
 }
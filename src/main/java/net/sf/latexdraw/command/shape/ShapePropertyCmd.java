@@ -30,6 +30,13 @@ public abstract class ShapePropertyCmd<T> extends ModifyValue<T> {
 		this.property = property;
 	}
 
+	/**
+	 * @return The property to set.
+	 */
+	public @NotNull ShapeProperties<T> getProperty() {
+		return property;
+	}
+
 	@Override
 	protected boolean isValueMatchesProperty() {
 		return isPropertySupported();
@@ -87,6 +87,34 @@ public class TranslateShapes extends ShapeCmdImpl<Group> implements Undoable, Mo
 		return bundle.getString("Actions.32");
 	}
 
+	/**
+	 * @return The x vector translation that has been performed so far.
+	 */
+	public double getPerformedTx() {
+		return performedTx;
+	}
+
+	/**
+	 * @return The y vector translation that has been performed so far.
+	 */
+	public double getPerformedTy() {
+		return performedTy;
+	}
+
+	/**
+	 * @return The x vector translation to perform.
+	 */
+	public double getTx() {
+		return tx;
+	}
+
+	/**
+	 * @return The y vector translation to perform.
+	 */
+	public double getTy() {
+		return ty;
+	}
+
 	/**
 	 * @param theTx The x vector translation.
 	 * @param theTy The y vector translation.
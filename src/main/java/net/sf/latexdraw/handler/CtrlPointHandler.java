@@ -22,7 +22,7 @@ import org.jetbrains.annotations.NotNull;
  */
 public class CtrlPointHandler extends Ellipse implements Handler {
 	/** The control point to move. */
-	private final @NotNull Point point;
+	private @NotNull Point point;
 
 	/**
 	 * Creates the handler.
@@ -34,12 +34,16 @@ public class CtrlPointHandler extends Ellipse implements Handler {
 		point = Objects.requireNonNull(pt);
 		setRadiusX(DEFAULT_SIZE / 2d);
 		setRadiusY(DEFAULT_SIZE / 2d);
-		translateXProperty().bind(Bindings.createDoubleBinding(() -> pt.getX() - DEFAULT_SIZE / 2d, pt.xProperty()));
-		translateYProperty().bind(Bindings.createDoubleBinding(() -> pt.getY() - DEFAULT_SIZE / 2d, pt.yProperty()));
+		bindPoint();
 		setStroke(null);
 		setFill(DEFAULT_COLOR);
 	}
 
+	private void bindPoint() {
+		translateXProperty().bind(Bindings.createDoubleBinding(() -> point.getX() - DEFAULT_SIZE / 2d, point.xProperty()));
+		translateYProperty().bind(Bindings.createDoubleBinding(() -> point.getY() - DEFAULT_SIZE / 2d, point.yProperty()));
+	}
+
 	@Override
 	public void flush() {
 		translateXProperty().unbind();
@@ -52,4 +56,15 @@ public class CtrlPointHandler extends Ellipse implements Handler {
 	public @NotNull Point getPoint() {
 		return point;
 	}
+
+	/**
+	 * Makes the handler control another control point, so that the handler can be reused.
+	 * @param pt The new control point to control.
+	 * @throws NullPointerException If the given point is null.
+	 */
+	public void setPoint(final @NotNull Point pt) {
+		flush();
+		point = Objects.requireNonNull(pt);
+		bindPoint();
+	}
 }
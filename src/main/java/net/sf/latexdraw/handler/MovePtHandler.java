@@ -22,7 +22,7 @@ import org.jetbrains.annotations.NotNull;
  */
 public class MovePtHandler extends Rectangle implements Handler {
 	/** The point moved by the handler. */
-	private final @NotNull Point point;
+	private @NotNull Point point;
 
 	/**
 	 * The constructor by default.
@@ -33,12 +33,16 @@ public class MovePtHandler extends Rectangle implements Handler {
 		point = Objects.requireNonNull(pt);
 		setWidth(DEFAULT_SIZE);
 		setHeight(DEFAULT_SIZE);
-		translateXProperty().bind(Bindings.createDoubleBinding(() -> pt.getX() - DEFAULT_SIZE / 2d, pt.xProperty()));
-		translateYProperty().bind(Bindings.createDoubleBinding(() -> pt.getY() - DEFAULT_SIZE / 2d, pt.yProperty()));
+		bindPoint();
 		setStroke(null);
 		setFill(DEFAULT_COLOR);
 	}
 
+	private void bindPoint() {
+		translateXProperty().bind(Bindings.createDoubleBinding(() -> point.getX() - DEFAULT_SIZE / 2d, point.xProperty()));
+		translateYProperty().bind(Bindings.createDoubleBinding(() -> point.getY() - DEFAULT_SIZE / 2d, point.yProperty()));
+	}
+
 	@Override
 	public void flush() {
 		translateXProperty().unbind();
@@ -51,4 +55,15 @@ public class MovePtHandler extends Rectangle implements Handler {
 	public @NotNull Point getPoint() {
 		return point;
 	}
+
+	/**
+	 * Makes the handler control another point, so that the handler can be reused.
+	 * @param pt The new point to control.
+	 * @throws NullPointerException If the given point is null.
+	 */
+	public void setPoint(final @NotNull Point pt) {
+		flush();
+		point = Objects.requireNonNull(pt);
+		bindPoint();
+	}
 }
@@ -11,18 +11,35 @@
 package net.sf.latexdraw.instrument;
 
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.fxml.Initializable;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.geometry.Point3D;
 import javafx.scene.Cursor;
 import javafx.scene.Node;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Transform;
 import net.sf.latexdraw.command.shape.ModifyShapeProperty;
 import net.sf.latexdraw.command.shape.MoveCtrlPoint;
 import net.sf.latexdraw.command.shape.MovePointShape;
@@ -59,6 +76,12 @@ import org.malai.javafx.interaction.library.SrcTgtPointsData;
  * @author Arnaud BLOUIN
  */
 public class Border extends CanvasInstrument implements Initializable {
+	/**
+	 * The minimal gap between the handlers of points, in pixels on the screen: the points closer to a point that has a handler
+	 * do not have their own handler, so that the number of handlers does not depend on the number of points.
+	 */
+	static final double MIN_HANDLER_GAP = Handler.DEFAULT_SIZE;
+
 	/** The handlers that scale shapes. */
 	final ObservableList<ScaleHandler> scaleHandlers;
 	/** The handlers that move points. */
@@ -73,6 +96,20 @@ public class Border extends CanvasInstrument implements Initializable {
 	final ArcAngleHandler arcHandlerEnd;
 	/** The handler that rotates shapes. */
 	RotationHandler rotHandler;
+	/** The handlers that move points, not used, kept to be reused. */
+	private final @NotNull Deque<MovePtHandler> mvPtHandlersPool;
+	/** The handlers that move control points, not used, kept to be reused. */
+	private final @NotNull Deque<CtrlPointHandler> ctrlPtHandlersPool;
+	/** The visible points that have no handler, by cell of the size of a handler, to find the point under the cursor. */
+	private final @NotNull Map<Long, List<Point>> mvPtsWithoutHandler;
+	/** The visible first control points that have no handler, by cell of the size of a handler. */
+	private final @NotNull Map<Long, List<Point>> ctrlPts1WithoutHandler;
+	/** The visible second control points that have no handler, by cell of the size of a handler. */
+	private final @NotNull Map<Long, List<Point>> ctrlPts2WithoutHandler;
+	/** The handlers shown when the cursor went over their point, and how to release each of them once the cursor exits it. */
+	private final @NotNull Map<Node, Runnable> hoverHandlers;
+	/** The modification stamp of the selected shape when the handlers of its points were computed. */
+	private long pointsStamp;
 
 	private final @NotNull MetaShapeCustomiser metaCustomiser;
 
@@ -83,6 +120,12 @@ public class Border extends CanvasInstrument implements Initializable {
 		mvPtHandlers = FXCollections.observableArrayList();
 		ctrlPt1Handlers = FXCollections.observableArrayList();
 		ctrlPt2Handlers = FXCollections.observableArrayList();
+		mvPtHandlersPool = new ArrayDeque<>();
+		ctrlPtHandlersPool = new ArrayDeque<>();
+		mvPtsWithoutHandler = new HashMap<>();
+		ctrlPts1WithoutHandler = new HashMap<>();
+		ctrlPts2WithoutHandler = new HashMap<>();
+		hoverHandlers = new IdentityHashMap<>();
 		arcHandlerStart = new ArcAngleHandler(true);
 		arcHandlerEnd = new ArcAngleHandler(false);
 		scaleHandlers = FXCollections.observableArrayList();
@@ -110,6 +153,20 @@ public class Border extends CanvasInstrument implements Initializable {
 		canvas.getDrawing().getSelection().getShapes().addListener(
 			(ListChangeListener.Change<? extends Shape> evt) -> setActivated(!canvas.getDrawing().getSelection().isEmpty()));
 
+		// The handlers of the points depend on the visible part of the canvas and on the zoom.
+		canvas.localToSceneTransformProperty().addListener((observable, oldValue, newValue) -> {
+			if(isActivated()) {
+				updatePointsHandlers();
+			}
+		});
+
+		canvas.addEventHandler(MouseEvent.MOUSE_MOVED, evt -> {
+			// Nothing to show while the cursor is over a handler.
+			if(isActivated() && !(evt.getTarget() instanceof Handler)) {
+				showHiddenPointHandler(evt.getSceneX(), evt.getSceneY());
+			}
+		});
+
 		setActivated(false);
 	}
 
@@ -141,6 +198,10 @@ public class Border extends CanvasInstrument implements Initializable {
 		if(cmd instanceof MoveCtrlPoint || cmd instanceof MovePointShape || cmd instanceof ScaleShapes) {
 			metaCustomiser.dimPosCustomiser.update();
 		}
+		// The moved points may have become visible or hidden.
+		if(isActivated() && (cmd instanceof MoveCtrlPoint || cmd instanceof MovePointShape || cmd instanceof ScaleShapes || cmd instanceof RotateShapes)) {
+			updatePointsHandlers();
+		}
 	}
 
 	private void updatePointsHandlers() {
@@ -148,10 +209,18 @@ public class Border extends CanvasInstrument implements Initializable {
 
 		if(selection.size() == 1) {
 			selection.getShapeAt(0).ifPresent(sh -> {
+				pointsStamp = sh.getModificationStamp();
 				updateMvPtHandlers(sh);
 				updateCtrlPtHandlers(sh);
 				updateArcHandlers(sh);
 			});
+		}else {
+			releasePointHandlers(mvPtHandlers, mvPtHandlersPool);
+			releasePointHandlers(ctrlPt1Handlers, ctrlPtHandlersPool);
+			releasePointHandlers(ctrlPt2Handlers, ctrlPtHandlersPool);
+			mvPtsWithoutHandler.clear();
+			ctrlPts1WithoutHandler.clear();
+			ctrlPts2WithoutHandler.clear();
 		}
 	}
 
@@ -169,33 +238,174 @@ public class Border extends CanvasInstrument implements Initializable {
 	}
 
 	private void updateMvPtHandlers(final Shape selectedShape) {
-		if(selectedShape instanceof ModifiablePointsShape) {
-			initialisePointHandler(mvPtHandlers, pt -> new MovePtHandler(pt), selectedShape.getPoints());
-		}
+		initialisePointHandler(mvPtHandlers, mvPtHandlersPool, pt -> new MovePtHandler(pt), MovePtHandler::setPoint,
+			selectedShape instanceof ModifiablePointsShape ? selectedShape.getPoints() : Collections.emptyList(), mvPtsWithoutHandler);
 	}
 
 	private void updateCtrlPtHandlers(final Shape selectedShape) {
 		if(selectedShape instanceof BezierCurve) {
 			final BezierCurve pts = (BezierCurve) selectedShape;
-			initialisePointHandler(ctrlPt1Handlers, pt -> new CtrlPointHandler(pt), pts.getFirstCtrlPts());
-			initialisePointHandler(ctrlPt2Handlers, pt -> new CtrlPointHandler(pt), pts.getSecondCtrlPts());
+			initialisePointHandler(ctrlPt1Handlers, ctrlPtHandlersPool, pt -> new CtrlPointHandler(pt), CtrlPointHandler::setPoint, pts.getFirstCtrlPts(),
+				ctrlPts1WithoutHandler);
+			initialisePointHandler(ctrlPt2Handlers, ctrlPtHandlersPool, pt -> new CtrlPointHandler(pt), CtrlPointHandler::setPoint, pts.getSecondCtrlPts(),
+				ctrlPts2WithoutHandler);
+		}else {
+			releasePointHandlers(ctrlPt1Handlers, ctrlPtHandlersPool);
+			releasePointHandlers(ctrlPt2Handlers, ctrlPtHandlersPool);
+			ctrlPts1WithoutHandler.clear();
+			ctrlPts2WithoutHandler.clear();
 		}
 	}
 
-	private <T extends Node & Handler> void initialisePointHandler(final List<T> handlers, final Function<Point, T> supplier, final List<Point> pts) {
+	/**
+	 * Gives handlers to the given points that are visible and that are not too close to a point that already has a handler.
+	 * The handlers previously used are reused. The other visible points are indexed in withoutHandler.
+	 */
+	private <T extends Node & Handler> void initialisePointHandler(final ObservableList<T> handlers, final Deque<T> pool,
+						final Function<Point, T> supplier, final BiConsumer<T, Point> rebind, final List<Point> pts,
+						final Map<Long, List<Point>> withoutHandler) {
+		releasePointHandlers(handlers, pool);
+		withoutHandler.clear();
+
+		if(pts.isEmpty()) {
+			return;
+		}
+
+		final Bounds visible = canvas.getVisibleWidgetLayerBounds().orElse(null);
+		final Transform toScene = canvas.getWidgetLayer().getLocalToSceneTransform();
+		final double gap = MIN_HANDLER_GAP / Math.hypot(toScene.getMxx(), toScene.getMyx());
+		final double size = Handler.DEFAULT_SIZE;
+		// The cells of a grid whose step is the minimal gap: one handler per cell.
+		final Set<Long> cells = new HashSet<>();
+		final List<T> shown = new ArrayList<>();
+
+		for(final Point pt : pts) {
+			if(visible == null || visible.intersects(pt.getX() - size / 2d, pt.getY() - size / 2d, size, size)) {
+				if(cells.add(getCell(pt.getX(), pt.getY(), gap))) {
+					shown.add(acquirePointHandler(pool, supplier, rebind, pt));
+				}else {
+					withoutHandler.computeIfAbsent(getCell(pt.getX(), pt.getY(), size), cell -> new ArrayList<>()).add(pt);
+				}
+			}
+		}
+
+		handlers.addAll(shown);
+	}
+
+	private <T extends Node & Handler> T acquirePointHandler(final Deque<T> pool, final Function<Point, T> supplier, final BiConsumer<T, Point> rebind,
+						final Point pt) {
+		final T handler = pool.poll();
+
+		if(handler == null) {
+			final T created = supplier.apply(pt);
+			created.addEventHandler(MouseEvent.MOUSE_EXITED, evt -> {
+				// A dragged handler is released once the command done.
+				if(!created.isPressed()) {
+					Optional.ofNullable(hoverHandlers.remove(created)).ifPresent(release -> release.run());
+				}
+			});
+			canvas.addToWidgetLayer(created);
+			return created;
+		}
+
+		rebind.accept(handler, pt);
+		handler.setVisible(true);
+		return handler;
+	}
+
+	/**
+	 * Hides the given handlers and puts them in the pool to be reused. They stay in the widget layer.
+	 */
+	private <T extends Node & Handler> void releasePointHandlers(final ObservableList<T> handlers, final Deque<T> pool) {
 		handlers.forEach(handler -> {
-			canvas.removeFromWidgetLayer(handler);
+			hoverHandlers.remove(handler);
 			handler.flush();
+			handler.setVisible(false);
+			pool.push(handler);
 		});
 		handlers.clear();
+	}
 
-		pts.forEach(pt -> {
-			final T handler = supplier.apply(pt);
-			canvas.addToWidgetLayer(handler);
+	/**
+	 * @return The cell of the given position on a grid of the given step.
+	 */
+	private static long getCell(final double x, final double y, final double step) {
+		return ((long) Math.floor(x / step) << 32) | ((long) Math.floor(y / step) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * The visible points that do not have a handler (because close to other points) are looked up around the cursor:
+	 * a handler is given to the point under the cursor, if any. This handler is released once the cursor exits it.
+	 */
+	private void showHiddenPointHandler(final double sceneX, final double sceneY) {
+		final Group selection = canvas.getDrawing().getSelection();
+
+		if(selection.size() != 1) {
+			return;
+		}
+
+		final Shape shape = selection.getShapeAt(0).orElse(null);
+
+		// The points may have been moved (e.g. undo) since the handlers were computed.
+		if(shape != null && shape.getModificationStamp() != pointsStamp) {
+			updatePointsHandlers();
+		}
+
+		final Point2D position = canvas.getWidgetLayer().sceneToLocal(sceneX, sceneY);
+
+		if(shape instanceof ModifiablePointsShape) {
+			showHoverHandler(position, mvPtsWithoutHandler, mvPtHandlers, mvPtHandlersPool, p -> new MovePtHandler(p), MovePtHandler::setPoint);
+		}
+
+		if(shape instanceof BezierCurve) {
+			showHoverHandler(position, ctrlPts1WithoutHandler, ctrlPt1Handlers, ctrlPtHandlersPool, p -> new CtrlPointHandler(p), CtrlPointHandler::setPoint);
+			showHoverHandler(position, ctrlPts2WithoutHandler, ctrlPt2Handlers, ctrlPtHandlersPool, p -> new CtrlPointHandler(p), CtrlPointHandler::setPoint);
+		}
+	}
+
+	private <T extends Node & Handler> void showHoverHandler(final Point2D position, final Map<Long, List<Point>> withoutHandler,
+						final ObservableList<T> handlers, final Deque<T> pool, final Function<Point, T> supplier, final BiConsumer<T, Point> rebind) {
+		getHiddenPointAt(position, withoutHandler).ifPresent(pt -> {
+			final long cell = getCell(pt.getX(), pt.getY(), Handler.DEFAULT_SIZE);
+			final T handler = acquirePointHandler(pool, supplier, rebind, pt);
+			withoutHandler.get(cell).remove(pt);
 			handlers.add(handler);
+			hoverHandlers.put(handler, () -> {
+				handlers.remove(handler);
+				handler.flush();
+				handler.setVisible(false);
+				pool.push(handler);
+				withoutHandler.computeIfAbsent(cell, c -> new ArrayList<>()).add(pt);
+			});
 		});
 	}
 
+	/**
+	 * @return The point without handler the closest to the given position that would be under its handler.
+	 * Only the cells of the handler size around the position are looked up.
+	 */
+	private static Optional<Point> getHiddenPointAt(final Point2D position, final Map<Long, List<Point>> withoutHandler) {
+		final double size = Handler.DEFAULT_SIZE;
+		final double half = size / 2d;
+		Point closest = null;
+		double minDist = Double.MAX_VALUE;
+
+		for(final double x : new double[] {position.getX() - half, position.getX() + half}) {
+			for(final double y : new double[] {position.getY() - half, position.getY() + half}) {
+				for(final Point pt : withoutHandler.getOrDefault(getCell(x, y, size), Collections.emptyList())) {
+					final double dx = Math.abs(pt.getX() - position.getX());
+					final double dy = Math.abs(pt.getY() - position.getY());
+					if(dx <= half && dy <= half && dx * dx + dy * dy < minDist) {
+						minDist = dx * dx + dy * dy;
+						closest = pt;
+					}
+				}
+			}
+		}
+
+		return Optional.ofNullable(closest);
+	}
+
 	private void configureMovePointBinding() {
 		nodeBinder(new DnD(), i -> new MovePointShape((ModifiablePointsShape) canvas.getDrawing().getSelection().getShapeAt(0).orElseThrow(),
 				i.getSrcObject().filter(o -> o instanceof MovePtHandler).map(o -> ((MovePtHandler) o).getPoint()).orElseThrow())).
@@ -235,13 +445,21 @@ public class Border extends CanvasInstrument implements Initializable {
 			when(i -> canvas.getDrawing().getSelection().size() == 1 && canvas.getDrawing().getSelection().getShapeAt(0).filter(s -> s instanceof ControlPointShape).isPresent()).
 			exec().bind();
 
+		// The rotation is previewed on the views during the DnD and applied on the shapes at the end.
 		nodeBinder(new DnD(), () -> new RotateShapes(canvas.getDrawing().getSelection().getGravityCentre().add(canvas.getOrigin()),
 			canvas.getDrawing().getSelection().duplicateDeep(false), 0d)).
 			on(rotHandler).
-			then((i, c) -> c.setRotationAngle(c.getGc().computeRotationAngle(
-				ShapeFactory.INST.createPoint(canvas.sceneToLocal(i.getSrcScenePoint())),
-				ShapeFactory.INST.createPoint(canvas.sceneToLocal(i.getTgtScenePoint()))))).
-			exec().bind();
+			then((i, c) -> {
+				c.setRotationAngle(c.getGc().computeRotationAngle(
+					ShapeFactory.INST.createPoint(canvas.sceneToLocal(i.getSrcScenePoint())),
+					ShapeFactory.INST.createPoint(canvas.sceneToLocal(i.getTgtScenePoint()))));
+				if(c.canDo()) {
+					canvas.setSelectionTransformPreview(new Rotate(Math.toDegrees(c.getRotationAngle()), c.getGc().getX() - canvas.getOrigin().getX(),
+						c.getGc().getY() - canvas.getOrigin().getY()));
+				}
+			}).
+			endOrCancel((i, c) -> canvas.clearSelectionTransformPreview()).
+			bind();
 
 		bindArcHandler();
 	}
@@ -276,8 +494,11 @@ public class Border extends CanvasInstrument implements Initializable {
 		/** The y gap (gap between the pressed position and the targeted position) of the Y-scaling. */
 		private double yGap;
 
+		/**
+		 * The scaling is previewed on the views during the DnD and applied on the shapes at the end.
+		 */
 		DnD2Scale(final Border ins) {
-			super(ins, true, new DnD(),
+			super(ins, false, new DnD(),
 				i -> new ScaleShapes(ins.canvas.getDrawing().getSelection().duplicateDeep(false), ins.canvas.getDrawing(),
 				i.getSrcObject().map(h -> ((ScaleHandler) h).getPosition().getOpposite()).orElse(Position.SW)),
 				ins.scaleHandlers.stream().map(h -> (Node) h).collect(Collectors.toList()), false, null);
@@ -350,6 +571,16 @@ public class Border extends CanvasInstrument implements Initializable {
 					cmd.setNewX(pt.getX() + xGap);
 				}
 			}
+
+			if(cmd.canDo()) {
+				final Point ref = cmd.getReferencePoint();
+				instrument.canvas.setSelectionTransformPreview(new Scale(cmd.getScaleX(), cmd.getScaleY(), ref.getX(), ref.getY()));
+			}
+		}
+
+		@Override
+		public void endOrCancel() {
+			instrument.canvas.clearSelectionTransformPreview();
 		}
 
 		@Override
@@ -12,11 +12,17 @@ package net.sf.latexdraw.instrument;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.logging.Handler;
-import java.util.logging.LogRecord;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -30,21 +36,12 @@ import javafx.util.BuilderFactory;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.command.InsertPSTCode;
 import net.sf.latexdraw.model.api.shape.Drawing;
-import net.sf.latexdraw.parser.pst.PSTContext;
-import net.sf.latexdraw.parser.pst.PSTLatexdrawListener;
-import net.sf.latexdraw.parser.pst.PSTLexer;
-import net.sf.latexdraw.parser.pst.PSTParser;
+import net.sf.latexdraw.parser.pst.PSTIncrementalParser;
+import net.sf.latexdraw.service.PreferencesService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.util.Injector;
-import net.sf.latexdraw.util.SystemUtils;
-import org.antlr.v4.runtime.ANTLRErrorListener;
-import org.antlr.v4.runtime.BaseErrorListener;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
-import org.antlr.v4.runtime.RecognitionException;
-import org.antlr.v4.runtime.Recognizer;
-import org.antlr.v4.runtime.tree.ErrorNode;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.malai.command.library.InactivateInstrument;
 import org.malai.javafx.instrument.JfxInstrument;
 
@@ -53,6 +50,9 @@ import org.malai.javafx.instrument.JfxInstrument;
  * @author Arnaud BLOUIN
  */
 public final class CodeInserter extends JfxInstrument implements Initializable {
+	/** The delay (in ms) without text modification before parsing the code. */
+	private static final long PARSE_DELAY = 300L;
+
 	@FXML TextArea label;
 	@FXML Button ok;
 	@FXML Button cancel;
@@ -63,80 +63,94 @@ public final class CodeInserter extends JfxInstrument implements Initializable {
 	private final @NotNull StatusBarController statusBar;
 	private final @NotNull ResourceBundle lang;
 	private final @NotNull Injector injector;
+	/** Gives the current document, against whose directory the relative paths of the data files of the code are resolved. */
+	private final @NotNull PreferencesService prefs;
+	/** The identifier of the latest text to parse: the parsing of an older text is cancelled and its results ignored. */
+	private final @NotNull AtomicLong latestParse;
+	/** Parses the code outside the JFX thread. Created on the first parsing. */
+	private @Nullable ScheduledExecutorService parser;
+	private @Nullable ScheduledFuture<?> pendingParse;
+	/** Parses the successive versions of the code. Also used to convert the code into shapes. */
+	private final @NotNull PSTIncrementalParser pstParser;
 
 	@Inject
-	public CodeInserter(final Drawing drawing, final StatusBarController statusBar, final ResourceBundle lang, final Injector injector) {
+	public CodeInserter(final Drawing drawing, final StatusBarController statusBar, final ResourceBundle lang, final Injector injector,
+						final PreferencesService prefs) {
 		super();
 		this.drawing = Objects.requireNonNull(drawing);
 		this.statusBar = Objects.requireNonNull(statusBar);
 		this.lang = Objects.requireNonNull(lang);
 		this.injector = Objects.requireNonNull(injector);
+		this.prefs = Objects.requireNonNull(prefs);
+		latestParse = new AtomicLong();
+		pstParser = new PSTIncrementalParser();
 	}
 
 	@Override
 	public void initialize(final URL location, final ResourceBundle resources) {
 		label.setText(lang.getString("LaTeXDrawFrame.16"));
 
-		// Collecting errors from the parser.
-		final ANTLRErrorListener errorListener = new BaseErrorListener() {
-			@Override
-			public void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line, final int charPositionInLine,
-									final String msg, final RecognitionException e) {
-				errorLog.setText(errorLog.getText() + "Syntax error: " + msg + SystemUtils.getInstance().EOL); //NON-NLS
-			}
-		};
+		// On each text change, the code is parsed and errors reported once the user stopped typing.
+		text.textProperty().addListener((observable, oldValue, newValue) -> scheduleParsing(newValue));
+	}
 
-		final PSTLatexdrawListener listener = new PSTLatexdrawListener() {
-			@Override
-			public void exitUnknowncmds(final PSTParser.UnknowncmdsContext ctx) {
-				errorLog.setText(errorLog.getText() + "Unknown command: " + ctx.LATEXCMD().getSymbol().getText() + SystemUtils.getInstance().EOL); //NON-NLS
-			}
+	/**
+	 * Cancels the current parsing and schedules the parsing of the given code.
+	 * @param code The PST code to parse.
+	 */
+	private void scheduleParsing(final @NotNull String code) {
+		final long id = latestParse.incrementAndGet();
+		final Path documentDir = prefs.getCurrentFile().map(file -> file.getAbsoluteFile().getParentFile().toPath()).orElse(null);
 
-			@Override
-			public void enterUnknownParamSetting(final PSTParser.UnknownParamSettingContext ctx) {
-				errorLog.setText(errorLog.getText() + "Unknown parameter: " + ctx.name.getText() + SystemUtils.getInstance().EOL); //NON-NLS
-			}
+		if(pendingParse != null) {
+			pendingParse.cancel(false);
+		}
 
-			@Override
-			public void visitErrorNode(final ErrorNode node) {
-				errorLog.setText(errorLog.getText() + "Error: " + node.getText() + SystemUtils.getInstance().EOL); //NON-NLS
-			}
+		if(parser == null) {
+			parser = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, "latexdraw-pst-inserter"); //NON-NLS
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
 
-			@Override
-			public void exitText(final PSTParser.TextContext ctx) {
-				super.exitText(ctx);
-				if(ctx.getText().startsWith("\\")) {
-					errorLog.setText(errorLog.getText() + "Bad command: '" + ctx.getText() + "'?" + SystemUtils.getInstance().EOL); //NON-NLS
-				}
-			}
-		};
+		pendingParse = parser.schedule(() -> parse(code, documentDir, id), PARSE_DELAY, TimeUnit.MILLISECONDS);
+	}
 
-		listener.log.addHandler(new Handler() {
-			@Override
-			public void publish(final LogRecord record) {
-				errorLog.setText(errorLog.getText() + record.getMessage() + SystemUtils.getInstance().EOL);
-			}
+	/** Ignores the results of the current and scheduled parsing. */
+	private void cancelParsing() {
+		latestParse.incrementAndGet();
+		if(pendingParse != null) {
+			pendingParse.cancel(false);
+			pendingParse = null;
+		}
+	}
 
-			@Override
-			public void flush() {
-			}
+	/**
+	 * Parses the given code (outside the JFX thread) and reports the errors in the error log if the code is still the latest one.
+	 * Only the commands modified since the previous parsing are parsed again.
+	 * @param code The PST code to parse.
+	 * @param documentDir The directory of the current document, for the relative paths of the data files. Null: the working directory.
+	 * @param id The identifier of the parsing.
+	 */
+	private void parse(final @NotNull String code, final @Nullable Path documentDir, final long id) {
+		try {
+			pstParser.setDocumentDir(documentDir);
+			// A more recent text is to be parsed: cancelling.
+			pstParser.parse(code, progress -> { }, () -> id != latestParse.get());
+		}catch(final CancellationException ignored) {
+			return;
+		}catch(final RuntimeException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
 
-			@Override
-			public void close() {
-			}
-		});
+		final String log = pstParser.getLog();
 
-		// On each text change, the code is parsed and errors reported.
-		text.textProperty().addListener((observable, oldValue, newValue) -> {
-			errorLog.setText("");
-			final PSTLexer lexer = new PSTLexer(CharStreams.fromString(newValue));
-			lexer.addErrorListener(errorListener);
-			final PSTParser parser = new PSTParser(new CommonTokenStream(lexer));
-			parser.addParseListener(listener);
-			parser.addErrorListener(errorListener);
-			parser.pstCode(new PSTContext());
-			parser.getInterpreter().clearDFA();
-			lexer.getInterpreter().clearDFA();
+		Platform.runLater(() -> {
+			// Only the errors of the latest text are shown.
+			if(id == latestParse.get()) {
+				errorLog.setText(log);
+			}
 		});
 	}
 
@@ -163,7 +177,7 @@ public final class CodeInserter extends JfxInstrument implements Initializable {
 
 	@Override
 	public void configureBindings() {
-		buttonBinder(i -> new InsertPSTCode(text.getText(), statusBar.getLabel(), drawing, lang)).on(ok).bind();
+		buttonBinder(i -> new InsertPSTCode(text.getText(), pstParser, statusBar.getLabel(), statusBar.getProgressBar(), drawing, lang)).on(ok).bind();
 
 		buttonBinder(() -> new InactivateInstrument()).on(cancel, ok).first(cmd -> cmd.setInstrument(this)).bind();
 	}
@@ -173,6 +187,7 @@ public final class CodeInserter extends JfxInstrument implements Initializable {
 		if(isActivated() != activated) {
 			getInsertCodeDialogue().ifPresent(dialogue -> {
 				super.setActivated(activated);
+				cancelParsing();
 				if(activated) {
 					text.setText("");
 					dialogue.show();
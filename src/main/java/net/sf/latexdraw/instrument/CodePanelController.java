@@ -11,41 +11,315 @@
 package net.sf.latexdraw.instrument;
 
 import java.net.URL;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.stream.Collectors;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ListChangeListener.Change;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.Tab;
-import javafx.scene.control.TextArea;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.util.Inject;
+import net.sf.latexdraw.util.SystemUtils;
+import net.sf.latexdraw.util.Tuple;
 import net.sf.latexdraw.view.jfx.MagneticGrid;
 import net.sf.latexdraw.view.jfx.Canvas;
+import net.sf.latexdraw.view.latex.DrawingCodeLines;
 import net.sf.latexdraw.view.latex.LaTeXGenerator;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.malai.command.Command;
+import org.malai.command.CommandsRegistry;
+import org.malai.undo.UndoCollector;
+import org.malai.undo.Undoable;
 
 /**
- * Manages the code panel.
+ * Manages the code panel: a live view of the PST code of the drawing.
+ * The code is shown line by line in a list view that only renders the visible lines. While the panel is shown, the code is
+ * updated after each command: only the code of the modified shapes is generated again and only the modified lines are replaced.
+ * The controller listens to the commands only while the panel is shown.
  * @author Arnaud Blouin
  */
 public class CodePanelController extends CanvasInstrument implements Initializable {
-	@FXML private TextArea codeArea;
-	@FXML private Tab tabPST;
+	private static final KeyCombination COPY = new KeyCodeCombination(KeyCode.C, KeyCombination.SHORTCUT_DOWN);
+
+	@FXML ListView<String> codeView;
+	@FXML Tab tabPST;
 	/** The PSTricks generator. */
 	private final @NotNull LaTeXGenerator pstGenerator;
+	/** The location of the code of each shape in the shown code. */
+	private final @NotNull Map<Shape, Tuple<Integer, Integer>> shapesLines;
+	/** The modification stamp of each shape when its shown code was generated. */
+	private final @NotNull Map<Shape, Long> stamps;
+	/** The number of lines that precede the code of the shapes and of their colours. */
+	private int headerSize;
+	/** The number of lines that follow the code of the shapes. */
+	private int footerSize;
+	/** The origin of the drawing when the shown code was generated. */
+	private @Nullable Point origin;
+	/** The number of pixels per centimetre of the drawing when the shown code was generated. */
+	private int ppc;
+	/** True if shapes have been added or removed since the latest update: the whole code must be generated again. */
+	private boolean shapesChanged;
+	/** True if an update of the code is scheduled. */
+	private boolean updateScheduled;
+	/** True if the code of the selected shapes must be shown once the code updated. */
+	private boolean scrollPending;
 
 	@Inject
 	public CodePanelController(final Canvas canvas, final MagneticGrid grid, final LaTeXGenerator pstGenerator) {
 		super(canvas, grid);
 		this.pstGenerator = Objects.requireNonNull(pstGenerator);
+		shapesLines = new IdentityHashMap<>();
+		stamps = new IdentityHashMap<>();
+		shapesChanged = true;
+		updateScheduled = false;
+		scrollPending = false;
 	}
 
 	@Override
 	public void initialize(final URL location, final ResourceBundle resources) {
-		tabPST.selectedProperty().addListener(evt -> codeArea.setText(pstGenerator.getDrawingCode()));
+		codeView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		codeView.setOnKeyPressed(evt -> {
+			if(COPY.match(evt)) {
+				copySelectedLines();
+			}
+		});
+
+		tabPST.selectedProperty().addListener((observable, oldValue, selected) -> setShown(selected));
+		setShown(tabPST.isSelected());
+
+		canvas.getDrawing().getShapes().addListener((ListChangeListener<Shape>) evt -> shapesChanged = true);
+
+		canvas.getDrawing().getSelection().getShapes().addListener((Change<? extends Shape> evt) -> {
+			// The code of a new shape is not known yet: it will be shown once the code updated.
+			if(tabPST.isSelected() && !scrollToSelection()) {
+				scrollPending = true;
+				scheduleUpdate();
+			}
+		});
 	}
 
 	@Override
 	protected void configureBindings() {
 		// Nothing to do.
 	}
+
+	@Override
+	public void onCmdExecuted(final Command cmd) {
+		scheduleUpdate();
+	}
+
+	@Override
+	public void onCmdDone(final Command cmd) {
+		scheduleUpdate();
+	}
+
+	@Override
+	public void onUndoableUndo(final Undoable undoable) {
+		scheduleUpdate();
+	}
+
+	@Override
+	public void onUndoableRedo(final Undoable undoable) {
+		scheduleUpdate();
+	}
+
+	/**
+	 * Listens to the commands while the panel is shown and updates the code when the panel gets shown.
+	 * The code is generated again from scratch since the drawing may have been modified while the panel was hidden.
+	 */
+	private void setShown(final boolean shown) {
+		if(shown) {
+			CommandsRegistry.INSTANCE.addHandler(this);
+			UndoCollector.INSTANCE.addHandler(this);
+			shapesChanged = true;
+			scrollPending = true;
+			update();
+		}else {
+			CommandsRegistry.INSTANCE.removeHandler(this);
+			UndoCollector.INSTANCE.removeHandler(this);
+		}
+	}
+
+	/**
+	 * Updates the code at the next pulse if the panel is shown. Several modifications lead to a single update.
+	 */
+	private void scheduleUpdate() {
+		if(!updateScheduled && tabPST.isSelected()) {
+			updateScheduled = true;
+			Platform.runLater(() -> update());
+		}
+	}
+
+	/**
+	 * Updates the shown code. Only the code of the shapes modified since the latest update is generated again when possible.
+	 */
+	void update() {
+		updateScheduled = false;
+
+		if(shapesChanged || !updateModifiedShapes()) {
+			updateAll();
+		}
+
+		shapesChanged = false;
+
+		if(scrollPending) {
+			scrollPending = false;
+			scrollToSelection();
+		}
+	}
+
+	/**
+	 * Generates the whole code again. The lines that did not change are kept, so that the list view only updates the cells of the modified lines.
+	 */
+	private void updateAll() {
+		final DrawingCodeLines newCode = pstGenerator.getDrawingCodeLines();
+		final List<String> lines = newCode.getLines();
+		final ObservableList<String> items = codeView.getItems();
+		final int min = Math.min(lines.size(), items.size());
+		int start = 0;
+		int endOld = items.size();
+		int endNew = lines.size();
+
+		while(start < min && lines.get(start).equals(items.get(start))) {
+			start++;
+		}
+		while(endOld > start && endNew > start && lines.get(endNew - 1).equals(items.get(endOld - 1))) {
+			endOld--;
+			endNew--;
+		}
+
+		if(start < endOld) {
+			items.remove(start, endOld);
+		}
+		if(start < endNew) {
+			items.addAll(start, lines.subList(start, endNew));
+		}
+
+		shapesLines.clear();
+		shapesLines.putAll(newCode.getShapesLines());
+		stamps.clear();
+		canvas.getDrawing().getShapes().forEach(sh -> stamps.put(sh, sh.getModificationStamp()));
+		headerSize = newCode.getHeaderSize();
+		footerSize = newCode.getFooterSize();
+		origin = canvas.getOriginDrawingPoint();
+		ppc = canvas.getPPCDrawing();
+	}
+
+	/**
+	 * Replaces the code of the shapes modified since the latest update, and the header and footer of the code.
+	 * @return False if the code cannot be updated that way: the whole code must be generated again.
+	 */
+	private boolean updateModifiedShapes() {
+		final Point currentOrigin = canvas.getOriginDrawingPoint();
+
+		if(origin == null || ppc != canvas.getPPCDrawing() || Double.compare(origin.getX(), currentOrigin.getX()) != 0 ||
+			Double.compare(origin.getY(), currentOrigin.getY()) != 0) {
+			return false;
+		}
+
+		final List<Shape> shapes = canvas.getDrawing().getShapes();
+		final List<Shape> modified = shapes.stream().filter(sh -> !Objects.equals(stamps.get(sh), sh.getModificationStamp())).collect(Collectors.toList());
+		final Tuple<List<String>, List<String>> headerFooter = pstGenerator.getDrawingHeaderFooterLines();
+
+		if(headerFooter.a.size() != headerSize || headerFooter.b.size() != footerSize || headerSize == 0 ||
+			!modified.stream().allMatch(sh -> shapesLines.containsKey(sh))) {
+			return false;
+		}
+
+		final Map<Shape, List<String>> modifiedLines = new IdentityHashMap<>();
+
+		for(final Shape sh : modified) {
+			final Optional<List<String>> lines = pstGenerator.getShapeCodeLines(sh);
+			if(lines.isEmpty()) {
+				return false;
+			}
+			modifiedLines.put(sh, lines.get());
+		}
+
+		final ObservableList<String> items = codeView.getItems();
+		// From the bottom to the top, so that the location of the lines still to replace does not change.
+		replaceLines(items.size() - footerSize, items.size(), headerFooter.b);
+		modified.stream().sorted(Comparator.comparingInt((Shape sh) -> shapesLines.get(sh).a).reversed()).forEach(sh -> {
+			final Tuple<Integer, Integer> range = shapesLines.get(sh);
+			replaceLines(range.a, range.b, modifiedLines.get(sh));
+		});
+		replaceLines(0, headerSize, headerFooter.a);
+
+		if(modified.stream().anyMatch(sh -> shapesLines.get(sh).b - shapesLines.get(sh).a != modifiedLines.get(sh).size())) {
+			int shift = 0;
+			for(final Shape sh : shapes) {
+				final Tuple<Integer, Integer> range = shapesLines.get(sh);
+				if(range != null) {
+					final int size = modifiedLines.containsKey(sh) ? modifiedLines.get(sh).size() : range.b - range.a;
+					shapesLines.put(sh, new Tuple<>(range.a + shift, range.a + shift + size));
+					shift += size - (range.b - range.a);
+				}
+			}
+		}
+
+		modified.forEach(sh -> stamps.put(sh, sh.getModificationStamp()));
+		return true;
+	}
+
+	/**
+	 * Replaces the shown lines in [start, end[ by the given lines. Only the lines that differ are set when the number of lines does not change.
+	 */
+	private void replaceLines(final int start, final int end, final @NotNull List<String> lines) {
+		final ObservableList<String> items = codeView.getItems();
+
+		if(end - start == lines.size()) {
+			for(int i = 0; i < lines.size(); i++) {
+				if(!lines.get(i).equals(items.get(start + i))) {
+					items.set(start + i, lines.get(i));
+				}
+			}
+		}else {
+			items.remove(start, end);
+			items.addAll(start, lines);
+		}
+	}
+
+	/**
+	 * Selects the lines of the code of the selected shapes and scrolls to the first one, using the latest code.
+	 * @return False if the code of a selected shape is not known.
+	 */
+	private boolean scrollToSelection() {
+		if(shapesChanged) {
+			return false;
+		}
+
+		final List<Optional<Tuple<Integer, Integer>>> ranges = canvas.getDrawing().getSelection().getShapes().stream().
+			map(sh -> Optional.ofNullable(shapesLines.get(sh))).collect(Collectors.toList());
+
+		codeView.getSelectionModel().clearSelection();
+		ranges.stream().flatMap(range -> range.stream()).forEach(range -> codeView.getSelectionModel().selectRange(range.a, range.b));
+		ranges.stream().flatMap(range -> range.stream()).mapToInt(range -> range.a).min().ifPresent(first -> codeView.scrollTo(first));
+
+		return ranges.stream().allMatch(range -> range.isPresent());
+	}
+
+	private void copySelectedLines() {
+		final ClipboardContent content = new ClipboardContent();
+		content.putString(codeView.getSelectionModel().getSelectedIndices().stream().sorted().
+			map(i -> codeView.getItems().get(i)).collect(Collectors.joining(SystemUtils.getInstance().EOL)));
+		Clipboard.getSystemClipboard().setContent(content);
+	}
 }
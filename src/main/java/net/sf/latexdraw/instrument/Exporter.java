@@ -13,14 +13,21 @@ package net.sf.latexdraw.instrument;
 import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.stream.Collectors;
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressBar;
 import javafx.stage.FileChooser;
 import net.sf.latexdraw.command.Export;
 import net.sf.latexdraw.command.ExportFormat;
@@ -28,6 +35,7 @@ import net.sf.latexdraw.command.ExportTemplate;
 import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.service.LaTeXDataService;
 import net.sf.latexdraw.service.PreferencesService;
+import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.util.LNamespace;
 import net.sf.latexdraw.util.SystemUtils;
@@ -37,6 +45,7 @@ import net.sf.latexdraw.view.svg.SVGDocumentGenerator;
 import org.jetbrains.annotations.NotNull;
 import org.malai.command.Command;
 import org.malai.javafx.instrument.JfxInstrument;
+import org.malai.javafx.interaction.library.MenuItemPressed;
 import org.malai.javafx.ui.JfxUI;
 import org.w3c.dom.Element;
 
@@ -62,6 +71,8 @@ public class Exporter extends JfxInstrument implements Initializable {
 	/** The menu item that export as PDF (using pdfcrop) document. */
 	@FXML protected MenuItem menuItemPDFcrop;
 	@FXML protected MenuItem exportTemplateMenu;
+	/** The menu item that cancels the exports in progress. */
+	@FXML protected MenuItem menuItemCancel;
 	/** The dialog box that allows to define where the drawing must be exported. */
 	private final @NotNull FileChooser fileChooserExport;
 	private final @NotNull PreferencesService prefs;
@@ -77,6 +88,8 @@ public class Exporter extends JfxInstrument implements Initializable {
 	 */
 	private final @NotNull Canvas canvas;
 	private final @NotNull SVGDocumentGenerator svgGen;
+	/** The export jobs in progress. The progress of the latest one is shown in the status bar. */
+	private final @NotNull ObservableList<Task<Boolean>> exports;
 
 
 	@Inject
@@ -91,6 +104,7 @@ public class Exporter extends JfxInstrument implements Initializable {
 		this.app = Objects.requireNonNull(app);
 		this.canvas = Objects.requireNonNull(canvas);
 		this.svgGen = Objects.requireNonNull(svgGen);
+		exports = FXCollections.observableArrayList();
 		fileChooserExport = new FileChooser();
 		fileChooserExport.setTitle(prefs.getBundle().getString("Exporter.1"));
 	}
@@ -123,7 +137,8 @@ public class Exporter extends JfxInstrument implements Initializable {
 
 	@Override
 	protected void configureBindings() {
-		menuItemBinder(i -> new Export(canvas, pstGen, (ExportFormat) i.getWidget().getUserData(), getExportDialog((ExportFormat) i.getWidget().getUserData()))).
+		menuItemBinder(i -> new Export(canvas, pstGen, (ExportFormat) i.getWidget().getUserData(), getExportDialog((ExportFormat) i.getWidget().getUserData()),
+			prefs.getBundle(), prefs.getExportDPI())).
 			on(menuItemBMP, menuItemEPSLatex, menuItemJPG, menuItemPDF, menuItemPDFcrop, menuItemPNG, menuItemPST).
 			when(i -> i.getWidget().getUserData() instanceof ExportFormat).
 			bind();
@@ -131,7 +146,10 @@ public class Exporter extends JfxInstrument implements Initializable {
 		menuItemBinder(() -> new ExportTemplate(templateManager.templatePane, svgGen, prefs.getBundle(), app, statusBar.getProgressBar(), statusBar.getLabel())).
 			on(exportTemplateMenu).bind();
 
+		anonCmdBinder(new MenuItemPressed(), () -> List.copyOf(exports).forEach(job -> job.cancel())).on(menuItemCancel).bind();
+
 		exportTemplateMenu.disableProperty().bind(canvas.getDrawing().getSelection().getShapes().emptyProperty());
+		menuItemCancel.disableProperty().bind(Bindings.isEmpty(exports));
 	}
 
 	/**
@@ -153,7 +171,60 @@ public class Exporter extends JfxInstrument implements Initializable {
 
 	@Override
 	public void onCmdExecuted(final Command cmd) {
-		statusBar.getLabel().setText(prefs.getBundle().getString("LaTeXDrawFrame.184"));
+		if(cmd instanceof Export) {
+			((Export) cmd).getJob().ifPresent(job -> {
+				exports.add(job);
+				job.stateProperty().addListener((observable, oldValue, state) -> {
+					if(state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+						onExportEnded(job);
+					}
+				});
+				job.messageProperty().addListener((observable, oldValue, msg) -> {
+					if(isLatestExport(job)) {
+						statusBar.getLabel().setText(msg);
+					}
+				});
+				showProgress();
+			});
+		}
+	}
+
+	private boolean isLatestExport(final @NotNull Task<Boolean> job) {
+		return !exports.isEmpty() && exports.get(exports.size() - 1) == job;
+	}
+
+	private void onExportEnded(final @NotNull Task<Boolean> job) {
+		final String msg;
+
+		if(job.getState() == Worker.State.CANCELLED) {
+			msg = "export.cancelled"; //NON-NLS
+		}else if(job.getState() == Worker.State.SUCCEEDED && Boolean.TRUE.equals(job.getValue())) {
+			msg = "LaTeXDrawFrame.184"; //NON-NLS
+		}else {
+			if(job.getException() != null) {
+				BadaboomCollector.INSTANCE.add(job.getException());
+			}
+			msg = "export.failed"; //NON-NLS
+		}
+
+		exports.remove(job);
+		statusBar.getLabel().setText(prefs.getBundle().getString(msg));
+		showProgress();
+	}
+
+	/**
+	 * Shows the progress of the latest export in progress, if any.
+	 */
+	private void showProgress() {
+		final ProgressBar progressBar = statusBar.getProgressBar();
+		progressBar.progressProperty().unbind();
+
+		if(exports.isEmpty()) {
+			progressBar.setVisible(false);
+		}else {
+			progressBar.progressProperty().bind(exports.get(exports.size() - 1).progressProperty());
+			progressBar.setVisible(true);
+		}
 	}
 
 	@Override
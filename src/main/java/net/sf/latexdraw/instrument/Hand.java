@@ -26,6 +26,7 @@ import javafx.scene.input.MouseButton;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
+import javafx.scene.transform.Translate;
 import net.sf.latexdraw.command.shape.InitTextSetter;
 import net.sf.latexdraw.command.shape.SelectShapes;
 import net.sf.latexdraw.command.shape.TranslateShapes;
@@ -161,21 +162,24 @@ public class Hand extends CanvasInstrument {
 
 	/**
 	 * A DnD on a shape view allows to translate the underlying shape.
+	 * During the DnD, the translation is previewed by translating the views only. The shapes are translated once, at the end.
 	 */
 	private void bindDnDTranslate() {
 		nodeBinder(new DnD(true, true), i -> new TranslateShapes(canvas.getDrawing(), canvas.getDrawing().getSelection().duplicateDeep(false))).
 			on(canvas.getViews().getChildren()).on(canvas.getSelectionBorder()).
 			then((i, c) -> {
+				// The source point is updated on each move: the translation vector is accumulated.
 				final Point startPt = grid.getTransformedPointToGrid(i.getSrcScenePoint());
 				final Point endPt = grid.getTransformedPointToGrid(i.getTgtScenePoint());
-				c.setT(endPt.getX() - startPt.getX(), endPt.getY() - startPt.getY());
+				c.setT(c.getTx() + endPt.getX() - startPt.getX(), c.getTy() + endPt.getY() - startPt.getY());
+				canvas.setSelectionTransformPreview(new Translate(c.getTx(), c.getTy()));
 			}).
 			when(i -> i.getButton() == MouseButton.PRIMARY && !canvas.getDrawing().getSelection().isEmpty()).
-			exec().
 			first((i, c) -> {
 				i.getSrcObject().ifPresent(node -> Platform.runLater(() -> node.requestFocus()));
 				canvas.setCursor(Cursor.MOVE);
 			}).
+			endOrCancel((i, c) -> canvas.clearSelectionTransformPreview()).
 			cancel((i, c) -> canvas.update()).
 			strictStart().
 			bind();
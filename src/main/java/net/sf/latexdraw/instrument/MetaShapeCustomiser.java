@@ -11,6 +11,7 @@
 package net.sf.latexdraw.instrument;
 
 import java.net.URL;
+import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
 import javafx.collections.ListChangeListener;
@@ -22,6 +23,9 @@ import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.malai.command.Command;
+import org.malai.undo.Undoable;
 
 /**
  * This meta-instrument manages the instruments that customises shape properties.
@@ -64,6 +68,8 @@ public class MetaShapeCustomiser extends ShapePropertyCustomiser implements Init
 	/** This instrument that places shapes. */
 	protected final @NotNull ShapePositioner shapePositioner;
 	protected final @NotNull ShapePlotCustomiser plotCustom;
+	/** All the instruments above. */
+	private final @NotNull List<ShapePropertyCustomiser> customisers;
 
 	@Inject
 	public MetaShapeCustomiser(final ShapeBorderCustomiser borderCust, final ShapeDoubleBorderCustomiser dbleBordCust, final ShapeShadowCustomiser shadCust,
@@ -91,6 +97,32 @@ public class MetaShapeCustomiser extends ShapePropertyCustomiser implements Init
 		shapeTransformer = Objects.requireNonNull(transformer);
 		shapePositioner = Objects.requireNonNull(positioner);
 		plotCustom = Objects.requireNonNull(plotCust);
+		customisers = List.of(borderCustomiser, doubleBorderCustomiser, shadowCustomiser, fillingCustomiser, shapeTextCustomiser, rotationCustomiser,
+			arrowCustomiser, dotCustomiser, arcCustomiser, dimPosCustomiser, gridCustomiser, shapeGrouper, shapeAxesCustomiser, shapeGridCustomiser,
+			shapeFreeHandCustomiser, shapeTransformer, shapePositioner, plotCustom);
+	}
+
+	@Override
+	public void onCmdDone(final Command cmd) {
+		updateAffected(cmd);
+	}
+
+	@Override
+	public void onUndoableUndo(final Undoable undoable) {
+		updateAffected(undoable);
+	}
+
+	@Override
+	public void onUndoableRedo(final Undoable undoable) {
+		updateAffected(undoable);
+	}
+
+	/**
+	 * Updates the instruments whose widgets may be out of date after the given command only.
+	 */
+	private void updateAffected(final @Nullable Object cmd) {
+		final Group shape = getDisplayedShape();
+		customisers.stream().filter(cust -> cust.isAffectedBy(cmd)).forEach(cust -> cust.update(shape));
 	}
 
 	@Override
@@ -100,69 +132,18 @@ public class MetaShapeCustomiser extends ShapePropertyCustomiser implements Init
 		if(act) {
 			update();
 		}else {
-			borderCustomiser.setActivated(false);
-			doubleBorderCustomiser.setActivated(false);
-			shadowCustomiser.setActivated(false);
-			fillingCustomiser.setActivated(false);
-			shapeTextCustomiser.setActivated(false);
-			rotationCustomiser.setActivated(false);
-			arrowCustomiser.setActivated(false);
-			dotCustomiser.setActivated(false);
-			arcCustomiser.setActivated(false);
-			gridCustomiser.setActivated(false);
-			shapeAxesCustomiser.setActivated(false);
-			shapeGridCustomiser.setActivated(false);
-			plotCustom.setActivated(false);
-			shapeFreeHandCustomiser.setActivated(false);
-			dimPosCustomiser.setActivated(false);
-			shapeGrouper.setActivated(false);
-			shapeTransformer.setActivated(false);
-			shapePositioner.setActivated(false);
+			customisers.forEach(cust -> cust.setActivated(false));
 		}
 	}
 
 	@Override
 	protected void update(final Group shape) {
-		borderCustomiser.update(shape);
-		doubleBorderCustomiser.update(shape);
-		shadowCustomiser.update(shape);
-		fillingCustomiser.update(shape);
-		shapeTextCustomiser.update(shape);
-		rotationCustomiser.update(shape);
-		arrowCustomiser.update(shape);
-		dotCustomiser.update(shape);
-		arcCustomiser.update(shape);
-		dimPosCustomiser.update(shape);
-		gridCustomiser.update(shape);
-		shapeGrouper.update(shape);
-		shapeAxesCustomiser.update(shape);
-		shapeGridCustomiser.update(shape);
-		shapeFreeHandCustomiser.update(shape);
-		shapeTransformer.update(shape);
-		shapePositioner.update(shape);
-		plotCustom.update(shape);
+		customisers.forEach(cust -> cust.update(shape));
 	}
 
 	@Override
 	public void clearEvents() {
-		borderCustomiser.clearEvents();
-		doubleBorderCustomiser.clearEvents();
-		shadowCustomiser.clearEvents();
-		fillingCustomiser.clearEvents();
-		shapeTextCustomiser.clearEvents();
-		rotationCustomiser.clearEvents();
-		arrowCustomiser.clearEvents();
-		dotCustomiser.clearEvents();
-		arcCustomiser.clearEvents();
-		dimPosCustomiser.clearEvents();
-		gridCustomiser.clearEvents();
-		shapeGrouper.clearEvents();
-		shapeAxesCustomiser.clearEvents();
-		shapeGridCustomiser.clearEvents();
-		shapeFreeHandCustomiser.clearEvents();
-		shapeTransformer.clearEvents();
-		shapePositioner.clearEvents();
-		plotCustom.clearEvents();
+		customisers.forEach(cust -> cust.clearEvents());
 	}
 
 	@Override
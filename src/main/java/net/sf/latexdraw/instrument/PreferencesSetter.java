@@ -59,6 +59,10 @@ public class PreferencesSetter extends JfxInstrument implements Initializable {
 	@FXML protected Spinner<Integer> magneticGridGap;
 	/** The widget used to defines the number of recent file to keep in memory. */
 	@FXML protected Spinner<Integer> nbRecentFilesField;
+	/** The widget used to define the resolution of the exported pictures. */
+	@FXML protected Spinner<Integer> exportDPIField;
+	/** The widget used to define the memory budget of the undo history. */
+	@FXML protected Spinner<Integer> undoMemoryField;
 	/** Contains the different possible kind of grids. */
 	@FXML protected ComboBox<GridStyle> styleList;
 	@FXML protected Button buttonOpen;
@@ -69,6 +73,8 @@ public class PreferencesSetter extends JfxInstrument implements Initializable {
 	/** to avoid GC'd */
 	private ObjectProperty<Integer> gridGapProp;
 	private ObjectProperty<Integer> recentFilesNb;
+	private ObjectProperty<Integer> exportDPIProp;
+	private ObjectProperty<Integer> undoMemoryProp;
 
 	@Inject
 	public PreferencesSetter(final PreferencesService prefsService) {
@@ -92,9 +98,13 @@ public class PreferencesSetter extends JfxInstrument implements Initializable {
 
 		gridGapProp = prefsService.gridGapProperty().asObject();
 		recentFilesNb = prefsService.nbRecentFilesProperty().asObject();
+		exportDPIProp = prefsService.exportDPIProperty().asObject();
+		undoMemoryProp = prefsService.undoMemoryProperty().asObject();
 
 		nbRecentFilesField.getValueFactory().valueProperty().bindBidirectional(recentFilesNb);
 		magneticGridGap.getValueFactory().valueProperty().bindBidirectional(gridGapProp);
+		exportDPIField.getValueFactory().valueProperty().bindBidirectional(exportDPIProp);
+		undoMemoryField.getValueFactory().valueProperty().bindBidirectional(undoMemoryProp);
 
 		unitChoice.valueProperty().bindBidirectional(prefsService.unitProperty());
 
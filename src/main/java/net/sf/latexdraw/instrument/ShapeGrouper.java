@@ -18,11 +18,13 @@ import javafx.scene.control.Button;
 import javafx.scene.layout.AnchorPane;
 import net.sf.latexdraw.command.shape.JoinShapes;
 import net.sf.latexdraw.command.shape.SeparateShapes;
+import net.sf.latexdraw.command.shape.ShapeProperties;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * This instrument groups and separates shapes.
@@ -40,6 +42,12 @@ public class ShapeGrouper extends ShapePropertyCustomiser implements Initializab
 		super(hand, pencil, canvas, drawing, editing);
 	}
 
+	@Override
+	protected boolean isDisplaying(final @NotNull ShapeProperties<?> prop) {
+		// Depends on the selected shapes only.
+		return false;
+	}
+
 	@Override
 	protected void update(final Group shape) {
 		if(hand.isActivated()) {
@@ -99,8 +99,9 @@ public class ShapePlotCustomiser extends ShapePropertyCustomiser implements Init
 	protected void configureBindings() {
 		addComboPropBinding(plotStyleCB, ShapeProperties.PLOT_STYLE);
 		addSpinnerPropBinding(nbPtsSpinner, ShapeProperties.PLOT_NB_PTS);
+		addDisplayedProperties(ShapeProperties.PLOT_MIN_X, ShapeProperties.PLOT_MAX_X);
 
-		spinnerBinder(i -> mapModShProp(null, ShapeProperties.PLOT_MIN_X)).on(minXSpinner).
+		spinnerBinder(i -> mapModShPropSpinner(ShapeProperties.PLOT_MIN_X)).on(minXSpinner).
 			then((i, c) -> c.setValue((Double) i.getWidget().getValue())).
 			when(i -> hand.isActivated() && checkValidPlotFct()).bind();
 
@@ -108,7 +109,7 @@ public class ShapePlotCustomiser extends ShapePropertyCustomiser implements Init
 			then((i, c) -> c.setValue((Double) i.getWidget().getValue())).
 			when(pencilActiv).bind();
 
-		spinnerBinder(i -> mapModShProp(null, ShapeProperties.PLOT_MAX_X)).on(maxXSpinner).
+		spinnerBinder(i -> mapModShPropSpinner(ShapeProperties.PLOT_MAX_X)).on(maxXSpinner).
 			then((i, c) -> c.setValue((Double) i.getWidget().getValue())).
 			when(i -> hand.isActivated() && checkValidPlotFct()).bind();
 
@@ -17,11 +17,13 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
 import javafx.scene.layout.Pane;
 import net.sf.latexdraw.command.shape.MoveBackForegroundShapes;
+import net.sf.latexdraw.command.shape.ShapeProperties;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Puts shapes in background / foreground.
@@ -57,6 +59,12 @@ public class ShapePositioner extends ShapePropertyCustomiser implements Initiali
 		mainPane.setVisible(visible);
 	}
 
+	@Override
+	protected boolean isDisplaying(final @NotNull ShapeProperties<?> prop) {
+		// Depends on the selected shapes only.
+		return false;
+	}
+
 	@Override
 	protected void update(final Group shape) {
 		setActivated(hand.isActivated() && !shape.isEmpty());
@@ -10,7 +10,10 @@
  */
 package net.sf.latexdraw.instrument;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BooleanSupplier;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ColorPicker;
@@ -20,6 +23,7 @@ import javafx.scene.control.ToggleButton;
 import net.sf.latexdraw.command.ModifyEditingParameter;
 import net.sf.latexdraw.command.shape.ModifyShapeProperty;
 import net.sf.latexdraw.command.shape.ShapeProperties;
+import net.sf.latexdraw.command.shape.ShapePropertyCmd;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Color;
 import net.sf.latexdraw.model.api.shape.Drawing;
@@ -29,8 +33,10 @@ import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.malai.command.Command;
 import org.malai.javafx.instrument.JfxInstrument;
+import org.malai.undo.UndoCollector;
 import org.malai.undo.Undoable;
 
 /**
@@ -38,6 +44,9 @@ import org.malai.undo.Undoable;
  * @author Arnaud BLOUIN
  */
 public abstract class ShapePropertyCustomiser extends JfxInstrument {
+	/** The delay (in ms) during which the successive changes of a spinner are merged into a single undoable command. */
+	static final long MERGE_DELAY = 1000L;
+
 	protected final @NotNull Hand hand;
 	protected final @NotNull Pencil pencil;
 	protected final @NotNull Canvas canvas;
@@ -45,6 +54,12 @@ public abstract class ShapePropertyCustomiser extends JfxInstrument {
 	protected final @NotNull EditingService editing;
 	protected final @NotNull BooleanSupplier handActiv;
 	protected final @NotNull BooleanSupplier pencilActiv;
+	/** The latest spinner command, into which the following spinner commands may be merged. */
+	private @Nullable ModifyShapeProperty<?> lastSpinnerCmd;
+	/** The creation time of the latest spinner command. */
+	private long lastSpinnerTime;
+	/** The shape properties displayed by the instrument. Filled while configuring the bindings. */
+	private final @NotNull Set<ShapeProperties<?>> displayedProps;
 
 	@Inject
 	public ShapePropertyCustomiser(final Hand hand, final Pencil pencil, final Canvas canvas, final Drawing drawing, final EditingService editing) {
@@ -56,32 +71,68 @@ public abstract class ShapePropertyCustomiser extends JfxInstrument {
 		this.editing = Objects.requireNonNull(editing);
 		handActiv = () -> hand.isActivated();
 		pencilActiv = () -> pencil.isActivated();
+		displayedProps = new HashSet<>();
 	}
 
 	@Override
 	public void onCmdDone(final Command cmd) {
-		update();
+		if(isAffectedBy(cmd)) {
+			update();
+		}
 	}
 
 	@Override
 	public void onUndoableUndo(final Undoable undoable) {
-		update();
+		if(isAffectedBy(undoable)) {
+			update();
+		}
 	}
 
 	@Override
 	public void onUndoableRedo(final Undoable undoable) {
-		update();
+		if(isAffectedBy(undoable)) {
+			update();
+		}
+	}
+
+	/**
+	 * Declares shape properties displayed by the instrument that are not bound through the add*PropBinding methods.
+	 * @param props The displayed properties.
+	 */
+	protected final void addDisplayedProperties(final @NotNull ShapeProperties<?>... props) {
+		Collections.addAll(displayedProps, props);
+	}
+
+	/**
+	 * @param prop A shape property.
+	 * @return True if the widgets of the instrument depend on the given property.
+	 * An instrument that declares no property is considered as depending on all of them.
+	 */
+	protected boolean isDisplaying(final @NotNull ShapeProperties<?> prop) {
+		return displayedProps.isEmpty() || displayedProps.contains(prop);
+	}
+
+	/**
+	 * @param cmd An executed, undone, or redone command.
+	 * @return True if the widgets of the instrument may be out of date after the given command. A command that does not modify
+	 * a single shape property (e.g. a selection or a translation) may change anything.
+	 */
+	public boolean isAffectedBy(final @Nullable Object cmd) {
+		return !(cmd instanceof ShapePropertyCmd) || isDisplaying(((ShapePropertyCmd<?>) cmd).getProperty());
+	}
+
+	/**
+	 * @return The shapes whose properties are displayed: the selection, or a shape that gathers the parameters of the pencil.
+	 */
+	protected @NotNull Group getDisplayedShape() {
+		return pencil.isActivated() ? editing.getShapePrototype() : drawing.getSelection();
 	}
 
 	/**
 	 * Updates the instrument and its widgets
 	 */
 	public void update() {
-		if(pencil.isActivated()) {
-			update(ShapeFactory.INST.createGroup(editing.createShapeInstance()));
-		}else {
-			update(drawing.getSelection());
-		}
+		update(getDisplayedShape());
 	}
 
 	/**
@@ -106,18 +157,38 @@ public abstract class ShapePropertyCustomiser extends JfxInstrument {
 		return new ModifyShapeProperty<>(p, canvas.getDrawing().getSelection().duplicateDeep(false), o);
 	}
 
+	/**
+	 * Creates a command that modifies the given property of the selected shapes for a spinner.
+	 * Scrolling a spinner produces a command per step: a command created shortly after the previous one, while this latter is
+	 * still the latest undoable command, is merged into it so that the whole scroll is undone at once.
+	 */
+	protected final <T> ModifyShapeProperty<T> mapModShPropSpinner(final @NotNull ShapeProperties<T> p) {
+		final ModifyShapeProperty<T> cmd = mapModShProp(null, p);
+		final long time = System.currentTimeMillis();
+		final ModifyShapeProperty<?> last = lastSpinnerCmd;
+
+		if(last == null || time - lastSpinnerTime > MERGE_DELAY || UndoCollector.INSTANCE.getLastUndo().filter(undo -> undo == last).isEmpty() ||
+			!cmd.mergeInto(last)) {
+			lastSpinnerCmd = cmd;
+		}
+		lastSpinnerTime = time;
+		return cmd;
+	}
+
 	protected final <T> ModifyEditingParameter<T> firstPropPen(final T o, final @NotNull ShapeProperties<T> p) {
 		return new ModifyEditingParameter<>(p, editing, o);
 	}
 
 	@SuppressWarnings("unchecked")
 	protected <T> void addComboPropBinding(final @NotNull ComboBox<T> combo, final @NotNull ShapeProperties<T> prop) {
+		displayedProps.add(prop);
 		comboboxBinder(i -> mapModShProp((T) i.getWidget().getSelectionModel().getSelectedItem(), prop)).on(combo).when(handActiv).bind();
 		comboboxBinder(i -> firstPropPen((T) i.getWidget().getSelectionModel().getSelectedItem(), prop)).on(combo).when(pencilActiv).bind();
 	}
 
 	protected void addSpinnerAnglePropBinding(final @NotNull Spinner<Double> spinner, final @NotNull ShapeProperties<Double> prop) {
-		spinnerBinder(i -> mapModShProp(null, prop)).on(spinner).
+		displayedProps.add(prop);
+		spinnerBinder(i -> mapModShPropSpinner(prop)).on(spinner).
 			then((i, c) -> c.setValue(Math.toRadians(((Number) i.getWidget().getValue()).doubleValue()))).
 			when(handActiv).bind();
 
@@ -128,7 +199,8 @@ public abstract class ShapePropertyCustomiser extends JfxInstrument {
 
 	@SuppressWarnings("unchecked")
 	protected <T extends Number> void addSpinnerPropBinding(final @NotNull Spinner<T> spinner, final @NotNull ShapeProperties<T> prop) {
-		spinnerBinder(i -> mapModShProp(null, prop)).on(spinner).
+		displayedProps.add(prop);
+		spinnerBinder(i -> mapModShPropSpinner(prop)).on(spinner).
 			then((i, c) -> c.setValue((T) i.getWidget().getValue())).
 			when(handActiv).bind();
 
@@ -138,28 +210,33 @@ public abstract class ShapePropertyCustomiser extends JfxInstrument {
 	}
 
 	protected void addColorPropBinding(final @NotNull ColorPicker picker, final @NotNull ShapeProperties<Color> prop) {
+		displayedProps.add(prop);
 		colorPickerBinder(i -> mapModShProp(ShapeFactory.INST.createColorFX(i.getWidget().getValue()), prop)).on(picker).when(handActiv).bind();
 		colorPickerBinder(i -> firstPropPen(ShapeFactory.INST.createColorFX(i.getWidget().getValue()), prop)).on(picker).when(pencilActiv).bind();
 	}
 
 	protected void addCheckboxPropBinding(final @NotNull CheckBox cb, final @NotNull ShapeProperties<Boolean> prop) {
+		displayedProps.add(prop);
 		checkboxBinder(i -> mapModShProp(i.getWidget().isSelected(), prop)).on(cb).when(handActiv).bind();
 		checkboxBinder(i -> firstPropPen(i.getWidget().isSelected(), prop)).on(cb).when(pencilActiv).bind();
 	}
 
 	protected void addTogglePropBinding(final @NotNull ToggleButton button, final @NotNull ShapeProperties<Boolean> prop, final boolean invert) {
+		displayedProps.add(prop);
 		toggleButtonBinder(i -> mapModShProp(i.getWidget().isSelected() ^ invert, prop)).on(button).when(handActiv).bind();
 		toggleButtonBinder(i -> firstPropPen(i.getWidget().isSelected() ^ invert, prop)).on(button).when(pencilActiv).bind();
 	}
 
 	protected <T> void addTogglePropBinding(final @NotNull ToggleButton button, final @NotNull ShapeProperties<T> prop, final T value) {
+		displayedProps.add(prop);
 		toggleButtonBinder(i -> mapModShProp(value, prop)).on(button).when(handActiv).bind();
 		toggleButtonBinder(i -> firstPropPen(value, prop)).on(button).when(pencilActiv).bind();
 	}
 
 	protected void addSpinnerXYPropBinding(final @NotNull Spinner<Double> spinnerX, final @NotNull Spinner<Double> spinnerY,
 		final @NotNull ShapeProperties<Point> property) {
-		spinnerBinder(i -> new ModifyShapeProperty<>(property, canvas.getDrawing().getSelection().duplicateDeep(false), null)).
+		displayedProps.add(property);
+		spinnerBinder(i -> mapModShPropSpinner(property)).
 			on(spinnerX, spinnerY).then(c -> c.setValue(ShapeFactory.INST.createPoint(spinnerX.getValue(), spinnerY.getValue()))).when(handActiv).bind();
 
 		spinnerBinder(i -> new ModifyEditingParameter<>(property, editing, null)).on(spinnerX, spinnerY).
@@ -18,11 +18,13 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Spinner;
 import javafx.scene.layout.Pane;
 import net.sf.latexdraw.command.shape.RotateShapes;
+import net.sf.latexdraw.command.shape.ShapeProperties;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * This instrument modifies the rotation angle of selected shapes.
@@ -54,6 +56,12 @@ public class ShapeRotationCustomiser extends ShapePropertyCustomiser implements
 		mainPane.managedProperty().bind(mainPane.visibleProperty());
 	}
 
+	@Override
+	protected boolean isDisplaying(final @NotNull ShapeProperties<?> prop) {
+		// The rotation angle is not a shape property.
+		return false;
+	}
+
 	@Override
 	protected void update(final Group shape) {
 		if(!hand.isActivated() || shape.isEmpty()) {
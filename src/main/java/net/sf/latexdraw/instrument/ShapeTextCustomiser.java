@@ -126,6 +126,8 @@ public class ShapeTextCustomiser extends ShapePropertyCustomiser implements Init
 	@Override
 	protected void configureBindings() {
 		addComboPropBinding(textPos, ShapeProperties.TEXT_POSITION);
+		// The compilation log depends on the text.
+		addDisplayedProperties(ShapeProperties.TEXT);
 
 		textInputBinder(() -> new ModifyLatexProperties(latexData, LatexProperties.PACKAGES, null)).on(packagesField).
 			then((i, c) -> c.setValue(i.getWidget().getText())).bind();
@@ -19,11 +19,13 @@ import javafx.scene.layout.VBox;
 import net.sf.latexdraw.command.shape.AlignShapes;
 import net.sf.latexdraw.command.shape.DistributeShapes;
 import net.sf.latexdraw.command.shape.MirrorShapes;
+import net.sf.latexdraw.command.shape.ShapeProperties;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.service.EditingService;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.view.jfx.Canvas;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * This instrument transforms (mirror, etc.) the selected shapes.
@@ -93,6 +95,12 @@ public class ShapeTransformer extends ShapePropertyCustomiser implements Initial
 		mainPane.setVisible(visible);
 	}
 
+	@Override
+	protected boolean isDisplaying(final @NotNull ShapeProperties<?> prop) {
+		// Depends on the selected shapes only.
+		return false;
+	}
+
 	@Override
 	protected void update(final Group shape) {
 		setActivated(hand.isActivated() && shape.size() > 1);
@@ -12,6 +12,7 @@ package net.sf.latexdraw.model;
 
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.util.Locale;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
@@ -28,21 +29,33 @@ public final class MathUtils {
 	/** The threshold used to compare double values. */
 	public static final double THRESHOLD = 0.001;
 
-	public final @NotNull DecimalFormat format;
+	/**
+	 * The format of the numbers, one per thread: the shapes are serialised outside the JFX thread too (e.g. crash journal,
+	 * batch conversions, parallel code generation) and a DecimalFormat is not thread-safe.
+	 */
+	private final @NotNull ThreadLocal<DecimalFormat> format;
 
 	public final @NotNull String doubleRegex;
 
 	private MathUtils() {
 		super();
-		format = (DecimalFormat) DecimalFormat.getNumberInstance(Locale.ENGLISH);
-		format.setMaximumFractionDigits(3);
-		format.setRoundingMode(RoundingMode.HALF_EVEN);
-		format.getDecimalFormatSymbols().setDecimalSeparator('.');
-		format.setDecimalSeparatorAlwaysShown(false);
-		format.setGroupingSize(0);
+		format = ThreadLocal.withInitial(() -> {
+			final DecimalFormat df = new DecimalFormat("#,##0.###", DecimalFormatSymbols.getInstance(Locale.ENGLISH)); //NON-NLS
+			df.setMaximumFractionDigits(3);
+			df.setRoundingMode(RoundingMode.HALF_EVEN);
+			df.setDecimalSeparatorAlwaysShown(false);
+			df.setGroupingSize(0);
+			return df;
+		});
 		doubleRegex = "[-]?[0-9]*\\.?[0-9]+";
 	}
 
+	/**
+	 * @return The format of the numbers of the current thread.
+	 */
+	public @NotNull DecimalFormat getFormat() {
+		return format.get();
+	}
 
 	/**
 	 * Tries to parse the given string and convert it as a double value.
@@ -10,9 +10,11 @@
  */
 package net.sf.latexdraw.model.api.property;
 
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
 import net.sf.latexdraw.parser.ps.InvalidFormatPSFunctionException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Properties of plots.
@@ -80,6 +82,18 @@ public interface PlotProp extends Scalable, DotProp {
 	 */
 	double getPlottingStep();
 
+	/**
+	 * @return The data points plotted instead of the equation (e.g. for \listplot), or null if the equation is plotted.
+	 */
+	@Nullable PlotData getPlotData();
+
+	/**
+	 * Sets the data points to plot instead of the equation. The X-min and X-max values are set to the bounds of the data
+	 * (or to x-1 and x+1 if all the points have the same abscissa x).
+	 * @param data The data points or null to plot the equation.
+	 */
+	void setPlotData(final @Nullable PlotData data);
+
 	/** @return The current plot style. */
 	@NotNull PlotStyle getPlotStyle();
 
@@ -36,7 +36,8 @@ public interface Picture extends PositionShape {
 	String getPathTarget();
 
 	/**
-	 * @return the image.
+	 * @return the full resolution image. It is decoded on demand and shared with the pictures of the same file:
+	 * the views should prefer the previews of the image cache.
 	 */
 	Image getImage();
 
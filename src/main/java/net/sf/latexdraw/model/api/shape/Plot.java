@@ -49,6 +49,8 @@ public interface Plot extends PositionShape, PlotProp {
 
 	@NotNull DoubleProperty yScaleProperty();
 
+	@NotNull ObjectProperty<PlotData> plotDataProperty();
+
 	@NotNull
 	@Override
 	Plot duplicate();
@@ -0,0 +1,191 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.model.api.shape;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable series of data points (e.g. the data of a \listplot).
+ * The coordinates are stored in a primitive array to support series of hundreds of thousands of points.
+ * @author Arnaud Blouin
+ */
+public final class PlotData {
+	/** The coordinates of the points: x0, y0, x1, y1, etc. */
+	private final double @NotNull [] coords;
+	private final double minX;
+	private final double maxX;
+	private final double minY;
+	private final double maxY;
+
+	/**
+	 * Creates a series of data points.
+	 * @param coords The coordinates of the points: x0, y0, x1, y1, etc. Copied.
+	 * @param length The number of coordinates to consider. A last single coordinate is ignored.
+	 * The points that have a non-finite coordinate (NaN or infinite) are ignored: they can be neither drawn nor written in PST code.
+	 */
+	public PlotData(final double @NotNull [] coords, final int length) {
+		super();
+		final int nbCoords = Math.min(length, coords.length) / 2 * 2;
+		final double[] finite = new double[nbCoords];
+		int nb = 0;
+
+		for(int i = 0; i < nbCoords; i += 2) {
+			if(Double.isFinite(coords[i]) && Double.isFinite(coords[i + 1])) {
+				finite[nb++] = coords[i];
+				finite[nb++] = coords[i + 1];
+			}
+		}
+
+		this.coords = nb == nbCoords ? finite : Arrays.copyOf(finite, nb);
+		double xmin = Double.POSITIVE_INFINITY;
+		double xmax = Double.NEGATIVE_INFINITY;
+		double ymin = Double.POSITIVE_INFINITY;
+		double ymax = Double.NEGATIVE_INFINITY;
+
+		for(int i = 0; i < this.coords.length; i += 2) {
+			xmin = Math.min(xmin, this.coords[i]);
+			xmax = Math.max(xmax, this.coords[i]);
+			ymin = Math.min(ymin, this.coords[i + 1]);
+			ymax = Math.max(ymax, this.coords[i + 1]);
+		}
+
+		minX = this.coords.length == 0 ? 0d : xmin;
+		maxX = this.coords.length == 0 ? 0d : xmax;
+		minY = this.coords.length == 0 ? 0d : ymin;
+		maxY = this.coords.length == 0 ? 0d : ymax;
+	}
+
+	/**
+	 * @return The number of points.
+	 */
+	public int size() {
+		return coords.length / 2;
+	}
+
+	public double getX(final int i) {
+		return coords[i * 2];
+	}
+
+	public double getY(final int i) {
+		return coords[i * 2 + 1];
+	}
+
+	public double getMinX() {
+		return minX;
+	}
+
+	public double getMaxX() {
+		return maxX;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Reduces the number of points of the series for displaying it: the series is divided into the given number of consecutive buckets
+	 * of which the first, the lowest, the highest, and the last points are kept. So the shape of the displayed series is preserved.
+	 * @param nbBuckets The number of buckets, usually the number of pixel columns of the display.
+	 * @return The decimated series or this series if small enough.
+	 */
+	public @NotNull PlotData decimate(final int nbBuckets) {
+		final int size = size();
+
+		if(nbBuckets < 1 || size <= nbBuckets * 4) {
+			return this;
+		}
+
+		final double[] kept = new double[nbBuckets * 8];
+		int nb = 0;
+
+		for(int bucket = 0; bucket < nbBuckets; bucket++) {
+			final int start = (int) ((long) bucket * size / nbBuckets);
+			final int end = (int) ((long) (bucket + 1) * size / nbBuckets);
+			int min = start;
+			int max = start;
+
+			for(int i = start + 1; i < end; i++) {
+				if(getY(i) < getY(min)) {
+					min = i;
+				}
+				if(getY(i) > getY(max)) {
+					max = i;
+				}
+			}
+
+			int previous = -1;
+			for(final int i : new int[] {start, Math.min(min, max), Math.max(min, max), end - 1}) {
+				if(i != previous) {
+					kept[nb++] = getX(i);
+					kept[nb++] = getY(i);
+					previous = i;
+				}
+			}
+		}
+
+		return new PlotData(kept, nb);
+	}
+
+	/**
+	 * Appends the coordinates of the points to the given builder on a single line: "x0 y0 x1 y1 ...".
+	 * The numbers are written without exponent so that they can be parsed by LaTeX and our parsers.
+	 * @param builder The builder to complete.
+	 * @return The given builder.
+	 */
+	public @NotNull StringBuilder appendCoordinates(final @NotNull StringBuilder builder) {
+		return appendCoordinates(builder, Integer.MAX_VALUE, " ");
+	}
+
+	/**
+	 * Appends the coordinates of the points to the given builder, the given number of points per line
+	 * (TeX limits the length of the lines it reads).
+	 * The numbers are written without exponent so that they can be parsed by LaTeX and our parsers.
+	 * @param builder The builder to complete.
+	 * @param pointsPerLine The maximal number of points of a line. Must be positive.
+	 * @param eol The line separator.
+	 * @return The given builder.
+	 */
+	public @NotNull StringBuilder appendCoordinates(final @NotNull StringBuilder builder, final int pointsPerLine, final @NotNull String eol) {
+		for(int i = 0; i < coords.length; i++) {
+			if(i > 0) {
+				if(i % 2 == 0 && i / 2 % pointsPerLine == 0) {
+					builder.append(eol);
+				}else {
+					builder.append(' ');
+				}
+			}
+			builder.append(BigDecimal.valueOf(coords[i]).stripTrailingZeros().toPlainString());
+		}
+		return builder;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if(this == o) {
+			return true;
+		}
+		if(!(o instanceof PlotData)) {
+			return false;
+		}
+		return Arrays.equals(coords, ((PlotData) o).coords);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(coords);
+	}
+}
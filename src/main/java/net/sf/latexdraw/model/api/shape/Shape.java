@@ -529,4 +529,11 @@ public interface Shape extends Modifiable {
 	double getHeight();
 
 	@NotNull DoubleProperty rotationAngleProperty();
+
+	/**
+	 * The modification stamps of all the shapes come from the same increasing clock:
+	 * a stamp different from a previously read one means that the shape has been modified in between.
+	 * @return The stamp of the last modification of the shape (properties, points, arrows, etc.).
+	 */
+	long getModificationStamp();
 }
@@ -81,6 +81,8 @@ class AxesImpl extends GridBase implements Axes, ArrowableShapeBase {
 		ticksStyle = new SimpleObjectProperty<>(TicksStyle.FULL);
 		ticksSize = new SimpleDoubleProperty(PSTricksConstants.DEFAULT_TICKS_SIZE * Shape.PPC);
 		axesStyle = new SimpleObjectProperty<>(AxesStyle.AXES);
+		watchArrowModifications(arrows);
+		watchModifications(incrementX, incrementY, distLabelsX, distLabelsY, labelsDisplayed, showOrigin, ticksDisplayed, ticksStyle, ticksSize, axesStyle);
 	}
 
 
@@ -46,6 +46,8 @@ class BezierCurveImpl extends CtrlPointShapeBase implements BezierCurve, Arrowab
 		arrows.add(ShapeFactory.INST.createArrow(this));
 		arrows.add(ShapeFactory.INST.createArrow(this));
 		open = new SimpleBooleanProperty(true);
+		watchArrowModifications(arrows);
+		watchModifications(open);
 	}
 
 	@Override
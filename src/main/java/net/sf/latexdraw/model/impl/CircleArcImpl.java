@@ -47,6 +47,8 @@ class CircleArcImpl extends SquaredShapeBase implements CircleArc, ArrowableShap
 		style = new SimpleObjectProperty<>(ArcStyle.ARC);
 		startAngle = new SimpleDoubleProperty(0d);
 		endAngle = new SimpleDoubleProperty(3d * Math.PI / 2d);
+		watchArrowModifications(arrows);
+		watchModifications(style, startAngle, endAngle);
 	}
 
 	@Override
@@ -43,6 +43,8 @@ abstract class CtrlPointShapeBase extends ModifiablePointsShapeBase implements C
 		super(pts);
 		firstCtrlPts = Collections.unmodifiableList(ctrlPts.stream().map(pt -> ShapeFactory.INST.createPoint(pt)).collect(Collectors.toList()));
 		secondCtrlPts = Collections.unmodifiableList(pts.stream().map(pt -> ShapeFactory.INST.createPoint()).collect(Collectors.toList()));
+		firstCtrlPts.forEach(pt -> watchModifications(pt));
+		secondCtrlPts.forEach(pt -> watchModifications(pt));
 		updateSecondControlPoints();
 	}
 
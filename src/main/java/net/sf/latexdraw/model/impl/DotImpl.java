@@ -45,6 +45,7 @@ class DotImpl extends PositionShapeBase implements Dot {
 		super(pt);
 		style = new SimpleObjectProperty<>(DotStyle.DOT);
 		diametre = new SimpleDoubleProperty(40d);
+		watchModifications(style, diametre);
 	}
 
 	@Override
@@ -48,6 +48,7 @@ class FreehandImpl extends ShapeBase implements Freehand {
 		type = new SimpleObjectProperty<>(FreeHandStyle.CURVES);
 		interval = new SimpleIntegerProperty(2);
 		open = new SimpleBooleanProperty(true);
+		watchModifications(type, interval, open);
 		points.addAll(pts);
 	}
 
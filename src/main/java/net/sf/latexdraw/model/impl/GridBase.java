@@ -56,6 +56,7 @@ abstract class GridBase extends PositionShapeBase implements StandardGrid {
 		gridEndx = new SimpleDoubleProperty(2d);
 		gridEndy = new SimpleDoubleProperty(2d);
 		labelSize = new SimpleIntegerProperty(10);
+		watchModifications(originx, originy, gridStartx, gridStarty, gridEndx, gridEndy, labelSize);
 	}
 
 
@@ -83,6 +83,7 @@ class GridImpl extends GridBase implements Grid {
 		subGridDots = new SimpleIntegerProperty(PSTricksConstants.DEFAULT_SUBGRIDDOTS);
 		subGridWidth = new SimpleDoubleProperty(PSTricksConstants.DEFAULT_SUB_GRID_WIDTH * PPC);
 		unit = new SimpleDoubleProperty(PSTricksConstants.DEFAULT_UNIT);
+		watchModifications(xLabelSouth, yLabelWest, gridDots, gridLabelsColour, gridWidth, subGridColour, subGridDiv, subGridDots, subGridWidth, unit);
 	}
 
 
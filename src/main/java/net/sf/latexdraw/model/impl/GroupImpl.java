@@ -19,6 +19,7 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleListProperty;
+import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.property.ArcProp;
@@ -58,11 +59,23 @@ class GroupImpl implements GroupArcBase, GroupArrowableBase, GroupAxesBase, Grou
 	/** The set of shapes. */
 	private final @NotNull ListProperty<Shape> shapes;
 	private final @NotNull DoubleProperty rotationAngle;
+	/** The stamp of the last modification of the list of shapes or of the rotation angle. */
+	private volatile long modificationStamp;
 
 	GroupImpl() {
 		super();
 		shapes = new SimpleListProperty<>(FXCollections.observableArrayList());
 		rotationAngle = new SimpleDoubleProperty();
+		modificationStamp = ShapeBase.nextModificationStamp();
+		final InvalidationListener stamper = observable -> modificationStamp = ShapeBase.nextModificationStamp();
+		shapes.addListener(stamper);
+		rotationAngle.addListener((observable, oldValue, newValue) -> stamper.invalidated(observable));
+	}
+
+	@Override
+	public long getModificationStamp() {
+		// The group is modified as soon as one of its shapes is modified: stamps come from the same clock.
+		return Math.max(modificationStamp, getShapes().stream().mapToLong(sh -> sh.getModificationStamp()).max().orElse(0L));
 	}
 
 	@Override
@@ -15,9 +15,11 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import net.sf.latexdraw.model.api.property.PlotProp;
 import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Arnaud Blouin
@@ -76,6 +78,16 @@ interface GroupPlotBase extends Group {
 		plotShapes().forEach(sh -> sh.setPlotStyle(style));
 	}
 
+	@Override
+	default @Nullable PlotData getPlotData() {
+		return firstPlot().map(sh -> sh.getPlotData()).orElse(null);
+	}
+
+	@Override
+	default void setPlotData(final @Nullable PlotData data) {
+		plotShapes().forEach(sh -> sh.setPlotData(data));
+	}
+
 	@Override
 	default @NotNull String getPlotEquation() {
 		return firstPlot().map(sh -> sh.getPlotEquation()).orElse("");
@@ -11,7 +11,10 @@
 package net.sf.latexdraw.model.impl;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.stream.Stream;
+import javafx.geometry.Dimension2D;
 import javafx.scene.image.Image;
 import net.sf.latexdraw.command.ExportFormat;
 import net.sf.latexdraw.model.MathUtils;
@@ -19,6 +22,8 @@ import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Picture;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.util.ConversionCache;
+import net.sf.latexdraw.util.ImageCache;
 import net.sf.latexdraw.util.SystemUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -27,8 +32,12 @@ import org.jetbrains.annotations.NotNull;
  * @author Arnaud Blouin
  */
 class PictureImpl extends PositionShapeBase implements Picture {
-	/** The buffered image. */
-	private Image image;
+	/** True if an image has been loaded. */
+	private boolean loaded;
+	/** The width of the image. The image itself is shared through the image cache. */
+	private double width;
+	/** The height of the image. */
+	private double height;
 	/** The path of the eps image. */
 	private String pathTarget;
 	/** The path of the source image. */
@@ -46,11 +55,12 @@ class PictureImpl extends PositionShapeBase implements Picture {
 
 
 	/**
-	 * Loads the image using the source path and creates the eps picture.
+	 * Reads the size of the image using the source path and creates the eps picture.
+	 * The image itself is decoded only when needed.
 	 * @throws IllegalArgumentException if the source path is invalid or unsupported
 	 */
 	private void loadImage() {
-		if(image != null) {
+		if(loaded) {
 			new File(pathTarget).delete();
 		}
 
@@ -59,7 +69,10 @@ class PictureImpl extends PositionShapeBase implements Picture {
 			searchOrCreateImg();
 		}
 
-		image = new Image(new File(pathSource).toURI().toString());
+		final Optional<Dimension2D> size = ImageCache.INSTANCE.getSize(pathSource);
+		width = size.map(dim -> dim.getWidth()).orElse(0d);
+		height = size.map(dim -> dim.getHeight()).orElse(0d);
+		loaded = true;
 		createEPSImage();
 	}
 
@@ -73,12 +86,22 @@ class PictureImpl extends PositionShapeBase implements Picture {
 		pathSource = Stream.of(".jpg", ".png", ".gif", ".jpeg").map(ext -> new File(path + ext)). //NON-NLS
 			filter(f -> f.exists()).map(f -> f.getPath()).findFirst().
 			orElseGet(() -> {
-				SystemUtils.getInstance().execute(new String[] {"convert", pathSource, path + ".jpg"}, null); //NON-NLS
+				createConvertedFile(pathSource, path + ".jpg"); //NON-NLS
 				return path + ".jpg"; //NON-NLS
 			});
 	}
 
 
+	/**
+	 * Creates the given file by converting the given source file. The conversion is taken from the conversion cache when possible.
+	 * @param source The file to convert.
+	 * @param target The file to create. Its extension defines its format.
+	 */
+	private static void createConvertedFile(final String source, final String target) {
+		ConversionCache.INSTANCE.convert(Path.of(source), target.substring(target.lastIndexOf('.')), Path.of(target));
+	}
+
+
 	@Override
 	public void copy(final Shape sh) {
 		super.copy(sh);
@@ -119,7 +142,7 @@ class PictureImpl extends PositionShapeBase implements Picture {
 		pathTarget = SystemUtils.getInstance().getFileWithoutExtension(pathSource) + ExportFormat.EPS_LATEX.getFileExtension();
 
 		if(!new File(pathTarget).exists()) {
-			SystemUtils.getInstance().execute(new String[] {"convert", pathSource, pathTarget}, null); //NON-NLS
+			createConvertedFile(pathSource, pathTarget);
 		}
 	}
 
@@ -165,13 +188,13 @@ class PictureImpl extends PositionShapeBase implements Picture {
 
 	@Override
 	public double getHeight() {
-		return image == null ? 0.0 : image.getHeight();
+		return loaded ? height : 0d;
 	}
 
 
 	@Override
 	public Image getImage() {
-		return image;
+		return loaded ? ImageCache.INSTANCE.getImage(pathSource) : null;
 	}
 
 
@@ -186,8 +209,9 @@ class PictureImpl extends PositionShapeBase implements Picture {
 		if(pathSource != null) {
 			loadImage();
 		}else {
-			image = null;
+			loaded = false;
 		}
+		stampModification();
 	}
 
 	@Override
@@ -197,7 +221,7 @@ class PictureImpl extends PositionShapeBase implements Picture {
 
 	@Override
 	public double getWidth() {
-		return image == null ? 0d : image.getWidth();
+		return loaded ? width : 0d;
 	}
 
 	@Override
@@ -30,6 +30,7 @@ import net.sf.latexdraw.model.api.property.PlotProp;
 import net.sf.latexdraw.model.api.shape.Color;
 import net.sf.latexdraw.model.api.shape.DotStyle;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
@@ -37,6 +38,7 @@ import net.sf.latexdraw.model.api.shape.Position;
 import net.sf.latexdraw.parser.ps.PSFunctionParser;
 import net.sf.latexdraw.view.pst.PSTricksConstants;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Implementation of the plotted function.
@@ -53,6 +55,8 @@ class PlotImpl extends PositionShapeBase implements Plot {
 	private final @NotNull StringProperty equation;
 	private final @NotNull DoubleProperty xscale;
 	private final @NotNull DoubleProperty yscale;
+	/** The plotted data points, if any. */
+	private final @NotNull ObjectProperty<PlotData> data;
 	private @NotNull PSFunctionParser parser;
 
 	PlotImpl(final Point pt, final double xMin, final double xMax, final String equationPlot, final boolean polarCoord) {
@@ -73,6 +77,8 @@ class PlotImpl extends PositionShapeBase implements Plot {
 		maxX = new SimpleDoubleProperty(xMax);
 		xscale = new SimpleDoubleProperty(1d);
 		yscale = new SimpleDoubleProperty(1d);
+		data = new SimpleObjectProperty<>();
+		watchModifications(nbPoints, style, equation, dotStyle, dotDiametre, polar, minX, maxX, xscale, yscale, data);
 	}
 
 
@@ -92,6 +98,7 @@ class PlotImpl extends PositionShapeBase implements Plot {
 			xscale.set(plot.getXScale());
 			yscale.set(plot.getYScale());
 			setPlotEquation(plot.getPlotEquation());
+			data.set(plot.getPlotData());
 		}else {
 			if(sh instanceof DotProp) {
 				final DotProp dot = (DotProp) sh;
@@ -176,40 +183,54 @@ class PlotImpl extends PositionShapeBase implements Plot {
 		return (getPlotMaxX() - getPlotMinX()) / (getNbPlottedPoints() - 1);
 	}
 
+	/**
+	 * @return The highest plotted Y value.
+	 */
+	private double getPlottedMaxY() {
+		final PlotData plotData = data.get();
+		if(plotData != null) {
+			return plotData.getMaxY();
+		}
+		final double step = getPlottingStep();
+		final double plotMinX = getPlotMinX();
+		return IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).max().orElse(0.0);
+	}
+
+	/**
+	 * @return The lowest plotted Y value.
+	 */
+	private double getPlottedMinY() {
+		final PlotData plotData = data.get();
+		if(plotData != null) {
+			return plotData.getMinY();
+		}
+		final double step = getPlottingStep();
+		final double plotMinX = getPlotMinX();
+		return IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).min().orElse(0.0);
+	}
+
 	@Override
 	public @NotNull Point getTopLeftPoint() {
-		final double step = getPlottingStep();
 		final Point pos = getPosition();
-		final double plotMinX = getPlotMinX();
-		final double yMax = IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).max().orElse(0.0);
-		return ShapeFactory.INST.createPoint(pos.getX() + plotMinX * Shape.PPC * getXScale(), pos.getY() - yMax * Shape.PPC * getYScale());
+		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMinX() * Shape.PPC * getXScale(), pos.getY() - getPlottedMaxY() * Shape.PPC * getYScale());
 	}
 
 	@Override
 	public @NotNull Point getBottomRightPoint() {
-		final double step = getPlottingStep();
 		final Point pos = getPosition();
-		final double plotMinX = getPlotMinX();
-		final double yMin = IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).min().orElse(0.0);
-		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMaxX() * Shape.PPC * getXScale(), pos.getY() - yMin * Shape.PPC * getYScale());
+		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMaxX() * Shape.PPC * getXScale(), pos.getY() - getPlottedMinY() * Shape.PPC * getYScale());
 	}
 
 	@Override
 	public @NotNull Point getTopRightPoint() {
-		final double step = getPlottingStep();
 		final Point pos = getPosition();
-		final double plotMinX = getPlotMinX();
-		final double maxY = IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).max().orElse(0.0);
-		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMaxX() * Shape.PPC * getXScale(), pos.getY() - maxY * Shape.PPC * getYScale());
+		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMaxX() * Shape.PPC * getXScale(), pos.getY() - getPlottedMaxY() * Shape.PPC * getYScale());
 	}
 
 	@Override
 	public @NotNull Point getBottomLeftPoint() {
-		final double step = getPlottingStep();
 		final Point pos = getPosition();
-		final double plotMinX = getPlotMinX();
-		final double yMin = IntStream.range(0, getNbPlottedPoints()).mapToDouble(x -> getY(plotMinX + x * step)).min().orElse(0.0);
-		return ShapeFactory.INST.createPoint(pos.getX() + plotMinX * Shape.PPC * getXScale(), pos.getY() - yMin * Shape.PPC * getYScale());
+		return ShapeFactory.INST.createPoint(pos.getX() + getPlotMinX() * Shape.PPC * getXScale(), pos.getY() - getPlottedMinY() * Shape.PPC * getYScale());
 	}
 
 	@Override
@@ -284,6 +305,30 @@ class PlotImpl extends PositionShapeBase implements Plot {
 		}
 	}
 
+	@Override
+	public @Nullable PlotData getPlotData() {
+		return data.get();
+	}
+
+	@Override
+	public void setPlotData(final @Nullable PlotData plotData) {
+		if(plotData != null) {
+			// A series with a single abscissa (or without point) has no X range: the bounds are set around its abscissa.
+			final boolean hasRange = plotData.getMinX() < plotData.getMaxX();
+			final double dataMinX = hasRange ? plotData.getMinX() : plotData.getMinX() - 1d;
+			final double dataMaxX = hasRange ? plotData.getMaxX() : plotData.getMaxX() + 1d;
+			// The bounds are set in an order that respects the minX < maxX constraint.
+			if(dataMinX < getPlotMaxX()) {
+				setPlotMinX(dataMinX);
+				setPlotMaxX(dataMaxX);
+			}else {
+				setPlotMaxX(dataMaxX);
+				setPlotMinX(dataMinX);
+			}
+		}
+		data.set(plotData);
+	}
+
 	@Override
 	public double getPlotMinX() {
 		return minX.get();
@@ -429,4 +474,9 @@ class PlotImpl extends PositionShapeBase implements Plot {
 	public @NotNull DoubleProperty yScaleProperty() {
 		return yscale;
 	}
+
+	@Override
+	public @NotNull ObjectProperty<PlotData> plotDataProperty() {
+		return data;
+	}
 }
@@ -34,6 +34,7 @@ class PolylineImpl extends PolygonImpl implements Polyline, ArrowableShapeBase {
 	PolylineImpl(final @NotNull List<Point> pts) {
 		super(pts);
 		arrows = Arrays.asList(ShapeFactory.INST.createArrow(this), ShapeFactory.INST.createArrow(this));
+		watchArrowModifications(arrows);
 	}
 
 	@Override
@@ -27,6 +27,7 @@ class RectangleImpl extends RectangularShapeBase implements Rectangle {
 	RectangleImpl(final Point tl, final Point br) {
 		super(tl, br);
 		lineArcProp = new LineArcPropImpl();
+		watchModifications(lineArcProp.frameArc);
 	}
 
 	@Override
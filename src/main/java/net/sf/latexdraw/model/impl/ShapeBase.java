@@ -11,9 +11,9 @@
 package net.sf.latexdraw.model.impl;
 
 import java.awt.geom.Rectangle2D;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
@@ -21,9 +21,15 @@ import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import net.sf.latexdraw.model.MathUtils;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.BorderPos;
+import net.sf.latexdraw.model.api.shape.Arrow;
 import net.sf.latexdraw.model.api.shape.Color;
 import net.sf.latexdraw.model.api.shape.FillingStyle;
 import net.sf.latexdraw.model.api.shape.Point;
@@ -40,6 +46,9 @@ import org.jetbrains.annotations.Nullable;
  * @author Arnaud Blouin
  */
 abstract class ShapeBase implements SingleShape {
+	/** The clock that stamps the modifications of the shapes. */
+	private static final AtomicLong MODIFICATION_CLOCK = new AtomicLong();
+
 	/** The thickness of the lines of the shape in pixels. */
 	protected final @NotNull DoubleProperty thickness;
 
@@ -124,12 +133,20 @@ abstract class ShapeBase implements SingleShape {
 	/** Defined if the shape has been modified. */
 	protected boolean modified;
 
+	/** The stamp of the last modification of the shape. Read by the saving threads. */
+	private volatile long modificationStamp;
+
+	/** Stamps the shape each time an observed value changes. */
+	protected final @NotNull ChangeListener<Object> stamper;
+
 	/**
 	 * The second default constructor
 	 */
 	ShapeBase() {
 		super();
 		modified = false;
+		modificationStamp = nextModificationStamp();
+		stamper = (observable, oldValue, newValue) -> stampModification();
 		thickness = new SimpleDoubleProperty(2d);
 		rotationAngle = new SimpleDoubleProperty(0d);
 		shadowAngle = new SimpleDoubleProperty(-Math.PI / 4d);
@@ -156,7 +173,73 @@ abstract class ShapeBase implements SingleShape {
 		gradColEnd = new SimpleObjectProperty<>(PSTricksConstants.DEFAULT_GRADIENT_END_COLOR);
 		gradMidPt = new SimpleDoubleProperty(PSTricksConstants.DEFAULT_GRADIENT_MID_POINT);
 		showPts = new SimpleBooleanProperty(false);
-		points = new ArrayList<>();
+		points = createWatchedPoints();
+		watchModifications(thickness, rotationAngle, shadowAngle, gradAngle, hatchingsAngle, hasShadow, hasDbleBord, lineStyle, lineColour, dotSep,
+			dashSepBlack, dashSepWhite, hatchingsCol, hatchingsSep, hatchingsWidth, fillingStyle, fillingCol, bordersPosition, dbleBordCol, dbleBordSep,
+			shadowCol, shadowSize, gradColStart, gradColEnd, gradMidPt, showPts);
+	}
+
+	/**
+	 * @return A new stamp of the modification clock shared by all the shapes.
+	 */
+	static long nextModificationStamp() {
+		return MODIFICATION_CLOCK.incrementAndGet();
+	}
+
+	/**
+	 * Stamps the shape as modified now.
+	 */
+	protected void stampModification() {
+		modificationStamp = nextModificationStamp();
+	}
+
+	/**
+	 * Stamps the shape each time one of the given values changes.
+	 * @param values The values that define the shape.
+	 */
+	protected void watchModifications(final ObservableValue<?>... values) {
+		for(final ObservableValue<?> value : values) {
+			value.addListener(stamper);
+		}
+	}
+
+	/**
+	 * Stamps the shape each time the given point moves.
+	 * @param pt The point that belongs to the shape.
+	 */
+	protected void watchModifications(final @NotNull Point pt) {
+		watchModifications(pt.xProperty(), pt.yProperty());
+	}
+
+	/**
+	 * Stamps the shape each time one of the given arrows changes.
+	 * @param arrows The arrows of the shape.
+	 */
+	protected void watchArrowModifications(final @NotNull List<Arrow> arrows) {
+		arrows.forEach(arrow -> arrow.onChanges(this::stampModification));
+	}
+
+	/**
+	 * @return A list of points that stamps the shape each time it changes or one of its points moves.
+	 */
+	private @NotNull List<Point> createWatchedPoints() {
+		final ObservableList<Point> pts = FXCollections.observableArrayList();
+		pts.addListener((ListChangeListener<Point>) evt -> {
+			while(evt.next()) {
+				evt.getRemoved().forEach(pt -> {
+					pt.xProperty().removeListener(stamper);
+					pt.yProperty().removeListener(stamper);
+				});
+				evt.getAddedSubList().forEach(pt -> watchModifications(pt));
+			}
+			stampModification();
+		});
+		return pts;
+	}
+
+	@Override
+	public long getModificationStamp() {
+		return modificationStamp;
 	}
 
 	@Override
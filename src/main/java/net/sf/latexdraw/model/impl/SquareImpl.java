@@ -27,6 +27,7 @@ class SquareImpl extends SquaredShapeBase implements Square {
 	SquareImpl(final Point tl, final double width) {
 		super(tl, width);
 		lineArcProp = new LineArcPropImpl();
+		watchModifications(lineArcProp.frameArc);
 	}
 
 	@Override
@@ -48,6 +48,7 @@ class TextImpl extends PositionShapeBase implements net.sf.latexdraw.model.api.s
 
 		this.text = new SimpleStringProperty(text == null || text.isEmpty() ? "text" : text); //NON-NLS
 		textPosition = TextPosition.BOT_LEFT;
+		watchModifications(this.text);
 	}
 
 	@Override
@@ -88,7 +89,7 @@ class TextImpl extends PositionShapeBase implements net.sf.latexdraw.model.api.s
 		if(s instanceof TextProp) {
 			final TextProp textSh = (TextProp) s;
 			text.setValue(textSh.getText());
-			textPosition = textSh.getTextPosition();
+			setTextPosition(textSh.getTextPosition());
 		}
 	}
 
@@ -102,6 +103,7 @@ class TextImpl extends PositionShapeBase implements net.sf.latexdraw.model.api.s
 	@Override
 	public void setTextPosition(final @NotNull TextPosition textPosition) {
 		this.textPosition = textPosition;
+		stampModification();
 	}
 
 	@Override
@@ -0,0 +1,110 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import net.sf.latexdraw.model.api.shape.PlotData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads series of data points as written in PSTricks data files or in \savedata commands:
+ * numbers separated by spaces, commas, braces, brackets, or parentheses (e.g. "{0,1} {1,2}" or "0 1 1 2").
+ * Percent signs start comments that end with the line.
+ * The input is read in a streaming fashion and the numbers are stored in a primitive array, so that large data files can be read.
+ * @author Arnaud Blouin
+ */
+public final class PlotDataReader {
+	public static final PlotDataReader INSTANCE = new PlotDataReader();
+
+	private PlotDataReader() {
+		super();
+	}
+
+	/**
+	 * Reads the given data.
+	 * @param data The data points.
+	 * @return The read series of data points.
+	 */
+	public @NotNull PlotData read(final @NotNull String data) {
+		try {
+			return read(new StringReader(data));
+		}catch(final IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Reads the data points provided by the given reader. The reader is not closed.
+	 * The tokens that are not numbers, or that are out of the range of doubles, are ignored.
+	 * @param reader The reader that provides the data.
+	 * @return The read series of data points.
+	 * @throws IOException If the reader fails.
+	 */
+	public @NotNull PlotData read(final @NotNull Reader reader) throws IOException {
+		final char[] buffer = new char[8192];
+		final Scanner scanner = new Scanner();
+		int nbRead = reader.read(buffer);
+
+		while(nbRead >= 0) {
+			for(int i = 0; i < nbRead; i++) {
+				scanner.scan(buffer[i]);
+			}
+			nbRead = reader.read(buffer);
+		}
+
+		scanner.endNumber();
+		return new PlotData(scanner.coords, scanner.nbCoords);
+	}
+
+	/**
+	 * The state of the reading of data points.
+	 */
+	private static final class Scanner {
+		private final StringBuilder number = new StringBuilder();
+		private double[] coords = new double[1024];
+		private int nbCoords = 0;
+		private boolean comment = false;
+
+		void scan(final char c) {
+			if(comment) {
+				comment = c != '\n' && c != '\r';
+			}else if(Character.isDigit(c) || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E') {
+				number.append(c);
+			}else {
+				endNumber();
+				comment = c == '%';
+			}
+		}
+
+		void endNumber() {
+			if(number.length() == 0) {
+				return;
+			}
+			try {
+				final double value = Double.parseDouble(number.toString());
+				// A number out of the double range (e.g. 1e999) cannot be drawn: rejected as a non-number.
+				if(Double.isFinite(value)) {
+					if(nbCoords == coords.length) {
+						coords = Arrays.copyOf(coords, coords.length * 2);
+					}
+					coords[nbCoords++] = value;
+				}
+			}catch(final NumberFormatException ignored) {
+				// Not a number (e.g. a word): ignored.
+			}
+			number.setLength(0);
+		}
+	}
+}
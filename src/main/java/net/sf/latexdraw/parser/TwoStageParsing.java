@@ -0,0 +1,79 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs ANTLR parsers in two stages: the fast SLL prediction mode is tried first and stops at the first syntax error.
+ * The input is then parsed again using the full LL prediction mode that reports (and recovers from) the syntax errors.
+ * The SLL stage succeeds on most of the well-formed documents.
+ * @author Arnaud Blouin
+ */
+public final class TwoStageParsing {
+	public static final TwoStageParsing INSTANCE = new TwoStageParsing();
+
+	private TwoStageParsing() {
+		super();
+	}
+
+	/**
+	 * Parses the input of the given parser.
+	 * The error listeners of the parser are only notified during the LL stage, so that syntax errors are reported once.
+	 * The LL stage uses the error strategy the parser had, which is restored after the SLL stage.
+	 * The parse listeners of the parser are notified during both stages.
+	 * @param parser The parser to use. Its token stream must be rewindable (e.g. a CommonTokenStream).
+	 * @param parsing Calls the starting rule of the parser. Called a second time if the SLL stage fails.
+	 * The parsing context given to the starting rule must be created by this consumer, so that each stage starts from a fresh context.
+	 * @param onFallback Called before the LL stage to reset what the parse listeners produced during the SLL stage,
+	 * including their side effects outside the parser.
+	 * @param <P> The type of the parser.
+	 * @throws ParseCancellationException If the parsing is cancelled by a listener.
+	 * @return True if the SLL stage succeeded.
+	 */
+	public <P extends Parser> boolean parse(final @NotNull P parser, final @NotNull Consumer<P> parsing, final @NotNull Runnable onFallback) {
+		final List<? extends ANTLRErrorListener> errorListeners = new ArrayList<>(parser.getErrorListeners());
+		final ANTLRErrorStrategy errorStrategy = parser.getErrorHandler();
+
+		parser.removeErrorListeners();
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.setErrorHandler(new BailErrorStrategy());
+
+		try {
+			parsing.accept(parser);
+			return true;
+		}catch(final ParseCancellationException ex) {
+			// The parsing was cancelled by the client, not by the bail error strategy.
+			if(!(ex.getCause() instanceof RecognitionException)) {
+				throw ex;
+			}
+		}finally {
+			errorListeners.forEach(parser::addErrorListener);
+			parser.setErrorHandler(errorStrategy);
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+		}
+
+		onFallback.run();
+		parser.reset();
+		parsing.accept(parser);
+		return false;
+	}
+}
@@ -13,21 +13,20 @@ package net.sf.latexdraw.parser.pst;
 import java.util.ArrayList;
 import java.util.List;
 import javafx.geometry.Point2D;
-import net.sf.latexdraw.model.api.shape.Color;
 import net.sf.latexdraw.util.Tuple;
-import net.sf.latexdraw.view.latex.DviPsColors;
 import net.sf.latexdraw.view.pst.PSTricksConstants;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
-import static net.sf.latexdraw.view.pst.PSTricksConstants.DEFAULT_ORIGIN;
-
 /**
  * A PST context contains the value of the PST parameters used during the parsing and the creation of PST objects.
+ * A context only stores the parameters set in it: the other ones are shared with the context it has been created from.
  * @author Arnaud BLOUIN
  */
 public class PSTContext {
+	/** The maximal number of bindings a context looks through to get a parameter. */
+	private static final int MAX_BINDINGS = 16;
 	static double ppc = 1d;
 
 	static double doubleUnitToUnit(final double value, final String unit) {
@@ -44,183 +43,83 @@ public class PSTContext {
 				return value;
 		}
 	}
-	String axesStyle = PSTricksConstants.TOKEN_AXES_STYLE_AXES;
-	String arrowLeft = "";
-	String arrowRight = "";
-	Tuple<Double, Double> arrowSize = new Tuple<>(PSTricksConstants.DEFAULT_ARROW_SIZE_DIM, PSTricksConstants.DEFAULT_ARROW_SIZE_NUM);
-	double arrowLgth = PSTricksConstants.DEFAULT_ARROW_LENGTH;
-	double arrowInset = PSTricksConstants.DEFAULT_ARROW_INSET;
-	Tuple<Double, Double> arrowTBar = new Tuple<>(PSTricksConstants.DEFAULT_ARROW_TBARSIZE_DIM, PSTricksConstants.DEFAULT_ARROW_TBARSIZE_NUM);
-	double arrowBrLgth = PSTricksConstants.DEFAULT_ARROW_BRACKET_LGTH;
-	double arrowrBrLgth = PSTricksConstants.DEFAULT_ARROW_RBRACKET_LGTH;
-	Tuple<Double, Double> arrowDotSize = new Tuple<>(PSTricksConstants.DEFAULT_ARROW_DOTSIZE_DIM, PSTricksConstants.DEFAULT_ARROW_DOTSIZE_NUM);
-	Tuple<Double, Double> arrowScale = new Tuple<>(PSTricksConstants.DEFAULT_ARROW_SCALE1, PSTricksConstants.DEFAULT_ARROW_SCALE2);
-	double arcSep = PSTricksConstants.DEFAULT_ARC_SEP;
-	double arcSepA = PSTricksConstants.DEFAULT_ARC_SEP_A;
-	double arcSepB = PSTricksConstants.DEFAULT_ARC_SEP_B;
-	String dimen = PSTricksConstants.BORDERS_OUTSIDE;
-	double dxIncrement = PSTricksConstants.DEFAULT_DX;
-	double dyIncrement = PSTricksConstants.DEFAULT_DY;
-	double dxLabelDist = PSTricksConstants.DEFAULT_DIST_X_LABEL;
-	double dyLabelDist = PSTricksConstants.DEFAULT_DIST_Y_LABEL;
-	String dotStyle = PSTricksConstants.DOT_STYLE;
-	Tuple<Double, Double> dotScale = new Tuple<>(PSTricksConstants.DEFAULT_DOT_SCALE1, PSTricksConstants.DEFAULT_DOT_SCALE2);
-	double dotAngle = PSTricksConstants.DEFAULT_DOT_ANGLE;
-	boolean dbleLine = PSTricksConstants.DEFAULT_DOUBLE_LINE;
-	double dbleSep = PSTricksConstants.DEFAULT_DOUBLE_SEP;
-	Color dbleColor = PSTricksConstants.DEFAULT_DOUBLE_COLOR;
-	double frameArc = PSTricksConstants.DEFAULT_FRAME_ARC;
-	String fillingStyle = PSTricksConstants.TOKEN_FILL_NONE;
-	Color fillColor = PSTricksConstants.DEFAULT_FILL_COLOR;
-	double gridWidth = PSTricksConstants.DEFAULT_GRID_WIDTH;
-	double gridLabel = PSTricksConstants.DEFAULT_GRID_LABEL / PSTricksConstants.CM_VAL_PT;
-	double gridDots = PSTricksConstants.DEFAULT_GRIDDOTS;
-	double gradAngle = PSTricksConstants.DEFAULT_GRADIENT_ANGLE;
-	Color gridColor = PSTricksConstants.DEFAULT_GRIDCOLOR;
-	double gradMidPoint = PSTricksConstants.DEFAULT_GRADIENT_MID_POINT;
-	Color gradBegin = PSTricksConstants.DEFAULT_GRADIENT_START_COLOR;
-	Color gradEnd = PSTricksConstants.DEFAULT_GRADIENT_END_COLOR;
-	double gangle = PSTricksConstants.DEFAULT_GANGLE;
-	double hatchWidth = PSTricksConstants.DEFAULT_HATCH_WIDTH;
-	double hatchSep = PSTricksConstants.DEFAULT_HATCH_SEP;
-	Color hatchCol = PSTricksConstants.DEFAULT_HATCHING_COLOR;
-	double hatchAngle = PSTricksConstants.DEFAULT_HATCH_ANGLE;
-	boolean isShadow = PSTricksConstants.DEFAULT_SHADOW;
-	double lineWidth = PSTricksConstants.DEFAULT_LINE_WIDTH;
-	Color lineColor = PSTricksConstants.DEFAULT_LINE_COLOR;
-	String labels = PSTricksConstants.TOKEN_LABELS_DISPLAYED_ALL;
-	double lineArc = PSTricksConstants.DEFAULT_LINE_ARC;
-	String lineStyle = PSTricksConstants.LINE_SOLID_STYLE;
-	double ox = PSTricksConstants.DEFAULT_OX;
-	double oy = PSTricksConstants.DEFAULT_OY;
-	Tuple<Double, String> originX = new Tuple<>(DEFAULT_ORIGIN.getX(), PSTricksConstants.TOKEN_CM);
-	Tuple<Double, String> originY = new Tuple<>(DEFAULT_ORIGIN.getY(), PSTricksConstants.TOKEN_CM);
-	boolean showPoints = PSTricksConstants.DEFAULT_SHOW_POINTS;
-	boolean showOrigin = PSTricksConstants.DEFAULT_SHOW_ORIGIN;
-	double subGridWidth = PSTricksConstants.DEFAULT_SUB_GRID_WIDTH;
-	Color shadowCol = PSTricksConstants.DEFAULT_SHADOW_COLOR;
-	Color subGridCol = PSTricksConstants.DEFAULT_SUB_GRID_COLOR;
-	double shadowAngle = PSTricksConstants.DEFAULT_SHADOW_ANGLE;
-	double shadowSize = PSTricksConstants.DEFAULT_SHADOW_SIZE;
-	double subGridDots = PSTricksConstants.DEFAULT_SUBGRIDDOTS;
-	double subGridDiv = PSTricksConstants.DEFAULT_SUBGRIDDIV;
-	String ticks = PSTricksConstants.TOKEN_LABELS_DISPLAYED_ALL;
-	String ticksStyle = PSTricksConstants.TOKEN_TICKS_STYLE_FULL;
-	double ticksSize = PSTricksConstants.DEFAULT_TICKS_SIZE;
-	double unit = PSTricksConstants.DEFAULT_UNIT;
-	double xUnit = PSTricksConstants.DEFAULT_UNIT;
-	double yUnit = PSTricksConstants.DEFAULT_UNIT;
-	Color textColor = DviPsColors.BLACK;
-	boolean shadow = PSTricksConstants.DEFAULT_SHADOW;
-	Color gridlabelcolor = PSTricksConstants.DEFAULT_LABELGRIDCOLOR;
-	boolean isCentered = false;
-	Point2D pictureSWPt = new Point2D(0d, 0d);
-	Point2D pictureNEPt = new Point2D(0d, 0d);
-	String tokenPosition = "";
-	String plotStyle = "line"; //NON-NLS
-	int plotPoints = 50;
-	String textPosition = "";
-	double rputAngle = 0d;
-	double opacity = 1d;
-	double strokeopacity = 1d;
-	boolean polarPlot = false;
 	/** Text chunks parsed in the current context. */
 	List<String> textParsed = new ArrayList<>();
+	/**
+	 * The parameters set in this context and in its ancestors, the latest first.
+	 * This list is persistent: a new context shares the list of its parent (no copy) and setting a parameter
+	 * adds a binding in front of the list of the context only, so the contexts created before are not affected.
+	 */
+	private Binding bindings;
 
 	public PSTContext() {
 		super();
+		bindings = null;
 	}
 
 
 	public PSTContext(final PSTContext ctx, final boolean shareTexts) {
 		this();
-		axesStyle = ctx.axesStyle;
-		arrowLeft = ctx.arrowLeft;
-		arrowRight = ctx.arrowRight;
-		arrowSize = ctx.arrowSize;
-		arrowLgth = ctx.arrowLgth;
-		arrowInset = ctx.arrowInset;
-		arrowTBar = ctx.arrowTBar;
-		arrowBrLgth = ctx.arrowBrLgth;
-		arrowrBrLgth = ctx.arrowrBrLgth;
-		arrowDotSize = ctx.arrowDotSize;
-		arrowScale = ctx.arrowScale;
-		arcSep = ctx.arcSep;
-		arcSepA = ctx.arcSepA;
-		arcSepB = ctx.arcSepB;
-		dimen = ctx.dimen;
-		dxIncrement = ctx.dxIncrement;
-		dyIncrement = ctx.dyIncrement;
-		dxLabelDist = ctx.dxLabelDist;
-		dyLabelDist = ctx.dyLabelDist;
-		dotStyle = ctx.dotStyle;
-		dotScale = ctx.dotScale;
-		dotAngle = ctx.dotAngle;
-		dbleLine = ctx.dbleLine;
-		dbleSep = ctx.dbleSep;
-		dbleColor = ctx.dbleColor;
-		frameArc = ctx.frameArc;
-		fillingStyle = ctx.fillingStyle;
-		fillColor = ctx.fillColor;
-		gridWidth = ctx.gridWidth;
-		gridLabel = ctx.gridLabel;
-		gridDots = ctx.gridDots;
-		gradAngle = ctx.gradAngle;
-		gridColor = ctx.gridColor;
-		gradMidPoint = ctx.gradMidPoint;
-		gradBegin = ctx.gradBegin;
-		gradEnd = ctx.gradEnd;
-		gangle = ctx.gangle;
-		hatchWidth = ctx.hatchWidth;
-		hatchSep = ctx.hatchSep;
-		hatchCol = ctx.hatchCol;
-		hatchAngle = ctx.hatchAngle;
-		isShadow = ctx.isShadow;
-		lineWidth = ctx.lineWidth;
-		lineColor = ctx.lineColor;
-		labels = ctx.labels;
-		lineArc = ctx.lineArc;
-		lineStyle = ctx.lineStyle;
-		ox = ctx.ox;
-		oy = ctx.oy;
-		originX = ctx.originX;
-		originY = ctx.originY;
-		showPoints = ctx.showPoints;
-		showOrigin = ctx.showOrigin;
-		subGridWidth = ctx.subGridWidth;
-		shadowCol = ctx.shadowCol;
-		subGridCol = ctx.subGridCol;
-		shadowAngle = ctx.shadowAngle;
-		shadowSize = ctx.shadowSize;
-		subGridDots = ctx.subGridDots;
-		subGridDiv = ctx.subGridDiv;
-		ticks = ctx.ticks;
-		ticksStyle = ctx.ticksStyle;
-		ticksSize = ctx.ticksSize;
-		unit = ctx.unit;
-		xUnit = ctx.xUnit;
-		yUnit = ctx.yUnit;
-		textColor = ctx.textColor;
-		shadow = ctx.shadow;
-		gridlabelcolor = ctx.gridlabelcolor;
-		isCentered = ctx.isCentered;
-		pictureSWPt = ctx.pictureSWPt;
-		pictureNEPt = ctx.pictureNEPt;
-		tokenPosition = ctx.tokenPosition;
-		plotStyle = ctx.plotStyle;
-		plotPoints = ctx.plotPoints;
-		textPosition = ctx.textPosition;
-		rputAngle = ctx.rputAngle;
-		opacity = ctx.opacity;
-		strokeopacity = ctx.strokeopacity;
-		polarPlot = ctx.polarPlot;
+		bindings = ctx.bindings;
 
 		if(shareTexts) {
 			textParsed = ctx.textParsed;
 		}
 	}
 
+	/**
+	 * @param param The PST parameter to get.
+	 * @param <T> The type of the value of the parameter.
+	 * @return The value of the parameter in this context or its default value if not set.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T get(final PSTParam<T> param) {
+		Binding binding = bindings;
+
+		while(binding != null) {
+			if(binding.values != null) {
+				return (T) binding.values[param.index];
+			}
+			if(binding.param == param) {
+				return (T) binding.value;
+			}
+			binding = binding.next;
+		}
+
+		return param.defaultValue;
+	}
+
+	/**
+	 * Sets the value of a PST parameter in this context only.
+	 * @param param The PST parameter to set.
+	 * @param value The new value.
+	 * @param <T> The type of the value of the parameter.
+	 */
+	<T> void set(final PSTParam<T> param, final T value) {
+		bindings = new Binding(param, value, bindings);
+
+		// The lookup cost grows with the list: beyond a given length, the list is replaced by a table of all the values.
+		if(bindings.length > MAX_BINDINGS) {
+			final List<PSTParam<?>> params = PSTParam.getParams();
+			final Object[] values = new Object[params.size()];
+			for(final PSTParam<?> pstParam : params) {
+				values[pstParam.index] = get(pstParam);
+			}
+			bindings = new Binding(values);
+		}
+	}
+
+	/**
+	 * Replaces the parameters of this context by the ones of the given context (the texts are not modified).
+	 * @param ctx The context to copy the parameters from.
+	 */
+	void setParams(final PSTContext ctx) {
+		bindings = ctx.bindings;
+	}
+
 	Point2D originToPoint() {
+		final Tuple<Double, String> originX = get(PSTParam.ORIGIN_X);
+		final Tuple<Double, String> originY = get(PSTParam.ORIGIN_Y);
 		return new Point2D(doubleUnitToUnit(originX.a, originX.b), doubleUnitToUnit(originY.a, originY.b));
 	}
 
@@ -230,16 +129,16 @@ public class PSTContext {
 
 		if(coord1 == null) {
 			if(coord2 == null) {
-				pictureSWPt = new Point2D(0d, 0d);
-				pictureNEPt = new Point2D(10d, 10d);
+				set(PSTParam.PICTURE_SW_PT, new Point2D(0d, 0d));
+				set(PSTParam.PICTURE_NE_PT, new Point2D(10d, 10d));
 			}
 		}else {
 			if(coord2 == null) {
-				pictureSWPt = new Point2D(0d, 0d);
-				pictureNEPt = new Point2D(p1.getX(), p1.getY());
+				set(PSTParam.PICTURE_SW_PT, new Point2D(0d, 0d));
+				set(PSTParam.PICTURE_NE_PT, new Point2D(p1.getX(), p1.getY()));
 			}else {
-				pictureSWPt = new Point2D(p1.getX(), p1.getY());
-				pictureNEPt = new Point2D(p2.getX(), p2.getY());
+				set(PSTParam.PICTURE_SW_PT, new Point2D(p1.getX(), p1.getY()));
+				set(PSTParam.PICTURE_NE_PT, new Point2D(p2.getX(), p2.getY()));
 			}
 		}
 	}
@@ -248,33 +147,33 @@ public class PSTContext {
 		if(put != null) {
 			switch(put.getText()) {
 				case "L": //NON-NLS
-					rputAngle += -Math.PI / 2d;
+					set(PSTParam.RPUT_ANGLE, get(PSTParam.RPUT_ANGLE) + -Math.PI / 2d);
 					break;
 				case "D": //NON-NLS
-					rputAngle += -Math.PI;
+					set(PSTParam.RPUT_ANGLE, get(PSTParam.RPUT_ANGLE) + -Math.PI);
 					break;
 				case "R": //NON-NLS
-					rputAngle += -3d * Math.PI / 2d;
+					set(PSTParam.RPUT_ANGLE, get(PSTParam.RPUT_ANGLE) + -3d * Math.PI / 2d);
 					break;
 				case "N": //NON-NLS
-					rputAngle = 0d;
+					set(PSTParam.RPUT_ANGLE, 0d);
 					break;
 				case "W": //NON-NLS
-					rputAngle = -Math.PI / 2d;
+					set(PSTParam.RPUT_ANGLE, -Math.PI / 2d);
 					break;
 				case "S": //NON-NLS
-					rputAngle = -Math.PI;
+					set(PSTParam.RPUT_ANGLE, -Math.PI);
 					break;
 				case "E": //NON-NLS
-					rputAngle = -3d * Math.PI / 2d;
+					set(PSTParam.RPUT_ANGLE, -3d * Math.PI / 2d);
 					break;
 			}
 		}else {
 			final double angle = -Math.toRadians(valDimtoDouble(valDim));
 			if(star != null) {
-				rputAngle = angle;
+				set(PSTParam.RPUT_ANGLE, angle);
 			}else {
-				rputAngle += angle;
+				set(PSTParam.RPUT_ANGLE, get(PSTParam.RPUT_ANGLE) + angle);
 			}
 		}
 	}
@@ -317,7 +216,7 @@ public class PSTContext {
 		if(valDim == null) {
 			return PSTricksConstants.DEFAULT_VALUE_MISSING_COORDINATE * ppc;
 		}
-		final double xunit = valDim.unit() == null ? xUnit * unit : 1d;
+		final double xunit = valDim.unit() == null ? get(PSTParam.X_UNIT) * get(PSTParam.UNIT) : 1d;
 		return PSTContext.doubleUnitToUnit(valToDouble(valDim.NUMBER().getText()) * ppc * xunit, unitOrEmpty(valDim.unit()));
 	}
 
@@ -325,7 +224,7 @@ public class PSTContext {
 		if(valDim == null) {
 			return -PSTricksConstants.DEFAULT_VALUE_MISSING_COORDINATE * ppc;
 		}
-		final double yunit = valDim.unit() == null ? yUnit * unit : 1d;
+		final double yunit = valDim.unit() == null ? get(PSTParam.Y_UNIT) * get(PSTParam.UNIT) : 1d;
 		return -PSTContext.doubleUnitToUnit(valToDouble(valDim.NUMBER().getText()) * ppc * yunit, unitOrEmpty(valDim.unit()));
 	}
 
@@ -336,7 +235,7 @@ public class PSTContext {
 	 */
 	Point2D coordToRawPoint(final net.sf.latexdraw.parser.pst.PSTParser.CoordContext coord) {
 		if(coord == null) {
-			return new Point2D(PSTContext.doubleUnitToUnit(originX.a, originX.b), PSTContext.doubleUnitToUnit(originY.a, originY.b));
+			return originToPoint();
 		}
 		return new Point2D(valDimtoDouble(coord.x), valDimtoDouble(coord.y));
 	}
@@ -348,9 +247,42 @@ public class PSTContext {
 	 */
 	Point2D coordToAdjustedPoint(final net.sf.latexdraw.parser.pst.PSTParser.CoordContext coord) {
 		if(coord == null) {
-			return new Point2D(PSTContext.doubleUnitToUnit(originX.a, originX.b) * ppc, PSTContext.doubleUnitToUnit(originY.a, originY.b) * ppc);
+			final Point2D origin = originToPoint();
+			return new Point2D(origin.getX() * ppc, origin.getY() * ppc);
 		}
 		return new Point2D(fromXvalDimToCoord(coord.x), fromYvalDimToCoord(coord.y));
 	}
+
+	/**
+	 * A node of the persistent list of the parameters set in a context: either a single parameter value
+	 * or the table of the values of all the parameters.
+	 */
+	private static final class Binding {
+		final PSTParam<?> param;
+		final Object value;
+		/** The values of all the parameters, by index, or null if the binding concerns a single parameter. */
+		final Object[] values;
+		final Binding next;
+		/** The number of bindings to look through from this one. */
+		final int length;
+
+		Binding(final PSTParam<?> param, final Object value, final Binding next) {
+			super();
+			this.param = param;
+			this.value = value;
+			this.next = next;
+			values = null;
+			length = next == null ? 1 : next.length + 1;
+		}
+
+		Binding(final Object[] values) {
+			super();
+			this.values = values;
+			param = null;
+			value = null;
+			next = null;
+			length = 1;
+		}
+	}
 }
 
@@ -10,6 +10,8 @@
  */
 package net.sf.latexdraw.parser.pst;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -19,6 +21,11 @@ import net.sf.latexdraw.view.latex.DviPsColors;
 
 public abstract class PSTCtxListener extends net.sf.latexdraw.parser.pst.PSTBaseListener {
 	public final Logger log = Logger.getAnonymousLogger();
+	/**
+	 * The colours defined by the parsed code (e.g. definecolor). They are looked up before the colours of DviPsColors,
+	 * so that a parsing is not affected by the colours other parsings (in other threads) define.
+	 */
+	final Map<String, Color> definedColours = new HashMap<>();
 
 	public PSTCtxListener() {
 		super();
@@ -27,320 +34,320 @@ public abstract class PSTCtxListener extends net.sf.latexdraw.parser.pst.PSTBase
 
 	@Override
 	public void exitArrowvalue(final net.sf.latexdraw.parser.pst.PSTParser.ArrowvalueContext ctx) {
-		ctx.pstctx.arrowLeft = ctx.arrLeft == null ? "" : ctx.arrLeft.getText();
-		ctx.pstctx.arrowRight = ctx.arrRight == null ? "" : ctx.arrRight.getText();
+		ctx.pstctx.set(PSTParam.ARROW_LEFT, ctx.arrLeft == null ? "" : ctx.arrLeft.getText());
+		ctx.pstctx.set(PSTParam.ARROW_RIGHT, ctx.arrRight == null ? "" : ctx.arrRight.getText());
 	}
 
 	@Override
 	public void exitParamgridwidth(final net.sf.latexdraw.parser.pst.PSTParser.ParamgridwidthContext ctx) {
-		ctx.pstctx.gridWidth = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.GRID_WIDTH, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamgridcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamgridcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.gridColor = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.GRID_COLOR, col));
 	}
 
 	@Override
 	public void exitParamgriddots(final net.sf.latexdraw.parser.pst.PSTParser.ParamgriddotsContext ctx) {
-		ctx.pstctx.gridDots = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.GRID_DOTS, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamgridlabels(final net.sf.latexdraw.parser.pst.PSTParser.ParamgridlabelsContext ctx) {
-		ctx.pstctx.gridLabel = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.GRID_LABEL, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamgridlabelcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamgridlabelcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.gridlabelcolor = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.GRID_LABEL_COLOR, col));
 	}
 
 	@Override
 	public void exitParamsubgriddiv(final net.sf.latexdraw.parser.pst.PSTParser.ParamsubgriddivContext ctx) {
-		ctx.pstctx.subGridDiv = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.SUB_GRID_DIV, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamsubgridwidth(final net.sf.latexdraw.parser.pst.PSTParser.ParamsubgridwidthContext ctx) {
-		ctx.pstctx.subGridWidth = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.SUB_GRID_WIDTH, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamsubgridcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamsubgridcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.subGridCol = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.SUB_GRID_COL, col));
 	}
 
 	@Override
 	public void exitParamsubgriddots(final net.sf.latexdraw.parser.pst.PSTParser.ParamsubgriddotsContext ctx) {
-		ctx.pstctx.subGridDots = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.SUB_GRID_DOTS, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamRbracketlength(final net.sf.latexdraw.parser.pst.PSTParser.ParamRbracketlengthContext ctx) {
-		ctx.pstctx.arrowrBrLgth = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.ARROW_RBR_LGTH, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamBracketlength(final net.sf.latexdraw.parser.pst.PSTParser.ParamBracketlengthContext ctx) {
-		ctx.pstctx.arrowBrLgth = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.ARROW_BR_LGTH, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamArrowinset(final net.sf.latexdraw.parser.pst.PSTParser.ParamArrowinsetContext ctx) {
-		ctx.pstctx.arrowInset = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.ARROW_INSET, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamArrowlength(final net.sf.latexdraw.parser.pst.PSTParser.ParamArrowlengthContext ctx) {
-		ctx.pstctx.arrowLgth = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.ARROW_LGTH, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamtbarsize(final net.sf.latexdraw.parser.pst.PSTParser.ParamtbarsizeContext ctx) {
-		ctx.pstctx.arrowTBar = ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER());
+		ctx.pstctx.set(PSTParam.ARROW_TBAR, ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER()));
 	}
 
 	@Override
 	public void exitParamarrowsize(final net.sf.latexdraw.parser.pst.PSTParser.ParamarrowsizeContext ctx) {
-		ctx.pstctx.arrowSize = ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER());
+		ctx.pstctx.set(PSTParam.ARROW_SIZE, ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER()));
 	}
 
 	@Override
 	public void exitParamunit(final net.sf.latexdraw.parser.pst.PSTParser.ParamunitContext ctx) {
-		ctx.pstctx.unit = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.UNIT, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamxunit(final net.sf.latexdraw.parser.pst.PSTParser.ParamxunitContext ctx) {
-		ctx.pstctx.xUnit = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.X_UNIT, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamyunit(final net.sf.latexdraw.parser.pst.PSTParser.ParamyunitContext ctx) {
-		ctx.pstctx.yUnit = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.Y_UNIT, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParampolarplot(final net.sf.latexdraw.parser.pst.PSTParser.ParampolarplotContext ctx) {
-		ctx.pstctx.polarPlot = Boolean.parseBoolean(ctx.booleanvalue().getText());
+		ctx.pstctx.set(PSTParam.POLAR_PLOT, Boolean.parseBoolean(ctx.booleanvalue().getText()));
 	}
 
 	@Override
 	public void exitParamframearc(final net.sf.latexdraw.parser.pst.PSTParser.ParamframearcContext ctx) {
-		ctx.pstctx.frameArc = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.FRAME_ARC, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamdotstyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamdotstyleContext ctx) {
-		ctx.pstctx.dotStyle = ctx.style.getText();
+		ctx.pstctx.set(PSTParam.DOT_STYLE, ctx.style.getText());
 	}
 
 	@Override
 	public void exitParamdotscale(final net.sf.latexdraw.parser.pst.PSTParser.ParamdotscaleContext ctx) {
-		ctx.pstctx.dotScale = new Tuple<>(ctx.pstctx.numberToDouble(ctx.num1), ctx.num2 == null ? ctx.pstctx.numberToDouble(ctx.num1) : ctx.pstctx.numberToDouble(ctx.num2));
+		ctx.pstctx.set(PSTParam.DOT_SCALE, new Tuple<>(ctx.pstctx.numberToDouble(ctx.num1), ctx.num2 == null ? ctx.pstctx.numberToDouble(ctx.num1) : ctx.pstctx.numberToDouble(ctx.num2)));
 	}
 
 	@Override
 	public void exitParamdotdotangle(final net.sf.latexdraw.parser.pst.PSTParser.ParamdotdotangleContext ctx) {
-		ctx.pstctx.dotAngle = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.DOT_ANGLE, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamdotsize(final net.sf.latexdraw.parser.pst.PSTParser.ParamdotsizeContext ctx) {
-		ctx.pstctx.arrowDotSize = ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER());
+		ctx.pstctx.set(PSTParam.ARROW_DOT_SIZE, ctx.pstctx.valNumNumberToDoubles(ctx.valueDim(), ctx.NUMBER()));
 	}
 
 	@Override
 	public void exitParamlinecolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamlinecolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.lineColor = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.LINE_COLOR, col));
 	}
 
 	@Override
 	public void exitParamgangle(final net.sf.latexdraw.parser.pst.PSTParser.ParamgangleContext ctx) {
-		ctx.pstctx.gangle = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.GANGLE, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamlinewidth(final net.sf.latexdraw.parser.pst.PSTParser.ParamlinewidthContext ctx) {
-		ctx.pstctx.lineWidth = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.LINE_WIDTH, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamplotstyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamplotstyleContext ctx) {
-		ctx.pstctx.plotStyle = ctx.style.getText();
+		ctx.pstctx.set(PSTParam.PLOT_STYLE, ctx.style.getText());
 	}
 
 	@Override
 	public void exitParamplotpoints(final net.sf.latexdraw.parser.pst.PSTParser.ParamplotpointsContext ctx) {
-		ctx.pstctx.plotPoints = (int) ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.PLOT_POINTS, (int) ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamshadowangle(final net.sf.latexdraw.parser.pst.PSTParser.ParamshadowangleContext ctx) {
-		ctx.pstctx.shadowAngle = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.SHADOW_ANGLE, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamgradangle(final net.sf.latexdraw.parser.pst.PSTParser.ParamgradangleContext ctx) {
-		ctx.pstctx.gradAngle = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.GRAD_ANGLE, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamgradmidpoint(final net.sf.latexdraw.parser.pst.PSTParser.ParamgradmidpointContext ctx) {
-		ctx.pstctx.gradMidPoint = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.GRAD_MID_POINT, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamhatchangle(final net.sf.latexdraw.parser.pst.PSTParser.ParamhatchangleContext ctx) {
-		ctx.pstctx.hatchAngle = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.HATCH_ANGLE, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamhatchsep(final net.sf.latexdraw.parser.pst.PSTParser.ParamhatchsepContext ctx) {
-		ctx.pstctx.hatchSep = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.HATCH_SEP, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamhatchwidth(final net.sf.latexdraw.parser.pst.PSTParser.ParamhatchwidthContext ctx) {
-		ctx.pstctx.hatchWidth = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.HATCH_WIDTH, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamshadowsize(final net.sf.latexdraw.parser.pst.PSTParser.ParamshadowsizeContext ctx) {
-		ctx.pstctx.shadowSize = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.SHADOW_SIZE, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamdoublesep(final net.sf.latexdraw.parser.pst.PSTParser.ParamdoublesepContext ctx) {
-		ctx.pstctx.dbleSep = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.DBLE_SEP, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamdimen(final net.sf.latexdraw.parser.pst.PSTParser.ParamdimenContext ctx) {
-		ctx.pstctx.dimen = ctx.type.getText();
+		ctx.pstctx.set(PSTParam.DIMEN, ctx.type.getText());
 	}
 
 	@Override
 	public void exitParamlinestyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamlinestyleContext ctx) {
-		ctx.pstctx.lineStyle = ctx.style.getText();
+		ctx.pstctx.set(PSTParam.LINE_STYLE, ctx.style.getText());
 	}
 
 	@Override
 	public void exitParamfillstyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamfillstyleContext ctx) {
-		ctx.pstctx.fillingStyle = ctx.fillstyle().getText();
+		ctx.pstctx.set(PSTParam.FILLING_STYLE, ctx.fillstyle().getText());
 	}
 
 	@Override
 	public void exitParamfillcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamfillcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.fillColor = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.FILL_COLOR, col));
 	}
 
 	@Override
 	public void exitParamshadow(final net.sf.latexdraw.parser.pst.PSTParser.ParamshadowContext ctx) {
-		ctx.pstctx.shadow = Boolean.parseBoolean(ctx.booleanvalue().getText());
+		ctx.pstctx.set(PSTParam.SHADOW, Boolean.parseBoolean(ctx.booleanvalue().getText()));
 	}
 
 	@Override
 	public void exitParamshadowcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamshadowcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.shadowCol = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.SHADOW_COL, col));
 	}
 
 	@Override
 	public void exitParamdoublecolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamdoublecolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.dbleColor = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.DBLE_COLOR, col));
 	}
 
 	@Override
 	public void exitParamgradbegin(final net.sf.latexdraw.parser.pst.PSTParser.ParamgradbeginContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.gradBegin = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.GRAD_BEGIN, col));
 	}
 
 	@Override
 	public void exitParamgradend(final net.sf.latexdraw.parser.pst.PSTParser.ParamgradendContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.gradEnd = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.GRAD_END, col));
 	}
 
 	@Override
 	public void exitParamhatchcolor(final net.sf.latexdraw.parser.pst.PSTParser.ParamhatchcolorContext ctx) {
-		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.hatchCol = col);
+		getColor(ctx.WORD().getText()).ifPresent(col -> ctx.pstctx.set(PSTParam.HATCH_COL, col));
 	}
 
 	@Override
 	public void exitParamdoubleline(final net.sf.latexdraw.parser.pst.PSTParser.ParamdoublelineContext ctx) {
-		ctx.pstctx.dbleLine = Boolean.parseBoolean(ctx.booleanvalue().getText());
+		ctx.pstctx.set(PSTParam.DBLE_LINE, Boolean.parseBoolean(ctx.booleanvalue().getText()));
 	}
 
 	@Override
 	public void exitParamticks(final net.sf.latexdraw.parser.pst.PSTParser.ParamticksContext ctx) {
-		ctx.pstctx.ticks = ctx.show().getText();
+		ctx.pstctx.set(PSTParam.TICKS, ctx.show().getText());
 	}
 
 	@Override
 	public void exitParamlabels(final net.sf.latexdraw.parser.pst.PSTParser.ParamlabelsContext ctx) {
-		ctx.pstctx.labels = ctx.show().getText();
+		ctx.pstctx.set(PSTParam.LABELS, ctx.show().getText());
 	}
 
 	@Override
 	public void exitParamdx(final net.sf.latexdraw.parser.pst.PSTParser.ParamdxContext ctx) {
-		ctx.pstctx.dxLabelDist = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.DX_LABEL_DIST, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamdy(final net.sf.latexdraw.parser.pst.PSTParser.ParamdyContext ctx) {
-		ctx.pstctx.dyLabelDist = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.DY_LABEL_DIST, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamDx(final net.sf.latexdraw.parser.pst.PSTParser.ParamDxContext ctx) {
-		ctx.pstctx.dxIncrement = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.DX_INCREMENT, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamOx(final net.sf.latexdraw.parser.pst.PSTParser.ParamOxContext ctx) {
-		ctx.pstctx.ox = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.OX, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamOy(final net.sf.latexdraw.parser.pst.PSTParser.ParamOyContext ctx) {
-		ctx.pstctx.oy = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.OY, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamDy(final net.sf.latexdraw.parser.pst.PSTParser.ParamDyContext ctx) {
-		ctx.pstctx.dyIncrement = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
+		ctx.pstctx.set(PSTParam.DY_INCREMENT, ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol()));
 	}
 
 	@Override
 	public void exitParamtickstyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamtickstyleContext ctx) {
-		ctx.pstctx.ticksStyle = ctx.style.getText();
+		ctx.pstctx.set(PSTParam.TICKS_STYLE, ctx.style.getText());
 	}
 
 	@Override
 	public void exitParamshoworigin(final net.sf.latexdraw.parser.pst.PSTParser.ParamshoworiginContext ctx) {
-		ctx.pstctx.showOrigin = Boolean.parseBoolean(ctx.booleanvalue().getText());
+		ctx.pstctx.set(PSTParam.SHOW_ORIGIN, Boolean.parseBoolean(ctx.booleanvalue().getText()));
 	}
 
 	@Override
 	public void exitParamaxesstyle(final net.sf.latexdraw.parser.pst.PSTParser.ParamaxesstyleContext ctx) {
-		ctx.pstctx.axesStyle = ctx.style.getText();
+		ctx.pstctx.set(PSTParam.AXES_STYLE, ctx.style.getText());
 	}
 
 	@Override
 	public void exitParamticksize(final net.sf.latexdraw.parser.pst.PSTParser.ParamticksizeContext ctx) {
-		ctx.pstctx.ticksSize = ctx.pstctx.valDimtoDouble(ctx.valueDim());
+		ctx.pstctx.set(PSTParam.TICKS_SIZE, ctx.pstctx.valDimtoDouble(ctx.valueDim()));
 	}
 
 	@Override
 	public void exitParamshowpoints(final net.sf.latexdraw.parser.pst.PSTParser.ParamshowpointsContext ctx) {
-		ctx.pstctx.showPoints = Boolean.parseBoolean(ctx.booleanvalue().getText());
+		ctx.pstctx.set(PSTParam.SHOW_POINTS, Boolean.parseBoolean(ctx.booleanvalue().getText()));
 	}
 
 	@Override
 	public void exitParamstrokeopacity(final net.sf.latexdraw.parser.pst.PSTParser.ParamstrokeopacityContext ctx) {
 		final double opacity = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
 		if(opacity >= 0d && opacity <= 1d) {
-			ctx.pstctx.strokeopacity = opacity;
+			ctx.pstctx.set(PSTParam.STROKE_OPACITY, opacity);
 		}
 	}
 
@@ -348,7 +355,7 @@ public abstract class PSTCtxListener extends net.sf.latexdraw.parser.pst.PSTBase
 	public void exitParamopacity(final net.sf.latexdraw.parser.pst.PSTParser.ParamopacityContext ctx) {
 		final double opacity = ctx.pstctx.numberToDouble(ctx.NUMBER().getSymbol());
 		if(opacity >= 0d && opacity <= 1d) {
-			ctx.pstctx.opacity = opacity;
+			ctx.pstctx.set(PSTParam.OPACITY, opacity);
 		}
 	}
 
@@ -363,7 +370,7 @@ public abstract class PSTCtxListener extends net.sf.latexdraw.parser.pst.PSTBase
 	 * @return The possible created colour. The Optional cannot be null.
 	 */
 	Optional<Color> getColor(final String txtColor) {
-		final Optional<Color> colour = DviPsColors.INSTANCE.getColour(txtColor);
+		final Optional<Color> colour = findColour(txtColor);
 
 		if(colour.isEmpty()) {
 			log.severe("The following colour is unknown: " + txtColor);
@@ -371,4 +378,13 @@ public abstract class PSTCtxListener extends net.sf.latexdraw.parser.pst.PSTBase
 
 		return colour;
 	}
+
+	/**
+	 * @param name The name of the colour.
+	 * @return The colour defined by the parsed code or by DviPsColors.
+	 */
+	Optional<Color> findColour(final String name) {
+		final Color colour = name == null ? null : definedColours.get(name);
+		return colour == null ? DviPsColors.INSTANCE.getColour(name) : Optional.of(colour);
+	}
 }
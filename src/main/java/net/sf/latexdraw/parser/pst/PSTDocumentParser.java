@@ -0,0 +1,482 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.parser.pst;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.parser.TwoStageParsing;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts PST documents into shapes.
+ * Large documents are split at their top-level commands (or at the top-level commands of their single pspicture) into chunks
+ * that are parsed in parallel. The state commands (e.g. psset, definecolor) of the previous chunks are replayed at the beginning
+ * of each chunk and the shapes of the chunks are merged in the order of the document, so that the produced shapes are the same
+ * as the ones produced by a sequential parsing. The chunks do not share states during their parsing (e.g. the defined colours).
+ * @author Arnaud Blouin
+ */
+public final class PSTDocumentParser {
+	/** The number of top-level commands of a chunk. */
+	static final int CHUNK_SIZE = 500;
+	/**
+	 * The commands whose effects last after them and that must be replayed before parsing a chunk, with their arguments:
+	 * 'm' for a mandatory argument in braces, 'o' for an optional argument in brackets, 'b' for a mandatory argument in brackets.
+	 * Except psset, whose effects are limited to its group, their effects are global.
+	 */
+	private static final Map<String, String> STATE_CMDS = Map.of("\\psset", "m", "\\definecolor", "mmm", "\\newrgbcolor", "mm", //NON-NLS
+		"\\newgray", "mm", "\\newcmykcolor", "mm", "\\newhsbcolor", "mm", "\\newpsstyle", "omm", "\\newpsobject", "mmm", //NON-NLS
+		"\\savedata", "mb", "\\readdata", "omm"); //NON-NLS
+	private static final String LOCAL_STATE_CMD = "\\psset"; //NON-NLS
+
+	private final @NotNull String code;
+	/** The chunks to parse in parallel. Null if the document is parsed at once. */
+	private final @Nullable List<String> chunks;
+	/** The directory of the document, against which the relative paths of the data files are resolved. */
+	private final @Nullable Path documentDir;
+	/** The number of groups that enclose the top-level commands: 1 for the parsed code, plus 1 for an enclosing pspicture. */
+	private int depth;
+
+	/**
+	 * Creates the parser and splits the given code into chunks if large enough.
+	 * @param code The PST code to parse.
+	 */
+	public PSTDocumentParser(final @NotNull String code) {
+		this(code, null);
+	}
+
+	/**
+	 * Creates the parser and splits the given code into chunks if large enough.
+	 * @param code The PST code to parse.
+	 * @param documentDir The directory of the document, against which the relative paths of the data files are resolved.
+	 * If null, the working directory.
+	 */
+	public PSTDocumentParser(final @NotNull String code, final @Nullable Path documentDir) {
+		super();
+		this.code = code;
+		this.documentDir = documentDir;
+		depth = 1;
+		chunks = split();
+	}
+
+	/**
+	 * @return True if the document is large enough to be parsed in several chunks.
+	 */
+	public boolean isChunked() {
+		return chunks != null;
+	}
+
+	/**
+	 * Parses the document.
+	 * @param progress Notified of the progression of the parsing (between 0 and 1). May be called from several threads.
+	 * @param cancelled Polled during the parsing: the parsing stops when it returns true.
+	 * @return The produced shapes, flattened.
+	 * @throws CancellationException If the parsing has been cancelled.
+	 */
+	public @NotNull List<Shape> parse(final @NotNull DoubleConsumer progress, final @NotNull BooleanSupplier cancelled) {
+		List<Shape> shapes = chunks == null ? null : parseChunks(chunks, progress, cancelled);
+
+		if(shapes == null) {
+			final PSTLatexdrawListener listener = parseChunk(code, new AtomicReference<>(new PSTContext()), documentDir, cancelled);
+			listener.registerDefinedColours();
+			shapes = PSTLatexdrawListener.flatShapes(listener.getGroups());
+		}
+
+		progress.accept(1d);
+		return shapes;
+	}
+
+	/**
+	 * @return The shapes of the chunks, or null if a chunk cannot be parsed apart from the others.
+	 */
+	private @Nullable List<Shape> parseChunks(final List<String> codes, final DoubleConsumer progress, final BooleanSupplier cancelled) {
+		final AtomicInteger nbParsed = new AtomicInteger();
+		final AtomicBoolean splittable = new AtomicBoolean(true);
+		final List<PSTLatexdrawListener> listeners = codes.parallelStream().map(chunk -> {
+			final AtomicReference<PSTContext> root = new AtomicReference<>(new PSTContext());
+			final PSTLatexdrawListener listener = parseChunk(chunk, root, documentDir, cancelled);
+			// The texts at the top level are gathered into a single shape at the end of the code: the chunks cannot be merged.
+			if(!root.get().textParsed.isEmpty()) {
+				splittable.set(false);
+			}
+			progress.accept(nbParsed.incrementAndGet() / (codes.size() + 1d));
+			return listener;
+		}).collect(Collectors.toList());
+
+		if(!splittable.get()) {
+			return null;
+		}
+
+		// Each chunk resolves its colours through its own table. They are registered once parsed, in the order of the document,
+		// so that the latest definition of a colour wins as in a sequential parsing.
+		listeners.forEach(listener -> listener.registerDefinedColours());
+		return mergeGroups(listeners.stream().map(listener -> listener.getGroups()).collect(Collectors.toList()), depth);
+	}
+
+	/**
+	 * Merges the groups of shapes produced by the parsing of consecutive chunks of a document, as a sequential parsing would do.
+	 * The given groups are not modified: the shapes are added to new groups.
+	 * @param chunkGroups The groups of shapes of each chunk, in the order of the document.
+	 * @param depth The number of groups that enclose the top-level commands of the chunks.
+	 * @return The merged shapes, flattened.
+	 */
+	static @NotNull List<Shape> mergeGroups(final @NotNull List<? extends Collection<Group>> chunkGroups, final int depth) {
+		final List<Group> groups = new ArrayList<>();
+
+		chunkGroups.stream().map(chunk -> new ArrayList<>(chunk)).forEach(chunk -> {
+			if(groups.isEmpty()) {
+				chunk.forEach(gp -> groups.add(copyGroup(gp)));
+			}else {
+				final int enclosing = Math.min(depth, chunk.size());
+				// The enclosing groups of the chunk are the ones of the first chunk.
+				IntStream.range(0, enclosing).forEach(i -> groups.get(i == depth - 1 ? groups.size() - 1 : i).getShapes().addAll(chunk.get(i).getShapes()));
+				chunk.subList(enclosing, chunk.size()).forEach(gp -> groups.add(copyGroup(gp)));
+			}
+		});
+
+		return PSTLatexdrawListener.flatShapes(groups);
+	}
+
+	private static Group copyGroup(final Group group) {
+		final Group copy = ShapeFactory.INST.createGroup();
+		copy.getShapes().addAll(group.getShapes());
+		return copy;
+	}
+
+	/**
+	 * Parses the given code.
+	 * @param root The context of the code. Replaced by a new context if the code is parsed again.
+	 * @param documentDir The directory of the document, for the relative paths of the data files.
+	 */
+	private static PSTLatexdrawListener parseChunk(final String chunk, final AtomicReference<PSTContext> root, final @Nullable Path documentDir,
+												final BooleanSupplier cancelled) {
+		final PSTLatexdrawListener listener = new PSTLatexdrawListener();
+		listener.setDocumentDir(documentDir);
+		final PSTParser parser = new PSTParser(new CommonTokenStream(new PSTLexer(CharStreams.fromString(chunk))));
+		parser.addParseListener(listener);
+		parser.addParseListener(new PSTBaseListener() {
+			@Override
+			public void enterEveryRule(final ParserRuleContext rule) {
+				if(cancelled.getAsBoolean()) {
+					throw new CancellationException();
+				}
+			}
+		});
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(root.get()), () -> {
+			listener.reset();
+			root.set(new PSTContext());
+		});
+		return listener;
+	}
+
+	/**
+	 * @return The chunks of the code or null if the code is too small or cannot be split.
+	 */
+	private @Nullable List<String> split() {
+		// Cannot contain enough commands: not scanned.
+		if(code.length() < CHUNK_SIZE * 20) {
+			return null;
+		}
+
+		final TopLevelCmds doc = splitCommands(code);
+		if(doc == null || doc.cmds.size() < 2 * CHUNK_SIZE) {
+			return null;
+		}
+
+		depth = doc.depth;
+
+		final List<String> result = new ArrayList<>();
+		final StringBuilder states = new StringBuilder();
+
+		for(int i = 0; i < doc.cmds.size(); i += CHUNK_SIZE) {
+			final List<String> chunk = doc.cmds.subList(i, Math.min(doc.cmds.size(), i + CHUNK_SIZE));
+			result.add(doc.header + states + String.join("", chunk) + doc.footer);
+			chunk.forEach(seg -> getStateCmds(seg).forEach(state -> states.append(state).append('\n')));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Splits the given document into its top-level commands, or into the top-level commands of its single pspicture.
+	 * @return The commands or null if the groups or the environments of the code are not balanced.
+	 */
+	static @Nullable TopLevelCmds splitCommands(final @NotNull String code) {
+		final List<String> segments = splitTopLevel(code);
+		if(segments == null) {
+			return null;
+		}
+
+		// A single picture: its body is split.
+		if(segments.stream().filter(seg -> !isBlank(seg)).count() == 1L) {
+			int offset = 0;
+			int pos = 0;
+			while(isBlank(segments.get(pos))) {
+				offset += segments.get(pos).length();
+				pos++;
+			}
+			final String picture = segments.get(pos);
+			final int start = getPictureBodyStart(picture);
+			final int end = getPictureBodyEnd(picture);
+			if(start < 0 || end < start) {
+				return null;
+			}
+			final List<String> body = splitTopLevel(code.substring(offset + start, offset + end));
+			return body == null ? null : new TopLevelCmds(code.substring(0, offset + start), code.substring(offset + end), body, 2);
+		}
+
+		return new TopLevelCmds("", "", segments, 1);
+	}
+
+	/**
+	 * Splits the given code at the line breaks that are followed by a command and that are not in a group (braces) or an environment.
+	 * @return The segments or null if the groups or the environments are not balanced.
+	 */
+	static @Nullable List<String> splitTopLevel(final @NotNull String txt) {
+		final List<String> segments = new ArrayList<>();
+		final int length = txt.length();
+		int braces = 0;
+		int envs = 0;
+		int start = 0;
+		int i = 0;
+
+		while(i < length) {
+			final char c = txt.charAt(i);
+			if(c == '\\') {
+				if(txt.startsWith("\\begin", i) || isCmd(txt, i, "\\pspicture")) { //NON-NLS
+					envs++;
+				}else if(txt.startsWith("\\end", i) && (txt.startsWith("\\end{", i) || isCmd(txt, i, "\\endpspicture"))) { //NON-NLS
+					envs--;
+				}
+				// Skipping the escaped character
+				i++;
+			}else if(c == '%') {
+				final int eol = txt.indexOf('\n', i);
+				i = eol < 0 ? length : eol - 1;
+			}else if(c == '{') {
+				braces++;
+			}else if(c == '}') {
+				braces--;
+			}else if(c == '\n' && braces == 0 && envs == 0 && isFollowedByCmd(txt, i + 1)) {
+				segments.add(txt.substring(start, i + 1));
+				start = i + 1;
+			}
+
+			if(braces < 0 || envs < 0) {
+				return null;
+			}
+			i++;
+		}
+
+		if(braces != 0 || envs != 0) {
+			return null;
+		}
+		if(start < length) {
+			segments.add(txt.substring(start));
+		}
+		return segments;
+	}
+
+	/**
+	 * @return The position of the body of the given pspicture or -1.
+	 */
+	private static int getPictureBodyStart(final String picture) {
+		final String pic = picture.stripLeading();
+		final int offset = picture.length() - pic.length();
+		int pos;
+
+		if(pic.startsWith("\\begin{pspicture}") || pic.startsWith("\\begin{pspicture*}")) { //NON-NLS
+			pos = pic.indexOf('}') + 1;
+		}else if(isCmd(pic, 0, "\\pspicture")) { //NON-NLS
+			pos = "\\pspicture".length(); //NON-NLS
+		}else {
+			return -1;
+		}
+
+		// The optional coordinates of the picture.
+		for(int nbCoords = 0; nbCoords < 2; nbCoords++) {
+			final String rest = pic.substring(pos);
+			final String trimmed = rest.stripLeading();
+			if(!trimmed.startsWith("(") || trimmed.indexOf(')') < 0) {
+				break;
+			}
+			pos += rest.length() - trimmed.length() + trimmed.indexOf(')') + 1;
+		}
+
+		return offset + pos;
+	}
+
+	/**
+	 * @return The position of the end of the body of the given pspicture or -1.
+	 */
+	private static int getPictureBodyEnd(final String picture) {
+		final int end = picture.lastIndexOf("\\end{pspicture"); //NON-NLS
+		return end < 0 ? picture.lastIndexOf("\\endpspicture") : end; //NON-NLS
+	}
+
+	private static boolean isFollowedByCmd(final String txt, final int pos) {
+		int i = pos;
+		while(i < txt.length() && Character.isWhitespace(txt.charAt(i))) {
+			i++;
+		}
+		return i < txt.length() && txt.charAt(i) == '\\';
+	}
+
+	private static boolean isCmd(final String txt, final int pos, final String cmd) {
+		final int end = pos + cmd.length();
+		return txt.startsWith(cmd, pos) && (end == txt.length() || !Character.isLetter(txt.charAt(end)));
+	}
+
+	/**
+	 * Gives the state commands (e.g. psset, definecolor) of the given top-level segment, wherever they are in the segment,
+	 * so that they can be replayed before the next segments. A psset is given only if not in a group or an environment.
+	 * @return The code of the state commands (without the code that precedes or follows them), in the order of the segment.
+	 */
+	static @NotNull List<String> getStateCmds(final @NotNull String segment) {
+		final List<String> states = new ArrayList<>();
+		final int length = segment.length();
+		int braces = 0;
+		int envs = 0;
+		int i = 0;
+
+		while(i < length) {
+			final char c = segment.charAt(i);
+			if(c == '\\') {
+				final int pos = i;
+				final String state = STATE_CMDS.keySet().stream().filter(cmd -> isCmd(segment, pos, cmd)).findFirst().orElse(null);
+				if(state != null) {
+					final int end = getArgsEnd(segment, i + state.length(), STATE_CMDS.get(state));
+					if(!LOCAL_STATE_CMD.equals(state) || braces == 0 && envs == 0) {
+						states.add(segment.substring(i, end));
+					}
+					i = end;
+					continue;
+				}
+				if(segment.startsWith("\\begin", i) || isCmd(segment, i, "\\pspicture")) { //NON-NLS
+					envs++;
+				}else if(segment.startsWith("\\end", i) && (segment.startsWith("\\end{", i) || isCmd(segment, i, "\\endpspicture"))) { //NON-NLS
+					envs--;
+				}
+				// Skipping the escaped character
+				i++;
+			}else if(c == '%') {
+				final int eol = segment.indexOf('\n', i);
+				i = eol < 0 ? length : eol - 1;
+			}else if(c == '{') {
+				braces++;
+			}else if(c == '}') {
+				braces--;
+			}
+			i++;
+		}
+
+		return states;
+	}
+
+	/**
+	 * @param pos The position that follows the name of the command.
+	 * @param args The arguments of the command (see STATE_CMDS).
+	 * @return The position that follows the arguments of the command. Stops at the first missing argument.
+	 */
+	private static int getArgsEnd(final String txt, final int pos, final String args) {
+		int end = pos;
+
+		for(final char arg : args.toCharArray()) {
+			int i = end;
+			while(i < txt.length() && Character.isWhitespace(txt.charAt(i))) {
+				i++;
+			}
+			final char open = arg == 'm' ? '{' : '[';
+			if(i >= txt.length() || txt.charAt(i) != open) {
+				if(arg == 'o') {
+					continue;
+				}
+				return end;
+			}
+			final int close = getClosing(txt, i);
+			if(close < 0) {
+				return txt.length();
+			}
+			end = close + 1;
+		}
+
+		return end;
+	}
+
+	/**
+	 * @param pos The position of an opening brace or bracket.
+	 * @return The position of the closing brace or bracket (out of the nested groups) or -1.
+	 */
+	private static int getClosing(final String txt, final int pos) {
+		final char close = txt.charAt(pos) == '{' ? '}' : ']';
+		int braces = 0;
+		int i = pos + 1;
+
+		while(i < txt.length()) {
+			final char c = txt.charAt(i);
+			if(c == '\\') {
+				i++;
+			}else if(c == close && braces == 0) {
+				return i;
+			}else if(c == '{') {
+				braces++;
+			}else if(c == '}') {
+				braces--;
+			}
+			i++;
+		}
+
+		return -1;
+	}
+
+	private static boolean isBlank(final String segment) {
+		return segment.lines().map(line -> line.strip()).allMatch(line -> line.isEmpty() || line.charAt(0) == '%');
+	}
+
+	/**
+	 * A document split into its top-level commands.
+	 */
+	static final class TopLevelCmds {
+		/** The code that precedes the commands: the beginning of the enclosing pspicture, if any. */
+		final @NotNull String header;
+		/** The code that follows the commands: the end of the enclosing pspicture, if any. */
+		final @NotNull String footer;
+		/** The top-level commands, with their trailing spaces and comments. */
+		final @NotNull List<String> cmds;
+		/** The number of groups that enclose the commands: 1 for the parsed code, plus 1 for an enclosing pspicture. */
+		final int depth;
+
+		TopLevelCmds(final @NotNull String header, final @NotNull String footer, final @NotNull List<String> cmds, final int depth) {
+			super();
+			this.header = header;
+			this.footer = footer;
+			this.cmds = cmds;
+			this.depth = depth;
+		}
+	}
+}
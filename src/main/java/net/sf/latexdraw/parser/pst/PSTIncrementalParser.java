@@ -0,0 +1,497 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.parser.pst;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.stream.Collectors;
+import net.sf.latexdraw.model.api.shape.Color;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.PlotData;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.parser.TwoStageParsing;
+import net.sf.latexdraw.util.SystemUtils;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts the successive versions of an edited PST document into shapes and reports the errors of the code.
+ * The document is split into its top-level commands (see PSTDocumentParser), each one being lexed and parsed apart from the others.
+ * When a new version of the document is parsed, only the new or modified commands are parsed: the shapes and errors of the other
+ * commands are reused. A command that follows a modified state command (e.g. psset) is considered as modified.
+ * The state commands are parsed once, in the order of the document: the resulting states (parameters, colours, data) are
+ * given to the parsing of the commands that follow them. The enclosing code of the commands (e.g. the pspicture) is
+ * parsed once too, to report its errors.
+ * Documents that cannot be split (e.g. unbalanced groups, top-level texts) are parsed at once.
+ * @author Arnaud Blouin
+ */
+public final class PSTIncrementalParser {
+	/** The parsed commands of the latest version of the document. */
+	private @NotNull Map<CmdKey, ParsedCmd> parsed;
+	/** The parsed states of the latest version of the document. */
+	private @NotNull Map<StatesKey, ParsedStates> parsedStates;
+	/** The errors of the latest parsed version of the document. */
+	private @NotNull String log;
+	/** The directory of the document, against which the relative paths of the data files are resolved. Null: the working directory. */
+	private @Nullable Path documentDir;
+
+	public PSTIncrementalParser() {
+		super();
+		parsed = new HashMap<>();
+		parsedStates = new HashMap<>();
+		log = "";
+	}
+
+	/**
+	 * Parses the given version of the document.
+	 * @param code The PST code of the document.
+	 * @param progress Notified of the progression of the parsing (between 0 and 1). May be called from several threads.
+	 * @param cancelled Polled during the parsing: the parsing stops when it returns true.
+	 * @return The produced shapes, flattened. These shapes may be reused in the results of the next parsings so they must be duplicated
+	 * before being modified.
+	 * @throws CancellationException If the parsing has been cancelled. The results of the previous parsing are kept.
+	 */
+	public synchronized @NotNull List<Shape> parse(final @NotNull String code, final @NotNull DoubleConsumer progress, final @NotNull BooleanSupplier cancelled) {
+		final PSTDocumentParser.TopLevelCmds doc = PSTDocumentParser.splitCommands(code);
+		List<Shape> shapes = doc == null ? null : parseCmds(doc, progress, cancelled);
+
+		if(shapes == null) {
+			final ParsedCmd all = parseCmd("", code, "", ParsedStates.NONE, cancelled);
+			log = all.log;
+			PSTLatexdrawListener.registerColours(all.colours);
+			shapes = PSTLatexdrawListener.flatShapes(all.groups);
+		}
+
+		progress.accept(1d);
+		return shapes;
+	}
+
+	/**
+	 * Sets the directory of the document, against which the relative paths of the data files (e.g. \readdata) are resolved.
+	 * The commands are parsed again if the directory changes.
+	 * @param dir The directory of the document. If null, the working directory.
+	 */
+	public synchronized void setDocumentDir(final @Nullable Path dir) {
+		if(!Objects.equals(dir, documentDir)) {
+			documentDir = dir;
+			parsed = new HashMap<>();
+			parsedStates = new HashMap<>();
+		}
+	}
+
+	/**
+	 * @return The directory of the document, against which the relative paths of the data files are resolved. Null: the working directory.
+	 */
+	public synchronized @Nullable Path getDocumentDir() {
+		return documentDir;
+	}
+
+	/**
+	 * @return The errors of the latest parsed version of the document, one per line.
+	 */
+	public synchronized @NotNull String getLog() {
+		return log;
+	}
+
+	/**
+	 * @return The shapes of the commands or null if a command cannot be parsed apart from the others.
+	 */
+	private List<Shape> parseCmds(final PSTDocumentParser.TopLevelCmds doc, final DoubleConsumer progress, final BooleanSupplier cancelled) {
+		final List<CmdKey> keys = new ArrayList<>(doc.cmds.size());
+		final Map<StatesKey, ParsedStates> states = new HashMap<>();
+		// The enclosing code parsed alone gives the initial states and the errors of the enclosing code.
+		final ParsedStates enclosing = getStates(new StatesKey(null, doc, ""), states, cancelled);
+		ParsedStates current = enclosing;
+
+		for(final String cmd : doc.cmds) {
+			keys.add(new CmdKey(doc, current, cmd));
+			final List<String> stateCmds = PSTDocumentParser.getStateCmds(cmd);
+			if(!stateCmds.isEmpty()) {
+				// Only the state commands of the command are parsed, starting from the previous states.
+				current = getStates(new StatesKey(current, doc, String.join("\n", stateCmds)), states, cancelled);
+			}
+		}
+
+		final Map<CmdKey, ParsedCmd> cmds = new HashMap<>();
+		final List<CmdKey> toParse = new ArrayList<>();
+		keys.forEach(key -> {
+			final ParsedCmd cmd = parsed.get(key);
+			if(cmd == null) {
+				toParse.add(key);
+			}else {
+				cmds.put(key, cmd);
+			}
+		});
+
+		final AtomicInteger nbParsed = new AtomicInteger();
+		final List<ParsedCmd> newCmds = toParse.parallelStream().map(key -> {
+			final ParsedCmd cmd = parseCmd(doc.header, key.cmd, doc.footer, key.states, cancelled);
+			progress.accept(nbParsed.incrementAndGet() / (toParse.size() + 1d));
+			return cmd;
+		}).collect(Collectors.toList());
+
+		for(int i = 0; i < toParse.size(); i++) {
+			cmds.put(toParse.get(i), newCmds.get(i));
+		}
+
+		parsed = cmds;
+		parsedStates = states;
+
+		// The texts at the top level are gathered into a single shape at the end of the code: the commands cannot be merged.
+		if(cmds.values().stream().anyMatch(cmd -> cmd.topLevelText)) {
+			return null;
+		}
+
+		log = enclosing.log + keys.stream().map(key -> cmds.get(key).log).collect(Collectors.joining());
+		// The commands resolve their colours through the states they start with: the colours of the document are registered once parsed.
+		PSTLatexdrawListener.registerColours(current.colours);
+		return PSTDocumentParser.mergeGroups(keys.stream().map(key -> cmds.get(key).groups).collect(Collectors.toList()), doc.depth);
+	}
+
+	/**
+	 * @return The states identified by the given key: the ones of the previous parsing if any, parsed otherwise.
+	 */
+	private ParsedStates getStates(final StatesKey key, final Map<StatesKey, ParsedStates> states, final BooleanSupplier cancelled) {
+		ParsedStates parsedState = states.get(key);
+		if(parsedState == null) {
+			parsedState = parsedStates.get(key);
+			if(parsedState == null) {
+				parsedState = parseStates(key, cancelled);
+			}
+			states.put(key, parsedState);
+		}
+		return parsedState;
+	}
+
+	/**
+	 * Parses the given state commands within the enclosing code, starting from the previous states.
+	 * The errors of the state commands are reported by the parsing of their command. Only the errors of the enclosing code
+	 * are reported when parsed alone (no previous states).
+	 */
+	private ParsedStates parseStates(final StatesKey key, final BooleanSupplier cancelled) {
+		final StringBuilder errors = new StringBuilder();
+		final boolean enclosing = key.previous == null;
+		final LoggingListener listener = parse(key.header, key.stateCmds, key.footer, enclosing ? ParsedStates.NONE : key.previous,
+			enclosing ? 0 : Integer.MAX_VALUE, Integer.MAX_VALUE, errors, cancelled);
+		return new ParsedStates(listener.body, new HashMap<>(listener.definedColours), new HashMap<>(listener.getPlotData()), errors.toString());
+	}
+
+	/**
+	 * Lexes and parses the given command. Only the errors of the command are reported, not the ones of its enclosing code.
+	 * @param prefix The code that precedes the command: the beginning of the enclosing pspicture.
+	 * @param cmd The command to parse.
+	 * @param suffix The code that follows the command: the end of the enclosing pspicture.
+	 * @param states The states the command starts with.
+	 */
+	private ParsedCmd parseCmd(final String prefix, final String cmd, final String suffix, final ParsedStates states, final BooleanSupplier cancelled) {
+		final StringBuilder errors = new StringBuilder();
+		final int start = prefix.length();
+		// The end of the input belongs to the command when nothing follows it.
+		final int end = suffix.isEmpty() ? Integer.MAX_VALUE : start + cmd.length();
+		final LoggingListener listener = parse(prefix, cmd, suffix, states, start, end, errors, cancelled);
+		return new ParsedCmd(new ArrayList<>(listener.getGroups()), new HashMap<>(listener.definedColours), errors.toString(),
+			!listener.root.textParsed.isEmpty());
+	}
+
+	/**
+	 * Lexes and parses the given code.
+	 * @param prefix The code that precedes the body.
+	 * @param body The code the given states apply to.
+	 * @param suffix The code that follows the body.
+	 * @param states The states at the beginning of the body.
+	 * @param start The index of the first character whose errors are reported.
+	 * @param end The index after the last character whose errors are reported.
+	 * @param errors Receives the errors.
+	 * @return The listener that contains the results of the parsing.
+	 */
+	private LoggingListener parse(final String prefix, final String body, final String suffix, final ParsedStates states, final int start,
+										final int end, final StringBuilder errors, final BooleanSupplier cancelled) {
+		final PSTLexer lexer = new PSTLexer(CharStreams.fromString(prefix + body + suffix));
+		final CommonTokenStream tokens = new CommonTokenStream(lexer);
+		final LoggingListener listener = new LoggingListener(errors, cancelled, () -> {
+			final int index = tokens.index() > 0 ? tokens.LT(-1).getStartIndex() : 0;
+			return index >= start && index < end;
+		}, states, prefix.length());
+		listener.setDocumentDir(documentDir);
+		final BaseErrorListener errorListener = new BaseErrorListener() {
+			@Override
+			public void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line, final int charPositionInLine,
+									final String msg, final RecognitionException e) {
+				final int index = offendingSymbol instanceof Token ? ((Token) offendingSymbol).getStartIndex() : lexer.getCharIndex();
+				if(index >= start && index < end) {
+					errors.append("Syntax error: ").append(msg).append(SystemUtils.getInstance().EOL); //NON-NLS
+				}
+			}
+		};
+
+		lexer.removeErrorListeners();
+		lexer.addErrorListener(errorListener);
+		// The lexing errors are reported once, whatever the number of parsing stages.
+		tokens.fill();
+		final int lexingLogLength = errors.length();
+		final PSTParser parser = new PSTParser(tokens);
+		parser.removeErrorListeners();
+		parser.addParseListener(listener);
+		parser.addErrorListener(errorListener);
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(listener.root), () -> {
+			listener.reset();
+			errors.setLength(lexingLogLength);
+		});
+
+		return listener;
+	}
+
+	/**
+	 * Identifies a top-level command of a document: its code, the states that precede it, and its enclosing code.
+	 */
+	private static final class CmdKey {
+		final @NotNull String header;
+		final @NotNull String footer;
+		/** Compared by reference: the states of an unmodified document are reused from a parsing to another. */
+		final @NotNull ParsedStates states;
+		final @NotNull String cmd;
+
+		CmdKey(final PSTDocumentParser.TopLevelCmds doc, final @NotNull ParsedStates states, final @NotNull String cmd) {
+			super();
+			header = doc.header;
+			footer = doc.footer;
+			this.states = states;
+			this.cmd = cmd;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if(this == o) {
+				return true;
+			}
+			if(!(o instanceof CmdKey)) {
+				return false;
+			}
+			final CmdKey key = (CmdKey) o;
+			return states == key.states && cmd.equals(key.cmd) && header.equals(key.header) && footer.equals(key.footer);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(header, footer, System.identityHashCode(states), cmd);
+		}
+	}
+
+	/**
+	 * Identifies states of a document: the state commands, the states that precede them, and their enclosing code.
+	 */
+	private static final class StatesKey {
+		/** The states that precede the state commands. Compared by reference. Null: the states of the enclosing code alone. */
+		final @Nullable ParsedStates previous;
+		final @NotNull String header;
+		final @NotNull String footer;
+		final @NotNull String stateCmds;
+
+		StatesKey(final @Nullable ParsedStates previous, final PSTDocumentParser.TopLevelCmds doc, final @NotNull String stateCmds) {
+			super();
+			this.previous = previous;
+			header = doc.header;
+			footer = doc.footer;
+			this.stateCmds = stateCmds;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if(this == o) {
+				return true;
+			}
+			if(!(o instanceof StatesKey)) {
+				return false;
+			}
+			final StatesKey key = (StatesKey) o;
+			return previous == key.previous && stateCmds.equals(key.stateCmds) && header.equals(key.header) && footer.equals(key.footer);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(previous), header, footer, stateCmds);
+		}
+	}
+
+	/**
+	 * The states produced by the state commands that precede a command. Not modified once parsed.
+	 */
+	private static final class ParsedStates {
+		static final @NotNull ParsedStates NONE = new ParsedStates(null, Map.of(), Map.of(), "");
+
+		/** The context of the body of the enclosing code once the state commands parsed. Null: nothing to apply. */
+		final @Nullable PSTContext body;
+		/** The colours defined so far. */
+		final @NotNull Map<String, Color> colours;
+		/** The data points defined so far. */
+		final @NotNull Map<String, PlotData> plotData;
+		/** The errors of the enclosing code (only for the states of the enclosing code alone). */
+		final @NotNull String log;
+
+		ParsedStates(final @Nullable PSTContext body, final @NotNull Map<String, Color> colours, final @NotNull Map<String, PlotData> plotData,
+					final @NotNull String log) {
+			super();
+			this.body = body;
+			this.colours = colours;
+			this.plotData = plotData;
+			this.log = log;
+		}
+	}
+
+	/**
+	 * The result of the parsing of a top-level command.
+	 */
+	private static final class ParsedCmd {
+		/** The groups of shapes produced by the command. Not modified once parsed. */
+		final @NotNull Collection<Group> groups;
+		/** The colours defined so far. */
+		final @NotNull Map<String, Color> colours;
+		final @NotNull String log;
+		/** True if the command contains top-level texts. */
+		final boolean topLevelText;
+
+		ParsedCmd(final @NotNull Collection<Group> groups, final @NotNull Map<String, Color> colours, final @NotNull String log,
+				final boolean topLevelText) {
+			super();
+			this.groups = groups;
+			this.colours = colours;
+			this.log = log;
+			this.topLevelText = topLevelText;
+		}
+	}
+
+	/**
+	 * Starts the parsing of the body of the code with the given states.
+	 * Reports the unknown commands and parameters, and the log of the conversion.
+	 */
+	private static final class LoggingListener extends PSTLatexdrawListener {
+		final @NotNull StringBuilder errors;
+		final @NotNull BooleanSupplier cancelled;
+		/** True if the latest consumed token belongs to the parsed command (and not to the enclosing code). */
+		final @NotNull BooleanSupplier inCmd;
+		/** The states at the beginning of the body. */
+		final @NotNull ParsedStates states;
+		/** The index of the first character of the body. */
+		final int bodyStart;
+		/** The context given to the parser. */
+		@NotNull PSTContext root;
+		/** The context of the body. Null while the body is not reached. */
+		@Nullable PSTContext body;
+
+		LoggingListener(final @NotNull StringBuilder errors, final @NotNull BooleanSupplier cancelled, final @NotNull BooleanSupplier inCmd,
+						final @NotNull ParsedStates states, final int bodyStart) {
+			super();
+			this.errors = errors;
+			this.cancelled = cancelled;
+			this.inCmd = inCmd;
+			this.states = states;
+			this.bodyStart = bodyStart;
+			root = new PSTContext();
+			setStates();
+
+			log.addHandler(new Handler() {
+				@Override
+				public void publish(final LogRecord record) {
+					report(record.getMessage());
+				}
+
+				@Override
+				public void flush() {
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+		}
+
+		private void setStates() {
+			definedColours.putAll(states.colours);
+			getPlotData().putAll(states.plotData);
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			root = new PSTContext();
+			body = null;
+			setStates();
+		}
+
+		@Override
+		public void enterPstCode(final PSTParser.PstCodeContext ctx) {
+			super.enterPstCode(ctx);
+			// The first block of code that starts in the body is the body: the previous states apply to its context.
+			if(body == null && ctx.getStart().getStartIndex() >= bodyStart) {
+				body = ctx.pstctx;
+				if(states.body != null) {
+					body.setParams(states.body);
+				}
+			}
+		}
+
+		@Override
+		public void enterEveryRule(final ParserRuleContext ctx) {
+			super.enterEveryRule(ctx);
+			if(cancelled.getAsBoolean()) {
+				throw new CancellationException();
+			}
+		}
+
+		void report(final String error) {
+			if(inCmd.getAsBoolean()) {
+				errors.append(error).append(SystemUtils.getInstance().EOL);
+			}
+		}
+
+		@Override
+		public void exitUnknowncmds(final PSTParser.UnknowncmdsContext ctx) {
+			report("Unknown command: " + ctx.LATEXCMD().getSymbol().getText()); //NON-NLS
+		}
+
+		@Override
+		public void enterUnknownParamSetting(final PSTParser.UnknownParamSettingContext ctx) {
+			report("Unknown parameter: " + ctx.name.getText()); //NON-NLS
+		}
+
+		@Override
+		public void visitErrorNode(final ErrorNode node) {
+			report("Error: " + node.getText()); //NON-NLS
+		}
+
+		@Override
+		public void exitText(final PSTParser.TextContext ctx) {
+			super.exitText(ctx);
+			if(ctx.getText().startsWith("\\")) {
+				report("Bad command: '" + ctx.getText() + "'?"); //NON-NLS
+			}
+		}
+	}
+}
@@ -10,11 +10,19 @@
  */
 package net.sf.latexdraw.parser.pst;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -45,6 +53,7 @@ import net.sf.latexdraw.model.api.shape.Group;
 import net.sf.latexdraw.model.api.shape.LineStyle;
 import net.sf.latexdraw.model.api.shape.Picture;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
 import net.sf.latexdraw.model.api.shape.PlottingStyle;
 import net.sf.latexdraw.model.api.shape.Point;
@@ -59,34 +68,99 @@ import net.sf.latexdraw.model.api.shape.Text;
 import net.sf.latexdraw.model.api.shape.TextPosition;
 import net.sf.latexdraw.model.api.shape.TicksStyle;
 import net.sf.latexdraw.model.api.shape.Triangle;
+import net.sf.latexdraw.parser.PlotDataReader;
 import net.sf.latexdraw.util.Tuple;
 import net.sf.latexdraw.view.latex.DviPsColors;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
 
 public class PSTLatexdrawListener extends PSTCtxListener {
 	private final Deque<Group> shapes;
+	/** The data points defined by \readdata and \savedata commands, by name. */
+	private final Map<String, PlotData> plotData;
+	/** The directory of the parsed document, against which the relative paths of the data files are resolved. Null: the working directory. */
+	private Path documentDir;
 	Point2D psCustomLatestPt;
 
 	public PSTLatexdrawListener() {
 		super();
 		shapes = new ArrayDeque<>();
+		plotData = new HashMap<>();
 		PSTContext.ppc = Shape.PPC;
 		psCustomLatestPt = new Point2D(0d, 0d);
 	}
 
+	/**
+	 * Forgets the shapes parsed so far, so that the listener can be used for parsing the code again.
+	 */
+	public void reset() {
+		shapes.clear();
+		plotData.clear();
+		definedColours.clear();
+		psCustomLatestPt = new Point2D(0d, 0d);
+	}
+
+	/**
+	 * Registers the colours defined by the parsed code (e.g. \definecolor) in DviPsColors, so that the generated code uses their names.
+	 * The colours are not registered during the parsing: the parsed code resolves its colours through its own table, since several
+	 * codes can be parsed in parallel and a parsing stage can be rolled back.
+	 */
+	public void registerDefinedColours() {
+		registerColours(definedColours);
+	}
+
+	/**
+	 * Registers the given colours in DviPsColors.
+	 * @param colours The colours by name.
+	 */
+	static void registerColours(final Map<String, Color> colours) {
+		colours.forEach((name, colour) -> DviPsColors.INSTANCE.addUserColour(colour, name));
+	}
+
+	/**
+	 * @param dir The directory of the parsed document, against which the relative paths of the data files (e.g. \readdata, \fileplot) are
+	 * resolved. If null, the paths are resolved against the working directory.
+	 */
+	public void setDocumentDir(final Path dir) {
+		documentDir = dir;
+	}
+
+	/**
+	 * @return The groups of shapes parsed so far: the shapes of the code are added to the last group.
+	 */
+	Deque<Group> getGroups() {
+		return shapes;
+	}
+
+	/**
+	 * @return The data points defined so far by the \readdata and \savedata commands, by name.
+	 */
+	Map<String, PlotData> getPlotData() {
+		return plotData;
+	}
+
 	/**
 	 * Replaces the groups of shapes that contain a single shape by the contained shape (recursively).
 	 * Removes empty groups of shapes.
 	 */
 	public List<Shape> flatShapes() {
-		final List<Shape> flatten = shapes.stream().map(gp -> flatGroup(gp)).filter(opt -> opt.isPresent()).map(opt -> opt.get()).collect(Collectors.toList());
+		return flatShapes(shapes);
+	}
+
+	/**
+	 * Replaces the groups of shapes that contain a single shape by the contained shape (recursively).
+	 * Removes empty groups of shapes.
+	 * @param groups The groups of shapes produced by one or several listeners.
+	 */
+	static List<Shape> flatShapes(final Collection<Group> groups) {
+		final List<Shape> flatten = groups.stream().map(gp -> flatGroup(gp)).filter(opt -> opt.isPresent()).map(opt -> opt.get()).collect(Collectors.toList());
 		if(flatten.size() == 1 && flatten.get(0) instanceof Group) {
 			return ((Group) flatten.get(0)).getShapes();
 		}
 		return flatten;
 	}
 
-	private Optional<Shape> flatGroup(final Group gp) {
+	private static Optional<Shape> flatGroup(final Group gp) {
 		if(gp.isEmpty()) {
 			return Optional.empty();
 		}
@@ -130,8 +204,8 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 			final String txt = String.join(" ", ctx.textParsed);
 			final Text text = ShapeFactory.INST.createText(ShapeFactory.INST.createPoint(), txt);
 			setShapeParameters(text, ctx);
-			text.setLineColour(ctx.textColor);
-			text.setTextPosition(TextPosition.getTextPosition(ctx.textPosition));
+			text.setLineColour(ctx.get(PSTParam.TEXT_COLOR));
+			text.setTextPosition(TextPosition.getTextPosition(ctx.get(PSTParam.TEXT_POSITION)));
 			shapes.getLast().addShape(text);
 		}
 	}
@@ -178,7 +252,7 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	public void exitPsframe(final net.sf.latexdraw.parser.pst.PSTParser.PsframeContext ctx) {
 		final Rectangle rec = ShapeFactory.INST.createRectangle();
 		final Tuple<Point, Point> pts = getRectangularPoints(ctx.p1, ctx.p2, ctx.pstctx);
-		rec.setLineArc(ctx.pstctx.frameArc);
+		rec.setLineArc(ctx.pstctx.get(PSTParam.FRAME_ARC));
 
 		// The x-coordinates of pt1 must be lower than pt2 one.
 		if(pts.a.getX() > pts.b.getX()) {
@@ -225,8 +299,8 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		setRectangularShape(rhombus, pts.a.getX() - pts.b.getX(), pts.a.getY() - pts.b.getY(), Math.abs(pts.b.getX() * 2d),
 			Math.abs(pts.b.getY() * 2d), ctx.pstctx, ctx.cmd);
 
-		if(!MathUtils.INST.equalsDouble(ctx.pstctx.gangle, 0d)) {
-			rhombus.setRotationAngle(rhombus.getRotationAngle() - Math.toRadians(ctx.pstctx.gangle));
+		if(!MathUtils.INST.equalsDouble(ctx.pstctx.get(PSTParam.GANGLE), 0d)) {
+			rhombus.setRotationAngle(rhombus.getRotationAngle() - Math.toRadians(ctx.pstctx.get(PSTParam.GANGLE)));
 		}
 
 		shapes.getLast().addShape(rhombus);
@@ -254,10 +328,10 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		final Tuple<Point, Point> pts = getRectangularPoints(ctx.p1, ctx.p2, ctx.pstctx);
 		setRectangularShape(triangle, pts.a.getX() - pts.b.getX() / 2d, pts.a.getY(), Math.abs(pts.b.getX()), Math.abs(pts.b.getY()), ctx.pstctx, ctx.cmd);
 
-		if(!MathUtils.INST.equalsDouble(ctx.pstctx.gangle, 0d)) {
+		if(!MathUtils.INST.equalsDouble(ctx.pstctx.get(PSTParam.GANGLE), 0d)) {
 			final Point gc = triangle.getGravityCentre();
-			final Point newGc = gc.rotatePoint(pts.a, Math.toRadians(-ctx.pstctx.gangle));
-			triangle.setRotationAngle(triangle.getRotationAngle() + Math.toRadians(ctx.pstctx.gangle));
+			final Point newGc = gc.rotatePoint(pts.a, Math.toRadians(-ctx.pstctx.get(PSTParam.GANGLE)));
+			triangle.setRotationAngle(triangle.getRotationAngle() + Math.toRadians(ctx.pstctx.get(PSTParam.GANGLE)));
 			triangle.translate(newGc.getX() - gc.getX(), newGc.getY() - gc.getY());
 		}
 
@@ -308,8 +382,8 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	@Override
 	public void exitPsarcn(final net.sf.latexdraw.parser.pst.PSTParser.PsarcnContext ctx) {
 		final CircleArc arc = ShapeFactory.INST.createCircleArc();
-		ctx.pstctx.arrowLeft = ArrowStyle.getArrowStyle(ctx.pstctx.arrowLeft).getOppositeArrowStyle().getPSTToken();
-		ctx.pstctx.arrowRight = ArrowStyle.getArrowStyle(ctx.pstctx.arrowRight).getOppositeArrowStyle().getPSTToken();
+		ctx.pstctx.set(PSTParam.ARROW_LEFT, ArrowStyle.getArrowStyle(ctx.pstctx.get(PSTParam.ARROW_LEFT)).getOppositeArrowStyle().getPSTToken());
+		ctx.pstctx.set(PSTParam.ARROW_RIGHT, ArrowStyle.getArrowStyle(ctx.pstctx.get(PSTParam.ARROW_RIGHT)).getOppositeArrowStyle().getPSTToken());
 		setArc(arc, ArcStyle.ARC, ctx.pos, ctx.radius.valueDim(), ctx.angle2.valueDim(), ctx.angle1.valueDim(), ctx.pstctx, ctx.cmd);
 		shapes.getLast().addShape(arc);
 	}
@@ -386,18 +460,18 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		}
 
 		setArrows(axes, ctx.pstctx);
-		setStdGridParams(ctx.pstctx.ox, ctx.pstctx.oy, axes, ctx.pstctx);
+		setStdGridParams(ctx.pstctx.get(PSTParam.OX), ctx.pstctx.get(PSTParam.OY), axes, ctx.pstctx);
 		setShapeParameters(axes, ctx.pstctx);
-		axes.setAxesStyle(AxesStyle.getStyle(ctx.pstctx.axesStyle));
-		axes.setTicksDisplayed(PlottingStyle.getStyle(ctx.pstctx.ticks));
-		axes.setLabelsDisplayed(PlottingStyle.getStyle(ctx.pstctx.labels));
-		axes.setTicksStyle(TicksStyle.getStyle(ctx.pstctx.ticksStyle));
-		axes.setTicksSize(ctx.pstctx.ticksSize * Shape.PPC);
-		axes.setIncrementX(ctx.pstctx.dxIncrement);
-		axes.setIncrementY(ctx.pstctx.dyIncrement);
-		axes.setDistLabelsX(ctx.pstctx.dxLabelDist);
-		axes.setDistLabelsY(ctx.pstctx.dyLabelDist);
-		axes.setShowOrigin(ctx.pstctx.showOrigin);
+		axes.setAxesStyle(AxesStyle.getStyle(ctx.pstctx.get(PSTParam.AXES_STYLE)));
+		axes.setTicksDisplayed(PlottingStyle.getStyle(ctx.pstctx.get(PSTParam.TICKS)));
+		axes.setLabelsDisplayed(PlottingStyle.getStyle(ctx.pstctx.get(PSTParam.LABELS)));
+		axes.setTicksStyle(TicksStyle.getStyle(ctx.pstctx.get(PSTParam.TICKS_STYLE)));
+		axes.setTicksSize(ctx.pstctx.get(PSTParam.TICKS_SIZE) * Shape.PPC);
+		axes.setIncrementX(ctx.pstctx.get(PSTParam.DX_INCREMENT));
+		axes.setIncrementY(ctx.pstctx.get(PSTParam.DY_INCREMENT));
+		axes.setDistLabelsX(ctx.pstctx.get(PSTParam.DX_LABEL_DIST));
+		axes.setDistLabelsY(ctx.pstctx.get(PSTParam.DY_LABEL_DIST));
+		axes.setShowOrigin(ctx.pstctx.get(PSTParam.SHOW_ORIGIN));
 		axes.setGridEndX(gridend.getX());
 		axes.setGridEndY(gridend.getY());
 		axes.setGridStartX(gridstart.getX());
@@ -418,8 +492,8 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		if(ctx.p3 == null) {
 			if(ctx.p2 == null) {
 				if(ctx.p1 == null) {
-					gridStart = ShapeFactory.INST.createPoint(Math.round(ctx.pstctx.pictureSWPt.getX()), Math.round(ctx.pstctx.pictureSWPt.getY()));
-					gridEnd = ShapeFactory.INST.createPoint(Math.round(ctx.pstctx.pictureNEPt.getX()), Math.round(ctx.pstctx.pictureNEPt.getY()));
+					gridStart = ShapeFactory.INST.createPoint(Math.round(ctx.pstctx.get(PSTParam.PICTURE_SW_PT).getX()), Math.round(ctx.pstctx.get(PSTParam.PICTURE_SW_PT).getY()));
+					gridEnd = ShapeFactory.INST.createPoint(Math.round(ctx.pstctx.get(PSTParam.PICTURE_NE_PT).getX()), Math.round(ctx.pstctx.get(PSTParam.PICTURE_NE_PT).getY()));
 					pos = ShapeFactory.INST.createPoint();
 					grid.setPosition(0d, 0d);
 					grid.setLabelsSize(0);
@@ -456,16 +530,16 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		setStdGridParams(pos.getX(), pos.getY(), grid, ctx.pstctx);
 		setShapeParameters(grid, ctx.pstctx);
 		grid.setPosition(0d, 0d);
-		grid.setUnit(ctx.pstctx.unit);
-		grid.setGridDots((int) ctx.pstctx.gridDots);
-		grid.setGridLabelsColour(ctx.pstctx.gridlabelcolor);
-		grid.setLabelsSize((int) (ctx.pstctx.gridLabel * Shape.PPC));
-		grid.setGridWidth(Math.abs(ctx.pstctx.gridWidth * Shape.PPC));
-		grid.setSubGridColour(ctx.pstctx.subGridCol);
-		grid.setSubGridDiv((int) ctx.pstctx.subGridDiv);
-		grid.setSubGridDots((int) ctx.pstctx.subGridDots);
-		grid.setSubGridWidth(Math.abs(ctx.pstctx.subGridWidth * Shape.PPC));
-		grid.setLineColour(ctx.pstctx.gridColor);
+		grid.setUnit(ctx.pstctx.get(PSTParam.UNIT));
+		grid.setGridDots(ctx.pstctx.get(PSTParam.GRID_DOTS).intValue());
+		grid.setGridLabelsColour(ctx.pstctx.get(PSTParam.GRID_LABEL_COLOR));
+		grid.setLabelsSize((int) (ctx.pstctx.get(PSTParam.GRID_LABEL) * Shape.PPC));
+		grid.setGridWidth(Math.abs(ctx.pstctx.get(PSTParam.GRID_WIDTH) * Shape.PPC));
+		grid.setSubGridColour(ctx.pstctx.get(PSTParam.SUB_GRID_COL));
+		grid.setSubGridDiv(ctx.pstctx.get(PSTParam.SUB_GRID_DIV).intValue());
+		grid.setSubGridDots(ctx.pstctx.get(PSTParam.SUB_GRID_DOTS).intValue());
+		grid.setSubGridWidth(Math.abs(ctx.pstctx.get(PSTParam.SUB_GRID_WIDTH) * Shape.PPC));
+		grid.setLineColour(ctx.pstctx.get(PSTParam.GRID_COLOR));
 		grid.setXLabelSouth(!isGridYLabelInverted);
 		grid.setYLabelWest(!isGridXLabelInverted);
 		grid.setGridEndX(gridEnd.getX());
@@ -575,33 +649,120 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		final double v1 = ctx.pstctx.numberToDouble(ctx.x0);
 		final double v2 = ctx.pstctx.numberToDouble(ctx.x1);
 		final String fct = ctx.fct.stream().map(elt -> elt.getText()).collect(Collectors.joining(" "));
-		final Plot plot = ShapeFactory.INST.createPlot(ShapeFactory.INST.createPoint(), v1 < v2 ? v1 : v2, v1 < v2 ? v2 : v1, fct, ctx.pstctx.polarPlot);
-		final double dotSizeDim = ctx.pstctx.arrowDotSize.a + ctx.pstctx.arrowDotSize.b < 0d ? Math.abs(ctx.pstctx.arrowDotSize.a) : ctx.pstctx.arrowDotSize.a;
-		final double dotSizeNum = ctx.pstctx.arrowDotSize.b + ctx.pstctx.arrowDotSize.b < 0d ? Math.abs(ctx.pstctx.arrowDotSize.b) : ctx.pstctx.arrowDotSize.b;
-
-		setShapeParameters(plot, ctx.pstctx);
-		plot.setNbPlottedPoints(ctx.pstctx.plotPoints);
-		plot.setPlotStyle(PlotStyle.getPlotStyle(ctx.pstctx.plotStyle));
-		plot.setXScale(ctx.pstctx.xUnit);
-		plot.setYScale(ctx.pstctx.yUnit);
-		plot.setDiametre((dotSizeDim + dotSizeNum * ctx.pstctx.lineWidth) * Shape.PPC * ctx.pstctx.dotScale.a);
-		plot.setDotStyle(DotStyle.getStyle(ctx.pstctx.dotStyle));
+		final Plot plot = ShapeFactory.INST.createPlot(ShapeFactory.INST.createPoint(), v1 < v2 ? v1 : v2, v1 < v2 ? v2 : v1, fct, ctx.pstctx.get(PSTParam.POLAR_PLOT));
 
-		if(ctx.pstctx.starredCmd(ctx.cmd)) {
+		setPlotParameters(plot, ctx.pstctx, ctx.cmd);
+		plot.setNbPlottedPoints(ctx.pstctx.get(PSTParam.PLOT_POINTS));
+		shapes.getLast().addShape(plot);
+	}
+
+	private void setPlotParameters(final Plot plot, final PSTContext pstctx, final Token cmd) {
+		final double dotSizeDim = pstctx.get(PSTParam.ARROW_DOT_SIZE).a + pstctx.get(PSTParam.ARROW_DOT_SIZE).b < 0d ? Math.abs(pstctx.get(PSTParam.ARROW_DOT_SIZE).a) : pstctx.get(PSTParam.ARROW_DOT_SIZE).a;
+		final double dotSizeNum = pstctx.get(PSTParam.ARROW_DOT_SIZE).b + pstctx.get(PSTParam.ARROW_DOT_SIZE).b < 0d ? Math.abs(pstctx.get(PSTParam.ARROW_DOT_SIZE).b) : pstctx.get(PSTParam.ARROW_DOT_SIZE).b;
+
+		setShapeParameters(plot, pstctx);
+		plot.setPlotStyle(PlotStyle.getPlotStyle(pstctx.get(PSTParam.PLOT_STYLE)));
+		plot.setXScale(pstctx.get(PSTParam.X_UNIT));
+		plot.setYScale(pstctx.get(PSTParam.Y_UNIT));
+		plot.setDiametre((dotSizeDim + dotSizeNum * pstctx.get(PSTParam.LINE_WIDTH)) * Shape.PPC * pstctx.get(PSTParam.DOT_SCALE).a);
+		plot.setDotStyle(DotStyle.getStyle(pstctx.get(PSTParam.DOT_STYLE)));
+
+		if(pstctx.starredCmd(cmd)) {
 			setShapeForStar(plot);
 		}
+	}
+
+	@Override
+	public void exitReaddata(final net.sf.latexdraw.parser.pst.PSTParser.ReaddataContext ctx) {
+		if(ctx.name != null && ctx.path != null) {
+			readDataFile(ctx.path.getText()).ifPresent(data -> plotData.put(ctx.name.getText(), data));
+		}
+	}
+
+	@Override
+	public void exitSavedata(final net.sf.latexdraw.parser.pst.PSTParser.SavedataContext ctx) {
+		if(ctx.name != null && ctx.open != null && ctx.close != null) {
+			final String data = ctx.open.getInputStream().getText(Interval.of(ctx.open.getStopIndex() + 1, ctx.close.getStartIndex() - 1));
+			plotData.put(ctx.name.getText(), PlotDataReader.INSTANCE.read(data));
+		}
+	}
+
+	@Override
+	public void exitListplot(final net.sf.latexdraw.parser.pst.PSTParser.ListplotContext ctx) {
+		if(ctx.values.isEmpty()) {
+			addDataPlot(getPlotData(ctx.names), ctx.pstctx, ctx.cmd);
+		}else {
+			final double[] coords = ctx.values.stream().mapToDouble(value -> ctx.pstctx.numberToDouble(value)).toArray();
+			addDataPlot(new PlotData(coords, coords.length), ctx.pstctx, ctx.cmd);
+		}
+	}
+
+	@Override
+	public void exitDataplot(final net.sf.latexdraw.parser.pst.PSTParser.DataplotContext ctx) {
+		addDataPlot(getPlotData(ctx.names), ctx.pstctx, ctx.cmd);
+	}
+
+	@Override
+	public void exitFileplot(final net.sf.latexdraw.parser.pst.PSTParser.FileplotContext ctx) {
+		if(ctx.path != null) {
+			readDataFile(ctx.path.getText()).ifPresent(data -> addDataPlot(data, ctx.pstctx, ctx.cmd));
+		}
+	}
+
+	/**
+	 * Reads the data points of the given file in a streaming fashion.
+	 */
+	private Optional<PlotData> readDataFile(final String path) {
+		try(final BufferedReader reader = Files.newBufferedReader(documentDir == null ? Path.of(path) : documentDir.resolve(path))) {
+			return Optional.of(PlotDataReader.INSTANCE.read(reader));
+		}catch(final IOException | InvalidPathException ex) {
+			log.log(Level.SEVERE, "Cannot read the data file: " + path, ex); //NON-NLS
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return The data points of the given data names, concatenated. Unknown names are ignored.
+	 */
+	private PlotData getPlotData(final List<Token> names) {
+		final List<PlotData> data = names.stream().map(name -> plotData.get(name.getText())).filter(d -> d != null).collect(Collectors.toList());
+
+		if(data.size() == 1) {
+			return data.get(0);
+		}
+
+		final double[] coords = new double[data.stream().mapToInt(d -> d.size() * 2).sum()];
+		int i = 0;
+		for(final PlotData d : data) {
+			for(int j = 0, size = d.size(); j < size; j++) {
+				coords[i++] = d.getX(j);
+				coords[i++] = d.getY(j);
+			}
+		}
+		return new PlotData(coords, coords.length);
+	}
+
+	private void addDataPlot(final PlotData data, final PSTContext pstctx, final Token cmd) {
+		// A plot requires distinct X-min and X-max values.
+		if(data.size() < 2 || data.getMinX() >= data.getMaxX()) {
+			log.log(Level.WARNING, "Cannot plot the data points: at least two points with distinct X coordinates are required."); //NON-NLS
+			return;
+		}
 
+		final Plot plot = ShapeFactory.INST.createPlot(ShapeFactory.INST.createPoint(), data.getMinX(), data.getMaxX(), "x", false); //NON-NLS
+		plot.setPlotData(data);
+		setPlotParameters(plot, pstctx, cmd);
 		shapes.getLast().addShape(plot);
 	}
 
 	@Override
 	public void exitTextcolor(final net.sf.latexdraw.parser.pst.PSTParser.TextcolorContext ctx) {
-		DviPsColors.INSTANCE.getColour(ctx.name.getText()).ifPresent(colour -> shapes.getLast().setLineColour(colour));
+		findColour(ctx.name.getText()).ifPresent(colour -> shapes.getLast().setLineColour(colour));
 	}
 
 	@Override
 	public void exitColor(final net.sf.latexdraw.parser.pst.PSTParser.ColorContext ctx) {
-		DviPsColors.INSTANCE.getColour(ctx.name.getText()).ifPresent(colour -> ctx.pstctx.textColor = colour);
+		findColour(ctx.name.getText()).ifPresent(colour -> ctx.pstctx.set(PSTParam.TEXT_COLOR, colour));
 	}
 
 	@Override
@@ -680,7 +841,7 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 		}
 
 		if(colour != null) {
-			DviPsColors.INSTANCE.addUserColour(colour, ctx.name.getText());
+			definedColours.put(ctx.name.getText(), colour);
 		}
 	}
 
@@ -707,7 +868,7 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	 * Sets the parameters of std grids (axes and grids).
 	 */
 	private void setStdGridParams(final double originX, final double originY, final StandardGrid grid, final PSTContext ctx) {
-		grid.setLineColour(ctx.gridColor);
+		grid.setLineColour(ctx.get(PSTParam.GRID_COLOR));
 		grid.setOriginX(originX);
 		grid.setOriginY(originY);
 	}
@@ -761,18 +922,18 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	 */
 	private void setDot(final Point pt, final PSTContext ctx, final boolean starred) {
 		final Dot dot = ShapeFactory.INST.createDot(pt);
-		final double dotSizeDim = ctx.arrowDotSize.a + ctx.arrowDotSize.b < 0d ? Math.abs(ctx.arrowDotSize.a) : ctx.arrowDotSize.a;
-		final double dotSizeNum = ctx.arrowDotSize.a + ctx.arrowDotSize.b < 0d ? Math.abs(ctx.arrowDotSize.a) : ctx.arrowDotSize.b;
+		final double dotSizeDim = ctx.get(PSTParam.ARROW_DOT_SIZE).a + ctx.get(PSTParam.ARROW_DOT_SIZE).b < 0d ? Math.abs(ctx.get(PSTParam.ARROW_DOT_SIZE).a) : ctx.get(PSTParam.ARROW_DOT_SIZE).a;
+		final double dotSizeNum = ctx.get(PSTParam.ARROW_DOT_SIZE).a + ctx.get(PSTParam.ARROW_DOT_SIZE).b < 0d ? Math.abs(ctx.get(PSTParam.ARROW_DOT_SIZE).a) : ctx.get(PSTParam.ARROW_DOT_SIZE).b;
 
-		dot.setDiametre((dotSizeDim + dotSizeNum * ctx.lineWidth) * Shape.PPC * ctx.dotScale.a);
+		dot.setDiametre((dotSizeDim + dotSizeNum * ctx.get(PSTParam.LINE_WIDTH)) * Shape.PPC * ctx.get(PSTParam.DOT_SCALE).a);
 		setShapeParameters(dot, ctx);
-		dot.setRotationAngle(dot.getRotationAngle() + Math.toRadians(ctx.dotAngle));
-		dot.setDotStyle(DotStyle.getStyle(ctx.dotStyle));
+		dot.setRotationAngle(dot.getRotationAngle() + Math.toRadians(ctx.get(PSTParam.DOT_ANGLE)));
+		dot.setDotStyle(DotStyle.getStyle(ctx.get(PSTParam.DOT_STYLE)));
 
 		if(starred) {
 			setShapeForStar(dot);
 		}else {
-			dot.setFillingCol(ShapeFactory.INST.createColor(ctx.fillColor.getR(), ctx.fillColor.getG(), ctx.fillColor.getB(), ctx.opacity));
+			dot.setFillingCol(ShapeFactory.INST.createColor(ctx.get(PSTParam.FILL_COLOR).getR(), ctx.get(PSTParam.FILL_COLOR).getG(), ctx.get(PSTParam.FILL_COLOR).getB(), ctx.get(PSTParam.OPACITY)));
 		}
 
 		shapes.getLast().addShape(dot);
@@ -848,59 +1009,59 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	 * Sets the common shape's parameters.
 	 */
 	private void setShapeParameters(final Shape sh, final PSTContext ctx) {
-		sh.setRotationAngle(ctx.rputAngle);
+		sh.setRotationAngle(ctx.get(PSTParam.RPUT_ANGLE));
 
-		if(ctx.strokeopacity < 1d) {
-			sh.setLineColour(ShapeFactory.INST.createColor(ctx.lineColor.getR(), ctx.lineColor.getG(), ctx.lineColor.getB(), ctx.strokeopacity));
+		if(ctx.get(PSTParam.STROKE_OPACITY) < 1d) {
+			sh.setLineColour(ShapeFactory.INST.createColor(ctx.get(PSTParam.LINE_COLOR).getR(), ctx.get(PSTParam.LINE_COLOR).getG(), ctx.get(PSTParam.LINE_COLOR).getB(), ctx.get(PSTParam.STROKE_OPACITY)));
 		}else {
-			sh.setLineColour(ctx.lineColor);
+			sh.setLineColour(ctx.get(PSTParam.LINE_COLOR));
 		}
 
 		if(sh.isThicknessable()) {
-			sh.setThickness(ctx.lineWidth * Shape.PPC);
+			sh.setThickness(ctx.get(PSTParam.LINE_WIDTH) * Shape.PPC);
 		}
 
 		if(sh.isBordersMovable()) {
-			sh.setBordersPosition(BorderPos.getStyle(ctx.dimen));
+			sh.setBordersPosition(BorderPos.getStyle(ctx.get(PSTParam.DIMEN)));
 		}
 
 		if(sh.isLineStylable()) {
-			sh.setLineStyle(LineStyle.getStyle(ctx.lineStyle));
+			sh.setLineStyle(LineStyle.getStyle(ctx.get(PSTParam.LINE_STYLE)));
 		}
 
 		if(sh.isDbleBorderable()) {
-			sh.setHasDbleBord(ctx.dbleLine);
-			sh.setDbleBordCol(ctx.dbleColor);
-			sh.setDbleBordSep(ctx.dbleSep * Shape.PPC);
+			sh.setHasDbleBord(ctx.get(PSTParam.DBLE_LINE));
+			sh.setDbleBordCol(ctx.get(PSTParam.DBLE_COLOR));
+			sh.setDbleBordSep(ctx.get(PSTParam.DBLE_SEP) * Shape.PPC);
 		}
 
 		if(sh.isShadowable()) {
-			sh.setHasShadow(ctx.shadow);
-			sh.setShadowAngle(Math.toRadians(ctx.shadowAngle));
-			sh.setShadowCol(ctx.shadowCol);
-			sh.setShadowSize(ctx.shadowSize * Shape.PPC);
+			sh.setHasShadow(ctx.get(PSTParam.SHADOW));
+			sh.setShadowAngle(Math.toRadians(ctx.get(PSTParam.SHADOW_ANGLE)));
+			sh.setShadowCol(ctx.get(PSTParam.SHADOW_COL));
+			sh.setShadowSize(ctx.get(PSTParam.SHADOW_SIZE) * Shape.PPC);
 		}
 
 		if(sh.isInteriorStylable()) {
-			if(ctx.opacity < 1d) {
-				sh.setFillingCol(ShapeFactory.INST.createColor(ctx.fillColor.getR(), ctx.fillColor.getG(), ctx.fillColor.getB(), ctx.opacity));
+			if(ctx.get(PSTParam.OPACITY) < 1d) {
+				sh.setFillingCol(ShapeFactory.INST.createColor(ctx.get(PSTParam.FILL_COLOR).getR(), ctx.get(PSTParam.FILL_COLOR).getG(), ctx.get(PSTParam.FILL_COLOR).getB(), ctx.get(PSTParam.OPACITY)));
 			}else {
-				sh.setFillingCol(ctx.fillColor);
+				sh.setFillingCol(ctx.get(PSTParam.FILL_COLOR));
 			}
 
-			sh.setFillingStyle(FillingStyle.getStyleFromLatex(ctx.fillingStyle));
-			sh.setGradAngle(Math.toRadians(ctx.gradAngle));
-			sh.setGradColEnd(ctx.gradEnd);
-			sh.setGradColStart(ctx.gradBegin);
-			sh.setGradMidPt(ctx.gradMidPoint);
-			sh.setHatchingsAngle(Math.toRadians(ctx.hatchAngle));
-			sh.setHatchingsCol(ctx.hatchCol);
-			sh.setHatchingsSep(ctx.hatchSep * Shape.PPC);
-			sh.setHatchingsWidth(ctx.hatchWidth * Shape.PPC);
+			sh.setFillingStyle(FillingStyle.getStyleFromLatex(ctx.get(PSTParam.FILLING_STYLE)));
+			sh.setGradAngle(Math.toRadians(ctx.get(PSTParam.GRAD_ANGLE)));
+			sh.setGradColEnd(ctx.get(PSTParam.GRAD_END));
+			sh.setGradColStart(ctx.get(PSTParam.GRAD_BEGIN));
+			sh.setGradMidPt(ctx.get(PSTParam.GRAD_MID_POINT));
+			sh.setHatchingsAngle(Math.toRadians(ctx.get(PSTParam.HATCH_ANGLE)));
+			sh.setHatchingsCol(ctx.get(PSTParam.HATCH_COL));
+			sh.setHatchingsSep(ctx.get(PSTParam.HATCH_SEP) * Shape.PPC);
+			sh.setHatchingsWidth(ctx.get(PSTParam.HATCH_WIDTH) * Shape.PPC);
 		}
 
 		if(sh.isShowPtsable()) {
-			sh.setShowPts(ctx.showPoints);
+			sh.setShowPts(ctx.get(PSTParam.SHOW_POINTS));
 		}
 	}
 
@@ -908,15 +1069,15 @@ public class PSTLatexdrawListener extends PSTCtxListener {
 	 * Sets the arrows' parameters.
 	 */
 	private void setArrows(final ArrowableSingleShape sh, final PSTContext ctx) {
-		sh.setArrowSizeDim(ctx.arrowSize.a * Shape.PPC);
-		sh.setArrowSizeNum(ctx.arrowSize.b);
-		sh.setArrowLength(ctx.arrowLgth);
-		sh.setArrowInset(ctx.arrowInset);
-		sh.setTBarSizeDim(ctx.arrowTBar.a * Shape.PPC);
-		sh.setTBarSizeNum(ctx.arrowTBar.b);
-		sh.setBracketNum(ctx.arrowBrLgth);
-		sh.setRBracketNum(ctx.arrowrBrLgth);
-		sh.setArrowStyle(ArrowStyle.getArrowStyle(ctx.arrowLeft), 0);
-		sh.setArrowStyle(ArrowStyle.getArrowStyle(ctx.arrowRight), 1);
+		sh.setArrowSizeDim(ctx.get(PSTParam.ARROW_SIZE).a * Shape.PPC);
+		sh.setArrowSizeNum(ctx.get(PSTParam.ARROW_SIZE).b);
+		sh.setArrowLength(ctx.get(PSTParam.ARROW_LGTH));
+		sh.setArrowInset(ctx.get(PSTParam.ARROW_INSET));
+		sh.setTBarSizeDim(ctx.get(PSTParam.ARROW_TBAR).a * Shape.PPC);
+		sh.setTBarSizeNum(ctx.get(PSTParam.ARROW_TBAR).b);
+		sh.setBracketNum(ctx.get(PSTParam.ARROW_BR_LGTH));
+		sh.setRBracketNum(ctx.get(PSTParam.ARROW_RBR_LGTH));
+		sh.setArrowStyle(ArrowStyle.getArrowStyle(ctx.get(PSTParam.ARROW_LEFT)), 0);
+		sh.setArrowStyle(ArrowStyle.getArrowStyle(ctx.get(PSTParam.ARROW_RIGHT)), 1);
 	}
 }
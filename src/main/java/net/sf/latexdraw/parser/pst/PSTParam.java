@@ -0,0 +1,128 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.parser.pst;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javafx.geometry.Point2D;
+import net.sf.latexdraw.model.api.shape.Color;
+import net.sf.latexdraw.util.Tuple;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import net.sf.latexdraw.view.pst.PSTricksConstants;
+
+/**
+ * A PST parameter (e.g. linewidth) that can be set in a PST context. Its default value is used when no context sets it.
+ * @param <T> The type of the value of the parameter.
+ * @author Arnaud BLOUIN
+ */
+final class PSTParam<T> {
+	/** All the parameters, by index. Declared before the parameters so that it is initialised first. */
+	private static final List<PSTParam<?>> PARAMS = new ArrayList<>();
+
+	static final PSTParam<String> AXES_STYLE = new PSTParam<>(PSTricksConstants.TOKEN_AXES_STYLE_AXES);
+	static final PSTParam<String> ARROW_LEFT = new PSTParam<>("");
+	static final PSTParam<String> ARROW_RIGHT = new PSTParam<>("");
+	static final PSTParam<Tuple<Double, Double>> ARROW_SIZE = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ARROW_SIZE_DIM, PSTricksConstants.DEFAULT_ARROW_SIZE_NUM));
+	static final PSTParam<Double> ARROW_LGTH = new PSTParam<>(PSTricksConstants.DEFAULT_ARROW_LENGTH);
+	static final PSTParam<Double> ARROW_INSET = new PSTParam<>(PSTricksConstants.DEFAULT_ARROW_INSET);
+	static final PSTParam<Tuple<Double, Double>> ARROW_TBAR = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ARROW_TBARSIZE_DIM, PSTricksConstants.DEFAULT_ARROW_TBARSIZE_NUM));
+	static final PSTParam<Double> ARROW_BR_LGTH = new PSTParam<>(PSTricksConstants.DEFAULT_ARROW_BRACKET_LGTH);
+	static final PSTParam<Double> ARROW_RBR_LGTH = new PSTParam<>(PSTricksConstants.DEFAULT_ARROW_RBRACKET_LGTH);
+	static final PSTParam<Tuple<Double, Double>> ARROW_DOT_SIZE = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ARROW_DOTSIZE_DIM, PSTricksConstants.DEFAULT_ARROW_DOTSIZE_NUM));
+	static final PSTParam<Tuple<Double, Double>> ARROW_SCALE = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ARROW_SCALE1, PSTricksConstants.DEFAULT_ARROW_SCALE2));
+	static final PSTParam<Double> ARC_SEP = new PSTParam<>(PSTricksConstants.DEFAULT_ARC_SEP);
+	static final PSTParam<Double> ARC_SEP_A = new PSTParam<>(PSTricksConstants.DEFAULT_ARC_SEP_A);
+	static final PSTParam<Double> ARC_SEP_B = new PSTParam<>(PSTricksConstants.DEFAULT_ARC_SEP_B);
+	static final PSTParam<String> DIMEN = new PSTParam<>(PSTricksConstants.BORDERS_OUTSIDE);
+	static final PSTParam<Double> DX_INCREMENT = new PSTParam<>(PSTricksConstants.DEFAULT_DX);
+	static final PSTParam<Double> DY_INCREMENT = new PSTParam<>(PSTricksConstants.DEFAULT_DY);
+	static final PSTParam<Double> DX_LABEL_DIST = new PSTParam<>(PSTricksConstants.DEFAULT_DIST_X_LABEL);
+	static final PSTParam<Double> DY_LABEL_DIST = new PSTParam<>(PSTricksConstants.DEFAULT_DIST_Y_LABEL);
+	static final PSTParam<String> DOT_STYLE = new PSTParam<>(PSTricksConstants.DOT_STYLE);
+	static final PSTParam<Tuple<Double, Double>> DOT_SCALE = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_DOT_SCALE1, PSTricksConstants.DEFAULT_DOT_SCALE2));
+	static final PSTParam<Double> DOT_ANGLE = new PSTParam<>(PSTricksConstants.DEFAULT_DOT_ANGLE);
+	static final PSTParam<Boolean> DBLE_LINE = new PSTParam<>(PSTricksConstants.DEFAULT_DOUBLE_LINE);
+	static final PSTParam<Double> DBLE_SEP = new PSTParam<>(PSTricksConstants.DEFAULT_DOUBLE_SEP);
+	static final PSTParam<Color> DBLE_COLOR = new PSTParam<>(PSTricksConstants.DEFAULT_DOUBLE_COLOR);
+	static final PSTParam<Double> FRAME_ARC = new PSTParam<>(PSTricksConstants.DEFAULT_FRAME_ARC);
+	static final PSTParam<String> FILLING_STYLE = new PSTParam<>(PSTricksConstants.TOKEN_FILL_NONE);
+	static final PSTParam<Color> FILL_COLOR = new PSTParam<>(PSTricksConstants.DEFAULT_FILL_COLOR);
+	static final PSTParam<Double> GRID_WIDTH = new PSTParam<>(PSTricksConstants.DEFAULT_GRID_WIDTH);
+	static final PSTParam<Double> GRID_LABEL = new PSTParam<>(PSTricksConstants.DEFAULT_GRID_LABEL / PSTricksConstants.CM_VAL_PT);
+	static final PSTParam<Double> GRID_DOTS = new PSTParam<>(PSTricksConstants.DEFAULT_GRIDDOTS);
+	static final PSTParam<Double> GRAD_ANGLE = new PSTParam<>(PSTricksConstants.DEFAULT_GRADIENT_ANGLE);
+	static final PSTParam<Color> GRID_COLOR = new PSTParam<>(PSTricksConstants.DEFAULT_GRIDCOLOR);
+	static final PSTParam<Double> GRAD_MID_POINT = new PSTParam<>(PSTricksConstants.DEFAULT_GRADIENT_MID_POINT);
+	static final PSTParam<Color> GRAD_BEGIN = new PSTParam<>(PSTricksConstants.DEFAULT_GRADIENT_START_COLOR);
+	static final PSTParam<Color> GRAD_END = new PSTParam<>(PSTricksConstants.DEFAULT_GRADIENT_END_COLOR);
+	static final PSTParam<Double> GANGLE = new PSTParam<>(PSTricksConstants.DEFAULT_GANGLE);
+	static final PSTParam<Double> HATCH_WIDTH = new PSTParam<>(PSTricksConstants.DEFAULT_HATCH_WIDTH);
+	static final PSTParam<Double> HATCH_SEP = new PSTParam<>(PSTricksConstants.DEFAULT_HATCH_SEP);
+	static final PSTParam<Color> HATCH_COL = new PSTParam<>(PSTricksConstants.DEFAULT_HATCHING_COLOR);
+	static final PSTParam<Double> HATCH_ANGLE = new PSTParam<>(PSTricksConstants.DEFAULT_HATCH_ANGLE);
+	static final PSTParam<Boolean> IS_SHADOW = new PSTParam<>(PSTricksConstants.DEFAULT_SHADOW);
+	static final PSTParam<Double> LINE_WIDTH = new PSTParam<>(PSTricksConstants.DEFAULT_LINE_WIDTH);
+	static final PSTParam<Color> LINE_COLOR = new PSTParam<>(PSTricksConstants.DEFAULT_LINE_COLOR);
+	static final PSTParam<String> LABELS = new PSTParam<>(PSTricksConstants.TOKEN_LABELS_DISPLAYED_ALL);
+	static final PSTParam<Double> LINE_ARC = new PSTParam<>(PSTricksConstants.DEFAULT_LINE_ARC);
+	static final PSTParam<String> LINE_STYLE = new PSTParam<>(PSTricksConstants.LINE_SOLID_STYLE);
+	static final PSTParam<Double> OX = new PSTParam<>(PSTricksConstants.DEFAULT_OX);
+	static final PSTParam<Double> OY = new PSTParam<>(PSTricksConstants.DEFAULT_OY);
+	static final PSTParam<Tuple<Double, String>> ORIGIN_X = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ORIGIN.getX(), PSTricksConstants.TOKEN_CM));
+	static final PSTParam<Tuple<Double, String>> ORIGIN_Y = new PSTParam<>(new Tuple<>(PSTricksConstants.DEFAULT_ORIGIN.getY(), PSTricksConstants.TOKEN_CM));
+	static final PSTParam<Boolean> SHOW_POINTS = new PSTParam<>(PSTricksConstants.DEFAULT_SHOW_POINTS);
+	static final PSTParam<Boolean> SHOW_ORIGIN = new PSTParam<>(PSTricksConstants.DEFAULT_SHOW_ORIGIN);
+	static final PSTParam<Double> SUB_GRID_WIDTH = new PSTParam<>(PSTricksConstants.DEFAULT_SUB_GRID_WIDTH);
+	static final PSTParam<Color> SHADOW_COL = new PSTParam<>(PSTricksConstants.DEFAULT_SHADOW_COLOR);
+	static final PSTParam<Color> SUB_GRID_COL = new PSTParam<>(PSTricksConstants.DEFAULT_SUB_GRID_COLOR);
+	static final PSTParam<Double> SHADOW_ANGLE = new PSTParam<>(PSTricksConstants.DEFAULT_SHADOW_ANGLE);
+	static final PSTParam<Double> SHADOW_SIZE = new PSTParam<>(PSTricksConstants.DEFAULT_SHADOW_SIZE);
+	static final PSTParam<Double> SUB_GRID_DOTS = new PSTParam<>(PSTricksConstants.DEFAULT_SUBGRIDDOTS);
+	static final PSTParam<Double> SUB_GRID_DIV = new PSTParam<>(PSTricksConstants.DEFAULT_SUBGRIDDIV);
+	static final PSTParam<String> TICKS = new PSTParam<>(PSTricksConstants.TOKEN_LABELS_DISPLAYED_ALL);
+	static final PSTParam<String> TICKS_STYLE = new PSTParam<>(PSTricksConstants.TOKEN_TICKS_STYLE_FULL);
+	static final PSTParam<Double> TICKS_SIZE = new PSTParam<>(PSTricksConstants.DEFAULT_TICKS_SIZE);
+	static final PSTParam<Double> UNIT = new PSTParam<>(PSTricksConstants.DEFAULT_UNIT);
+	static final PSTParam<Double> X_UNIT = new PSTParam<>(PSTricksConstants.DEFAULT_UNIT);
+	static final PSTParam<Double> Y_UNIT = new PSTParam<>(PSTricksConstants.DEFAULT_UNIT);
+	static final PSTParam<Color> TEXT_COLOR = new PSTParam<>(DviPsColors.BLACK);
+	static final PSTParam<Boolean> SHADOW = new PSTParam<>(PSTricksConstants.DEFAULT_SHADOW);
+	static final PSTParam<Color> GRID_LABEL_COLOR = new PSTParam<>(PSTricksConstants.DEFAULT_LABELGRIDCOLOR);
+	static final PSTParam<Boolean> IS_CENTERED = new PSTParam<>(false);
+	static final PSTParam<Point2D> PICTURE_SW_PT = new PSTParam<>(new Point2D(0d, 0d));
+	static final PSTParam<Point2D> PICTURE_NE_PT = new PSTParam<>(new Point2D(0d, 0d));
+	static final PSTParam<String> TOKEN_POSITION = new PSTParam<>("");
+	static final PSTParam<String> PLOT_STYLE = new PSTParam<>("line"); //NON-NLS
+	static final PSTParam<Integer> PLOT_POINTS = new PSTParam<>(50);
+	static final PSTParam<String> TEXT_POSITION = new PSTParam<>("");
+	static final PSTParam<Double> RPUT_ANGLE = new PSTParam<>(0d);
+	static final PSTParam<Double> OPACITY = new PSTParam<>(1d);
+	static final PSTParam<Double> STROKE_OPACITY = new PSTParam<>(1d);
+	static final PSTParam<Boolean> POLAR_PLOT = new PSTParam<>(false);
+
+	/** @return All the parameters, by index. */
+	static List<PSTParam<?>> getParams() {
+		return Collections.unmodifiableList(PARAMS);
+	}
+
+	/** The position of the parameter in the list of the parameters. */
+	final int index;
+	final T defaultValue;
+
+	private PSTParam(final T defaultValue) {
+		super();
+		this.defaultValue = defaultValue;
+		index = PARAMS.size();
+		PARAMS.add(this);
+	}
+}
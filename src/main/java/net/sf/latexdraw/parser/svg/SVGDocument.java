@@ -13,11 +13,13 @@ package net.sf.latexdraw.parser.svg;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -41,6 +43,7 @@ import org.w3c.dom.Text;
 import org.w3c.dom.UserDataHandler;
 import org.w3c.dom.bootstrap.DOMImplementationRegistry;
 import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSException;
 import org.w3c.dom.ls.LSOutput;
 import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.EntityResolver;
@@ -81,41 +84,51 @@ public class SVGDocument implements Document {
 		}
 
 		try {
-			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); //NON-NLS
-			factory.setFeature("http://xml.org/sax/features/external-general-entities", false); //NON-NLS
-			factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false); //NON-NLS
-			factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //NON-NLS
-			factory.setXIncludeAware(false);
-			factory.setExpandEntityReferences(false);
-			final DocumentBuilder builder = factory.newDocumentBuilder();
-
-			builder.setEntityResolver(new SVGEntityResolver());
+			final DocumentBuilder builder = createDocumentBuilder();
 			Document doc;
 			try {
 				doc = builder.parse(uri.getPath());
 			}catch(final MalformedURLException ex) {
 				doc = builder.parse("file:" + uri.getPath()); //NON-NLS
 			}
-			final NodeList nl;
+			initFromDocument(doc);
+		}catch(final SAXException | ParserConfigurationException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
+
+	private static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); //NON-NLS
+		factory.setFeature("http://xml.org/sax/features/external-general-entities", false); //NON-NLS
+		factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false); //NON-NLS
+		factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //NON-NLS
+		factory.setXIncludeAware(false);
+		factory.setExpandEntityReferences(false);
+		final DocumentBuilder builder = factory.newDocumentBuilder();
+		builder.setEntityResolver(new SVGEntityResolver());
+		return builder;
+	}
+
+
+	private void initFromDocument(final Document doc) {
+		final NodeList nl;
 
-			setXmlStandalone(doc.getXmlStandalone());
-			setXmlVersion(doc.getXmlVersion());
-			xmlEncoding = doc.getXmlEncoding();
-			root = null;
-			nl = doc.getChildNodes();
-			Node n;
+		setXmlStandalone(doc.getXmlStandalone());
+		setXmlVersion(doc.getXmlVersion());
+		xmlEncoding = doc.getXmlEncoding();
+		root = null;
+		nl = doc.getChildNodes();
+		Node n;
 
-			for(int i = 0, size = nl.getLength(); i < size && root == null; i++) {
-				n = nl.item(i);
+		for(int i = 0, size = nl.getLength(); i < size && root == null; i++) {
+			n = nl.item(i);
 
-				if(n instanceof Element && n.getNodeName().endsWith(SVGElements.SVG_SVG)) {
-					root = new SVGSVGElement(this, nl.item(i));
-				}
+			if(n instanceof Element && n.getNodeName().endsWith(SVGElements.SVG_SVG)) {
+				root = new SVGSVGElement(this, nl.item(i));
 			}
-		}catch(final SAXException | ParserConfigurationException ex) {
-			BadaboomCollector.INSTANCE.add(ex);
-			throw new IllegalArgumentException(ex);
 		}
 	}
 
@@ -133,6 +146,28 @@ public class SVGDocument implements Document {
 	}
 
 
+	/**
+	 * Parses an SVG document from the given XML text (e.g. a text produced by toXMLString).
+	 * @param xml The XML text of the SVG document to parse.
+	 * @return The parsed document.
+	 * @throws IOException If the text cannot be read.
+	 * @throws IllegalArgumentException If the text is not a valid XML document.
+	 */
+	public static SVGDocument fromXMLString(final String xml) throws IOException {
+		if(xml == null) {
+			throw new IllegalArgumentException();
+		}
+
+		try {
+			final SVGDocument svgDoc = new SVGDocument();
+			svgDoc.initFromDocument(createDocumentBuilder().parse(new InputSource(new StringReader(xml))));
+			return svgDoc;
+		}catch(final SAXException | ParserConfigurationException ex) {
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
+
 	@Override
 	public String toString() {
 		return "SVG Document:" + root; //NON-NLS
@@ -549,10 +584,8 @@ public class SVGDocument implements Document {
 
 		boolean ok = true;
 		try {
-			final DOMImplementationLS impl = (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("XML 3.0 LS 3.0"); //NON-NLS
-			final LSSerializer serializer = impl.createLSSerializer();
-			serializer.getDomConfig().setParameter("format-pretty-print", Boolean.TRUE); //NON-NLS
-			serializer.getDomConfig().setParameter("namespaces", Boolean.FALSE); //NON-NLS
+			final DOMImplementationLS impl = getDOMImplementationLS();
+			final LSSerializer serializer = createSerializer(impl, true);
 			final LSOutput output = impl.createLSOutput();
 			final Charset charset = Charset.defaultCharset();
 			try(final OutputStreamWriter fw = new OutputStreamWriter(Files.newOutputStream(Path.of(path)), charset.newEncoder())) {
@@ -568,6 +601,33 @@ public class SVGDocument implements Document {
 	}
 
 
+	/**
+	 * Serialises the SVG document into a compact (not pretty-printed) XML text.
+	 * @return The XML text or nothing if the serialisation failed.
+	 */
+	public Optional<String> toXMLString() {
+		try {
+			return Optional.ofNullable(createSerializer(getDOMImplementationLS(), false).writeToString(getDocumentElement()));
+		}catch(final ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException | DOMException | LSException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+
+	private static DOMImplementationLS getDOMImplementationLS() throws ClassNotFoundException, InstantiationException, IllegalAccessException {
+		return (DOMImplementationLS) DOMImplementationRegistry.newInstance().getDOMImplementation("XML 3.0 LS 3.0"); //NON-NLS
+	}
+
+
+	private static LSSerializer createSerializer(final DOMImplementationLS impl, final boolean prettyPrint) {
+		final LSSerializer serializer = impl.createLSSerializer();
+		serializer.getDomConfig().setParameter("format-pretty-print", prettyPrint); //NON-NLS
+		serializer.getDomConfig().setParameter("namespaces", Boolean.FALSE); //NON-NLS
+		return serializer;
+	}
+
+
 	/**
 	 * Used to avoid freeze when opening an SVG document.
 	 */
@@ -24,6 +24,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.model.MathUtils;
+import net.sf.latexdraw.parser.TwoStageParsing;
 import net.sf.latexdraw.parser.svg.path.SVGPathSeg;
 import net.sf.latexdraw.parser.svg.path.SVGPathSegArc;
 import net.sf.latexdraw.parser.svg.path.SVGPathSegClosePath;
@@ -109,7 +110,7 @@ public final class SVGParserUtils {
 				BadaboomCollector.INSTANCE.add(new ParseException(msg, line));
 			}
 		});
-		parser.coordPairSeq();
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.coordPairSeq(), () -> points.clear());
 		parser.getInterpreter().clearDFA();
 		lexer.getInterpreter().clearDFA();
 		new ATNDeserializer().deserialize(net.sf.latexdraw.parser.pst.PSTLexer._serializedATN.toCharArray());
@@ -124,7 +125,9 @@ public final class SVGParserUtils {
 
 		final net.sf.latexdraw.parser.svg.SVGPathLexer lexer = new net.sf.latexdraw.parser.svg.SVGPathLexer(CharStreams.fromString(code));
 		final net.sf.latexdraw.parser.svg.SVGPathParser parser = new net.sf.latexdraw.parser.svg.SVGPathParser(new CommonTokenStream(lexer));
-		parser.addParseListener(new SVGPathListener(handler));
+		// The segments are given to the handler once the parsing succeeded, since the SLL parsing stage may fail.
+		final List<SVGPathSeg> segs = new ArrayList<>();
+		parser.addParseListener(new SVGPathListener(segs::add));
 		parser.addErrorListener(new BaseErrorListener() {
 			@Override
 			public void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line, final int charPositionInLine,
@@ -132,10 +135,11 @@ public final class SVGParserUtils {
 				BadaboomCollector.INSTANCE.add(new ParseException(msg, line));
 			}
 		});
-		parser.svgpath();
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.svgpath(), () -> segs.clear());
 		parser.getInterpreter().clearDFA();
 		lexer.getInterpreter().clearDFA();
 		new ATNDeserializer().deserialize(net.sf.latexdraw.parser.pst.PSTLexer._serializedATN.toCharArray());
+		segs.forEach(handler);
 	}
 
 	private static class SVGPathListener extends net.sf.latexdraw.parser.svg.SVGPathBaseListener {
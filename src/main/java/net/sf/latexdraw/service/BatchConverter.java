@@ -0,0 +1,384 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.service;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.parser.pst.PSTDocumentParser;
+import net.sf.latexdraw.parser.svg.SVGDocument;
+import net.sf.latexdraw.util.BadaboomCollector;
+import net.sf.latexdraw.view.ViewsSynchroniserHandler;
+import net.sf.latexdraw.view.jfx.ViewFactory;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import net.sf.latexdraw.view.latex.LaTeXGenerator;
+import net.sf.latexdraw.view.pst.PSTCodeGenerator;
+import net.sf.latexdraw.view.pst.PSTViewsFactory;
+import net.sf.latexdraw.view.svg.SVGDocumentGenerator;
+import net.sf.latexdraw.view.svg.SVGShapesFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts drawings from the command line, without any display: SVG and PST documents are converted into SVG, TeX, PDF, or EPS documents.
+ * The files are converted in parallel, each one with its own drawing and code generator. The parsing of PST documents and the generation of PST code
+ * are serialised since they use the global user colours; the reading of SVG documents, the writing of the files, and the compilations run in parallel.
+ * The shapes are converted using the SVG and PST factories, not the JavaFX views: raster formats, that require snapshots of the views,
+ * are not supported.
+ * @author Arnaud Blouin
+ */
+public class BatchConverter {
+	/** Serialises the parts of the conversions that use the global user colours: the parsing of PST documents and the generation of PST code. */
+	private static final Object SHARED_STATE_LOCK = new Object();
+
+	/** The formats the files can be converted into. */
+	public enum Format {
+		SVG(".svg"), TEX(".tex"), PDF(".pdf"), PDF_CROP(".pdf"), EPS(".eps"); //NON-NLS
+
+		private final @NotNull String extension;
+
+		Format(final @NotNull String extension) {
+			this.extension = extension;
+		}
+
+		public @NotNull String getFileExtension() {
+			return extension;
+		}
+
+		/**
+		 * @param name The name of the format (e.g. pdf, pdf_crop, pst). Case insensitive.
+		 * @return The corresponding format or nothing.
+		 */
+		public static @NotNull Optional<Format> fromName(final @NotNull String name) {
+			final String upper = name.toUpperCase(Locale.ENGLISH).replace('-', '_');
+			if("PST".equals(upper)) { //NON-NLS
+				return Optional.of(TEX);
+			}
+			return Arrays.stream(values()).filter(format -> format.name().equals(upper)).findFirst();
+		}
+	}
+
+	private final @NotNull Format format;
+	private final int nbWorkers;
+	/** The folder where the converted files are created. If null, they are created next to their input file. */
+	private final Path outputDir;
+	private final @NotNull LaTeXDataService latexdata;
+	private final @NotNull SVGShapesFactory svgFactory;
+	private final @NotNull PSTViewsFactory pstFactory;
+
+	/**
+	 * Creates the converter.
+	 * @param format The format to convert the files into.
+	 * @param nbWorkers The number of files converted in parallel (at least 1).
+	 * @param outputDir The folder where the converted files are created. If null, they are created next to their input file.
+	 * @param lang The resource bundle used to generate the code.
+	 */
+	public BatchConverter(final @NotNull Format format, final int nbWorkers, final Path outputDir, final @NotNull ResourceBundle lang) {
+		super();
+		this.format = Objects.requireNonNull(format);
+		this.nbWorkers = Math.max(1, nbWorkers);
+		this.outputDir = outputDir;
+		latexdata = new LaTeXDataService();
+		svgFactory = new SVGShapesFactory(new ViewFactory(latexdata));
+		pstFactory = new PSTViewsFactory(lang);
+	}
+
+	/**
+	 * Converts the given files. The result of each conversion is reported as soon as finished, with its duration.
+	 * @param files The files to convert (.svg, .tex, or .pst files).
+	 * @param out The stream where the results are reported.
+	 * @return The number of files that cannot be converted.
+	 */
+	public int convert(final @NotNull List<Path> files, final @NotNull PrintStream out) {
+		final ExecutorService executor = Executors.newFixedThreadPool(nbWorkers, runnable -> {
+			final Thread thread = new Thread(runnable, "latexdraw-batch"); //NON-NLS
+			thread.setDaemon(true);
+			return thread;
+		});
+		final long start = System.currentTimeMillis();
+		final List<Future<Boolean>> results = new ArrayList<>(files.size());
+
+		try {
+			final Set<Path> outputs = new HashSet<>();
+			files.forEach(file -> {
+				final Path output = getOutputFile(file);
+				// Files with the same name in different folders would overwrite each other in the output folder.
+				final boolean clash = !outputs.add(output.toAbsolutePath().normalize());
+				results.add(executor.submit(() -> convertAndReport(file, output, clash, out)));
+			});
+
+			int nbFailures = 0;
+			for(final Future<Boolean> result : results) {
+				try {
+					if(!result.get()) {
+						nbFailures++;
+					}
+				}catch(final ExecutionException ex) {
+					BadaboomCollector.INSTANCE.add(ex);
+					nbFailures++;
+				}
+			}
+
+			out.println((files.size() - nbFailures) + " converted, " + nbFailures + " failed (" + (System.currentTimeMillis() - start) + " ms)"); //NON-NLS
+			return nbFailures;
+		}catch(final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return files.size();
+		}finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Converts the given file and reports the result.
+	 * @param clash True if the output file is the one of a previous input file: the file is not converted.
+	 * @return True if the file has been converted.
+	 */
+	private boolean convertAndReport(final Path file, final Path output, final boolean clash, final PrintStream out) {
+		final long fileStart = System.currentTimeMillis();
+		String error;
+		try {
+			if(clash) {
+				throw new IOException("Another input file is converted into " + output); //NON-NLS
+			}
+			convert(file, output);
+			error = null;
+		}catch(final IOException | RuntimeException ex) {
+			error = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+		}
+		final long time = System.currentTimeMillis() - fileStart;
+		synchronized(out) {
+			if(error == null) {
+				out.println("OK\t" + file + " -> " + output + " (" + time + " ms)"); //NON-NLS
+			}else {
+				out.println("FAILED\t" + file + ": " + error + " (" + time + " ms)"); //NON-NLS
+			}
+		}
+		return error == null;
+	}
+
+	/**
+	 * @return The file the given file is converted into: same name, extension of the output format.
+	 */
+	@NotNull Path getOutputFile(final @NotNull Path file) {
+		final String name = file.getFileName().toString();
+		final int dot = name.lastIndexOf('.');
+		final String outName = (dot > 0 ? name.substring(0, dot) : name) + format.getFileExtension();
+		return outputDir == null ? file.resolveSibling(outName) : outputDir.resolve(outName);
+	}
+
+	/**
+	 * Converts the given file.
+	 * @throws IOException If the input file cannot be read or the output file cannot be created.
+	 */
+	void convert(final @NotNull Path file, final @NotNull Path output) throws IOException {
+		final Drawing drawing = ShapeFactory.INST.createDrawing();
+		final boolean pst = isPSTDocument(file);
+		final String code;
+
+		if(!pst) {
+			readShapes(file).forEach(sh -> drawing.addShape(sh));
+		}
+
+		if(pst || format != Format.SVG) {
+			synchronized(SHARED_STATE_LOCK) {
+				// The user colours of the previous files must not be used, whatever the order of the conversions.
+				DviPsColors.INSTANCE.clearUserColours();
+				if(pst) {
+					readShapes(file).forEach(sh -> drawing.addShape(sh));
+				}
+				code = format == Format.SVG ? null : generateCode(drawing);
+			}
+		}else {
+			code = null;
+		}
+
+		// The files are written and the documents compiled out of the lock.
+		switch(format) {
+			case SVG:
+				if(!SVGDocumentGenerator.toSVGDocument(drawing.getShapes(), svgFactory).saveSVGDocument(output.toString())) {
+					throw new IOException("Cannot save the SVG document"); //NON-NLS
+				}
+				break;
+			case TEX:
+				Files.writeString(output, code, StandardCharsets.UTF_8);
+				break;
+			case PDF:
+			case PDF_CROP:
+				if(new GeneratedCode(drawing, new DrawingBoundsHandler(drawing), latexdata, code).createPDFFile(output.toString(),
+					format == Format.PDF_CROP).isEmpty()) {
+					throw new IOException("Cannot compile the PDF document: check the installation of LaTeX"); //NON-NLS
+				}
+				break;
+			case EPS:
+				if(new GeneratedCode(drawing, new DrawingBoundsHandler(drawing), latexdata, code).createEPSFile(output.toString()).isEmpty()) {
+					throw new IOException("Cannot compile the EPS document: check the installation of LaTeX"); //NON-NLS
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * @return The PST code of the given drawing: the drawing code for TeX files, the whole document otherwise.
+	 * @throws IOException If the code cannot be generated.
+	 */
+	private @NotNull String generateCode(final @NotNull Drawing drawing) throws IOException {
+		final LaTeXGenerator generator = new PSTCodeGenerator(drawing, new DrawingBoundsHandler(drawing), pstFactory, latexdata);
+
+		if(format == Format.TEX) {
+			final StringBuilder code = new StringBuilder();
+			generator.writeDrawingCode(code);
+			return code.toString();
+		}
+		return generator.getDocumentCode();
+	}
+
+	private static boolean isPSTDocument(final @NotNull Path file) {
+		final String name = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+		return name.endsWith(".tex") || name.endsWith(".pst"); //NON-NLS
+	}
+
+	/**
+	 * @return The shapes of the given SVG or PST document.
+	 * @throws IOException If the file cannot be read or is not supported.
+	 */
+	@NotNull List<Shape> readShapes(final @NotNull Path file) throws IOException {
+		final String name = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+
+		if(name.endsWith(".svg")) { //NON-NLS
+			return SVGDocumentGenerator.toShapes(new SVGDocument(file.toUri()), svgFactory, () -> { });
+		}
+		if(isPSTDocument(file)) {
+			return new PSTDocumentParser(Files.readString(file), file.toAbsolutePath().getParent()).parse(progress -> { }, () -> false);
+		}
+		throw new IOException("Unsupported input file: only .svg, .tex, and .pst files can be converted"); //NON-NLS
+	}
+
+	/**
+	 * Parses the given file arguments: file paths or glob patterns (e.g. drawings/*.svg).
+	 * The patterns are expanded in the order of the file names. Files that do not exist are kept so that their failure is reported.
+	 * @param args The file paths or patterns.
+	 * @return The files.
+	 * @throws IOException If a folder cannot be walked.
+	 */
+	public static @NotNull List<Path> expandFiles(final @NotNull List<String> args) throws IOException {
+		final List<Path> files = new ArrayList<>();
+
+		for(final String arg : args) {
+			final int firstGlob = indexOfGlob(arg);
+			if(firstGlob < 0) {
+				files.add(Path.of(arg));
+			}else {
+				final int sep = Math.max(arg.lastIndexOf('/', firstGlob), arg.lastIndexOf('\\', firstGlob));
+				final Path base = Path.of(sep < 0 ? "" : arg.substring(0, sep + 1));
+				final PathMatcher matcher = base.getFileSystem().getPathMatcher("glob:" + arg); //NON-NLS
+				try(final Stream<Path> paths = Files.walk(base.toString().isEmpty() ? Path.of(".") : base)) {
+					files.addAll(paths.map(path -> base.toString().isEmpty() ? Path.of(".").relativize(path) : path).
+						filter(path -> matcher.matches(path) && Files.isRegularFile(path)).sorted().collect(Collectors.toList()));
+				}
+			}
+		}
+
+		return files;
+	}
+
+	private static int indexOfGlob(final String arg) {
+		for(int i = 0; i < arg.length(); i++) {
+			if("*?[{".indexOf(arg.charAt(i)) >= 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A LaTeX generator that gives an already generated document, so that it can be compiled without generating the code again.
+	 */
+	private static final class GeneratedCode extends LaTeXGenerator {
+		private final @NotNull String documentCode;
+
+		GeneratedCode(final @NotNull Drawing drawing, final @NotNull ViewsSynchroniserHandler handler, final @NotNull LaTeXDataService latexdata,
+					final @NotNull String documentCode) {
+			super(drawing, handler, latexdata);
+			this.documentCode = documentCode;
+		}
+
+		@Override
+		public void writeDrawingCode(final @NotNull Appendable out) throws IOException {
+			out.append(documentCode);
+		}
+
+		@Override
+		public void writeDocumentCode(final @NotNull Appendable out) throws IOException {
+			out.append(documentCode);
+		}
+	}
+
+	/**
+	 * Provides the dimensions of a drawing that is not displayed: the drawing area fits the shapes, as the canvas does.
+	 */
+	private static final class DrawingBoundsHandler implements ViewsSynchroniserHandler {
+		private final @NotNull Point tl;
+		private final @NotNull Point br;
+
+		DrawingBoundsHandler(final @NotNull Drawing drawing) {
+			super();
+			final List<Shape> shapes = drawing.getShapes();
+			tl = ShapeFactory.INST.createPoint(shapes.stream().mapToDouble(sh -> sh.getTopLeftPoint().getX()).min().orElse(0d),
+				shapes.stream().mapToDouble(sh -> sh.getTopLeftPoint().getY()).min().orElse(0d));
+			br = ShapeFactory.INST.createPoint(shapes.stream().mapToDouble(sh -> sh.getBottomRightPoint().getX()).max().orElse(0d),
+				shapes.stream().mapToDouble(sh -> sh.getBottomRightPoint().getY()).max().orElse(0d));
+		}
+
+		@Override
+		public Point getTopRightDrawingPoint() {
+			return ShapeFactory.INST.createPoint(br.getX(), tl.getY());
+		}
+
+		@Override
+		public Point getBottomLeftDrawingPoint() {
+			return ShapeFactory.INST.createPoint(tl.getX(), br.getY());
+		}
+
+		@Override
+		public Point getOriginDrawingPoint() {
+			return ShapeFactory.INST.createPoint(tl.getX(), (br.getY() - tl.getY()) / 2d);
+		}
+
+		@Override
+		public int getPPCDrawing() {
+			return Shape.PPC;
+		}
+	}
+}
@@ -0,0 +1,802 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javafx.concurrent.Task;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import net.sf.latexdraw.command.InsertPSTCode;
+import net.sf.latexdraw.command.LoadTemplate;
+import net.sf.latexdraw.command.Modifying;
+import net.sf.latexdraw.command.NewDrawing;
+import net.sf.latexdraw.command.ShapeCmd;
+import net.sf.latexdraw.command.ShapesCmd;
+import net.sf.latexdraw.command.shape.AddShape;
+import net.sf.latexdraw.command.shape.CutShapes;
+import net.sf.latexdraw.command.shape.DeleteShapes;
+import net.sf.latexdraw.command.shape.JoinShapes;
+import net.sf.latexdraw.command.shape.ModifyShapeProperty;
+import net.sf.latexdraw.command.shape.MoveBackForegroundShapes;
+import net.sf.latexdraw.command.shape.MoveCtrlPoint;
+import net.sf.latexdraw.command.shape.MovePointShape;
+import net.sf.latexdraw.command.shape.PasteShapes;
+import net.sf.latexdraw.command.shape.SelectShapes;
+import net.sf.latexdraw.command.shape.SeparateShapes;
+import net.sf.latexdraw.command.shape.ShapeProperties;
+import net.sf.latexdraw.command.shape.TranslateShapes;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Color;
+import net.sf.latexdraw.model.api.shape.ControlPointShape;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.ModifiablePointsShape;
+import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.util.BadaboomCollector;
+import net.sf.latexdraw.util.Inject;
+import net.sf.latexdraw.util.SystemUtils;
+import net.sf.latexdraw.view.svg.SVGDocumentGenerator;
+import net.sf.latexdraw.view.svg.SVGShapesFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.malai.command.CmdHandler;
+import org.malai.command.Command;
+import org.malai.command.CommandsRegistry;
+import org.malai.undo.UndoCollector;
+import org.malai.undo.UndoHandler;
+import org.malai.undo.Undoable;
+
+/**
+ * An append-only journal of the modifications of the drawing, used for crash recovery.
+ * Each modifying command (and each undo/redo) appends compact deltas to the journal: shapes added, removed, translated,
+ * modified properties (with their old and new values), moved points. The shapes whose changes cannot be described as deltas
+ * are replaced. These deltas are relative to the last full save of the drawing.
+ * The records are batched and synced to the disk periodically. The shapes to serialise are duplicated in the JFX thread
+ * but serialised in SVG, with the I/O, by the flusher thread. When the journal becomes too long, it is compacted
+ * into a checkpoint. On startup, the journal of a session that crashed can be replayed on top of its base document.
+ * @author Arnaud Blouin
+ */
+public class CommandJournal implements CmdHandler, UndoHandler {
+	/** The number of records after which the journal is compacted into a checkpoint. */
+	private static final int COMPACTION_THRESHOLD = 1000;
+	/** The period (in ms) at which the batched records are written and synced. */
+	private static final long FLUSH_PERIOD = 1000L;
+	/** The maximal time (in ms) the closing of the journal waits for a running flush. */
+	private static final long CLOSE_TIMEOUT = 5000L;
+	private static final String HEADER = "latexdraw-journal 1"; //NON-NLS
+	private static final String BASE = "base "; //NON-NLS
+	private static final String NO_BASE = "-";
+	private static final char ADD = '+';
+	private static final char REMOVE = '-';
+	private static final char REPLACE = '=';
+	private static final char TRANSLATE = 't';
+	private static final char PROPERTY = 'p';
+	private static final char MOVE_POINT = 'm';
+	private static final char MOVE_CTRL_POINT = 'c';
+	private static final String NO_VALUE = "n"; //NON-NLS
+
+	private final @NotNull Drawing drawing;
+	private final @NotNull SVGDocumentGenerator svgGen;
+	private final @NotNull SVGShapesFactory svgFactory;
+	private final @NotNull Path journalPath;
+	/** The top-level shapes of the drawing as known by the journal: replaying the journal produces this list. */
+	private final @NotNull List<Shape> journaled;
+	/** The records not written yet, produced by the flusher thread. Also used as the lock of the pending data. */
+	private final @NotNull List<Supplier<String>> pending;
+	/** The content that must replace the journal before writing the pending records (reset or checkpoint). */
+	private @Nullable List<Supplier<String>> pendingRewrite;
+	private @Nullable ScheduledExecutorService flusher;
+	/** The number of records since the last reset or checkpoint. */
+	private int nbRecords;
+	/** True: the journal records the modifications. */
+	private boolean active;
+	/** True: the journal of a crashed session is being replayed. */
+	private boolean recovering;
+
+	@Inject
+	public CommandJournal(final Drawing drawing, final SVGDocumentGenerator svgGen, final SVGShapesFactory svgFactory) {
+		this(drawing, svgGen, svgFactory, SystemUtils.getInstance().getPathCacheDir() + File.separator + "drawing.journal"); //NON-NLS
+	}
+
+	public CommandJournal(final Drawing drawing, final SVGDocumentGenerator svgGen, final SVGShapesFactory svgFactory, final @NotNull String path) {
+		super();
+		this.drawing = drawing;
+		this.svgGen = svgGen;
+		this.svgFactory = svgFactory;
+		journalPath = Path.of(path);
+		journaled = new ArrayList<>();
+		pending = new ArrayList<>();
+		active = false;
+		recovering = false;
+		svgGen.addDocumentListener(docPath -> {
+			if(!recovering) {
+				reset(docPath);
+			}
+		});
+		CommandsRegistry.INSTANCE.addHandler(this);
+		UndoCollector.INSTANCE.addHandler(this);
+	}
+
+	/**
+	 * @return True if a journal left by a previous session contains modifications that can be recovered.
+	 */
+	public boolean canRecover() {
+		return !active && readJournal().map(lines -> lines.size() > 2).orElse(Boolean.FALSE);
+	}
+
+	/**
+	 * Starts a new journal (the journal left by a previous session is discarded).
+	 */
+	public void start() {
+		active = true;
+		reset(null);
+		startFlusher();
+	}
+
+	/**
+	 * Recovers the drawing from the journal left by a previous session: its base document is loaded
+	 * and the recorded modifications replayed. The journal then keeps on recording.
+	 * @param progressBar The progress bar used while loading the base document.
+	 * @param statusBar The status label used while loading the base document.
+	 */
+	public void recover(final @NotNull ProgressBar progressBar, final @NotNull Label statusBar) {
+		final List<String> lines = readJournal().orElse(Collections.emptyList());
+
+		if(lines.size() < 2) {
+			start();
+			return;
+		}
+
+		final String base = lines.get(1).substring(BASE.length());
+		final List<String> records = lines.subList(2, lines.size());
+
+		if(NO_BASE.equals(base)) {
+			replayAndResume(records);
+			return;
+		}
+
+		recovering = true;
+		final Task<Boolean> task = svgGen.open(base, progressBar, statusBar);
+		task.setOnSucceeded(evt -> replayAndResume(records));
+		task.setOnFailed(evt -> {
+			recovering = false;
+			BadaboomCollector.INSTANCE.add(task.getException());
+			start();
+		});
+	}
+
+	/**
+	 * Stops the journal and removes it from the disk. To call when the app is closed normally.
+	 */
+	public void close() {
+		active = false;
+		if(flusher != null) {
+			// A running flush must end before removing the journal: it would recreate the file otherwise.
+			flusher.shutdown();
+			try {
+				if(!flusher.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+					flusher.shutdownNow();
+				}
+			}catch(final InterruptedException ex) {
+				flusher.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+			flusher = null;
+		}
+		synchronized(pending) {
+			pending.clear();
+			pendingRewrite = null;
+		}
+		SystemUtils.getInstance().removeFilePath(journalPath);
+	}
+
+	private void replayAndResume(final @NotNull List<String> records) {
+		replay(records);
+		recovering = false;
+		drawing.setModified(true);
+		journaled.clear();
+		journaled.addAll(drawing.getShapes());
+		nbRecords = records.size();
+		active = true;
+		startFlusher();
+	}
+
+	private void startFlusher() {
+		if(flusher == null) {
+			flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, "latexdraw-journal"); //NON-NLS
+				thread.setDaemon(true);
+				return thread;
+			});
+			flusher.scheduleWithFixedDelay(() -> flush(), FLUSH_PERIOD, FLUSH_PERIOD, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public void onCmdCancelled(final Command cmd) {
+		// Nothing to journal.
+	}
+
+	@Override
+	public void onCmdAdded(final Command cmd) {
+		// Commands are journaled once done.
+	}
+
+	@Override
+	public void onCmdExecuted(final Command cmd) {
+		// Commands are journaled once done.
+	}
+
+	@Override
+	public void onCmdDone(final Command cmd) {
+		if(!active || recovering) {
+			return;
+		}
+		if(cmd instanceof NewDrawing) {
+			reset(null);
+			return;
+		}
+		// Loaded and saved drawings are managed through the document listener.
+		if(cmd instanceof Modifying && !(cmd instanceof SelectShapes) && cmd.hadEffect()) {
+			journalChanges(cmd, true);
+		}
+	}
+
+	@Override
+	public void onUndoableCleared() {
+		// Nothing to journal.
+	}
+
+	@Override
+	public void onUndoableAdded(final Undoable undoable) {
+		// Undoable commands are journaled once done.
+	}
+
+	@Override
+	public void onUndoableUndo(final Undoable undoable) {
+		if(active && !recovering) {
+			journalChanges(undoable, false);
+		}
+	}
+
+	@Override
+	public void onUndoableRedo(final Undoable undoable) {
+		if(active && !recovering) {
+			journalChanges(undoable, true);
+		}
+	}
+
+	/**
+	 * Journals the changes of the drawing produced by the given command.
+	 * @param cmd The executed, undone, or redone command.
+	 * @param forward False: the command has been undone.
+	 */
+	private void journalChanges(final @NotNull Object cmd, final boolean forward) {
+		final Set<Shape> added = journalStructure();
+
+		if(cmd instanceof TranslateShapes) {
+			final TranslateShapes translation = (TranslateShapes) cmd;
+			final double sign = forward ? 1d : -1d;
+			journalTranslation(translation.getShape().getShapes(), sign * translation.getPerformedTx(), sign * translation.getPerformedTy());
+		}else {
+			if(!isStructural(cmd) && !journalDelta(cmd, forward, added)) {
+				final Optional<List<Shape>> modified = getModifiedShapes(cmd);
+				if(modified.isPresent()) {
+					journalReplacements(modified.get(), added);
+				}else {
+					checkpoint();
+				}
+			}
+		}
+
+		if(nbRecords > COMPACTION_THRESHOLD) {
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Journals the shapes added to, removed from, or moved in the list of shapes of the drawing.
+	 * @return The shapes journaled as added.
+	 */
+	private @NotNull Set<Shape> journalStructure() {
+		final List<Shape> shapes = drawing.getShapes();
+		final Set<Shape> current = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Set<Shape> added = Collections.newSetFromMap(new IdentityHashMap<>());
+		current.addAll(shapes);
+
+		for(int i = journaled.size() - 1; i >= 0; i--) {
+			if(!current.contains(journaled.get(i))) {
+				journaled.remove(i);
+				append(REMOVE + " " + i);
+			}
+		}
+
+		for(int i = 0, size = shapes.size(); i < size; i++) {
+			final Shape sh = shapes.get(i);
+			if(i >= journaled.size() || journaled.get(i) != sh) {
+				final int pos = indexOf(journaled, sh, i);
+				if(pos >= 0) {
+					journaled.remove(pos);
+					append(REMOVE + " " + pos);
+				}
+				journaled.add(i, sh);
+				added.add(sh);
+				appendShape(ADD, i, sh);
+			}
+		}
+
+		return added;
+	}
+
+	private void journalTranslation(final @NotNull List<Shape> shapes, final double tx, final double ty) {
+		final String indexes = topLevelIndexes(shapes).stream().map(i -> String.valueOf(i)).collect(Collectors.joining(" "));
+		if(!indexes.isEmpty()) {
+			append(TRANSLATE + " " + tx + " " + ty + " " + indexes);
+		}
+	}
+
+	private void journalReplacements(final @NotNull List<Shape> shapes, final @NotNull Set<Shape> alreadyJournaled) {
+		topLevelIndexes(shapes).stream().filter(i -> !alreadyJournaled.contains(journaled.get(i))).
+			forEach(i -> appendShape(REPLACE, i, journaled.get(i)));
+	}
+
+	/**
+	 * Journals the changes of the given command as deltas, when the command and the modified shapes support it.
+	 * @param cmd The executed, undone, or redone command.
+	 * @param forward False: the command has been undone.
+	 * @param alreadyJournaled The shapes journaled as added: their current state is already journaled.
+	 * @return False: the changes must be journaled another way.
+	 */
+	private boolean journalDelta(final @NotNull Object cmd, final boolean forward, final @NotNull Set<Shape> alreadyJournaled) {
+		if(cmd instanceof ModifyShapeProperty<?>) {
+			return journalProperty((ModifyShapeProperty<?>) cmd, forward, alreadyJournaled);
+		}
+		if(cmd instanceof MovePointShape) {
+			final MovePointShape move = (MovePointShape) cmd;
+			final ModifiablePointsShape shape = move.getShape();
+			final int index = indexOf(journaled, shape, 0);
+			final int ptIndex = shape.getPoints().indexOf(move.getPoint());
+			if(index < 0 || ptIndex < 0) {
+				return false;
+			}
+			final Point pt = shape.getPtAt(ptIndex);
+			append(MOVE_POINT + " " + index + " " + ptIndex + " " + pt.getX() + " " + pt.getY());
+			return true;
+		}
+		if(cmd instanceof MoveCtrlPoint) {
+			final MoveCtrlPoint move = (MoveCtrlPoint) cmd;
+			final ControlPointShape shape = move.getShape();
+			final int index = indexOf(journaled, shape, 0);
+			final int firstIndex = shape.getFirstCtrlPts().indexOf(move.getPoint());
+			final int ptIndex = firstIndex < 0 ? shape.getSecondCtrlPts().indexOf(move.getPoint()) : firstIndex;
+			if(index < 0 || ptIndex < 0) {
+				return false;
+			}
+			final Point first = shape.getFirstCtrlPtAt(ptIndex);
+			final Point second = shape.getSecondCtrlPtAt(ptIndex);
+			append(MOVE_CTRL_POINT + " " + index + " " + ptIndex + " " + first.getX() + " " + first.getY() + " " + second.getX() + " " + second.getY());
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Journals the new and old values of the modified property. The shapes that share the same values share the same record.
+	 * @return False: a shape is not a top-level shape or a value cannot be journaled.
+	 */
+	private <T> boolean journalProperty(final @NotNull ModifyShapeProperty<T> cmd, final boolean forward, final @NotNull Set<Shape> alreadyJournaled) {
+		final List<Shape> shapes = cmd.getShapes().getShapes();
+		final List<Optional<T>> newValues = cmd.getProperty().getPropertyValues(cmd.getShapes());
+		final List<Optional<T>> oldValues = forward ? cmd.getOldValues() : Collections.nCopies(shapes.size(), Optional.ofNullable(cmd.getNewValue()));
+		final Map<String, List<String>> indexesByValues = new LinkedHashMap<>();
+
+		if(newValues.size() != shapes.size() || oldValues.size() != shapes.size()) {
+			return false;
+		}
+
+		for(int i = 0, size = shapes.size(); i < size; i++) {
+			final Shape sh = shapes.get(i);
+			final int index = indexOf(journaled, sh, 0);
+			final String newValue = encodeValue(newValues.get(i));
+			final String oldValue = encodeValue(oldValues.get(i));
+			if(index < 0 || newValue == null || oldValue == null) {
+				return false;
+			}
+			if(newValues.get(i).isPresent() && !alreadyJournaled.contains(sh)) {
+				indexesByValues.computeIfAbsent(newValue + " " + oldValue, key -> new ArrayList<>()).add(String.valueOf(index));
+			}
+		}
+
+		final String name = cmd.getProperty().getName();
+		indexesByValues.forEach((values, indexes) -> append(PROPERTY + " " + name + " " + values + " " + String.join(",", indexes)));
+		return true;
+	}
+
+	/**
+	 * Compacts the journal: the records are replaced by the current shapes of the drawing.
+	 */
+	private void checkpoint() {
+		final List<Supplier<String>> lines = new ArrayList<>();
+		journaled.clear();
+		journaled.addAll(drawing.getShapes());
+		lines.add(() -> HEADER);
+		lines.add(() -> BASE + NO_BASE);
+		for(int i = 0, size = journaled.size(); i < size; i++) {
+			lines.add(shapeRecord(ADD, i, journaled.get(i)));
+		}
+		rewrite(lines);
+		nbRecords = 0;
+	}
+
+	/**
+	 * Starts a new journal relative to the given base document.
+	 * @param basePath The path of the last full save of the drawing. Null if the drawing has not been saved.
+	 */
+	private void reset(final @Nullable String basePath) {
+		if(!active) {
+			return;
+		}
+		journaled.clear();
+		journaled.addAll(drawing.getShapes());
+		final String base = BASE + (basePath == null ? NO_BASE : basePath);
+		final List<Supplier<String>> lines = new ArrayList<>();
+		lines.add(() -> HEADER);
+		lines.add(() -> base);
+		rewrite(lines);
+		nbRecords = 0;
+	}
+
+	private void rewrite(final @NotNull List<Supplier<String>> lines) {
+		synchronized(pending) {
+			pending.clear();
+			pendingRewrite = lines;
+		}
+	}
+
+	private void append(final @NotNull String record) {
+		append(() -> record);
+	}
+
+	private void appendShape(final char type, final int index, final @NotNull Shape shape) {
+		append(shapeRecord(type, index, shape));
+	}
+
+	private void append(final @NotNull Supplier<String> record) {
+		synchronized(pending) {
+			pending.add(record);
+		}
+		nbRecords++;
+	}
+
+	/**
+	 * @return The record of the given shape, to produce in the flusher thread. The shape is duplicated
+	 * so that the flusher thread does not serialise a shape the JFX thread may modify.
+	 */
+	private @NotNull Supplier<String> shapeRecord(final char type, final int index, final @NotNull Shape shape) {
+		final Shape copy = shape.duplicate();
+		return () -> type + " " + index + " " + encode(copy);
+	}
+
+	/**
+	 * Writes and syncs the pending records. Called by the flusher thread.
+	 */
+	synchronized void flush() {
+		final List<String> toRewrite;
+		final List<String> batch;
+		final List<Supplier<String>> rewriteRecords;
+		final List<Supplier<String>> records;
+
+		synchronized(pending) {
+			rewriteRecords = pendingRewrite;
+			pendingRewrite = null;
+			records = new ArrayList<>(pending);
+			pending.clear();
+		}
+
+		// The records are produced (shapes serialised) here, outside the lock and the JFX thread.
+		toRewrite = rewriteRecords == null ? null : rewriteRecords.stream().map(rec -> rec.get()).collect(Collectors.toList());
+		batch = records.stream().map(rec -> rec.get()).collect(Collectors.toList());
+
+		try {
+			if(toRewrite != null) {
+				final Path tmp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp"); //NON-NLS
+				write(tmp, toRewrite, StandardOpenOption.TRUNCATE_EXISTING);
+				try {
+					Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}catch(final AtomicMoveNotSupportedException ex) {
+					Files.move(tmp, journalPath, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			if(!batch.isEmpty()) {
+				write(journalPath, batch, StandardOpenOption.APPEND);
+			}
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+	}
+
+	private static void write(final @NotNull Path path, final @NotNull List<String> lines, final @NotNull StandardOpenOption mode) throws IOException {
+		final StringBuilder text = new StringBuilder();
+		lines.forEach(line -> text.append(line).append('\n'));
+
+		try(final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+			final ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+	}
+
+	private @NotNull Optional<List<String>> readJournal() {
+		if(!journalPath.toFile().isFile()) {
+			return Optional.empty();
+		}
+		try {
+			final List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+			if(lines.size() < 2 || !HEADER.equals(lines.get(0)) || !lines.get(1).startsWith(BASE)) {
+				return Optional.empty();
+			}
+			return Optional.of(lines);
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Applies the given records to the drawing. The replay stops at the first malformed record
+	 * (e.g. a record partially written when the app crashed).
+	 * @param records The records to replay.
+	 */
+	void replay(final @NotNull List<String> records) {
+		try {
+			records.stream().filter(rec -> !rec.isEmpty()).forEach(rec -> replay(rec));
+		}catch(final IllegalArgumentException | IndexOutOfBoundsException | ClassCastException | NoSuchElementException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+	}
+
+	private void replay(final @NotNull String rec) {
+		final String[] tokens = rec.split(" ");
+
+		switch(rec.charAt(0)) {
+			case ADD:
+				decode(tokens[2]).ifPresent(sh -> drawing.addShape(sh, Integer.parseInt(tokens[1])));
+				break;
+			case REMOVE:
+				drawing.removeShape(Integer.parseInt(tokens[1]));
+				break;
+			case REPLACE:
+				final int index = Integer.parseInt(tokens[1]);
+				decode(tokens[2]).ifPresent(sh -> {
+					drawing.removeShape(index);
+					drawing.addShape(sh, index);
+				});
+				break;
+			case TRANSLATE:
+				final double tx = Double.parseDouble(tokens[1]);
+				final double ty = Double.parseDouble(tokens[2]);
+				for(int i = 3; i < tokens.length; i++) {
+					drawing.getShapeAt(Integer.parseInt(tokens[i])).ifPresent(sh -> sh.translate(tx, ty));
+				}
+				break;
+			case PROPERTY:
+				// The old value (tokens[3]) is not required to replay the record.
+				replayProperty(ShapeProperties.fromName(tokens[1]).orElseThrow(() -> new IllegalArgumentException("Unknown property: " + rec)), //NON-NLS
+					decodeValue(tokens[2]), tokens[4]);
+				break;
+			case MOVE_POINT:
+				((ModifiablePointsShape) drawing.getShapeAt(Integer.parseInt(tokens[1])).orElseThrow()).
+					setPoint(Double.parseDouble(tokens[3]), Double.parseDouble(tokens[4]), Integer.parseInt(tokens[2]));
+				break;
+			case MOVE_CTRL_POINT:
+				final ControlPointShape shape = (ControlPointShape) drawing.getShapeAt(Integer.parseInt(tokens[1])).orElseThrow();
+				final int ptIndex = Integer.parseInt(tokens[2]);
+				shape.setXFirstCtrlPt(Double.parseDouble(tokens[3]), ptIndex);
+				shape.setYFirstCtrlPt(Double.parseDouble(tokens[4]), ptIndex);
+				shape.setXSecondCtrlPt(Double.parseDouble(tokens[5]), ptIndex);
+				shape.setYSecondCtrlPt(Double.parseDouble(tokens[6]), ptIndex);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown journal record: " + rec); //NON-NLS
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> void replayProperty(final @NotNull ShapeProperties<T> property, final @Nullable Object value, final @NotNull String indexes) {
+		if(value == null) {
+			return;
+		}
+		final Group group = ShapeFactory.INST.createGroup();
+		Arrays.stream(indexes.split(",")).forEach(i -> group.addShape(drawing.getShapeAt(Integer.parseInt(i)).orElseThrow()));
+		property.setPropertyValue(group, (T) value);
+	}
+
+	private @NotNull String encode(final @NotNull Shape shape) {
+		return Base64.getEncoder().encodeToString(SVGDocumentGenerator.toSVGFragment(shape, svgFactory).orElse("").getBytes(StandardCharsets.UTF_8));
+	}
+
+	private @NotNull Optional<Shape> decode(final @NotNull String data) {
+		return SVGDocumentGenerator.fromSVGFragment(new String(Base64.getDecoder().decode(data), StandardCharsets.UTF_8), svgFactory);
+	}
+
+	/**
+	 * @return The journal token of the given property value or null if the type of the value is not supported.
+	 */
+	static @Nullable String encodeValue(final @NotNull Optional<?> value) {
+		if(value.isEmpty()) {
+			return NO_VALUE;
+		}
+		final Object obj = value.get();
+		if(obj instanceof Double) {
+			return "d:" + obj; //NON-NLS
+		}
+		if(obj instanceof Integer) {
+			return "i:" + obj; //NON-NLS
+		}
+		if(obj instanceof Boolean) {
+			return "b:" + obj; //NON-NLS
+		}
+		if(obj instanceof String) {
+			return "s:" + Base64.getEncoder().encodeToString(((String) obj).getBytes(StandardCharsets.UTF_8)); //NON-NLS
+		}
+		if(obj instanceof Color) {
+			final Color col = (Color) obj;
+			return "c:" + col.getR() + "," + col.getG() + "," + col.getB() + "," + col.getO(); //NON-NLS
+		}
+		if(obj instanceof Point) {
+			return "p:" + ((Point) obj).getX() + "," + ((Point) obj).getY(); //NON-NLS
+		}
+		if(obj instanceof Enum<?>) {
+			return "e:" + ((Enum<?>) obj).getDeclaringClass().getName() + ":" + ((Enum<?>) obj).name(); //NON-NLS
+		}
+		return null;
+	}
+
+	/**
+	 * @return The property value of the given journal token (see encodeValue) or null if the token has no value.
+	 * @throws IllegalArgumentException If the token is malformed.
+	 */
+	static @Nullable Object decodeValue(final @NotNull String token) {
+		if(NO_VALUE.equals(token) || token.length() < 2) {
+			return null;
+		}
+		final String data = token.substring(2);
+		final String[] values = data.split(",");
+
+		switch(token.substring(0, 2)) {
+			case "d:": //NON-NLS
+				return Double.valueOf(data);
+			case "i:": //NON-NLS
+				return Integer.valueOf(data);
+			case "b:": //NON-NLS
+				return Boolean.valueOf(data);
+			case "s:": //NON-NLS
+				return new String(Base64.getDecoder().decode(data), StandardCharsets.UTF_8);
+			case "c:": //NON-NLS
+				return ShapeFactory.INST.createColor(Double.parseDouble(values[0]), Double.parseDouble(values[1]),
+					Double.parseDouble(values[2]), Double.parseDouble(values[3]));
+			case "p:": //NON-NLS
+				return ShapeFactory.INST.createPoint(Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+			case "e:": //NON-NLS
+				return decodeEnum(data);
+			default:
+				throw new IllegalArgumentException("Unknown journal value: " + token); //NON-NLS
+		}
+	}
+
+	private static @NotNull Object decodeEnum(final @NotNull String data) {
+		final int sep = data.lastIndexOf(':');
+		try {
+			final Object[] constants = Class.forName(data.substring(0, sep)).getEnumConstants();
+			final String name = data.substring(sep + 1);
+			if(constants == null) {
+				throw new IllegalArgumentException("Unknown journal value: " + data); //NON-NLS
+			}
+			return Arrays.stream(constants).filter(cst -> ((Enum<?>) cst).name().equals(name)).findFirst().
+				orElseThrow(() -> new IllegalArgumentException("Unknown journal value: " + data)); //NON-NLS
+		}catch(final ClassNotFoundException ex) {
+			throw new IllegalArgumentException("Unknown journal value: " + data, ex); //NON-NLS
+		}
+	}
+
+	/**
+	 * @return The indexes (in the journaled shapes) of the top-level shapes that are or contain the given shapes.
+	 */
+	private @NotNull List<Integer> topLevelIndexes(final @NotNull List<Shape> shapes) {
+		final Map<Shape, Integer> indexes = new IdentityHashMap<>();
+		for(int i = 0, size = journaled.size(); i < size; i++) {
+			indexes.put(journaled.get(i), i);
+		}
+
+		return shapes.stream().map(sh -> {
+			final Integer index = indexes.get(sh);
+			if(index != null) {
+				return index;
+			}
+			// The shape may be contained in a top-level group.
+			return indexes.entrySet().stream().filter(entry -> entry.getKey() instanceof Group && containsDeep((Group) entry.getKey(), sh)).
+				map(entry -> entry.getValue()).findFirst().orElse(null);
+		}).filter(index -> index != null).distinct().collect(Collectors.toList());
+	}
+
+	private static boolean containsDeep(final @NotNull Group group, final @NotNull Shape shape) {
+		return group.getShapes().stream().anyMatch(sh -> sh == shape || (sh instanceof Group && containsDeep((Group) sh, shape)));
+	}
+
+	private static int indexOf(final @NotNull List<Shape> shapes, final @NotNull Shape shape, final int from) {
+		for(int i = from, size = shapes.size(); i < size; i++) {
+			if(shapes.get(i) == shape) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return True: the given command only adds, removes, or moves shapes in the drawing (its changes are journaled as structural changes).
+	 */
+	private static boolean isStructural(final @NotNull Object cmd) {
+		return cmd instanceof AddShape || cmd instanceof DeleteShapes || cmd instanceof PasteShapes || cmd instanceof CutShapes ||
+			cmd instanceof JoinShapes || cmd instanceof SeparateShapes || cmd instanceof MoveBackForegroundShapes ||
+			cmd instanceof InsertPSTCode || cmd instanceof LoadTemplate;
+	}
+
+	/**
+	 * @return The shapes modified by the given command or nothing if they cannot be identified.
+	 */
+	private static @NotNull Optional<List<Shape>> getModifiedShapes(final @NotNull Object cmd) {
+		if(cmd instanceof ModifyShapeProperty<?>) {
+			return Optional.of(((ModifyShapeProperty<?>) cmd).getShapes().getShapes());
+		}
+		if(cmd instanceof MovePointShape) {
+			return Optional.of(List.of(((MovePointShape) cmd).getShape()));
+		}
+		if(cmd instanceof MoveCtrlPoint) {
+			return Optional.of(List.of(((MoveCtrlPoint) cmd).getShape()));
+		}
+		if(cmd instanceof ShapeCmd<?>) {
+			final Shape shape = ((ShapeCmd<?>) cmd).getShape();
+			return Optional.of(shape instanceof Group ? ((Group) shape).getShapes() : List.of(shape));
+		}
+		if(cmd instanceof ShapesCmd) {
+			return Optional.of(((ShapesCmd) cmd).getShapes());
+		}
+		return Optional.empty();
+	}
+}
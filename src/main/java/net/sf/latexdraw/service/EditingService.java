@@ -26,9 +26,13 @@ public class EditingService {
 	/** This shape gathers all the current shape parameters. Used as a model when creating shapes. Use its getter instead as it is lazy instantiated. */
 	private Group groupParams;
 
+	/** A group that contains a shape of the current editing choice configured with the current parameters. Use its getter instead as it is lazy instantiated. */
+	private Group shapePrototype;
+
 	public EditingService() {
 		super();
 		currentChoice = new SimpleObjectProperty<>(EditionChoice.RECT);
+		currentChoice.addListener((observable, oldChoice, newChoice) -> invalidateShapePrototype());
 	}
 
 	/**
@@ -60,6 +64,26 @@ public class EditingService {
 		return setShapeParameters(currentChoice.get().createShapeInstance().orElseThrow());
 	}
 
+	/**
+	 * Gives a group that contains a shape of the current editing mode configured with its parameters, to display these parameters.
+	 * Contrary to createShapeInstance, the group is created once while the editing mode and the parameters do not change.
+	 * @return The group. It must not be modified.
+	 * @throws java.util.NoSuchElementException If the editing mode is hand.
+	 */
+	public @NotNull Group getShapePrototype() {
+		if(shapePrototype == null) {
+			shapePrototype = ShapeFactory.INST.createGroup(createShapeInstance());
+		}
+		return shapePrototype;
+	}
+
+	/**
+	 * Notifies that the parameters of the editing mode changed: the shape prototype will be created again.
+	 */
+	public void invalidateShapePrototype() {
+		shapePrototype = null;
+	}
+
 	/**
 	 * Configures the given shape with the parameters (e.g. thickness, colours, etc.) of the current editing mode.
 	 * @param shape The shape to configure.
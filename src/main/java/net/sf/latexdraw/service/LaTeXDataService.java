@@ -178,4 +178,20 @@ public class LaTeXDataService implements Modifiable {
 			setModified(true);
 		}
 	}
+
+	/**
+	 * @return A copy of the LaTeX data (e.g. to generate the code of the drawing in background while the data are modified).
+	 */
+	public @NotNull LaTeXDataService duplicate() {
+		final LaTeXDataService dup = new LaTeXDataService();
+		dup.setPackages(getPackages());
+		dup.comment = comment;
+		dup.label = label;
+		dup.caption = caption;
+		dup.positionVertToken = positionVertToken;
+		dup.positionHoriCentre = positionHoriCentre;
+		dup.scale = scale;
+		dup.modified = modified;
+		return dup;
+	}
 }
@@ -76,6 +76,10 @@ public class PreferencesService {
 	private @NotNull Optional<File> currentFolder;
 	private final @NotNull IntegerProperty nbRecentFiles;
 	private final @NotNull IntegerProperty gridGap;
+	/** The resolution of the exported pictures, in dots per inch. */
+	private final @NotNull IntegerProperty exportDPI;
+	/** The memory budget of the undo history, in megabytes. */
+	private final @NotNull IntegerProperty undoMemory;
 	private final @NotNull BooleanProperty openGL;
 	private final @NotNull BooleanProperty checkVersion;
 	private final @NotNull BooleanProperty magneticGrid;
@@ -96,6 +100,8 @@ public class PreferencesService {
 		bundle = loadResourceBundle(lang.get()).orElseThrow(() -> new IllegalArgumentException("Cannot read any resource bundle."));
 		nbRecentFiles = new SimpleIntegerProperty(5);
 		gridGap = new SimpleIntegerProperty(10);
+		exportDPI = new SimpleIntegerProperty(381);
+		undoMemory = new SimpleIntegerProperty(64);
 		openGL = new SimpleBooleanProperty(true);
 		checkVersion = new SimpleBooleanProperty(true);
 		gridStyle = new SimpleObjectProperty<>(GridStyle.NONE);
@@ -150,6 +156,25 @@ public class PreferencesService {
 		return gridGap;
 	}
 
+	public @NotNull IntegerProperty exportDPIProperty() {
+		return exportDPI;
+	}
+
+	public int getExportDPI() {
+		return exportDPI.get();
+	}
+
+	public @NotNull IntegerProperty undoMemoryProperty() {
+		return undoMemory;
+	}
+
+	/**
+	 * @return The memory budget of the undo history, in megabytes.
+	 */
+	public int getUndoMemory() {
+		return undoMemory.get();
+	}
+
 	public boolean isMagneticGrid() {
 		return magneticGrid.get();
 	}
@@ -333,6 +358,8 @@ public class PreferencesService {
 
 		SystemUtils.getInstance().createElement(document, LNamespace.XML_OPENGL, String.valueOf(openGL.get()), root);
 		SystemUtils.getInstance().createElement(document, LNamespace.XML_PATH_EXPORT, pathExport.get(), root);
+		SystemUtils.getInstance().createElement(document, LNamespace.XML_EXPORT_DPI, String.valueOf(exportDPI.get()), root);
+		SystemUtils.getInstance().createElement(document, LNamespace.XML_UNDO_MEMORY, String.valueOf(undoMemory.get()), root);
 		SystemUtils.getInstance().createElement(document, LNamespace.XML_PATH_OPEN, pathOpen.get(), root);
 		SystemUtils.getInstance().createElement(document, LNamespace.XML_UNIT, unit.get().name(), root);
 		SystemUtils.getInstance().createElement(document, LNamespace.XML_PAGE, page.get().name(), root);
@@ -420,6 +447,18 @@ public class PreferencesService {
 			pathExport.set(export);
 		}
 
+		MathUtils.INST.parseInt(prefMap.getOrDefault(LNamespace.XML_EXPORT_DPI, noElt).getTextContent()).ifPresent(dpi -> {
+			if(dpi > 0) {
+				exportDPI.set(dpi);
+			}
+		});
+
+		MathUtils.INST.parseInt(prefMap.getOrDefault(LNamespace.XML_UNDO_MEMORY, noElt).getTextContent()).ifPresent(memory -> {
+			if(memory > 0) {
+				undoMemory.set(memory);
+			}
+		});
+
 		final String open = prefMap.getOrDefault(LNamespace.XML_PATH_OPEN, noElt).getTextContent();
 		if(open != null) {
 			pathOpen.set(open);
@@ -0,0 +1,175 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import net.sf.latexdraw.command.UndoFootprint;
+import org.malai.undo.UndoCollector;
+import org.malai.undo.UndoHandler;
+import org.malai.undo.Undoable;
+
+/**
+ * Bounds the undo history by a memory budget, in addition to its maximal number of undoables.
+ * The memory retained by each undoable is estimated (see UndoFootprint). When the estimated memory of the undo history exceeds the
+ * budget, the oldest undoables are removed from the undo collector. The latest undoable is always kept.
+ * The footprints are estimated on each added undoable since some undoables retain more data once executed (e.g. a code converted in background).
+ * The undo collector does not expose its undoables: they are mirrored from its events. After each event, the mirrors are checked against
+ * the latest undoable and redoable of the collector; if they diverge (e.g. the collector was modified while this handler was not registered),
+ * the mirrors are synchronised again with what the collector exposes.
+ * The budget is a preference (see PreferencesService.undoMemoryProperty).
+ * @author Arnaud Blouin
+ */
+public final class UndoMemoryBudget implements UndoHandler {
+	public static final UndoMemoryBudget INSTANCE = new UndoMemoryBudget();
+
+	/** The estimation used for the undoables that do not estimate their footprint. */
+	static final long DEFAULT_FOOTPRINT = 1024L;
+
+	/** The undoables of the undo collector, the latest first. */
+	private final Deque<Undoable> undo;
+	/** The redoables of the undo collector, the latest first. */
+	private final Deque<Undoable> redo;
+	/** The memory budget, in bytes. */
+	private long budget;
+
+	private UndoMemoryBudget() {
+		super();
+		undo = new ArrayDeque<>();
+		redo = new ArrayDeque<>();
+		budget = 64L * 1024L * 1024L;
+	}
+
+	/**
+	 * @return The memory budget of the undo history, in bytes.
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Sets the memory budget of the undo history. Applied from the next added undoable.
+	 * @param budget The budget, in bytes. Must be positive.
+	 */
+	public void setBudget(final long budget) {
+		if(budget <= 0L) {
+			throw new IllegalArgumentException("The undo memory budget must be positive: " + budget); //NON-NLS
+		}
+		this.budget = budget;
+	}
+
+	/**
+	 * @return The number of undoables of the undo history.
+	 */
+	int getNbUndoables() {
+		return undo.size();
+	}
+
+	/**
+	 * @return The number of redoables of the undo history.
+	 */
+	int getNbRedoables() {
+		return redo.size();
+	}
+
+	/**
+	 * @return The estimated memory retained by the undo history, in bytes.
+	 */
+	public long getUndoFootprint() {
+		return undo.stream().mapToLong(undoable -> getFootprint(undoable)).sum();
+	}
+
+	static long getFootprint(final Undoable undoable) {
+		return undoable instanceof UndoFootprint ? ((UndoFootprint) undoable).getUndoFootprint() : DEFAULT_FOOTPRINT;
+	}
+
+	/**
+	 * Checks the mirrors against the undo collector. If they diverge, the mirrors are reduced to the latest undoable and redoable of the collector:
+	 * the older undoables cannot be known and are not accounted for anymore.
+	 * @return True if the mirrors were consistent with the collector.
+	 */
+	boolean checkMirrors() {
+		final UndoCollector collector = UndoCollector.INSTANCE;
+
+		// The undo collector removes its oldest undoables by itself.
+		while(undo.size() > collector.getSizeMax()) {
+			undo.removeLast();
+		}
+
+		final boolean consistent = undo.peekFirst() == collector.getLastUndo().orElse(null) && redo.peekFirst() == collector.getLastRedo().orElse(null);
+
+		if(!consistent) {
+			undo.clear();
+			redo.clear();
+			collector.getLastUndo().ifPresent(u -> undo.push(u));
+			collector.getLastRedo().ifPresent(r -> redo.push(r));
+		}
+
+		return consistent;
+	}
+
+	/**
+	 * Removes the oldest undoables of the collector until the estimated memory of the undo history fits the budget.
+	 */
+	private void applyBudget() {
+		long footprint = getUndoFootprint();
+		int kept = undo.size();
+		final Iterator<Undoable> oldest = undo.descendingIterator();
+
+		while(footprint > budget && kept > 1) {
+			footprint -= getFootprint(oldest.next());
+			kept--;
+		}
+
+		if(kept < undo.size()) {
+			// The undo collector provides no removal of undoables: reducing its maximal size is the only way to remove its oldest undoables.
+			final int sizeMax = UndoCollector.INSTANCE.getSizeMax();
+			UndoCollector.INSTANCE.setSizeMax(kept);
+			UndoCollector.INSTANCE.setSizeMax(sizeMax);
+
+			while(undo.size() > kept) {
+				undo.removeLast();
+			}
+			checkMirrors();
+		}
+	}
+
+	@Override
+	public void onUndoableCleared() {
+		undo.clear();
+		redo.clear();
+	}
+
+	@Override
+	public void onUndoableAdded(final Undoable undoable) {
+		undo.push(undoable);
+		redo.clear();
+		checkMirrors();
+		applyBudget();
+	}
+
+	@Override
+	public void onUndoableUndo(final Undoable undoable) {
+		if(!undo.isEmpty()) {
+			redo.push(undo.pop());
+		}
+		checkMirrors();
+	}
+
+	@Override
+	public void onUndoableRedo(final Undoable undoable) {
+		if(!redo.isEmpty()) {
+			undo.push(redo.pop());
+		}
+		checkMirrors();
+	}
+}
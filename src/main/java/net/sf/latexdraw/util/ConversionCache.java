@@ -0,0 +1,201 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Caches the conversions of picture files (e.g. EPS to bitmap, bitmap to EPS) made with ImageMagick.
+ * The converted files are stored in the cache directory of the user, so that they are shared between the documents and the sessions.
+ * A converted file is identified by the hash of the content of its source file and by its format.
+ * The hash of each converted file is stored next to it and checked before reusing it: a corrupted file is converted again.
+ * When the cache exceeds its maximal size, the least recently used files are removed.
+ * @author Arnaud Blouin
+ */
+public final class ConversionCache {
+	public static final ConversionCache INSTANCE = new ConversionCache(Paths.get(SystemUtils.getInstance().getPathCacheDir(), "conversions"), //NON-NLS
+		256L * 1024L * 1024L);
+
+	/** The extension of the files that contain the hashes of the converted files. */
+	private static final String HASH_EXT = ".sha256"; //NON-NLS
+
+	private final @NotNull Path dir;
+	/** The maximal size of the cache, in bytes. */
+	private final long maxSize;
+
+	ConversionCache(final @NotNull Path dir, final long maxSize) {
+		super();
+		this.dir = dir;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Creates the given file by converting the given source file into the format of the given extension.
+	 * The conversion is done only if not cached. The target file is a copy owned by the caller: the cached file may be evicted at any time.
+	 * @param source The file to convert.
+	 * @param extension The extension of the targeted format (e.g. .eps).
+	 * @param target The file to create (or replace) with the converted content.
+	 * @return The given target file, or nothing if the conversion failed.
+	 */
+	public @NotNull Optional<Path> convert(final @NotNull Path source, final @NotNull String extension, final @NotNull Path target) {
+		final Optional<String> hash = hash(source);
+
+		if(hash.isEmpty()) {
+			return Optional.empty();
+		}
+
+		final Path artifact = dir.resolve(hash.get() + extension);
+		final Path artifactHash = dir.resolve(hash.get() + extension + HASH_EXT);
+
+		if(copyIfValid(artifact, artifactHash, target)) {
+			try {
+				// Used for the eviction of the least recently used files.
+				Files.setLastModifiedTime(artifact, FileTime.fromMillis(System.currentTimeMillis()));
+			}catch(final IOException ignored) {
+				// Not an issue.
+			}
+			return Optional.of(target);
+		}
+
+		SystemUtils.getInstance().removeFilePath(artifact);
+		SystemUtils.getInstance().removeFilePath(artifactHash);
+
+		final Optional<ProcessRunner.ScratchDir> scratchDir = ProcessRunner.INSTANCE.acquireScratchDir();
+
+		if(scratchDir.isEmpty()) {
+			return Optional.empty();
+		}
+
+		try(final ProcessRunner.ScratchDir tmp = scratchDir.get()) {
+			final File converted = new File(tmp.getDir(), "converted" + extension); //NON-NLS
+			ProcessRunner.INSTANCE.execute(new String[] {"convert", source.toString(), converted.getAbsolutePath()}, null); //NON-NLS
+
+			if(!converted.isFile()) {
+				return Optional.empty();
+			}
+			store(converted.toPath(), artifact, artifactHash);
+			return Optional.of(Files.copy(converted.toPath(), target, StandardCopyOption.REPLACE_EXISTING));
+		}catch(final IOException | SecurityException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Copies the converted file into the cache with its hash. The file is moved into place at last, so that a file of the cache
+	 * is always complete.
+	 */
+	private void store(final Path converted, final Path artifact, final Path artifactHash) {
+		try {
+			Files.createDirectories(dir);
+			final Path tmp = Files.createTempFile(dir, "tmp", null); //NON-NLS
+			try {
+				Files.copy(converted, tmp, StandardCopyOption.REPLACE_EXISTING);
+				final Optional<String> hash = hash(tmp);
+				if(hash.isEmpty()) {
+					return;
+				}
+				Files.writeString(artifactHash, hash.get(), StandardCharsets.UTF_8);
+				Files.move(tmp, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}finally {
+				Files.deleteIfExists(tmp);
+			}
+			evict();
+		}catch(final IOException | SecurityException | UnsupportedOperationException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+	}
+
+	/**
+	 * Copies the given converted file into the given target if it exists and its content matches its hash.
+	 * The copy is made under the lock of the eviction and its content is the one checked, so that the target is complete
+	 * even if the cached file is evicted or altered (e.g. by another session) meanwhile.
+	 * @return True if the target has been created.
+	 */
+	private synchronized boolean copyIfValid(final Path artifact, final Path artifactHash, final Path target) {
+		if(!Files.isRegularFile(artifact) || !Files.isRegularFile(artifactHash)) {
+			return false;
+		}
+		try {
+			final String expected = Files.readString(artifactHash, StandardCharsets.UTF_8).trim();
+			Files.copy(artifact, target, StandardCopyOption.REPLACE_EXISTING);
+			if(hash(target).map(h -> h.equals(expected)).orElse(false)) {
+				return true;
+			}
+			SystemUtils.getInstance().removeFilePath(target);
+			return false;
+		}catch(final IOException | SecurityException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Removes the least recently used converted files until the cache does not exceed its maximal size.
+	 */
+	private synchronized void evict() throws IOException {
+		final List<Path> artifacts;
+		try(final Stream<Path> files = Files.list(dir)) {
+			artifacts = files.filter(file -> Files.isRegularFile(file) && !file.getFileName().toString().endsWith(HASH_EXT)).
+				sorted(Comparator.comparingLong(file -> file.toFile().lastModified())).collect(Collectors.toList());
+		}
+
+		long size = 0L;
+		for(final Path file : artifacts) {
+			size += file.toFile().length();
+		}
+
+		for(int i = 0; i < artifacts.size() && size > maxSize; i++) {
+			final Path file = artifacts.get(i);
+			size -= file.toFile().length();
+			SystemUtils.getInstance().removeFilePath(file);
+			SystemUtils.getInstance().removeFilePath(file.resolveSibling(file.getFileName() + HASH_EXT));
+		}
+	}
+
+	/**
+	 * @return The SHA-256 hash of the content of the given file or nothing if it cannot be read.
+	 */
+	private static Optional<String> hash(final Path file) {
+		try(final InputStream in = Files.newInputStream(file)) {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256"); //NON-NLS
+			final byte[] buffer = new byte[8192];
+			int nbRead = in.read(buffer);
+
+			while(nbRead >= 0) {
+				digest.update(buffer, 0, nbRead);
+				nbRead = in.read(buffer);
+			}
+			return Optional.of(String.format("%064x", new BigInteger(1, digest.digest()))); //NON-NLS
+		}catch(final IOException | SecurityException ex) {
+			return Optional.empty();
+		}catch(final NoSuchAlgorithmException ex) {
+			// Every Java platform supports SHA-256.
+			throw new IllegalStateException(ex);
+		}
+	}
+}
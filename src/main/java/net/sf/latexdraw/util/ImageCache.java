@@ -0,0 +1,243 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shares the images of the picture files between the pictures and their views.
+ * The images are weakly referenced: an image is decoded once while it is used, whatever the number of pictures that refer to its file.
+ * The images are identified by the path and the modification time of their file, so that a modified file is decoded again.
+ * Besides the full resolution images, downsampled previews are decoded in the background. Their sizes are rounded up to powers of two
+ * so that the previews are reused when the zoom slightly changes.
+ * @author Arnaud Blouin
+ */
+public final class ImageCache {
+	public static final ImageCache INSTANCE = new ImageCache();
+
+	/** The smallest size of the previews, in pixels. */
+	private static final int MIN_PREVIEW_SIZE = 64;
+	/** The maximal number of image sizes kept. */
+	private static final int MAX_SIZES = 1024;
+
+	private final @NotNull Map<Key, ImageRef> images;
+	/** The cleared references of the images. */
+	private final @NotNull ReferenceQueue<Image> cleared;
+	/** The sizes of the images, read from the headers of the files. */
+	private final @NotNull Map<Key, Dimension2D> sizes;
+
+	private ImageCache() {
+		super();
+		images = new HashMap<>();
+		cleared = new ReferenceQueue<>();
+		sizes = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Dimension2D> eldest) {
+				return size() > MAX_SIZES;
+			}
+		};
+	}
+
+	/**
+	 * Gives the size of the image of the given file, without decoding the image if its format is supported by ImageIO.
+	 * The file is read out of the lock of the cache, so that other pictures are not blocked during the reading.
+	 * @param path The path of the image file.
+	 * @return The size of the image or nothing if the file cannot be read.
+	 */
+	public @NotNull Optional<Dimension2D> getSize(final @NotNull String path) {
+		final Key key = new Key(path, 0);
+
+		synchronized(this) {
+			final Dimension2D size = sizes.get(key);
+			if(size != null) {
+				return Optional.of(size);
+			}
+		}
+
+		final Optional<Dimension2D> read = readSize(new File(path)).or(() -> {
+			final Image image = getImage(path);
+			return image.isError() ? Optional.empty() : Optional.of(new Dimension2D(image.getWidth(), image.getHeight()));
+		});
+
+		synchronized(this) {
+			read.ifPresent(dim -> sizes.put(key, dim));
+		}
+		return read;
+	}
+
+	/**
+	 * Gives the full resolution image of the given file. The image is decoded in the calling thread if not already decoded.
+	 * @param path The path of the image file.
+	 * @return The image (in error if the file cannot be read).
+	 */
+	public @NotNull Image getImage(final @NotNull String path) {
+		return get(new Key(path, 0), () -> new Image(new File(path).toURI().toString()));
+	}
+
+	/**
+	 * Gives a preview of the image of the given file, at least as large as the given size (unless the image is smaller).
+	 * The preview is decoded in the background: it may not be loaded yet.
+	 * @param path The path of the image file.
+	 * @param width The width at which the image is displayed, in pixels.
+	 * @param height The height at which the image is displayed, in pixels.
+	 * @return The preview.
+	 */
+	public @NotNull Image getPreview(final @NotNull String path, final double width, final double height) {
+		final int size = getPreviewSize(Math.max(width, height));
+		final Optional<Dimension2D> full = getSize(path);
+
+		// The preview would not be smaller than the image.
+		if(full.isPresent() && size >= Math.max(full.get().getWidth(), full.get().getHeight())) {
+			return get(new Key(path, -1), () -> new Image(new File(path).toURI().toString(), true));
+		}
+
+		return get(new Key(path, size), () -> new Image(new File(path).toURI().toString(), size, size, true, true, true));
+	}
+
+	/**
+	 * @param size The displayed size of the image, in pixels.
+	 * @return The size of the preview: the lowest power of two greater than the given size.
+	 */
+	public static int getPreviewSize(final double size) {
+		final int ceil = (int) Math.min(Math.ceil(size), 1 << 30);
+		return Math.max(MIN_PREVIEW_SIZE, ceil <= 1 ? 1 : Integer.highestOneBit(ceil - 1) << 1);
+	}
+
+	/**
+	 * Gives the cached image of the given key or loads it. The image is loaded out of the lock of the cache
+	 * (a full resolution image is decoded by the loader). If another thread has cached the same image meanwhile, its image is shared.
+	 */
+	private @NotNull Image get(final @NotNull Key key, final @NotNull Supplier<Image> loader) {
+		synchronized(this) {
+			final Image cached = getCached(key);
+			if(cached != null) {
+				return cached;
+			}
+		}
+
+		final Image image = loader.get();
+
+		synchronized(this) {
+			final Image cached = getCached(key);
+			if(cached != null) {
+				return cached;
+			}
+			images.put(key, new ImageRef(image, key, cleared));
+			return image;
+		}
+	}
+
+	private @Nullable Image getCached(final @NotNull Key key) {
+		purge();
+		final ImageRef ref = images.get(key);
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * Removes the entries of the images that are no more used.
+	 */
+	private void purge() {
+		ImageRef ref = (ImageRef) cleared.poll();
+		while(ref != null) {
+			// The entry may have been replaced by a new image.
+			if(images.get(ref.key) == ref) {
+				images.remove(ref.key);
+			}
+			ref = (ImageRef) cleared.poll();
+		}
+	}
+
+	/**
+	 * Reads the size of the image in the header of the file.
+	 */
+	private static Optional<Dimension2D> readSize(final File file) {
+		try(final ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			if(in == null) {
+				return Optional.empty();
+			}
+			final Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if(!readers.hasNext()) {
+				return Optional.empty();
+			}
+			final ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				return Optional.of(new Dimension2D(reader.getWidth(0), reader.getHeight(0)));
+			}finally {
+				reader.dispose();
+			}
+		}catch(final IOException | SecurityException ex) {
+			return Optional.empty();
+		}
+	}
+
+
+	/**
+	 * Identifies an image: its file, the modification time of the file, and the size of the preview (0 for the full resolution
+	 * image, -1 for the full resolution image decoded in the background).
+	 */
+	private static final class Key {
+		final @NotNull String path;
+		final long lastModified;
+		final int size;
+
+		Key(final @NotNull String path, final int size) {
+			super();
+			this.path = path;
+			lastModified = new File(path).lastModified();
+			this.size = size;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if(this == o) {
+				return true;
+			}
+			if(!(o instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key) o;
+			return lastModified == key.lastModified && size == key.size && path.equals(key.path);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(path, lastModified, size);
+		}
+	}
+
+
+	private static final class ImageRef extends WeakReference<Image> {
+		final @NotNull Key key;
+
+		ImageRef(final @NotNull Image image, final @NotNull Key key, final @NotNull ReferenceQueue<Image> queue) {
+			super(image, queue);
+			this.key = key;
+		}
+	}
+}
@@ -11,7 +11,14 @@
 package net.sf.latexdraw.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import net.sf.latexdraw.LaTeXDraw;
+import net.sf.latexdraw.service.BatchConverter;
 
 /**
  * A command line parser for latexdraw.
@@ -20,6 +27,14 @@ import net.sf.latexdraw.LaTeXDraw;
 public class LCommandLine {
 	/** The option for show the help. */
 	public static final String OPTION_HELP = "-h"; //NON-NLS
+	/** The option for converting files without starting the application. */
+	public static final String OPTION_BATCH = "-b"; //NON-NLS
+	/** The option for the output format of the batch mode. */
+	public static final String OPTION_FORMAT = "-f"; //NON-NLS
+	/** The option for the number of files converted in parallel in the batch mode. */
+	public static final String OPTION_WORKERS = "-j"; //NON-NLS
+	/** The option for the output folder of the batch mode. */
+	public static final String OPTION_OUTPUT = "-o"; //NON-NLS
 
 	/**
 	 * deduces the filename that will be open, from the set of parameters.
@@ -54,6 +69,14 @@ public class LCommandLine {
 	}
 	/** The file name given in argument. */
 	protected String filename;
+	/** The output format of the batch mode. */
+	protected BatchConverter.Format batchFormat;
+	/** The number of files converted in parallel in the batch mode. */
+	protected int nbWorkers = Runtime.getRuntime().availableProcessors();
+	/** The output folder of the batch mode. If null, the files are converted next to their input file. */
+	protected Path outputDir;
+	/** The files to convert in the batch mode. */
+	protected final List<Path> batchFiles = new ArrayList<>();
 
 
 	/**
@@ -71,10 +94,72 @@ public class LCommandLine {
 			return CmdLineState.STOP;
 		}
 
+		if(OPTION_BATCH.equals(args[0])) {
+			return parseBatch(Arrays.asList(args).subList(1, args.length));
+		}
+
 		filename = getFileName(args);
 		return filename == null ? CmdLineState.APPLICATION : CmdLineState.APPLICATION_FILENAME;
 	}
 
+	/**
+	 * Parses the arguments of the batch mode: options, then files or glob patterns.
+	 */
+	private CmdLineState parseBatch(final List<String> args) {
+		final List<String> files = new ArrayList<>();
+		int i = 0;
+
+		while(i < args.size()) {
+			final String arg = args.get(i);
+			final boolean withValue = OPTION_FORMAT.equals(arg) || OPTION_WORKERS.equals(arg) || OPTION_OUTPUT.equals(arg);
+
+			if(withValue && i + 1 >= args.size()) {
+				return batchError("Missing value of the option " + arg); //NON-NLS
+			}
+
+			if(OPTION_FORMAT.equals(arg)) {
+				final Optional<BatchConverter.Format> format = BatchConverter.Format.fromName(args.get(i + 1));
+				if(format.isEmpty()) {
+					return batchError("Unsupported output format: " + args.get(i + 1)); //NON-NLS
+				}
+				batchFormat = format.get();
+			}else if(OPTION_WORKERS.equals(arg)) {
+				try {
+					nbWorkers = Integer.parseInt(args.get(i + 1));
+				}catch(final NumberFormatException ex) {
+					return batchError("Not a number of workers: " + args.get(i + 1)); //NON-NLS
+				}
+			}else if(OPTION_OUTPUT.equals(arg)) {
+				outputDir = Path.of(args.get(i + 1));
+			}else {
+				files.add(arg);
+			}
+			i += withValue ? 2 : 1;
+		}
+
+		if(batchFormat == null) {
+			return batchError("The output format must be given with the option " + OPTION_FORMAT); //NON-NLS
+		}
+
+		try {
+			batchFiles.addAll(BatchConverter.expandFiles(files));
+		}catch(final IOException ex) {
+			return batchError(ex.getMessage());
+		}
+
+		if(batchFiles.isEmpty()) {
+			return batchError("No file to convert"); //NON-NLS
+		}
+
+		return CmdLineState.BATCH;
+	}
+
+	private CmdLineState batchError(final String msg) {
+		System.err.println(msg);
+		displayHelp();
+		return CmdLineState.ERROR;
+	}
+
 	/**
 	 * Displays the different options of the command line of latexdraw.
 	 */
@@ -83,6 +168,9 @@ public class LCommandLine {
 		System.out.println("Options:"); //NON-NLS
 		System.out.println("\t" + OPTION_HELP + "\t\t\t\tDisplay the different options"); //NON-NLS
 		System.out.println("\t<filename>\t\t\tOpens the given file <filename> into latexdraw."); //NON-NLS
+		System.out.println("\t" + OPTION_BATCH + " " + OPTION_FORMAT + " <format> [" + OPTION_WORKERS + " <n>] [" + OPTION_OUTPUT + //NON-NLS
+			" <folder>] <files>\tConverts the given SVG, TeX, or PST files (or glob patterns, e.g. 'drawings/*.svg') without starting the application."); //NON-NLS
+		System.out.println("\t\t\t\t\t<format>: svg, tex, pdf, pdf_crop, or eps. <n>: the number of files converted in parallel."); //NON-NLS
 		System.out.println("If no argument is given, latexdraw will started with a new drawing."); //NON-NLS
 	}
 
@@ -93,12 +181,42 @@ public class LCommandLine {
 		return filename;
 	}
 
+	/**
+	 * @return The output format of the batch mode or null.
+	 */
+	public BatchConverter.Format getBatchFormat() {
+		return batchFormat;
+	}
+
+	/**
+	 * @return The number of files converted in parallel in the batch mode.
+	 */
+	public int getNbWorkers() {
+		return nbWorkers;
+	}
+
+	/**
+	 * @return The output folder of the batch mode or null.
+	 */
+	public Path getOutputDir() {
+		return outputDir;
+	}
+
+	/**
+	 * @return The files to convert in the batch mode.
+	 */
+	public List<Path> getBatchFiles() {
+		return batchFiles;
+	}
+
 
 	/** The different states of the command line. */
 	public enum CmdLineState {
 		/** If the command line states that latexdraw must start without a file to open. */
 		APPLICATION, /** If the command line states that latexdraw must start with a file to open. */
 		APPLICATION_FILENAME, /** If the command line states that latexdraw must stop. */
-		STOP
+		STOP, /** If the command line is erroneous: latexdraw must stop with an error status. */
+		ERROR, /** If the command line states that files must be converted without starting the application. */
+		BATCH
 	}
 }
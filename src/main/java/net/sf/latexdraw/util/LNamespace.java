@@ -68,6 +68,8 @@ public final class LNamespace {
 	public static final String XML_ROOT_PREFERENCES 	= "preferences"; //NON-NLS
 	public static final String XML_OPENGL	 			= "openGL"; //NON-NLS
 	public static final String XML_PATH_EXPORT 			= "pathExport"; //NON-NLS
+	public static final String XML_EXPORT_DPI 			= "exportDPI"; //NON-NLS
+	public static final String XML_UNDO_MEMORY 			= "undoMemory"; //NON-NLS
 	public static final String XML_PATH_OPEN 			= "pathOpen"; //NON-NLS
 	public static final String XML_CHECK_VERSION 		= "checkVersion"; //NON-NLS
 	public static final String XML_LANG 				= "lang"; //NON-NLS
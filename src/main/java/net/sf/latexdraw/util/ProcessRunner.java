@@ -0,0 +1,394 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the external tools (latex, dvips, convert, etc.).
+ * The number of processes that run at the same time is limited per tool: the other executions wait in a queue.
+ * A process that runs longer than the timeout of its tool is killed, as well as a process whose calling thread is interrupted.
+ * The output of the processes is streamed line by line while they run.
+ * The tools work in scratch directories that are emptied and reused from one execution to another. These directories are located
+ * in memory (tmpfs) when the system provides it.
+ * The time spent in the queue and the running time of each tool are gathered into metrics.
+ * @author Arnaud Blouin
+ */
+public final class ProcessRunner {
+	public static final ProcessRunner INSTANCE = new ProcessRunner();
+
+	private static final Logger LOGGER = Logger.getAnonymousLogger();
+	/** The maximal number of free scratch directories kept for a later use. */
+	private static final int MAX_FREE_SCRATCH_DIRS = 8;
+	/** The maximal time to wait for the end of the output of an ended or killed process (a surviving descendant may keep the output open). */
+	private static final long OUTPUT_TIMEOUT_MS = 2000L;
+
+	/** The number of processes of a tool that can run at the same time, when not specified. */
+	private final int defaultLimit;
+	/** The maximal running time of a tool, when not specified. */
+	private volatile @NotNull Duration defaultTimeout;
+	/** The permits of the tools that limit their number of processes. */
+	private final @NotNull Map<String, Semaphore> limits;
+	private final @NotNull Map<String, Duration> timeouts;
+	private final @NotNull Map<String, ProcessMetrics> metrics;
+	/** The scratch directories that are not used. */
+	private final @NotNull Deque<File> freeScratchDirs;
+	/** The directory that contains the scratch directories. Created on demand. */
+	private Path scratchRoot;
+
+	private ProcessRunner() {
+		super();
+		defaultLimit = Math.max(1, Runtime.getRuntime().availableProcessors());
+		defaultTimeout = Duration.ofMinutes(2L);
+		limits = new ConcurrentHashMap<>();
+		timeouts = new ConcurrentHashMap<>();
+		metrics = new ConcurrentHashMap<>();
+		freeScratchDirs = new ConcurrentLinkedDeque<>();
+	}
+
+	/**
+	 * @param cmd The command line.
+	 * @return The name of the tool the command executes (e.g. latex), without its path and extension.
+	 */
+	public static @NotNull String getToolName(final @NotNull String[] cmd) {
+		if(cmd.length == 0) {
+			return "";
+		}
+		final String name = Paths.get(cmd[0]).getFileName().toString().toLowerCase(Locale.ENGLISH);
+		return name.endsWith(".exe") ? name.substring(0, name.length() - 4) : name; //NON-NLS
+	}
+
+	/**
+	 * Sets the number of processes of the given tool that can run at the same time.
+	 * The executions of the tool that already wait or run are not concerned.
+	 * @param tool The name of the tool (see getToolName).
+	 * @param limit The maximal number of processes. Must be positive.
+	 */
+	public void setConcurrencyLimit(final @NotNull String tool, final int limit) {
+		if(limit < 1) {
+			throw new IllegalArgumentException("The concurrency limit must be positive: " + limit); //NON-NLS
+		}
+		limits.put(tool, new Semaphore(limit, true));
+	}
+
+	/**
+	 * Sets the maximal running time of the given tool.
+	 * @param tool The name of the tool (see getToolName).
+	 * @param timeout The timeout. Must be positive.
+	 */
+	public void setTimeout(final @NotNull String tool, final @NotNull Duration timeout) {
+		if(timeout.isNegative() || timeout.isZero()) {
+			throw new IllegalArgumentException("The timeout must be positive: " + timeout); //NON-NLS
+		}
+		timeouts.put(tool, timeout);
+	}
+
+	/**
+	 * Sets the maximal running time of the tools that have no specific timeout.
+	 * @param timeout The timeout. Must be positive.
+	 */
+	public void setDefaultTimeout(final @NotNull Duration timeout) {
+		if(timeout.isNegative() || timeout.isZero()) {
+			throw new IllegalArgumentException("The timeout must be positive: " + timeout); //NON-NLS
+		}
+		defaultTimeout = timeout;
+	}
+
+	/**
+	 * @return The metrics of the tools executed during the session, by tool name.
+	 */
+	public @NotNull Map<String, ProcessMetrics> getMetrics() {
+		return Map.copyOf(metrics);
+	}
+
+	/**
+	 * Executes a command.
+	 * @param cmd The execution command.
+	 * @param dir The working dir. The one of the application if null.
+	 * @return True if the process ended normally, and its output.
+	 */
+	public @NotNull Tuple<Boolean, String> execute(final @NotNull String[] cmd, final File dir) {
+		return execute(cmd, dir, line -> { });
+	}
+
+	/**
+	 * Executes a command once the number of running processes of its tool permits it.
+	 * If the calling thread is interrupted or if the process runs out of time, the process and its children are killed.
+	 * @param cmd The execution command.
+	 * @param dir The working dir. The one of the application if null.
+	 * @param output Notified of each line of the output of the process, while it runs (in another thread).
+	 * @return True if the process ended normally, and its output.
+	 */
+	public @NotNull Tuple<Boolean, String> execute(final @NotNull String[] cmd, final File dir, final @NotNull Consumer<String> output) {
+		if(cmd.length == 0) {
+			return new Tuple<>(Boolean.FALSE, "");
+		}
+
+		if(Thread.currentThread().isInterrupted()) {
+			return new Tuple<>(Boolean.FALSE, "Cancelled command: " + Arrays.toString(cmd)); //NON-NLS
+		}
+
+		final String tool = getToolName(cmd);
+		final Semaphore permits = limits.computeIfAbsent(tool, key -> new Semaphore(defaultLimit, true));
+		final long queued = System.nanoTime();
+
+		try {
+			permits.acquire();
+		}catch(final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return new Tuple<>(Boolean.FALSE, "Cancelled command: " + Arrays.toString(cmd)); //NON-NLS
+		}
+
+		final long started = System.nanoTime();
+		boolean timedOut = false;
+
+		try {
+			final Execution result = run(cmd, dir, timeouts.getOrDefault(tool, defaultTimeout), output);
+			timedOut = result.timedOut;
+			return result.result;
+		}finally {
+			permits.release();
+			final Duration queueTime = Duration.ofNanos(started - queued);
+			final Duration runTime = Duration.ofNanos(System.nanoTime() - started);
+			metrics.merge(tool, new ProcessMetrics(1, timedOut ? 1 : 0, queueTime, runTime), (m1, m2) -> m1.add(m2));
+			LOGGER.log(Level.FINE, () -> tool + ": queued " + queueTime.toMillis() + " ms, ran " + runTime.toMillis() + " ms"); //NON-NLS
+		}
+	}
+
+	private @NotNull Execution run(final String[] cmd, final File dir, final Duration timeout, final Consumer<String> output) {
+		// Synchronised: the reader thread may still append to the log after the output of a killed process is no longer waited for.
+		final StringBuffer log = new StringBuffer();
+
+		try {
+			final Process process = new ProcessBuilder(cmd).redirectErrorStream(true).directory(dir).start();
+			// The output is read in another thread so that the calling thread waits for the process in an interruptible way.
+			final Thread reader = new Thread(() -> {
+				try(final InputStream is = process.getInputStream();
+					final InputStreamReader isr = new InputStreamReader(is);
+					final BufferedReader br = new BufferedReader(isr)) {
+					String line = br.readLine();
+
+					while(line != null) {
+						log.append(line).append(SystemUtils.getInstance().EOL);
+						output.accept(line);
+						line = br.readLine();
+					}
+				}catch(final IOException ignored) {
+					// The process has been killed.
+				}
+			}, "latexdraw-process-output"); //NON-NLS
+			reader.setDaemon(true);
+			reader.start();
+
+			try {
+				if(!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+					kill(process);
+					// The log is read once the reader thread has ended, or after a bounded delay.
+					reader.join(OUTPUT_TIMEOUT_MS);
+					log.append("Timeout (").append(timeout.toSeconds()).append(" s) of the command: ").append(Arrays.toString(cmd)); //NON-NLS
+					return new Execution(new Tuple<>(Boolean.FALSE, log.toString()), true);
+				}
+				// A descendant started in background may still write to the output: its end is not waited for forever.
+				reader.join(OUTPUT_TIMEOUT_MS);
+				return new Execution(new Tuple<>(process.exitValue() == 0, log.toString()), false);
+			}catch(final InterruptedException ex) {
+				kill(process);
+				Thread.currentThread().interrupt();
+				return new Execution(new Tuple<>(Boolean.FALSE, "Cancelled command: " + Arrays.toString(cmd)), false); //NON-NLS
+			}
+		}catch(final IOException | SecurityException ex) {
+			return new Execution(new Tuple<>(Boolean.FALSE, "ERR while execute the command : " + Arrays.toString(cmd) + ": " + ex.getMessage()), false); //NON-NLS
+		}
+	}
+
+	private static void kill(final Process process) {
+		process.descendants().forEach(child -> child.destroyForcibly());
+		process.destroyForcibly();
+	}
+
+	/**
+	 * Gives an empty scratch directory, reused from a previous execution if possible.
+	 * The directory must be closed once no more used: its content is then removed.
+	 * @return The scratch directory or nothing if it cannot be created.
+	 */
+	public @NotNull Optional<ScratchDir> acquireScratchDir() {
+		final File free = freeScratchDirs.pollFirst();
+
+		if(free != null && free.isDirectory()) {
+			return Optional.of(new ScratchDir(free));
+		}
+
+		try {
+			final Path dir = Files.createTempDirectory(getScratchRoot(), "scratch"); //NON-NLS
+			dir.toFile().deleteOnExit();
+			return Optional.of(new ScratchDir(dir.toFile()));
+		}catch(final IOException | SecurityException | UnsupportedOperationException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return The directory that contains the scratch directories, only accessible by the user.
+	 * It is located in memory (/dev/shm) on the systems that provide it.
+	 */
+	private synchronized Path getScratchRoot() throws IOException {
+		if(scratchRoot == null || !scratchRoot.toFile().isDirectory()) {
+			final Path shm = Paths.get("/dev/shm"); //NON-NLS
+			final Path base = Files.isDirectory(shm) && Files.isWritable(shm) ? shm : Paths.get(System.getProperty("java.io.tmpdir")); //NON-NLS
+			// Created with restricted rights.
+			scratchRoot = Files.createTempDirectory(base, "latexdraw"); //NON-NLS
+			scratchRoot.toFile().deleteOnExit();
+		}
+		return scratchRoot;
+	}
+
+	private void release(final File dir) {
+		try(final Stream<Path> paths = Files.walk(dir.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).filter(path -> !path.equals(dir.toPath())).
+				forEach(path -> SystemUtils.getInstance().removeFilePath(path));
+		}catch(final IOException | SecurityException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+
+		if(freeScratchDirs.size() < MAX_FREE_SCRATCH_DIRS) {
+			freeScratchDirs.offerFirst(dir);
+		}else {
+			SystemUtils.getInstance().removeDirWithContent(dir.getPath());
+		}
+	}
+
+
+	/**
+	 * A scratch directory given to a caller. Closing it empties it and makes it available for another execution.
+	 */
+	public final class ScratchDir implements AutoCloseable {
+		private final @NotNull File dir;
+		private boolean closed;
+
+		ScratchDir(final @NotNull File dir) {
+			super();
+			this.dir = dir;
+			closed = false;
+		}
+
+		/**
+		 * @return The directory. Must not be used once closed.
+		 */
+		public @NotNull File getDir() {
+			return dir;
+		}
+
+		@Override
+		public void close() {
+			if(!closed) {
+				closed = true;
+				release(dir);
+			}
+		}
+	}
+
+
+	/**
+	 * The metrics of the executions of a tool. Immutable.
+	 */
+	public static final class ProcessMetrics {
+		private final int nbRuns;
+		private final int nbTimeouts;
+		private final @NotNull Duration queueTime;
+		private final @NotNull Duration runTime;
+
+		ProcessMetrics(final int nbRuns, final int nbTimeouts, final @NotNull Duration queueTime, final @NotNull Duration runTime) {
+			super();
+			this.nbRuns = nbRuns;
+			this.nbTimeouts = nbTimeouts;
+			this.queueTime = Objects.requireNonNull(queueTime);
+			this.runTime = Objects.requireNonNull(runTime);
+		}
+
+		@NotNull ProcessMetrics add(final @NotNull ProcessMetrics other) {
+			return new ProcessMetrics(nbRuns + other.nbRuns, nbTimeouts + other.nbTimeouts, queueTime.plus(other.queueTime), runTime.plus(other.runTime));
+		}
+
+		/**
+		 * @return The number of executions of the tool.
+		 */
+		public int getNbRuns() {
+			return nbRuns;
+		}
+
+		/**
+		 * @return The number of executions killed because they ran out of time.
+		 */
+		public int getNbTimeouts() {
+			return nbTimeouts;
+		}
+
+		/**
+		 * @return The total time the executions waited before running.
+		 */
+		public @NotNull Duration getQueueTime() {
+			return queueTime;
+		}
+
+		/**
+		 * @return The total running time of the executions.
+		 */
+		public @NotNull Duration getRunTime() {
+			return runTime;
+		}
+
+		@Override
+		public String toString() {
+			return "ProcessMetrics{runs=" + nbRuns + ", timeouts=" + nbTimeouts + ", queueTime=" + queueTime.toMillis() + "ms, runTime=" + //NON-NLS
+				runTime.toMillis() + "ms}"; //NON-NLS
+		}
+	}
+
+
+	/**
+	 * The result of a process and whether it ran out of time.
+	 */
+	private static final class Execution {
+		final @NotNull Tuple<Boolean, String> result;
+		final boolean timedOut;
+
+		Execution(final @NotNull Tuple<Boolean, String> result, final boolean timedOut) {
+			super();
+			this.result = result;
+			this.timedOut = timedOut;
+		}
+	}
+}
@@ -22,7 +22,6 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
@@ -280,48 +279,13 @@ public final class SystemUtils {
 	}
 
 	/**
-	 * Executes a command.
+	 * Executes a command through the process runner. If the calling thread is interrupted, the process and its children are killed.
 	 * @param cmd The execution command
 	 * @param tmpdir The working dir
 	 * @return The log.
 	 */
 	public @NotNull Tuple<Boolean, String> execute(final @NotNull String[] cmd, final File tmpdir) {
-		if(cmd.length == 0) {
-			return new Tuple<>(Boolean.FALSE, "");
-		}
-
-		final StringBuilder log = new StringBuilder();
-
-		try {
-			final ProcessBuilder builder = new ProcessBuilder(cmd).
-				redirectErrorStream(true).
-				directory(tmpdir);
-			final Process process = builder.start();
-
-			try(final InputStream is = process.getInputStream();
-				final InputStreamReader isr = new InputStreamReader(is);
-				final BufferedReader br = new BufferedReader(isr)) {
-
-				String line = br.readLine();
-
-				while(line != null) {
-					log.append(line).append(EOL);
-					line = br.readLine();
-				}
-			}
-
-			if(process.waitFor() == 0) {
-				return new Tuple<>(Boolean.TRUE, log.toString());
-			}
-
-		}catch(final IOException | SecurityException ex) {
-			return new Tuple<>(Boolean.FALSE, "ERR while execute the command : " + Arrays.toString(cmd) + ": " + ex.getMessage()); //NON-NLS
-		}catch(final InterruptedException ex) {
-			Thread.currentThread().interrupt();
-			return new Tuple<>(Boolean.FALSE, "ERR while execute the command : " + Arrays.toString(cmd) + ": " + ex.getMessage()); //NON-NLS
-		}
-
-		return new Tuple<>(Boolean.FALSE, log.toString());
+		return ProcessRunner.INSTANCE.execute(cmd, tmpdir);
 	}
 
 
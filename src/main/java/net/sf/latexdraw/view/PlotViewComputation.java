@@ -17,6 +17,7 @@ import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.BezierCurve;
 import net.sf.latexdraw.model.api.shape.Dot;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Polygon;
 import net.sf.latexdraw.model.api.shape.Polyline;
@@ -27,6 +28,9 @@ import net.sf.latexdraw.model.api.shape.PlotStyle;
  * @author Arnaud Blouin
  */
 public interface PlotViewComputation {
+	/** The maximal number of buckets used to decimate the plotted data points (at most four points are drawn per bucket). */
+	int DATA_BUCKETS = 1000;
+
 	default Point getPolarPoint(final Plot shape, final double x, final double xs, final double ys, final double posX, final double posY) {
 		final double radius = shape.getY(x);
 		final double angle = Math.toRadians(x);
@@ -39,9 +43,19 @@ public interface PlotViewComputation {
 								final double maxX, final double step) {
 		final double xs = shape.getXScale();
 		final double ys = shape.getYScale();
+		final PlotData data = shape.getPlotData();
 		double x = minX;
 		final List<Point> pts = new ArrayList<>();
 
+		// The full data points are kept in the model for the export, but only the decimated ones are drawn.
+		if(data != null) {
+			final PlotData drawn = data.decimate(DATA_BUCKETS);
+			for(int i = 0, size = drawn.size(); i < size; i++) {
+				pts.add(ShapeFactory.INST.createPoint(drawn.getX(i) * Shape.PPC * xs + posX, -drawn.getY(i) * Shape.PPC * ys + posY));
+			}
+			return pts;
+		}
+
 		if(shape.isPolar()) {
 			for(int i = 0; i < shape.getNbPlottedPoints(); i++, x += step) {
 				pts.add(getPolarPoint(shape, x, xs, ys, posX, posY));
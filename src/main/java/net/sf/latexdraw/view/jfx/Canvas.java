@@ -38,6 +38,9 @@ import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.NonInvertibleTransformException;
+import javafx.scene.transform.Transform;
 import javafx.util.Duration;
 import net.sf.latexdraw.command.Modifying;
 import net.sf.latexdraw.model.MathUtils;
@@ -105,6 +108,12 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 	/** The temporary view that the canvas may contain. */
 	private @NotNull Optional<ViewShape<?>> tempView;
 	private final @NotNull ViewFactory viewFactory;
+	/** The views transformed to preview a transformation of the selection. */
+	private final @NotNull List<PreviewedView> previewedViews;
+	/** The transformation previewed on the widgets. */
+	private final @NotNull Affine previewTransform;
+	/** True while a transformation of the selection is previewed (even if no view is selected). */
+	private boolean previewing;
 
 	/**
 	 * Creates the canvas.
@@ -123,6 +132,9 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 		widgetsPane = new Group();
 		shapesPane = new Group();
 		shapesToViewMap = new HashMap<>();
+		previewedViews = new ArrayList<>();
+		previewTransform = new Affine();
+		previewing = false;
 		selectionBorder = new Rectangle();
 		ongoingSelectionBorder = new Rectangle();
 
@@ -219,6 +231,35 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 	}
 
 
+	/**
+	 * Previews a transformation (e.g. a translation, a scaling, a rotation) of the selected shapes: the transformation is applied on
+	 * their views and on the widgets while the shapes are not modified. This costs the same whatever the number of points of the shapes,
+	 * contrary to the modification of the shapes, whose points notify their changes and whose views are then rebuilt.
+	 * @param transform The transformation, in the coordinates of the drawing. Replaces the previous previewed one.
+	 */
+	public void setSelectionTransformPreview(final @NotNull Transform transform) {
+		if(!previewing) {
+			previewing = true;
+			getSelectedViews().stream().filter(view -> view != null).forEach(view -> previewedViews.add(new PreviewedView(view)));
+			// The widgets pane is only translated (relocated): its local coordinates are the ones of the drawing.
+			widgetsPane.getTransforms().add(0, previewTransform);
+		}
+		previewedViews.forEach(view -> view.setPreview(transform));
+		previewTransform.setToTransform(transform);
+	}
+
+	/**
+	 * Removes the preview of the transformation of the selected shapes.
+	 */
+	public void clearSelectionTransformPreview() {
+		previewedViews.forEach(view -> view.clear());
+		previewedViews.clear();
+		widgetsPane.getTransforms().remove(previewTransform);
+		previewTransform.setToIdentity();
+		previewing = false;
+	}
+
+
 	private final void defineShapeListToViewBinding() {
 		drawing.getShapes().addListener((Change<? extends Shape> evt) -> {
 			while(evt.next()) {
@@ -303,10 +344,10 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 			elt.appendChild(document.createTextNode(String.valueOf(getZoom())));
 			root.appendChild(elt);
 			elt = document.createElement(ns + LNamespace.XML_VIEWPORT_X);
-			elt.appendChild(document.createTextNode(MathUtils.INST.format.format(getScrollPane().getHvalue())));
+			elt.appendChild(document.createTextNode(MathUtils.INST.getFormat().format(getScrollPane().getHvalue())));
 			root.appendChild(elt);
 			elt = document.createElement(ns + LNamespace.XML_VIEWPORT_Y);
-			elt.appendChild(document.createTextNode(MathUtils.INST.format.format(getScrollPane().getVvalue())));
+			elt.appendChild(document.createTextNode(MathUtils.INST.getFormat().format(getScrollPane().getVvalue())));
 			root.appendChild(elt);
 		}
 	}
@@ -479,6 +520,25 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 		}
 	}
 
+	/**
+	 * @return The layer that contains the widgets (e.g. the handlers). Its coordinates are the ones of the shapes.
+	 */
+	public @NotNull Group getWidgetLayer() {
+		return widgetsPane;
+	}
+
+	/**
+	 * @return The part of the canvas visible in its scroll pane, in the coordinates of the widget layer,
+	 * or nothing if the canvas is not in a scroll pane.
+	 */
+	public @NotNull Optional<Bounds> getVisibleWidgetLayerBounds() {
+		final ScrollPane scrollPane = getScrollPane();
+		if(scrollPane == null) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(widgetsPane.sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds())));
+	}
+
 	/**
 	 * @return The views that the canvas contains.
 	 */
@@ -486,6 +546,18 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 		return shapesPane;
 	}
 
+	/**
+	 * Creates the views of copies of the shapes of the drawing. These views are not in the canvas and are not affected
+	 * by the modifications of the drawing, so that the drawing can be rendered while it is edited (e.g. picture exports).
+	 * Must be called in the JFX thread. The views must be flushed once no more used.
+	 * @return The group that contains the created views.
+	 */
+	public @NotNull Group createDetachedViews() {
+		final Group views = new Group();
+		drawing.getShapes().forEach(sh -> viewFactory.createView(sh.duplicate()).ifPresent(v -> views.getChildren().add(v)));
+		return views;
+	}
+
 	/**
 	 * @param sh The shape to look for.
 	 * @return The view corresponding to the given shape or nothing.
@@ -496,4 +568,42 @@ public class Canvas extends Pane implements Preferenciable, Modifiable, Reinitia
 		}
 		return Optional.ofNullable(shapesToViewMap.get(sh));
 	}
+
+	/**
+	 * A view that previews a transformation of the selection.
+	 * The transformations of the transforms list of a node are applied inside its own translation, rotation, and scaling, that
+	 * the views of positioned shapes (e.g. texts, dots, grids) bind to their model. So the previewed transformation, expressed in the
+	 * coordinates of the drawing (the parent of the views), is conjugated by the local-to-parent transformation of the view.
+	 */
+	private static final class PreviewedView {
+		private final @NotNull ViewShape<?> view;
+		/** The local-to-parent transformation of the view before the preview. */
+		private final @NotNull Transform local;
+		/** The transformation added at the end of the transforms list of the view. */
+		private final @NotNull Affine transform;
+
+		PreviewedView(final @NotNull ViewShape<?> view) {
+			super();
+			this.view = view;
+			local = new Affine(view.getLocalToParentTransform());
+			transform = new Affine();
+			view.getTransforms().add(transform);
+		}
+
+		/**
+		 * @param preview The previewed transformation, in the coordinates of the parent of the view.
+		 */
+		void setPreview(final @NotNull Transform preview) {
+			try {
+				transform.setToTransform(local.createInverse().createConcatenation(preview).createConcatenation(local));
+			}catch(final NonInvertibleTransformException ex) {
+				// A view flattened to a line or a point: nothing to preview.
+				transform.setToIdentity();
+			}
+		}
+
+		void clear() {
+			view.getTransforms().remove(transform);
+		}
+	}
 }
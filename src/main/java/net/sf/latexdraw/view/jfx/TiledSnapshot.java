@@ -0,0 +1,268 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.view.jfx;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A picture of a JavaFX node rendered on demand by tiles, so that large pictures can be encoded without being fully
+ * in memory (e.g. the PNG writer of ImageIO reads the picture row by row).
+ * Each tile is a snapshot of the node through a viewport. Only the tiles of the latest read row of tiles are kept in memory.
+ * The tiles are rendered in the JFX thread: the picture must be read from another thread (e.g. an export job).
+ * The tiles are rendered from the current state of the node: it must not be modified while the picture is read
+ * (e.g. views of a copy of the drawing, see Canvas.createDetachedViews).
+ * @author Arnaud Blouin
+ */
+public final class TiledSnapshot implements RenderedImage {
+	/** The default size in pixels of the tiles. */
+	public static final int TILE_SIZE = 512;
+
+	private final @NotNull Node node;
+	private final double scale;
+	private final int tileSize;
+	private final int width;
+	private final int height;
+	private final double minX;
+	private final double minY;
+	/** The type of the AWT images of the bands. */
+	private final int imageType;
+	private final @NotNull ColorModel colorModel;
+	private final @NotNull SampleModel sampleModel;
+	/** The rendered tiles of the latest read row of tiles, by column. */
+	private final @NotNull Map<Integer, Raster> tiles;
+	/** The index of the latest read row of tiles. */
+	private int tileRow;
+
+	/**
+	 * Creates the picture. Must be called in the JFX thread.
+	 * @param node The node to render.
+	 * @param scale The scale of the picture: 1 means one pixel per unit of the node.
+	 * @param alpha True: the picture has an alpha channel.
+	 * @param tileSize The size of the tiles in pixels.
+	 */
+	public TiledSnapshot(final @NotNull Node node, final double scale, final boolean alpha, final int tileSize) {
+		super();
+		final Bounds bounds = node.getBoundsInParent();
+		this.node = node;
+		this.scale = scale;
+		this.tileSize = Math.max(1, tileSize);
+		width = Math.max(1, (int) (bounds.getWidth() * scale));
+		height = Math.max(1, (int) (bounds.getHeight() * scale));
+		minX = bounds.getMinX() * scale;
+		minY = bounds.getMinY() * scale;
+		imageType = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		colorModel = new BufferedImage(1, 1, imageType).getColorModel();
+		sampleModel = colorModel.createCompatibleSampleModel(this.tileSize, this.tileSize);
+		tiles = new HashMap<>();
+		tileRow = -1;
+	}
+
+	/**
+	 * Returns the given tile, rendering it if it is not in the latest read row of tiles.
+	 * @throws CancellationException If the reading thread has been interrupted.
+	 */
+	private synchronized @NotNull Raster getRenderedTile(final int tileX, final int tileY) {
+		if(tileY != tileRow) {
+			tiles.clear();
+			tileRow = tileY;
+		}
+
+		return tiles.computeIfAbsent(tileX, key -> {
+			final int x = tileX * tileSize;
+			final int y = tileY * tileSize;
+			final BufferedImage img = new BufferedImage(Math.min(tileSize, width - x), Math.min(tileSize, height - y), imageType);
+			final BufferedImage tile = SwingFXUtils.fromFXImage(snapshotTile(x, y, img.getWidth(), img.getHeight()), null);
+			// Converting the snapshot into the type of the picture.
+			final Graphics2D g = img.createGraphics();
+			try {
+				g.drawImage(tile, 0, 0, null);
+			}finally {
+				g.dispose();
+			}
+			tile.flush();
+			return img.getRaster().createTranslatedChild(x, y);
+		});
+	}
+
+	/**
+	 * Renders the given tile in the JFX thread.
+	 */
+	private @NotNull WritableImage snapshotTile(final int x, final int y, final int w, final int h) {
+		final FutureTask<WritableImage> snapshot = new FutureTask<>(() -> {
+			final SnapshotParameters params = new SnapshotParameters();
+			params.setFill(Color.WHITE);
+			params.setTransform(new Scale(scale, scale));
+			params.setViewport(new Rectangle2D(minX + x, minY + y, w, h));
+			return node.snapshot(params, new WritableImage(w, h));
+		});
+
+		if(Platform.isFxApplicationThread()) {
+			snapshot.run();
+		}else {
+			Platform.runLater(snapshot);
+		}
+
+		try {
+			return snapshot.get();
+		}catch(final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		}catch(final ExecutionException ex) {
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(final String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return colorModel;
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return sampleModel;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return (width + tileSize - 1) / tileSize;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + tileSize - 1) / tileSize;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return tileSize;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return tileSize;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+
+	@Override
+	public Raster getTile(final int tileX, final int tileY) {
+		return getRenderedTile(tileX, tileY);
+	}
+
+	@Override
+	public Raster getData() {
+		return getData(new Rectangle(0, 0, width, height));
+	}
+
+	@Override
+	public Raster getData(final Rectangle rect) {
+		final WritableRaster raster = colorModel.createCompatibleWritableRaster(rect.width, rect.height).createWritableTranslatedChild(rect.x, rect.y);
+		copyData(raster);
+		return raster;
+	}
+
+	@Override
+	public WritableRaster copyData(final WritableRaster raster) {
+		final WritableRaster dest = raster == null ? colorModel.createCompatibleWritableRaster(width, height) : raster;
+		final Rectangle bounds = dest.getBounds().intersection(new Rectangle(0, 0, width, height));
+
+		if(bounds.isEmpty()) {
+			return dest;
+		}
+
+		for(int tileY = bounds.y / tileSize; tileY <= (bounds.y + bounds.height - 1) / tileSize; tileY++) {
+			for(int tileX = bounds.x / tileSize; tileX <= (bounds.x + bounds.width - 1) / tileSize; tileX++) {
+				final Raster src = getRenderedTile(tileX, tileY);
+				final Rectangle inter = bounds.intersection(src.getBounds());
+				dest.setDataElements(0, 0, src.createChild(inter.x, inter.y, inter.width, inter.height, inter.x, inter.y, null));
+			}
+		}
+
+		return dest;
+	}
+}
@@ -10,20 +10,94 @@
  */
 package net.sf.latexdraw.view.jfx;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.transform.Transform;
 import net.sf.latexdraw.model.api.shape.Picture;
+import net.sf.latexdraw.util.ImageCache;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * The JFX view of a picture.
+ * The picture is displayed using a preview of its image, decoded in the background at the size the picture is displayed
+ * (the zoom being considered). The preview is changed when the displayed size changes, unless a render scale is set
+ * (e.g. to export the picture at a given resolution).
  * @author Arnaud Blouin
  */
 public class ViewPicture extends ViewPositionShape<Picture> {
+	private final ImageView imageView;
+	/** The displayed size the current preview has been requested for. */
+	private double previewSize;
+	private final ChangeListener<Transform> scaleUpdate;
+
 	/**
 	 * Creates the view.
 	 * @param sh The model.
 	 */
 	ViewPicture(final Picture sh) {
 		super(sh);
-		getChildren().add(new ImageView(model.getImage()));
+		imageView = new ImageView();
+		imageView.setFitWidth(model.getWidth());
+		imageView.setFitHeight(model.getHeight());
+		previewSize = -1d;
+		scaleUpdate = (observable, oldValue, transform) -> updatePreview(transform);
+		getChildren().add(imageView);
+		localToSceneTransformProperty().addListener(scaleUpdate);
+		updatePreview(getLocalToSceneTransform());
+	}
+
+	/**
+	 * Displays the picture using a preview that matches the given scale, whatever the scale at which the view is displayed.
+	 * Used to render the view at a resolution higher than the screen one (e.g. the raster export at a given DPI).
+	 * @param scale The number of pixels per unit of the view.
+	 * @return A future done once the preview is loaded.
+	 */
+	public @NotNull Future<?> setRenderScale(final double scale) {
+		localToSceneTransformProperty().removeListener(scaleUpdate);
+		updatePreview(scale);
+
+		final Image image = imageView.getImage();
+		final CompletableFuture<Void> loading = new CompletableFuture<>();
+
+		if(image == null || image.getProgress() >= 1d || image.isError()) {
+			loading.complete(null);
+		}else {
+			image.progressProperty().addListener((observable, oldValue, progress) -> {
+				if(progress.doubleValue() >= 1d) {
+					loading.complete(null);
+				}
+			});
+			image.errorProperty().addListener((observable, oldValue, error) -> loading.complete(null));
+		}
+		return loading;
+	}
+
+	private void updatePreview(final Transform transform) {
+		updatePreview(Math.max(Math.hypot(transform.getMxx(), transform.getMyx()), Math.hypot(transform.getMxy(), transform.getMyy())));
+	}
+
+	private void updatePreview(final double scale) {
+		final String path = model.getPathSource();
+
+		if(path == null) {
+			imageView.setImage(null);
+			return;
+		}
+
+		final double size = ImageCache.getPreviewSize(Math.max(model.getWidth(), model.getHeight()) * scale);
+
+		if(size != previewSize) {
+			previewSize = size;
+			imageView.setImage(ImageCache.INSTANCE.getPreview(path, model.getWidth() * scale, model.getHeight() * scale));
+		}
+	}
+
+	@Override
+	public void flush() {
+		localToSceneTransformProperty().removeListener(scaleUpdate);
+		super.flush();
 	}
 }
@@ -47,6 +47,7 @@ public class ViewPlot extends ViewPositionShape<Plot> implements PlotViewComputa
 		model.polarProperty().addListener(updatePath);
 		model.xScaleProperty().addListener(updatePath);
 		model.yScaleProperty().addListener(updatePath);
+		model.plotDataProperty().addListener(updatePath);
 
 		updatePath();
 	}
@@ -129,6 +130,7 @@ public class ViewPlot extends ViewPositionShape<Plot> implements PlotViewComputa
 		model.polarProperty().removeListener(updatePath);
 		model.xScaleProperty().removeListener(updatePath);
 		model.yScaleProperty().removeListener(updatePath);
+		model.plotDataProperty().removeListener(updatePath);
 
 		flushLine();
 		flushCurve();
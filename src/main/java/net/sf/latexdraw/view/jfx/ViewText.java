@@ -29,6 +29,7 @@ import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.model.api.shape.Text;
 import net.sf.latexdraw.service.LaTeXDataService;
 import net.sf.latexdraw.util.OperatingSystem;
+import net.sf.latexdraw.util.ProcessRunner;
 import net.sf.latexdraw.util.SystemUtils;
 import net.sf.latexdraw.util.Triple;
 import net.sf.latexdraw.util.Tuple;
@@ -176,15 +177,25 @@ public class ViewText extends ViewPositionShape<Text> {
 	 * @return The LaTeX compiled picture of the text with its file path and its log.
 	 */
 	private Tuple<Image, String> createImage() {
-		final Optional<File> optDir = SystemUtils.getInstance().createTempDir();
+		final Optional<ProcessRunner.ScratchDir> optDir = ProcessRunner.INSTANCE.acquireScratchDir();
 
 		if(optDir.isEmpty()) {
 			return new Tuple<>(null, "A temporary file cannot be created."); //NON-NLS
 		}
 
+		try(final ProcessRunner.ScratchDir scratchDir = optDir.get()) {
+			return createImage(scratchDir.getDir());
+		}
+	}
+
+
+	/**
+	 * @param tmpDir The scratch directory used for the compilation.
+	 * @return The LaTeX compiled picture of the text with its file path and its log.
+	 */
+	private Tuple<Image, String> createImage(final File tmpDir) {
 		Image img = null;
 		String log = ""; //NON-NLS
-		final File tmpDir = optDir.get();
 		final String doc = getLaTeXDocument();
 		final String basePathPic = tmpDir.getAbsolutePath() + SystemUtils.getInstance().FILE_SEP + "latexdrawTmpPic" + System.currentTimeMillis(); //NON-NLS
 		final String pathTex = basePathPic + ExportFormat.TEX.getFileExtension();
@@ -198,14 +209,14 @@ public class ViewText extends ViewPositionShape<Text> {
 		}
 
 		// Compiling the LaTeX document.
-		Tuple<Boolean, String> res = SystemUtils.getInstance().execute(new String[] {os.getLatexBinPath(), "--halt-on-error", "--interaction=nonstopmode", //NON-NLS
+		Tuple<Boolean, String> res = ProcessRunner.INSTANCE.execute(new String[] {os.getLatexBinPath(), "--halt-on-error", "--interaction=nonstopmode", //NON-NLS
 			"--output-directory=" + tmpDir.getAbsolutePath(), SystemUtils.getInstance().normalizeForLaTeX(pathTex)}, null); //NON-NLS
 		boolean ok = res.a;
 		log = res.b;
 
 		// Compiling the DVI document.
 		if(ok) {
-			res = SystemUtils.getInstance().execute(new String[] {os.getDvipsBinPath(), basePathPic + ".dvi", "-o", //NON-NLS
+			res = ProcessRunner.INSTANCE.execute(new String[] {os.getDvipsBinPath(), basePathPic + ".dvi", "-o", //NON-NLS
 				basePathPic + ExportFormat.EPS_LATEX.getFileExtension()}, null); //NON-NLS
 			ok = res.a;
 			log = log + res.b;
@@ -213,7 +224,7 @@ public class ViewText extends ViewPositionShape<Text> {
 
 		// Converting the PS document as a PDF one.
 		if(ok) {
-			res = SystemUtils.getInstance().execute(new String[] {os.getPs2pdfBinPath(), basePathPic + ExportFormat.EPS_LATEX.getFileExtension(),
+			res = ProcessRunner.INSTANCE.execute(new String[] {os.getPs2pdfBinPath(), basePathPic + ExportFormat.EPS_LATEX.getFileExtension(),
 				basePathPic + ExportFormat.PDF.getFileExtension()}, null); //NON-NLS
 			ok = res.a;
 			log = log + res.b;
@@ -223,13 +234,10 @@ public class ViewText extends ViewPositionShape<Text> {
 		if(ok) {
 			final String pdfpath = basePathPic + ExportFormat.PDF.getFileExtension();
 			final String picPath = basePathPic + ".png"; //NON-NLS
-			SystemUtils.getInstance().execute(new String[] {"convert", pdfpath, picPath}, null); //NON-NLS
+			ProcessRunner.INSTANCE.execute(new String[] {"convert", pdfpath, picPath}, null); //NON-NLS
 			img = new Image(new File(picPath).toURI().toString());
 		}
 
-		// Deleting the temporary folder and its content.
-		SystemUtils.getInstance().removeDirWithContent(tmpDir.getPath());
-
 		LOGGER.log(Level.INFO, log);
 
 		return new Tuple<>(img, log);
@@ -0,0 +1,190 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.view.latex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import net.sf.latexdraw.util.BadaboomCollector;
+import net.sf.latexdraw.util.SystemUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Caches the files produced by the LaTeX tool chain (PS, EPS, PDF) during the session, so that exporting an unchanged drawing
+ * again, or to several formats, does not compile it again.
+ * An artifact is identified by a key that hashes everything its content depends on: the LaTeX document (that contains the packages),
+ * the parameters of the tools (e.g. the scaled size of the drawing), the versions of the tools, the content of the files included by the document
+ * (e.g. the EPS files of the pictures), and the key of the artifact it is produced from.
+ * The latest used artifacts only are kept. The cached files are never given to the clients, that get copies of them:
+ * an evicted file can thus be deleted while another thread uses the artifact.
+ * @author Arnaud Blouin
+ */
+final class CompiledArtifactCache {
+	static final CompiledArtifactCache INSTANCE = new CompiledArtifactCache(32);
+
+	/** The cached files, from the least to the most recently used one. */
+	private final @NotNull Map<String, Path> artifacts;
+	/** The versions of the tools, computed once per session. */
+	private final @NotNull Map<String, String> versions;
+	/** The directory that contains the cached files. Created on demand. */
+	private Path dir;
+
+	CompiledArtifactCache(final int capacity) {
+		super();
+		versions = new ConcurrentHashMap<>();
+		artifacts = new LinkedHashMap<>(capacity, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Path> eldest) {
+				if(size() > capacity) {
+					SystemUtils.getInstance().removeFilePath(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Computes the key of an artifact.
+	 * @param parts Everything the content of the artifact depends on.
+	 * @return The hash of the given parts.
+	 */
+	@NotNull String key(final @NotNull String... parts) {
+		return key(Collections.emptyList(), parts);
+	}
+
+	/**
+	 * Computes the key of an artifact.
+	 * @param includedFiles The files included by the document: their content is hashed, so that modifying them invalidates the artifact.
+	 * @param parts Everything else the content of the artifact depends on.
+	 * @return The hash of the given parts and files.
+	 */
+	@NotNull String key(final @NotNull Collection<Path> includedFiles, final @NotNull String... parts) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256"); //NON-NLS
+			for(final String part : parts) {
+				digest.update(part.getBytes(StandardCharsets.UTF_8));
+				// Separates the parts so that ("ab", "c") and ("a", "bc") differ.
+				digest.update((byte) 0);
+			}
+			for(final Path file : includedFiles) {
+				digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+				try(final InputStream in = Files.newInputStream(file)) {
+					in.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+				}catch(final IOException | SecurityException ex) {
+					// A missing file is hashed as such: the compilation will report it.
+					digest.update((byte) 1);
+				}
+				digest.update((byte) 0);
+			}
+			return new BigInteger(1, digest.digest()).toString(16);
+		}catch(final NoSuchAlgorithmException ex) {
+			// Every Java platform supports SHA-256.
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Gives the version of the given tool. The version is computed once per session.
+	 * @param tool The name of the tool.
+	 * @param version Computes the version of the tool (by running it).
+	 * @return The version of the tool.
+	 */
+	@NotNull String getToolVersion(final @NotNull String tool, final @NotNull Supplier<String> version) {
+		final String cached = versions.get(tool);
+		if(cached != null) {
+			return cached;
+		}
+
+		final String computed = version.get();
+		// A cancelled process does not give the version.
+		if(!Thread.currentThread().isInterrupted()) {
+			versions.put(tool, computed);
+		}
+		return computed;
+	}
+
+	/**
+	 * Copies the cached file of an artifact. The copy is done under the lock of the cache, so that the cached file cannot be evicted meanwhile.
+	 * @param key The key of the artifact.
+	 * @param target The file to create (or replace) with the content of the cached file. Owned by the caller.
+	 * @return The given target file if the artifact is cached and copied, or nothing.
+	 */
+	synchronized @NotNull Optional<Path> get(final @NotNull String key, final @NotNull Path target) {
+		final Path path = artifacts.get(key);
+		if(path == null) {
+			return Optional.empty();
+		}
+		if(Files.isRegularFile(path)) {
+			try {
+				return Optional.of(Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING));
+			}catch(final IOException | SecurityException ex) {
+				BadaboomCollector.INSTANCE.add(ex);
+				return Optional.empty();
+			}
+		}
+		// Removed from outside.
+		artifacts.remove(key);
+		return Optional.empty();
+	}
+
+	/**
+	 * Copies the given file into the cache.
+	 * @param key The key of the artifact.
+	 * @param file The file of the artifact. Not modified. The clients keep using this file, not the cached one that can be evicted at any time.
+	 * @return The cached file or nothing if it cannot be copied into the cache.
+	 */
+	synchronized @NotNull Optional<Path> put(final @NotNull String key, final @NotNull Path file) {
+		if(dir == null) {
+			dir = SystemUtils.getInstance().createTempDir().map(tmp -> tmp.toPath()).orElse(null);
+			if(dir == null) {
+				return Optional.empty();
+			}
+		}
+
+		final String name = file.getFileName().toString();
+		final Path path = dir.resolve(key + name.substring(Math.max(0, name.lastIndexOf('.'))));
+
+		try {
+			Files.copy(file, path, StandardCopyOption.REPLACE_EXISTING);
+			path.toFile().deleteOnExit();
+			artifacts.put(key, path);
+			return Optional.of(path);
+		}catch(final IOException | SecurityException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Removes the cached files.
+	 */
+	synchronized void clear() {
+		artifacts.values().forEach(path -> SystemUtils.getInstance().removeFilePath(path));
+		artifacts.clear();
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of LaTeXDraw.
+ * Copyright (c) 2005-2018 Arnaud BLOUIN
+ * LaTeXDraw is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later version.
+ * LaTeXDraw is distributed without any warranty; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ */
+package net.sf.latexdraw.view.latex;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.util.Tuple;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The code of a drawing split into lines, with the location of the code of each shape of the drawing.
+ * @author Arnaud Blouin
+ */
+public final class DrawingCodeLines {
+	private final @NotNull List<String> lines;
+	/** The index of the first line of the code of each shape and the index that follows its last line. */
+	private final @NotNull Map<Shape, Tuple<Integer, Integer>> shapesLines;
+	/** The number of lines that precede the code of the shapes and of their colours. */
+	private final int headerSize;
+	/** The number of lines that follow the code of the shapes. */
+	private final int footerSize;
+
+	public DrawingCodeLines(final @NotNull List<String> lines, final @NotNull Map<Shape, Tuple<Integer, Integer>> shapesLines) {
+		this(lines, shapesLines, 0, 0);
+	}
+
+	public DrawingCodeLines(final @NotNull List<String> lines, final @NotNull Map<Shape, Tuple<Integer, Integer>> shapesLines, final int headerSize,
+							final int footerSize) {
+		super();
+		this.lines = Collections.unmodifiableList(lines);
+		this.shapesLines = Collections.unmodifiableMap(shapesLines);
+		this.headerSize = headerSize;
+		this.footerSize = footerSize;
+	}
+
+	/**
+	 * @return The lines of the code, without line separators.
+	 */
+	public @NotNull List<String> getLines() {
+		return lines;
+	}
+
+	/**
+	 * @param shape A shape of the drawing.
+	 * @return The index of the first line of the code of the given shape and the index that follows its last line.
+	 * Nothing if the shape has no code or if the location of the code is not known.
+	 */
+	public @NotNull Optional<Tuple<Integer, Integer>> getShapeLines(final @NotNull Shape shape) {
+		return Optional.ofNullable(shapesLines.get(shape));
+	}
+
+	/**
+	 * @return The location of the code of each shape whose location is known.
+	 */
+	public @NotNull Map<Shape, Tuple<Integer, Integer>> getShapesLines() {
+		return shapesLines;
+	}
+
+	/**
+	 * @return The number of lines that precede the code of the shapes and of their colours. 0 if not known.
+	 */
+	public int getHeaderSize() {
+		return headerSize;
+	}
+
+	/**
+	 * @return The number of lines that follow the code of the shapes. 0 if not known.
+	 */
+	public int getFooterSize() {
+		return footerSize;
+	}
+}
@@ -13,6 +13,7 @@ package net.sf.latexdraw.view.latex;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import net.sf.latexdraw.model.MathUtils;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Color;
@@ -193,11 +194,11 @@ public final class DviPsColors {
 
 	private final Map<Color, String> nameColourHT = new HashMap<>();
 
-	/** The colours defined by the user and their name. */
-	private final Map<String, Color> userColourHT = new HashMap<>();
+	/** The colours defined by the user and their name. Concurrent since PST code can be parsed in parallel. */
+	private final Map<String, Color> userColourHT = new ConcurrentHashMap<>();
 
 	/** The colours defined by the user and their name. */
-	private final Map<Color, String> userNameColourHT = new HashMap<>();
+	private final Map<Color, String> userNameColourHT = new ConcurrentHashMap<>();
 
 	/** The counter is used to name the user defined colours. */
 	private int ctColours;
@@ -210,7 +211,7 @@ public final class DviPsColors {
 		ctColours = 0;
 	}
 
-	public void clearUserColours() {
+	public synchronized void clearUserColours() {
 		userColourHT.clear();
 		userNameColourHT.clear();
 		ctColours = 0;
@@ -468,7 +469,7 @@ public final class DviPsColors {
 	/**
 	 * @return A unique name for a user defined colour.
 	 */
-	private String generateColourName() {
+	private synchronized String generateColourName() {
 		return "colour" + ctColours++; //NON-NLS
 	}
 
@@ -14,25 +14,42 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.command.ExportFormat;
+import net.sf.latexdraw.command.ExportStage;
 import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Picture;
 import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.service.LaTeXDataService;
 import net.sf.latexdraw.util.OperatingSystem;
+import net.sf.latexdraw.util.ProcessRunner;
 import net.sf.latexdraw.util.SystemUtils;
+import net.sf.latexdraw.util.Tuple;
 import net.sf.latexdraw.view.ViewsSynchroniserHandler;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Defines an abstract LaTeX generator.
+ * The PS, EPS, and PDF files produced by the latex tool chain are cached during the session (see CompiledArtifactCache):
+ * the tools are not executed again when exporting an unchanged drawing.
  * @author Arnaud Blouin
  */
 public abstract class LaTeXGenerator {
+	/** The name of the files produced by the latex tool chain in the temporary directories. */
+	private static final String TMP_NAME = "drawing"; //NON-NLS
+
 	protected final @NotNull Drawing drawing;
 	protected final @NotNull ViewsSynchroniserHandler handler;
 	protected final @NotNull LaTeXDataService latexdata;
@@ -40,6 +57,8 @@ public abstract class LaTeXGenerator {
 	protected boolean withLatexParams;
 	/** Defines whether the comments must be generated. */
 	protected boolean withComments;
+	/** Notified when the creation of a PS, EPS, or PDF file enters a new stage. */
+	private @NotNull Consumer<ExportStage> stageListener;
 
 
 	/**
@@ -52,20 +71,102 @@ public abstract class LaTeXGenerator {
 		this.latexdata = Objects.requireNonNull(latexdata);
 		withComments = true;
 		withLatexParams = true;
+		stageListener = stage -> { };
+	}
+
+	/**
+	 * Sets the listener notified (in the thread that creates the file) when the creation of a PS, EPS, or PDF file enters a new stage.
+	 * The creation of these files can be cancelled by interrupting this thread: the running processes are killed and no error is reported.
+	 * @param listener The listener.
+	 */
+	public void setStageListener(final @NotNull Consumer<ExportStage> listener) {
+		stageListener = Objects.requireNonNull(listener);
 	}
 
+	/**
+	 * @return True if the thread that creates a file has been interrupted.
+	 */
+	private static boolean isCancelled() {
+		return Thread.currentThread().isInterrupted();
+	}
+
+	/**
+	 * Produces the code and writes it into the given output as it is generated.
+	 * @param out The output where the code is written.
+	 * @throws IOException If the output cannot be written.
+	 */
+	public abstract void writeDrawingCode(final @NotNull Appendable out) throws IOException;
+
+
+	/**
+	 * Generates a latex document that contains the pstricks code of the given canvas
+	 * and writes it into the given output as it is generated.
+	 * @param out The output where the document is written.
+	 * @throws IOException If the output cannot be written.
+	 */
+	public abstract void writeDocumentCode(final @NotNull Appendable out) throws IOException;
+
+
 	/**
 	 * Produces and returns the code.
+	 * For large drawings, prefer writeDrawingCode that does not build the whole code in memory.
 	 * @return The generate code.
 	 */
-	public abstract String getDrawingCode();
+	public String getDrawingCode() {
+		final StringBuilder code = new StringBuilder();
+		try {
+			writeDrawingCode(code);
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+		return code.toString();
+	}
+
+
+	/**
+	 * Produces the code split into lines.
+	 * @return The lines of the code. The location of the code of the shapes is not known unless the generator supports it.
+	 */
+	public @NotNull DrawingCodeLines getDrawingCodeLines() {
+		return new DrawingCodeLines(getDrawingCode().lines().collect(Collectors.toList()), Collections.emptyMap());
+	}
+
+
+	/**
+	 * Produces the code that precedes and the code that follows the code of the shapes and of their colours,
+	 * to update the code given by getDrawingCodeLines after modifications of the drawing.
+	 * @return The lines of the header and of the footer. Empty lists unless the generator supports it.
+	 */
+	public @NotNull Tuple<List<String>, List<String>> getDrawingHeaderFooterLines() {
+		return new Tuple<>(Collections.emptyList(), Collections.emptyList());
+	}
+
+
+	/**
+	 * Produces the code of a shape of the drawing split into lines, to update the code given by getDrawingCodeLines
+	 * after modifications of this shape.
+	 * @param shape The modified shape of the drawing.
+	 * @return The lines of the code of the shape, or nothing if the whole code must be produced again (always the case unless the generator supports it).
+	 */
+	public @NotNull Optional<List<String>> getShapeCodeLines(final @NotNull Shape shape) {
+		return Optional.empty();
+	}
 
 
 	/**
 	 * Generates a latex document that contains the pstricks code of the given canvas.
 	 * @return The latex document or an empty string.
 	 */
-	public abstract String getDocumentCode();
+	public String getDocumentCode() {
+		final StringBuilder code = new StringBuilder();
+		try {
+			writeDocumentCode(code);
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+		return code.toString();
+	}
+
 
 	/**
 	 * Create a .ps file that corresponds to the compiled latex document containing
@@ -74,7 +175,10 @@ public abstract class LaTeXGenerator {
 	 * @return The create file or nothing.
 	 */
 	public Optional<File> createPSFile(final String pathExportPs) {
-		return createPSFile(pathExportPs, null);
+		if(pathExportPs == null) {
+			return Optional.empty();
+		}
+		return createFile(pathExportPs, tmpDir -> compilePS(tmpDir).map(ps -> ps.b));
 	}
 
 
@@ -85,176 +189,182 @@ public abstract class LaTeXGenerator {
 	 * @throws SecurityException In case of problem while accessing files.
 	 */
 	public Optional<File> createEPSFile(final String pathExportEPS) {
-		final Optional<File> optDir = SystemUtils.getInstance().createTempDir();
-
-		if(optDir.isEmpty()) {
-			BadaboomCollector.INSTANCE.add(new FileNotFoundException("Cannot create a tmp dir"));
-			return Optional.empty();
-		}
-
-		final File tmpDir = optDir.get();
-		final Optional<File> optFile = createPSFile(tmpDir.getAbsolutePath() + SystemUtils.getInstance().FILE_SEP + "tmpPSFile.ps", tmpDir); //NON-NLS
-
-		if(optFile.isEmpty()) {
+		if(pathExportEPS == null) {
 			return Optional.empty();
 		}
+		return createFile(pathExportEPS, tmpDir -> compilePS(tmpDir).flatMap(ps -> {
+			final OperatingSystem os = SystemUtils.getInstance().getSystem().orElse(OperatingSystem.LINUX);
+			final String key = CompiledArtifactCache.INSTANCE.key(ps.a,
+				CompiledArtifactCache.INSTANCE.getToolVersion(os.getPS2EPSBinPath(), () -> SystemUtils.getInstance().getPS2EPSVersion()));
+			final File fileEPS = new File(tmpDir, TMP_NAME + ExportFormat.EPS_LATEX.getFileExtension());
+			return convert(key, fileEPS, tmpDir, ExportStage.CONVERT, new String[] {os.getPS2EPSBinPath(), ps.b.toString(), fileEPS.getAbsolutePath()}, "");
+		}));
+	}
 
-		final File psFile = optFile.get();
-		final OperatingSystem os = SystemUtils.getInstance().getSystem().orElse(OperatingSystem.LINUX);
-		final File finalFile = new File(pathExportEPS);
-		final File fileEPS = new File(psFile.getAbsolutePath().replace(".ps", ExportFormat.EPS_LATEX.getFileExtension())); //NON-NLS
-		final String[] paramsLatex = {os.getPS2EPSBinPath(), psFile.getAbsolutePath(), fileEPS.getAbsolutePath()};
-		final String log = SystemUtils.getInstance().execute(paramsLatex, tmpDir).b;
-
-		if(!fileEPS.exists()) {
-			BadaboomCollector.INSTANCE.add(new IllegalAccessException(getDocumentCode() + SystemUtils.getInstance().EOL + log));
-			return Optional.empty();
-		}
 
-		try {
-			Files.copy(fileEPS.toPath(), finalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-		}catch(final IOException ex) {
-			BadaboomCollector.INSTANCE.add(ex);
+	/**
+	 * Create a .pdf file that corresponds to the compiled latex document containing
+	 * the pstricks drawing.
+	 * @param pathExportPdf The path of the .pdf file to create (MUST ends with .pdf).
+	 * @param crop if true, the output document will be cropped.
+	 * @return The create file or null.
+	 * @throws SecurityException In case of problem while accessing files.
+	 */
+	public Optional<File> createPDFFile(final String pathExportPdf, final boolean crop) {
+		if(pathExportPdf == null) {
 			return Optional.empty();
 		}
 
-		SystemUtils.getInstance().removeDirWithContent(tmpDir.getPath());
+		return createFile(pathExportPdf, tmpDir -> compilePS(tmpDir).flatMap(ps -> {
+			final OperatingSystem os = SystemUtils.getInstance().getSystem().orElse(OperatingSystem.LINUX);
+			// On windows, an option must be defined using this format:
+			// -optionName#valueOption Thus, the classical = character must be replaced by a # when latexdraw runs on Windows.
+			final String optionEmbed = "-dEmbedAllFonts" + (SystemUtils.getInstance().isWindows() ? "#" : "=") + "true"; //NON-NLS
+			final String key = CompiledArtifactCache.INSTANCE.key(ps.a, optionEmbed,
+				CompiledArtifactCache.INSTANCE.getToolVersion(os.getPs2pdfBinPath(), () -> SystemUtils.getInstance().getPS2PDFVersion()));
+			final File pdfFile = new File(tmpDir, TMP_NAME + ExportFormat.PDF.getFileExtension());
+			final Optional<Path> pdf = convert(key, pdfFile, tmpDir, ExportStage.CONVERT,
+				new String[] {os.getPs2pdfBinPath(), optionEmbed, ps.b.toString(), pdfFile.getAbsolutePath()}, "");
+
+			if(!crop || pdf.isEmpty()) {
+				return pdf;
+			}
 
-		return Optional.of(finalFile);
+			final String cropKey = CompiledArtifactCache.INSTANCE.key(key,
+				CompiledArtifactCache.INSTANCE.getToolVersion(os.getPdfcropBinPath(), () -> SystemUtils.getInstance().getPDFCROPVersion()));
+			final File cropFile = new File(tmpDir, TMP_NAME + "-crop" + ExportFormat.PDF.getFileExtension()); //NON-NLS
+			return convert(cropKey, cropFile, tmpDir, ExportStage.CONVERT, new String[] {os.getPdfcropBinPath(), pdf.get().toString(), cropFile.getAbsolutePath()},
+				" If you use Windows, you must have a Perl interpretor installed, such as strawberryPerl (http://strawberryperl.com/)"); //NON-NLS
+		}));
 	}
 
 
 	/**
-	 * Create a .ps file that corresponds to the compiled latex document containing
-	 * the pstricks drawing.
-	 * @param pathExportPs The path of the .ps file to create (MUST ends with .ps).
-	 * @param tmpDir The temporary directory used for the compilation.
-	 * @return The create file or nothing.
+	 * Creates a file from the artifact produced in a scratch directory. The scratch directory is then released.
+	 * @param path The path of the file to create.
+	 * @param producer Produces the artifact (cached or not) using the given scratch directory.
+	 * @return The created file or nothing.
 	 */
-	private Optional<File> createPSFile(final String pathExportPs, final File tmpDir) {
-		if(pathExportPs == null) {
-			return Optional.empty();
-		}
-
-		final int lastSep = pathExportPs.lastIndexOf(SystemUtils.getInstance().FILE_SEP) + 1;
-		final String name = pathExportPs.substring(lastSep, pathExportPs.lastIndexOf(".ps")); //NON-NLS
-		final File tmpDir2 = tmpDir == null ? SystemUtils.getInstance().createTempDir().orElse(null) : tmpDir;
+	private Optional<File> createFile(final String path, final Function<File, Optional<Path>> producer) {
+		final Optional<ProcessRunner.ScratchDir> optDir = ProcessRunner.INSTANCE.acquireScratchDir();
 
-		if(tmpDir2 == null) {
+		if(optDir.isEmpty()) {
 			BadaboomCollector.INSTANCE.add(new FileNotFoundException("Cannot create a temporary folder.")); //NON-NLS
 			return Optional.empty();
 		}
 
-		final String path = tmpDir2.getAbsolutePath() + SystemUtils.getInstance().FILE_SEP;
-		final Optional<File> optFile = SystemUtils.getInstance().saveFile(path + name + ExportFormat.TEX.getFileExtension(), getDocumentCode());
-
-		if(optFile.isEmpty()) {
-			return Optional.empty();
+		try(final ProcessRunner.ScratchDir tmpDir = optDir.get()) {
+			return producer.apply(tmpDir.getDir()).flatMap(artifact -> {
+				if(isCancelled()) {
+					return Optional.empty();
+				}
+				stageListener.accept(ExportStage.WRITE);
+				try {
+					return Optional.of(Files.copy(artifact, Path.of(path), StandardCopyOption.REPLACE_EXISTING).toFile());
+				}catch(final IOException ex) {
+					BadaboomCollector.INSTANCE.add(ex);
+					return Optional.empty();
+				}
+			});
 		}
+	}
 
-		final File texFile = optFile.get();
-		String log;
-		File finalPS;
+
+	/**
+	 * Compiles the latex document into a PS document, unless the same document has already been compiled.
+	 * @param tmpDir The scratch directory used for the compilation.
+	 * @return The key of the PS document in the cache and its file, or nothing.
+	 */
+	private Optional<Tuple<String, Path>> compilePS(final File tmpDir) {
+		stageListener.accept(ExportStage.GENERATE);
+		final String code = getDocumentCode();
 		final Point tr = handler.getTopRightDrawingPoint();
 		final Point bl = handler.getBottomLeftDrawingPoint();
 		final int ppc = handler.getPPCDrawing();
 		final float dec = 0.2f;
 		final OperatingSystem os = SystemUtils.getInstance().getSystem().orElse(OperatingSystem.LINUX);
-
-		if(!texFile.exists()) {
-			return Optional.empty();
+		final String size = (tr.getX() - bl.getX()) / ppc * latexdata.getScale() + dec + "cm," + //NON-NLS
+			((bl.getY() - tr.getY()) / ppc * latexdata.getScale() + dec) + "cm"; //NON-NLS
+		final String key = CompiledArtifactCache.INSTANCE.key(getIncludedFiles(drawing.getShapes()).collect(Collectors.toList()), code, size,
+			CompiledArtifactCache.INSTANCE.getToolVersion(os.getLatexBinPath(), () -> SystemUtils.getInstance().getLaTeXVersion()),
+			CompiledArtifactCache.INSTANCE.getToolVersion(os.getDvipsBinPath(), () -> SystemUtils.getInstance().getDVIPSVersion()));
+		final File psFile = new File(tmpDir, TMP_NAME + ".ps"); //NON-NLS
+		final Optional<Path> cached = CompiledArtifactCache.INSTANCE.get(key, psFile.toPath());
+
+		if(cached.isPresent()) {
+			return Optional.of(new Tuple<>(key, cached.get()));
 		}
 
-		final String[] paramsLatex = {os.getLatexBinPath(), "--interaction=nonstopmode", "--output-directory=" + tmpDir2.getAbsolutePath(), //NON-NLS
-			SystemUtils.getInstance().normalizeForLaTeX(texFile.getAbsolutePath())}; //NON-NLS
-		log = SystemUtils.getInstance().execute(paramsLatex, tmpDir2).b;
-
-		final String[] paramsDvi = {os.getDvipsBinPath(), "-Pdownload35", "-T", //NON-NLS
-			(tr.getX() - bl.getX()) / ppc * latexdata.getScale() + dec + "cm," + ((bl.getY() - tr.getY()) / ppc * latexdata.getScale() + dec) + "cm", //NON-NLS
-			name, "-o", pathExportPs}; //NON-NLS
-		log += SystemUtils.getInstance().execute(paramsDvi, tmpDir2);
+		final File texFile = new File(tmpDir, TMP_NAME + ExportFormat.TEX.getFileExtension());
 
-		finalPS = new File(pathExportPs);
-
-		if(!finalPS.exists()) {
-			BadaboomCollector.INSTANCE.add(new IllegalAccessException(getDocumentCode() + SystemUtils.getInstance().EOL + log));
-			finalPS = null;
+		if(SystemUtils.getInstance().saveFile(texFile.getAbsolutePath(), code).isEmpty()) {
+			return Optional.empty();
 		}
 
-		if(tmpDir == null) {
-			SystemUtils.getInstance().removeDirWithContent(tmpDir2.getPath());
-		}
+		final String[] paramsLatex = {os.getLatexBinPath(), "--interaction=nonstopmode", "--output-directory=" + tmpDir.getAbsolutePath(), //NON-NLS
+			SystemUtils.getInstance().normalizeForLaTeX(texFile.getAbsolutePath())}; //NON-NLS
+		stageListener.accept(ExportStage.COMPILE);
+		final String log = ProcessRunner.INSTANCE.execute(paramsLatex, tmpDir).b;
+		final String[] paramsDvi = {os.getDvipsBinPath(), "-Pdownload35", "-T", size, TMP_NAME, "-o", psFile.getAbsolutePath()}; //NON-NLS
 
-		return Optional.ofNullable(finalPS);
+		return convert(key, psFile, tmpDir, ExportStage.CONVERT, paramsDvi, log).map(ps -> new Tuple<>(key, ps));
 	}
 
 
 	/**
-	 * Create a .pdf file that corresponds to the compiled latex document containing
-	 * the pstricks drawing.
-	 * @param pathExportPdf The path of the .pdf file to create (MUST ends with .pdf).
-	 * @param crop if true, the output document will be cropped.
-	 * @return The create file or null.
-	 * @throws SecurityException In case of problem while accessing files.
+	 * Runs a tool of the latex tool chain and caches the produced file, unless the file is already cached.
+	 * @param key The key of the file in the cache.
+	 * @param output The file produced by the tool.
+	 * @param tmpDir The temporary directory used by the tool.
+	 * @param stage The stage of the creation the tool corresponds to.
+	 * @param cmd The command to execute.
+	 * @param log The log of the previous tools or a hint for the user, reported if the tool fails.
+	 * @return The produced file (or a copy of the cached one, in the given output file) or nothing.
 	 */
-	public Optional<File> createPDFFile(final String pathExportPdf, final boolean crop) {
-		if(pathExportPdf == null) {
-			return Optional.empty();
-		}
+	private Optional<Path> convert(final String key, final File output, final File tmpDir, final ExportStage stage, final String[] cmd, final String log) {
+		final Optional<Path> cached = CompiledArtifactCache.INSTANCE.get(key, output.toPath());
 
-		final Optional<File> optDir = SystemUtils.getInstance().createTempDir();
+		if(cached.isPresent()) {
+			return cached;
+		}
 
-		if(optDir.isEmpty()) {
-			BadaboomCollector.INSTANCE.add(new FileNotFoundException("Cannot create a temporary folder.")); //NON-NLS
+		if(isCancelled()) {
 			return Optional.empty();
 		}
 
-		final File tmpDir = optDir.get();
-		final String name = pathExportPdf.substring(pathExportPdf.lastIndexOf(SystemUtils.getInstance().FILE_SEP) + 1, pathExportPdf.lastIndexOf(ExportFormat.PDF.getFileExtension()));
-		final File psFile;
-		final Optional<File> optFile = createPSFile(tmpDir.getAbsolutePath() + SystemUtils.getInstance().FILE_SEP + name + ".ps"); //NON-NLS
+		stageListener.accept(stage);
+		final String toolLog = ProcessRunner.INSTANCE.execute(cmd, tmpDir).b;
 
-		if(optFile.isPresent()) {
-			psFile = optFile.get();
-		}else {
+		if(isCancelled()) {
 			return Optional.empty();
 		}
 
-		String log;
-		File pdfFile;
-		final OperatingSystem os = SystemUtils.getInstance().getSystem().orElse(OperatingSystem.LINUX);
-
-		// On windows, an option must be defined using this format:
-		// -optionName#valueOption Thus, the classical = character must be replaced by a # when latexdraw runs on Windows.
-		final String optionEmbed = "-dEmbedAllFonts" + (SystemUtils.getInstance().isWindows() ? "#" : "=") + "true"; //NON-NLS
-
-		log = SystemUtils.getInstance().execute(new String[] {os.getPs2pdfBinPath(), optionEmbed, psFile.getAbsolutePath(),
-			crop ? name + ExportFormat.PDF.getFileExtension() : pathExportPdf}, tmpDir).b;
-
-		if(crop) {
-			pdfFile = new File(tmpDir.getAbsolutePath() + SystemUtils.getInstance().FILE_SEP + name + ExportFormat.PDF.getFileExtension());
-			log = SystemUtils.getInstance().execute(new String[] {os.getPdfcropBinPath(), pdfFile.getAbsolutePath(), pdfFile.getAbsolutePath()}, tmpDir).b;
-			try {
-				Files.move(pdfFile.toPath(), Paths.get(pathExportPdf), StandardCopyOption.REPLACE_EXISTING);
-			}catch(final IOException ex) {
-				BadaboomCollector.INSTANCE.add(ex);
-				log += " The final pdf document cannot be moved to its final destination. If you use Windows, you must have a Perl interpretor installed, such as strawberryPerl (http://strawberryperl.com/)"; //NON-NLS
-			}
+		if(!output.exists()) {
+			BadaboomCollector.INSTANCE.add(new IllegalAccessException(getDocumentCode() + SystemUtils.getInstance().EOL + log + toolLog));
+			return Optional.empty();
 		}
 
-		pdfFile = new File(pathExportPdf);
-
-		if(!pdfFile.exists()) {
-			BadaboomCollector.INSTANCE.add(new IllegalAccessException(getDocumentCode() + SystemUtils.getInstance().EOL + log));
-			pdfFile = null;
-		}
+		CompiledArtifactCache.INSTANCE.put(key, output.toPath());
+		return Optional.of(output.toPath());
+	}
 
-		SystemUtils.getInstance().removeDirWithContent(tmpDir.getPath());
 
-		return Optional.ofNullable(pdfFile);
+	/**
+	 * @param shapes The shapes to look at (recursively).
+	 * @return The files the code of the given shapes includes (the EPS files of the pictures).
+	 */
+	private static Stream<Path> getIncludedFiles(final List<Shape> shapes) {
+		return shapes.stream().flatMap(sh -> {
+			if(sh instanceof Group) {
+				return getIncludedFiles(((Group) sh).getShapes());
+			}
+			if(sh instanceof Picture && ((Picture) sh).getPathTarget() != null) {
+				return Stream.of(Path.of(((Picture) sh).getPathTarget()));
+			}
+			return Stream.empty();
+		});
 	}
 
-
 	/**
 	 * @return True: The latex parameters must be used by the generated code.
 	 */
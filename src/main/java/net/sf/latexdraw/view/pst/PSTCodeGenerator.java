@@ -10,16 +10,33 @@
  */
 package net.sf.latexdraw.view.pst;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import net.sf.latexdraw.model.MathUtils;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Color;
 import net.sf.latexdraw.model.api.shape.Drawing;
 import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.service.LaTeXDataService;
+import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.util.Inject;
 import net.sf.latexdraw.util.SystemUtils;
+import net.sf.latexdraw.util.Tuple;
 import net.sf.latexdraw.view.ViewsSynchroniserHandler;
+import net.sf.latexdraw.view.latex.DrawingCodeLines;
+import net.sf.latexdraw.view.latex.DviPsColors;
 import net.sf.latexdraw.view.latex.LaTeXGenerator;
 import net.sf.latexdraw.view.latex.VerticalPosition;
 import org.jetbrains.annotations.NotNull;
@@ -29,6 +46,11 @@ import org.jetbrains.annotations.NotNull;
  * @author Arnaud Blouin
  */
 public class PSTCodeGenerator extends LaTeXGenerator {
+	/** From this number of shapes, the shapes are converted concurrently. */
+	private static final int PARALLEL_THRESHOLD = 200;
+	/** The code of a shape that cannot be generated concurrently since it needs new colours. */
+	private static final ShapeCode INCOMPLETE_CODE = new ShapeCode(0L, 0d, 0d, 0, "", Collections.emptyMap());
+
 	private final String packagePstricks = "% \\usepackage[usenames,dvipsnames]{pstricks}" + SystemUtils.getInstance().EOL + //NON-NLS
 		"% \\usepackage{pstricks-add}" + SystemUtils.getInstance().EOL + "% \\usepackage{epsfig}" + SystemUtils.getInstance().EOL + "% \\usepackage{pst-grad} % For gradients" + //NON-NLS
 		SystemUtils.getInstance().EOL + "% \\usepackage{pst-plot} % For axes" + SystemUtils.getInstance().EOL; //NON-NLS
@@ -38,6 +60,11 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 		"\\patchcmd\\Gread@eps{\\@inputcheck#1 }{\\@inputcheck\"#1\"\\relax}{}{}" + SystemUtils.getInstance().EOL + "\\makeatother" + SystemUtils.getInstance().EOL; //NON-NLS
 
 	private final @NotNull PSTViewsFactory viewsFactory;
+	/**
+	 * The PST code of the shapes of the drawing generated during the previous generation.
+	 * Reused for the shapes not modified since. Also used as the lock of the cache.
+	 */
+	private final @NotNull Map<Shape, ShapeCode> shapesCode;
 
 	/**
 	 * Creates and initialises the generator.
@@ -46,12 +73,54 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 	public PSTCodeGenerator(final Drawing drawing, final ViewsSynchroniserHandler handler, final PSTViewsFactory viewsFactory, final LaTeXDataService latexdata) {
 		super(drawing, handler, latexdata);
 		this.viewsFactory = Objects.requireNonNull(viewsFactory);
+		shapesCode = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Creates a generator of a copy of the current drawing: the shapes, the dimensions of the drawing, and the LaTeX data are copied.
+	 * So, the snapshot can generate code or files in background while the drawing is modified.
+	 * Must be called in the thread that modifies the drawing.
+	 * @return The created generator.
+	 */
+	public @NotNull PSTCodeGenerator createSnapshot() {
+		final Drawing copy = ShapeFactory.INST.createDrawing();
+		drawing.getShapes().forEach(sh -> copy.addShape(sh.duplicate()));
+
+		final Point tr = ShapeFactory.INST.createPoint(handler.getTopRightDrawingPoint());
+		final Point bl = ShapeFactory.INST.createPoint(handler.getBottomLeftDrawingPoint());
+		final Point origin = ShapeFactory.INST.createPoint(handler.getOriginDrawingPoint());
+		final int ppc = handler.getPPCDrawing();
+		final PSTCodeGenerator snapshot = new PSTCodeGenerator(copy, new ViewsSynchroniserHandler() {
+			// New points are returned since the generation may modify them.
+			@Override
+			public Point getTopRightDrawingPoint() {
+				return ShapeFactory.INST.createPoint(tr);
+			}
+
+			@Override
+			public Point getBottomLeftDrawingPoint() {
+				return ShapeFactory.INST.createPoint(bl);
+			}
+
+			@Override
+			public Point getOriginDrawingPoint() {
+				return ShapeFactory.INST.createPoint(origin);
+			}
+
+			@Override
+			public int getPPCDrawing() {
+				return ppc;
+			}
+		}, viewsFactory, latexdata.duplicate());
+
+		snapshot.setWithComments(withComments);
+		snapshot.setWithLatexParams(withLatexParams);
+		return snapshot;
 	}
 
 
 	@Override
-	public String getDocumentCode() {
-		final StringBuilder doc = new StringBuilder();
+	public void writeDocumentCode(final @NotNull Appendable doc) throws IOException {
 		final Point bl = handler.getBottomLeftDrawingPoint();
 		final Point tr = handler.getTopRightDrawingPoint();
 		final float ppc = handler.getPPCDrawing();
@@ -64,23 +133,23 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 		doc.append("\\documentclass{article}").append(SystemUtils.getInstance().EOL).append("\\pagestyle{empty}"). //NON-NLS
 			append(SystemUtils.getInstance().EOL).append(latexdata.getPackages()). //NON-NLS
 			append(SystemUtils.getInstance().EOL).append("\\usepackage[left=0cm,top=0.1cm,right=0cm,bottom=0cm,nohead,nofoot,paperwidth="). //NON-NLS
-			append(tr.getX() / ppc * latexdata.getScale()).append("cm,paperheight=").append(bl.getY() / ppc * latexdata.getScale() + 0.2).append("cm]{geometry}").append(SystemUtils.getInstance().EOL). //NON-NLS
+			append(String.valueOf(tr.getX() / ppc * latexdata.getScale())).append("cm,paperheight=").append(String.valueOf(bl.getY() / ppc * latexdata.getScale() + 0.2)).append("cm]{geometry}").append(SystemUtils.getInstance().EOL). //NON-NLS
 			append("\\usepackage[usenames,dvipsnames]{pstricks}").append(SystemUtils.getInstance().EOL).append("\\usepackage{epsfig}").append(SystemUtils.getInstance().EOL). //NON-NLS
 			append("\\usepackage{pst-grad}").append(SystemUtils.getInstance().EOL).append("\\usepackage{pst-plot}").append(SystemUtils.getInstance().EOL). //NON-NLS
 			append(packageForSpacePicture).append("\\begin{document}").append(SystemUtils.getInstance().EOL). //NON-NLS
 			append("\\addtolength{\\oddsidemargin}{-0.2in}").append(SystemUtils.getInstance().EOL).append("\\addtolength{\\evensidemargin}{-0.2in}"). //NON-NLS
-			append(SystemUtils.getInstance().EOL).append(getDrawingCode()).append(SystemUtils.getInstance().EOL).append("\\end{document}"); //NON-NLS
-
-		return doc.toString();
+			append(SystemUtils.getInstance().EOL);
+		writeDrawingCode(doc);
+		doc.append(SystemUtils.getInstance().EOL).append("\\end{document}"); //NON-NLS
 	}
 
-	private void commentCode(final @NotNull StringBuilder cache) {
+	private void commentCode(final @NotNull Appendable cache) throws IOException {
 		if(withComments && !latexdata.getComment().isEmpty()) {
 			cache.append(latexdata.getCommentWithTag());
 		}
 	}
 
-	private void addPkgs(final @NotNull StringBuilder cache) {
+	private void addPkgs(final @NotNull Appendable cache) throws IOException {
 		String pkg = latexdata.getPackages();
 
 		if(!pkg.isEmpty()) {
@@ -89,7 +158,7 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 		}
 	}
 
-	private boolean startlatexParams(final @NotNull StringBuilder cache) {
+	private boolean startlatexParams(final @NotNull Appendable cache) throws IOException {
 		if(!withLatexParams) {
 			return false;
 		}
@@ -105,7 +174,7 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 		return true;
 	}
 
-	private void endlatexParams(final @NotNull StringBuilder cache, final boolean hasBegan) {
+	private void endlatexParams(final @NotNull Appendable cache, final boolean hasBegan) throws IOException {
 		if(withLatexParams) {
 			if(latexdata.isPositionHoriCentre()) {
 				cache.append("\\end{center}").append(SystemUtils.getInstance().EOL); //NON-NLS
@@ -123,18 +192,115 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 	}
 
 	@Override
-	public String getDrawingCode() {
+	public void writeDrawingCode(final @NotNull Appendable cache) throws IOException {
 		if(drawing.isEmpty()) {
-			return "";
+			return;
 		}
 
-		final StringBuilder cache = new StringBuilder();
 		final Point origin = handler.getOriginDrawingPoint();
+		final int ppc = handler.getPPCDrawing();
+		final boolean hasBegan = writeDrawingHeader(cache, origin, ppc);
+
+		synchronized(shapesCode) {
+			final List<Optional<ShapeCode>> codes = updateShapesCode(drawing.getShapes(), origin, ppc);
+			writeColoursCode(cache, codes);
+			for(final Optional<ShapeCode> code : codes) {
+				if(code.isPresent()) {
+					cache.append(code.get().code).append(SystemUtils.getInstance().EOL);
+				}
+			}
+		}
+
+		writeDrawingFooter(cache, hasBegan);
+	}
+
+	/**
+	 * Produces the code split into lines. The code of the shapes not modified since the previous generation
+	 * is neither generated nor split again.
+	 * @return The lines of the code and the location of the code of each shape.
+	 */
+	@Override
+	public @NotNull DrawingCodeLines getDrawingCodeLines() {
+		if(drawing.isEmpty()) {
+			return new DrawingCodeLines(Collections.emptyList(), Collections.emptyMap());
+		}
+
+		final Point origin = handler.getOriginDrawingPoint();
+		final int ppc = handler.getPPCDrawing();
+		final StringBuilder header = new StringBuilder();
+		final StringBuilder footer = new StringBuilder();
+		final List<String> lines = new ArrayList<>();
+		final Map<Shape, Tuple<Integer, Integer>> shapesLines = new IdentityHashMap<>();
+		int headerSize = 0;
+
+		try {
+			final boolean hasBegan = writeDrawingHeader(header, origin, ppc);
+			headerSize = (int) header.lines().count();
+
+			synchronized(shapesCode) {
+				final List<Shape> shapes = drawing.getShapes();
+				final List<Optional<ShapeCode>> codes = updateShapesCode(shapes, origin, ppc);
+				writeColoursCode(header, codes);
+				header.lines().forEach(line -> lines.add(line));
+
+				IntStream.range(0, shapes.size()).forEach(i -> codes.get(i).ifPresent(code -> {
+					final int first = lines.size();
+					lines.addAll(code.getLines());
+					shapesLines.put(shapes.get(i), new Tuple<>(first, lines.size()));
+				}));
+			}
+
+			writeDrawingFooter(footer, hasBegan);
+			footer.lines().forEach(line -> lines.add(line));
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+
+		return new DrawingCodeLines(lines, shapesLines, headerSize, (int) footer.lines().count());
+	}
+
+	@Override
+	public @NotNull Tuple<List<String>, List<String>> getDrawingHeaderFooterLines() {
+		final StringBuilder header = new StringBuilder();
+		final StringBuilder footer = new StringBuilder();
+
+		try {
+			writeDrawingFooter(footer, writeDrawingHeader(header, handler.getOriginDrawingPoint(), handler.getPPCDrawing()));
+		}catch(final IOException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+		}
+
+		return new Tuple<>(header.lines().collect(Collectors.toList()), footer.lines().collect(Collectors.toList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The code of the shape is generated again only if the shape has been modified since the previous generation.
+	 * Nothing is given if the shape had no code in the previous generation or if its new code does not use the same colours:
+	 * the definitions of the colours of the drawing change.
+	 */
+	@Override
+	public @NotNull Optional<List<String>> getShapeCodeLines(final @NotNull Shape shape) {
+		synchronized(shapesCode) {
+			final ShapeCode previous = shapesCode.get(shape);
+
+			if(previous == null) {
+				return Optional.empty();
+			}
+
+			final Optional<ShapeCode> code = getShapeCode(shape, handler.getOriginDrawingPoint(), handler.getPPCDrawing(), false);
+			code.ifPresent(c -> shapesCode.put(shape, c));
+			return code.filter(c -> c.colours.keySet().equals(previous.colours.keySet())).map(ShapeCode::getLines);
+		}
+	}
+
+	/**
+	 * Writes the code that precedes the code of the shapes: comments, packages, beginning of the picture, etc.
+	 * @return True if a figure has been started.
+	 */
+	private boolean writeDrawingHeader(final @NotNull Appendable cache, final @NotNull Point origin, final int ppc) throws IOException {
 		final Point tl = handler.getTopRightDrawingPoint();
 		final Point br = handler.getBottomLeftDrawingPoint();
-		final int ppc = handler.getPPCDrawing();
-		final Set<String> addedColours = new HashSet<>();
-		final StringBuilder shapeCode = new StringBuilder();
 
 		commentCode(cache);
 
@@ -151,22 +317,148 @@ public class PSTCodeGenerator extends LaTeXGenerator {
 		}
 
 		final float scaleF = MathUtils.INST.getCutNumberFloat(latexdata.getScale());
-		cache.append("\\psscalebox{").append(scaleF).append(' ').append(scaleF).append("} % Change this value to rescale the drawing."); //NON-NLS
+		cache.append("\\psscalebox{").append(String.valueOf(scaleF)).append(' ').append(String.valueOf(scaleF)).append("} % Change this value to rescale the drawing."); //NON-NLS
 		cache.append(SystemUtils.getInstance().EOL).append('{').append(SystemUtils.getInstance().EOL);
 		cache.append("\\begin{pspicture}("); //NON-NLS
-		cache.append(0).append(',').append(MathUtils.INST.getCutNumberFloat((origin.getY() - br.getY()) / ppc)).append(')').append('(');
-		cache.append(MathUtils.INST.getCutNumberFloat((tl.getX() - origin.getX()) / ppc)).append(',').append(MathUtils.INST.getCutNumberFloat((origin.getY() - tl.getY()) / ppc));
+		cache.append('0').append(',').append(String.valueOf(MathUtils.INST.getCutNumberFloat((origin.getY() - br.getY()) / ppc))).append(')').append('(');
+		cache.append(String.valueOf(MathUtils.INST.getCutNumberFloat((tl.getX() - origin.getX()) / ppc))).append(',').
+			append(String.valueOf(MathUtils.INST.getCutNumberFloat((origin.getY() - tl.getY()) / ppc)));
 		cache.append(')').append(SystemUtils.getInstance().EOL);
 
-		drawing.getShapes().forEach(shape -> viewsFactory.createView(shape).ifPresent(pstView -> {
-			shapeCode.append(pstView.getCode(origin, ppc)).append(SystemUtils.getInstance().EOL);
-			cache.append(pstView.generateColourCode(addedColours)).append(SystemUtils.getInstance().EOL);
-		}));
+		return hasBegan;
+	}
 
-		cache.append(shapeCode).append("\\end{pspicture}").append(SystemUtils.getInstance().EOL).append('}').append(SystemUtils.getInstance().EOL); //NON-NLS
+	/**
+	 * Writes the code that follows the code of the shapes: end of the picture, latex parameters, etc.
+	 */
+	private void writeDrawingFooter(final @NotNull Appendable cache, final boolean hasBegan) throws IOException {
+		cache.append("\\end{pspicture}").append(SystemUtils.getInstance().EOL).append('}').append(SystemUtils.getInstance().EOL); //NON-NLS
 
 		endlatexParams(cache, hasBegan);
+	}
+
+	/**
+	 * Writes the definitions of the colours of the shapes.
+	 * The colours are defined before the shapes, so the shapes are written once all the colours are known.
+	 */
+	private void writeColoursCode(final @NotNull Appendable cache, final @NotNull List<Optional<ShapeCode>> codes) throws IOException {
+		final Set<String> addedColours = new HashSet<>();
+
+		for(final Optional<ShapeCode> code : codes) {
+			if(code.isPresent()) {
+				cache.append(PSTShapeView.generateColourCode(code.get().colours.keySet(), addedColours)).append(SystemUtils.getInstance().EOL);
+			}
+		}
+	}
+
+	/**
+	 * Gets the code of the given shapes and caches it. The cached code of the removed shapes is forgotten.
+	 * Must be called with the lock of the cache.
+	 * @return The PST code of each shape, in the same order.
+	 */
+	private @NotNull List<Optional<ShapeCode>> updateShapesCode(final @NotNull List<Shape> shapes, final @NotNull Point origin, final int ppc) {
+		final List<Optional<ShapeCode>> codes = getShapesCode(shapes, origin, ppc);
+		final Map<Shape, ShapeCode> generated = new IdentityHashMap<>();
+
+		IntStream.range(0, shapes.size()).forEach(i -> codes.get(i).ifPresent(code -> generated.put(shapes.get(i), code)));
+
+		shapesCode.clear();
+		shapesCode.putAll(generated);
+		return codes;
+	}
 
-		return cache.toString();
+	/**
+	 * Gets the PST code of the given shapes, concurrently for large drawings.
+	 * The output is identical to a sequential generation: the shapes that need new colours are converted again
+	 * sequentially in z-order, since the names of the new colours depend on the order of their definition.
+	 * @param shapes The shapes to convert.
+	 * @param origin The origin of the drawing.
+	 * @param ppc The number of pixels per centimetre of the drawing.
+	 * @return The PST code of each shape, in the same order.
+	 */
+	private @NotNull List<Optional<ShapeCode>> getShapesCode(final @NotNull List<Shape> shapes, final @NotNull Point origin, final int ppc) {
+		if(shapes.size() < PARALLEL_THRESHOLD) {
+			return shapes.stream().map(sh -> getShapeCode(sh, origin, ppc, false)).collect(Collectors.toList());
+		}
+
+		// The colour table is only read during the concurrent generation.
+		final List<Optional<ShapeCode>> codes = shapes.parallelStream().map(sh -> getShapeCode(sh, origin, ppc, true)).collect(Collectors.toList());
+
+		return IntStream.range(0, shapes.size()).mapToObj(i -> codes.get(i).filter(code -> code == INCOMPLETE_CODE).isPresent() ?
+			getShapeCode(shapes.get(i), origin, ppc, false) : codes.get(i)).collect(Collectors.toList());
+	}
+
+	/**
+	 * Gets the PST code of the given shape: the cached one if the shape, its colours and the drawing origin did not change since, or a new one.
+	 * @param shape The shape to convert.
+	 * @param origin The origin of the drawing.
+	 * @param ppc The number of pixels per centimetre of the drawing.
+	 * @param readOnlyColours True: new colours cannot be defined (concurrent generation).
+	 * @return The PST code of the shape or nothing if the shape has no PST view.
+	 * INCOMPLETE_CODE if the shape needs new colours while readOnlyColours is true.
+	 */
+	private @NotNull Optional<ShapeCode> getShapeCode(final @NotNull Shape shape, final @NotNull Point origin, final int ppc, final boolean readOnlyColours) {
+		// The stamp is read before the generation: a modification that occurs during the generation will be caught by the next generation.
+		final long stamp = shape.getModificationStamp();
+		final ShapeCode cached = shapesCode.get(shape);
+
+		if(cached != null && cached.isValid(stamp, origin, ppc)) {
+			return Optional.of(cached);
+		}
+
+		return viewsFactory.createView(shape).map(pstView -> {
+			pstView.readOnlyColours = readOnlyColours;
+			final String code = pstView.getCode(origin, ppc);
+
+			if(pstView.missingColour) {
+				return INCOMPLETE_CODE;
+			}
+
+			final Map<String, Color> colours = new LinkedHashMap<>();
+			pstView.coloursName.forEach(name -> colours.put(name, DviPsColors.INSTANCE.getColour(name).orElse(null)));
+			return new ShapeCode(stamp, origin.getX(), origin.getY(), ppc, code, colours);
+		});
+	}
+
+	/**
+	 * The PST code of a shape and the context of its generation.
+	 */
+	private static final class ShapeCode {
+		/** The modification stamp of the shape when the code was generated. */
+		final long stamp;
+		final double originX;
+		final double originY;
+		final int ppc;
+		final @NotNull String code;
+		/** The names of the colours the code uses and their value at the generation time. */
+		final @NotNull Map<String, Color> colours;
+		/** The lines of the code. Split when first required. */
+		private List<String> lines;
+
+		ShapeCode(final long stamp, final double originX, final double originY, final int ppc, final @NotNull String code, final @NotNull Map<String, Color> colours) {
+			super();
+			this.stamp = stamp;
+			this.originX = originX;
+			this.originY = originY;
+			this.ppc = ppc;
+			this.code = code;
+			this.colours = colours;
+		}
+
+		/**
+		 * @return The lines of the code, split once.
+		 */
+		@NotNull List<String> getLines() {
+			if(lines == null) {
+				lines = (code + SystemUtils.getInstance().EOL).lines().collect(Collectors.toList());
+			}
+			return lines;
+		}
+
+		boolean isValid(final long shapeStamp, final @NotNull Point origin, final int drawingPPC) {
+			return stamp == shapeStamp && ppc == drawingPPC && Double.compare(originX, origin.getX()) == 0 && Double.compare(originY, origin.getY()) == 0 &&
+				// The colour names can be cleared or defined again (e.g. PST import).
+				colours.entrySet().stream().allMatch(col -> Objects.equals(DviPsColors.INSTANCE.getColour(col.getKey()).orElse(null), col.getValue()));
+		}
 	}
 }
@@ -39,9 +39,15 @@ public class PSTGroupView extends PSTShapeView<Group> {
 		final List<PSTShapeView<?>> pstViews = shape.getShapes().stream().map(sh -> producer.createView(sh)).
 			filter(Optional::isPresent).map(opt -> opt.get()).collect(Collectors.toList());
 
+		pstViews.forEach(view -> view.readOnlyColours = readOnlyColours);
+
+		// The colours of the views are known once their code generated.
+		final String code = pstViews.stream().map(v -> v.getCode(origin, ppc)).collect(Collectors.joining("\n"));
+
 		coloursName.clear();
 		coloursName.addAll(pstViews.stream().map(view -> view.coloursName).flatMap(s -> s.stream()).collect(Collectors.toSet()));
+		missingColour = pstViews.stream().anyMatch(view -> view.missingColour);
 
-		return pstViews.stream().map(v -> v.getCode(origin, ppc)).collect(Collectors.joining("\n"));
+		return code;
 	}
 }
@@ -12,14 +12,19 @@ package net.sf.latexdraw.view.pst;
 
 import net.sf.latexdraw.model.MathUtils;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
+import net.sf.latexdraw.util.SystemUtils;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * @author Arnaud Blouin
  */
 public class PSTPlotView extends PSTClassicalView<Plot> {
+	/** The number of data points per line of a \\listplot: a single line would overflow the input buffer of TeX for large series. */
+	static final int POINTS_PER_LINE = 10;
+
 	protected PSTPlotView(final @NotNull Plot model) {
 		super(model);
 	}
@@ -29,6 +34,7 @@ public class PSTPlotView extends PSTClassicalView<Plot> {
 		final StringBuilder params = getPropertiesCode(ppc);
 		final StringBuilder rotation = getRotationHeaderCode(ppc, position);
 		final StringBuilder code = new StringBuilder();
+		final PlotData data = shape.getPlotData();
 
 		if(rotation != null) {
 			code.append(rotation);
@@ -37,10 +43,20 @@ public class PSTPlotView extends PSTClassicalView<Plot> {
 		code.append("\\rput("); //NON-NLS
 		code.append(MathUtils.INST.getCutNumberFloat((shape.getX() - position.getX()) / ppc)).append(',');
 		code.append(MathUtils.INST.getCutNumberFloat((position.getY() - shape.getY()) / ppc)).append(')').append('{');
-		code.append("\\psplot[");    //NON-NLS
-		code.append(params).append(", plotstyle=").append(shape.getPlotStyle().getPSTToken()).append(", plotpoints="). //NON-NLS
-			append(shape.getNbPlottedPoints()).append(", xunit=").append(shape.getXScale()).append(", yunit="). //NON-NLS
-			append(shape.getYScale()).append(", polarplot=").append(shape.isPolar()); //NON-NLS
+		// The data points are exported in full: only their display is decimated.
+		if(data == null) {
+			code.append("\\psplot[");    //NON-NLS
+		}else {
+			code.append("\\listplot[");    //NON-NLS
+		}
+		code.append(params).append(", plotstyle=").append(shape.getPlotStyle().getPSTToken()); //NON-NLS
+		if(data == null) {
+			code.append(", plotpoints=").append(shape.getNbPlottedPoints()); //NON-NLS
+		}
+		code.append(", xunit=").append(shape.getXScale()).append(", yunit=").append(shape.getYScale()); //NON-NLS
+		if(data == null) {
+			code.append(", polarplot=").append(shape.isPolar()); //NON-NLS
+		}
 		if(shape.getPlotStyle() == PlotStyle.DOTS) { //NON-NLS
 			code.append(", dotstyle=").append(shape.getDotStyle().getPSTToken()). //NON-NLS
 				append(", dotsize=").append(MathUtils.INST.getCutNumberFloat(shape.getDiametre() / ppc)); //NON-NLS
@@ -48,8 +64,12 @@ public class PSTPlotView extends PSTClassicalView<Plot> {
 				code.append(", fillcolor=").append(getColourName(shape.getFillingCol())); //NON-NLS
 			}
 		}
-		code.append("]{").append(shape.getPlotMinX()).append("}{").append(shape.getPlotMaxX()).append("}{").
-			append(shape.getPlotEquation()).append('}');
+		if(data == null) {
+			code.append("]{").append(shape.getPlotMinX()).append("}{").append(shape.getPlotMaxX()).append("}{").
+				append(shape.getPlotEquation()).append('}');
+		}else {
+			data.appendCoordinates(code.append("]{"), POINTS_PER_LINE, SystemUtils.getInstance().EOL).append('}');
+		}
 
 		if(rotation != null) {
 			code.append('}');
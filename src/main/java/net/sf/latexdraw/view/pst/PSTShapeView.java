@@ -10,6 +10,7 @@
  */
 package net.sf.latexdraw.view.pst;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -38,6 +39,13 @@ public abstract class PSTShapeView<S extends Shape> {
 	 * the code to define the colours in the latex document.
 	 */
 	protected final @NotNull Set<String> coloursName;
+	/**
+	 * True: the view cannot define new colours, for instance during a concurrent generation
+	 * (the names of the new colours depend on the order of their definition).
+	 */
+	protected boolean readOnlyColours;
+	/** True: the generated code is not valid as the view needed a new colour while readOnlyColours is true. */
+	protected boolean missingColour;
 
 
 	/**
@@ -48,6 +56,8 @@ public abstract class PSTShapeView<S extends Shape> {
 		super();
 		shape = model;
 		coloursName = new HashSet<>();
+		readOnlyColours = false;
+		missingColour = false;
 	}
 
 	/**
@@ -64,7 +74,18 @@ public abstract class PSTShapeView<S extends Shape> {
 	 * @param addedColours The PST colours already generated.
 	 */
 	public @NotNull String generateColourCode(final Set<String> addedColours) {
-		return coloursName.stream().
+		return generateColourCode(coloursName, addedColours);
+	}
+
+
+	/**
+	 * Generates the PST code that defines the given colours.
+	 * @param colours The names of the colours used by a shape.
+	 * @param addedColours The PST colours already generated. Completed with the generated colours.
+	 * @return The definitions of the colours not already generated.
+	 */
+	static @NotNull String generateColourCode(final @NotNull Collection<String> colours, final Set<String> addedColours) {
+		return colours.stream().
 			filter(col -> !addedColours.contains(col) && !DviPsColors.INSTANCE.getPredefinedColour(col).isPresent()).
 			peek(col -> addedColours.add(col)).
 			map(col -> DviPsColors.INSTANCE.getUsercolourCode(col)).
@@ -206,7 +227,13 @@ public abstract class PSTShapeView<S extends Shape> {
 	 * @return The name of a predefined or a newly generated colour.
 	 */
 	protected @NotNull String getColourName(final Color colour) {
-		final String name = DviPsColors.INSTANCE.getColourName(colour).orElseGet(() -> DviPsColors.INSTANCE.addUserColour(colour).orElse(""));
+		final String name = DviPsColors.INSTANCE.getColourName(colour).orElseGet(() -> {
+			if(readOnlyColours) {
+				missingColour = true;
+				return "";
+			}
+			return DviPsColors.INSTANCE.addUserColour(colour).orElse("");
+		});
 		addColour(name);
 		return name;
 	}
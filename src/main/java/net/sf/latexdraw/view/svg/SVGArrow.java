@@ -306,7 +306,7 @@ class SVGArrow implements GenericViewArrow {
 		currentMarker.setAttribute(SVGAttributes.SVG_MARKER_UNITS, SVGAttributes.SVG_UNITS_VALUE_USR);
 
 		if(arrow.getArrowStyle() != ArrowStyle.NONE && !MathUtils.INST.equalsDouble(lineAngle, 0d)) {
-			currentMarker.setAttribute(SVGAttributes.SVG_ORIENT, MathUtils.INST.format.format(Math.toDegrees(lineAngle)));
+			currentMarker.setAttribute(SVGAttributes.SVG_ORIENT, MathUtils.INST.getFormat().format(Math.toDegrees(lineAngle)));
 		}else {
 			currentMarker.setAttribute(SVGAttributes.SVG_ORIENT, SVGAttributes.SVG_VALUE_AUTO);
 		}
@@ -317,9 +317,9 @@ class SVGArrow implements GenericViewArrow {
 			createPathElement();
 			currentPathElt.setAttribute(SVGAttributes.SVG_D, currentPath.toString());
 			currentPathElt.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_ARROW_SIZE_NUM,
-				MathUtils.INST.format.format(arrow.getArrowSizeNum()));
+				MathUtils.INST.getFormat().format(arrow.getArrowSizeNum()));
 			currentPathElt.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_ARROW_TBAR_SIZE_NUM,
-				MathUtils.INST.format.format(arrow.getTBarSizeNum()));
+				MathUtils.INST.getFormat().format(arrow.getTBarSizeNum()));
 
 		}
 
@@ -385,11 +385,11 @@ class SVGArrow implements GenericViewArrow {
 	public void createCircle(final double cx, final double cy, final double r) {
 		if(currentDoc != null && currentMarker != null) {
 			currentCircle = new SVGCircleElement(currentDoc);
-			currentCircle.setAttribute(SVGAttributes.SVG_R, MathUtils.INST.format.format(r));
-			currentCircle.setAttribute(SVGAttributes.SVG_CX, MathUtils.INST.format.format(cx));
-			currentCircle.setAttribute(SVGAttributes.SVG_CY, MathUtils.INST.format.format(cy));
+			currentCircle.setAttribute(SVGAttributes.SVG_R, MathUtils.INST.getFormat().format(r));
+			currentCircle.setAttribute(SVGAttributes.SVG_CX, MathUtils.INST.getFormat().format(cx));
+			currentCircle.setAttribute(SVGAttributes.SVG_CY, MathUtils.INST.getFormat().format(cy));
 			currentCircle.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_ARROW_DOT_SIZE_NUM,
-				MathUtils.INST.format.format(arrow.getDotSizeNum()));
+				MathUtils.INST.getFormat().format(arrow.getDotSizeNum()));
 			currentMarker.appendChild(currentCircle);
 		}
 	}
@@ -398,7 +398,7 @@ class SVGArrow implements GenericViewArrow {
 	public void setPathStrokeWidth(final ObservableDoubleValue widthProp) {
 		createPathElement();
 		if(currentPathElt != null) {
-			currentPathElt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.format.format(widthProp.get()));
+			currentPathElt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.getFormat().format(widthProp.get()));
 		}
 	}
 
@@ -440,7 +440,7 @@ class SVGArrow implements GenericViewArrow {
 	@Override
 	public void setCircleStrokeWidth(final double width) {
 		if(currentCircle != null) {
-			currentCircle.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.format.format(width));
+			currentCircle.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.getFormat().format(width));
 		}
 	}
 
@@ -203,7 +203,7 @@ class SVGAxes extends SVGShape<Axes> implements GenericAxes<SVGTextElement> {
 		setSVGAttributes(doc, root, false);
 
 		root.setAttribute(SVGAttributes.SVG_TRANSFORM,
-			"translate(" + MathUtils.INST.format.format(shape.getPosition().getX()) + ',' + MathUtils.INST.format.format(shape.getPosition().getY()) + ')');
+			"translate(" + MathUtils.INST.getFormat().format(shape.getPosition().getX()) + ',' + MathUtils.INST.getFormat().format(shape.getPosition().getY()) + ')');
 		root.setAttribute(pref + LNamespace.XML_STYLE, shape.getAxesStyle().toString());
 		root.setAttribute(pref + LNamespace.XML_GRID_START, shape.getGridStartX() + " " + shape.getGridStartY());
 		root.setAttribute(pref + LNamespace.XML_GRID_END, shape.getGridEndX() + " " + shape.getGridEndY());
@@ -250,8 +250,8 @@ class SVGAxes extends SVGShape<Axes> implements GenericAxes<SVGTextElement> {
 			yLine.getArrowAt(1).copy(shape.getArrowAt(2));
 			final SVGElement eltX = new SVGPolylines(xLine).toSVG(document);
 			final SVGElement eltY = new SVGPolylines(yLine).toSVG(document);
-			final String transform = "translate(" + MathUtils.INST.format.format(-shape.getPosition().getX()) + ',' +
-				MathUtils.INST.format.format(-shape.getPosition().getY()) + ')';
+			final String transform = "translate(" + MathUtils.INST.getFormat().format(-shape.getPosition().getX()) + ',' +
+				MathUtils.INST.getFormat().format(-shape.getPosition().getY()) + ')';
 
 			eltX.setAttribute(SVGAttributes.SVG_TRANSFORM, transform);
 			eltY.setAttribute(SVGAttributes.SVG_TRANSFORM, transform);
@@ -280,8 +280,8 @@ class SVGAxes extends SVGShape<Axes> implements GenericAxes<SVGTextElement> {
 			r.setThickness(shape.getThickness());
 
 			final SVGElement frame = new SVGRectangle(r).toSVG(document);
-			frame.setAttribute(SVGAttributes.SVG_TRANSFORM, "translate(" + MathUtils.INST.format.format(-shape.getPosition().getX()) + ',' +
-				MathUtils.INST.format.format(-shape.getPosition().getY()) + ')');
+			frame.setAttribute(SVGAttributes.SVG_TRANSFORM, "translate(" + MathUtils.INST.getFormat().format(-shape.getPosition().getX()) + ',' +
+				MathUtils.INST.getFormat().format(-shape.getPosition().getY()) + ')');
 			elt.appendChild(frame);
 		}
 	}
@@ -309,8 +309,8 @@ class SVGAxes extends SVGShape<Axes> implements GenericAxes<SVGTextElement> {
 	public SVGTextElement createTextLabel(final String text, final double x, final double y, final Font font) {
 		if(currentTicks != null && currentDoc != null) {
 			final SVGTextElement textElt = new SVGTextElement(currentDoc);
-			textElt.setAttribute(SVGAttributes.SVG_X, MathUtils.INST.format.format(x));
-			textElt.setAttribute(SVGAttributes.SVG_Y, MathUtils.INST.format.format(y));
+			textElt.setAttribute(SVGAttributes.SVG_X, MathUtils.INST.getFormat().format(x));
+			textElt.setAttribute(SVGAttributes.SVG_Y, MathUtils.INST.getFormat().format(y));
 			textElt.setTextContent(text);
 			currentTicks.appendChild(textElt);
 			return textElt;
@@ -17,12 +17,16 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import javafx.application.Platform;
@@ -62,6 +66,7 @@ import net.sf.latexdraw.util.SystemUtils;
 import net.sf.latexdraw.view.jfx.Canvas;
 import net.sf.latexdraw.view.jfx.ViewFactory;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.malai.javafx.instrument.JfxInstrument;
 import org.malai.javafx.ui.JfxUI;
 import org.malai.javafx.ui.OpenSaver;
@@ -81,6 +86,13 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 	private final @NotNull Canvas canvas;
 	private final @NotNull Drawing drawing;
 	private final @NotNull JfxUI app;
+	/** The listeners notified (in the JFX thread) with the path of the document once a drawing has been fully loaded or saved. */
+	private final @NotNull List<Consumer<String>> documentListeners;
+	/**
+	 * The SVG elements generated for the shapes of the drawing during the previous save.
+	 * They are reused by the next save for the shapes not modified since. Also used as the lock of the cache.
+	 */
+	private final @NotNull Map<Shape, ShapeFragment> fragments;
 
 	@Inject
 	public SVGDocumentGenerator(final ViewFactory viewFactory, final SVGShapesFactory svgFactory, final ResourceBundle lang, final Canvas canvas,
@@ -92,6 +104,146 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 		this.canvas = Objects.requireNonNull(canvas);
 		this.drawing = Objects.requireNonNull(drawing);
 		this.app = Objects.requireNonNull(app);
+		documentListeners = new ArrayList<>();
+		fragments = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Adds a listener notified (in the JFX thread) with the path of the document once a drawing has been fully loaded or saved.
+	 * Templates are not concerned.
+	 * @param listener The listener to add.
+	 */
+	public void addDocumentListener(final @NotNull Consumer<String> listener) {
+		documentListeners.add(listener);
+	}
+
+	private void notifyDocumentListeners(final String path) {
+		documentListeners.forEach(listener -> listener.accept(path));
+	}
+
+	/**
+	 * Serialises the given shape as a standalone SVG document.
+	 * @param shape The shape to serialise.
+	 * @return The XML text of the SVG document or nothing if the shape cannot be serialised.
+	 */
+	public @NotNull Optional<String> toSVGFragment(final @NotNull Shape shape) {
+		return toSVGFragment(shape, svgFactory);
+	}
+
+	/**
+	 * Serialises the given shape as a standalone SVG document. Requires no instrument nor canvas, so that it can be
+	 * called outside the JFX thread on a shape not displayed (e.g. a duplicate).
+	 * @param shape The shape to serialise.
+	 * @param svgFactory The factory that converts the shape into an SVG element.
+	 * @return The XML text of the SVG document or nothing if the shape cannot be serialised.
+	 */
+	public static @NotNull Optional<String> toSVGFragment(final @NotNull Shape shape, final @NotNull SVGShapesFactory svgFactory) {
+		final SVGDocument doc = new SVGDocument();
+		final SVGSVGElement root = doc.getFirstChild();
+		root.setAttribute("xmlns:" + LNamespace.LATEXDRAW_NAMESPACE, LNamespace.LATEXDRAW_NAMESPACE_URI); //NON-NLS
+		root.appendChild(new SVGDefsElement(doc));
+
+		final SVGElement elt = svgFactory.createSVGElement(shape, doc);
+		if(elt == null) {
+			return Optional.empty();
+		}
+		root.appendChild(elt);
+		return doc.toXMLString();
+	}
+
+	/**
+	 * Creates the shape serialised in the given SVG text (see toSVGFragment).
+	 * @param fragment The XML text of the SVG document that contains the shape.
+	 * @return The created shape or nothing.
+	 */
+	public @NotNull Optional<Shape> fromSVGFragment(final @NotNull String fragment) {
+		return fromSVGFragment(fragment, svgFactory);
+	}
+
+	/**
+	 * Creates the shape serialised in the given SVG text (see toSVGFragment).
+	 * @param fragment The XML text of the SVG document that contains the shape.
+	 * @param svgFactory The factory that converts the SVG element into a shape.
+	 * @return The created shape or nothing.
+	 */
+	public static @NotNull Optional<Shape> fromSVGFragment(final @NotNull String fragment, final @NotNull SVGShapesFactory svgFactory) {
+		try {
+			final NodeList elts = SVGDocument.fromXMLString(fragment).getDocumentElement().getChildNodes();
+			return IntStream.range(0, elts.getLength()).mapToObj(i -> elts.item(i)).filter(node -> node instanceof SVGElement).
+				map(node -> svgFactory.createShape((SVGElement) node)).filter(sh -> sh != null).findFirst();
+		}catch(final IOException | IllegalArgumentException ex) {
+			BadaboomCollector.INSTANCE.add(ex);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Creates an SVG document of the given shapes. The parameters of the application are not saved in the document,
+	 * so that no instrument nor canvas is required (e.g. headless conversions).
+	 * @param shapes The shapes to convert.
+	 * @param svgFactory The factory that converts the shapes into SVG elements.
+	 * @return The created SVG document.
+	 */
+	public static @NotNull SVGDocument toSVGDocument(final @NotNull List<Shape> shapes, final @NotNull SVGShapesFactory svgFactory) {
+		final SVGDocument doc = new SVGDocument();
+		final SVGSVGElement root = doc.getFirstChild();
+		final SVGGElement g = new SVGGElement(doc);
+		final SVGDefsElement defs = new SVGDefsElement(doc);
+
+		setViewBox(root, shapes);
+		root.appendChild(g);
+		root.setAttribute("xmlns:" + LNamespace.LATEXDRAW_NAMESPACE, LNamespace.LATEXDRAW_NAMESPACE_URI); //NON-NLS
+		root.appendChild(defs);
+
+		shapes.forEach(sh -> {
+			final SVGElement elt = svgFactory.createSVGElement(sh, doc);
+			if(elt != null) {
+				g.appendChild(elt);
+			}
+		});
+
+		root.setAttribute(SVGAttributes.SVG_VERSION, "1.1"); //NON-NLS
+		root.setAttribute(SVGAttributes.SVG_BASE_PROFILE, "full"); //NON-NLS
+		return doc;
+	}
+
+	/**
+	 * Converts the given SVG document into shapes. The parameters of the application the document may contain are ignored.
+	 * @param doc The SVG document to convert.
+	 * @param svgFactory The factory that converts the SVG elements into shapes.
+	 * @param onElement Called for each element of the document (e.g. to show the progress of the conversion).
+	 * @return The created shapes.
+	 */
+	public static @NotNull List<Shape> toShapes(final @NotNull SVGDocument doc, final @NotNull SVGShapesFactory svgFactory, final @NotNull Runnable onElement) {
+		final NodeList elts = doc.getDocumentElement().getChildNodes();
+		final List<Shape> shapes = IntStream.range(0, elts.getLength()).mapToObj(i -> {
+			onElement.run();
+			return elts.item(i);
+		}).filter(node -> node instanceof SVGElement).map(node -> svgFactory.createShape((SVGElement) node)).
+			filter(sh -> sh != null).collect(Collectors.toList());
+
+		if(shapes.size() == 1 && shapes.get(0) instanceof Group) {
+			return ((Group) shapes.get(0)).getShapes();
+		}
+
+		return shapes;
+	}
+
+	/**
+	 * Sets the view box of the SVG document to the bounds of the given shapes, plus a padding.
+	 */
+	private static void setViewBox(final @NotNull SVGSVGElement root, final @NotNull List<Shape> shapes) {
+		final int padding = 20;
+		final Optional<Point> opttl = shapes.parallelStream().map(sh -> sh.getTopLeftPoint()).
+			reduce((p1, p2) -> ShapeFactory.INST.createPoint(p1.getX() < p2.getX() ? p1.getX() : p2.getX(), p1.getY() < p2.getY() ? p1.getY() : p2.getY()));
+		final Optional<Point> optbr = shapes.parallelStream().map(sh -> sh.getBottomRightPoint()).
+			reduce((p1, p2) -> ShapeFactory.INST.createPoint(p1.getX() > p2.getX() ? p1.getX() : p2.getX(), p1.getY() > p2.getY() ? p1.getY() : p2.getY()));
+
+		opttl.ifPresent(tl -> optbr.ifPresent(br ->
+			root.setAttribute("viewBox", MathUtils.INST.getFormat().format(tl.getX() - padding) + " " + //NON-NLS
+				MathUtils.INST.getFormat().format(tl.getY() - padding) + " " +
+				MathUtils.INST.getFormat().format(br.getX() - tl.getX() + padding * 2) + " " +
+				MathUtils.INST.getFormat().format(br.getY() - tl.getY() + padding * 2))));
 	}
 
 	@Override
@@ -105,6 +257,9 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 
 	@Override
 	public Task<Boolean> open(final String path, final ProgressBar progressBar, final Label statusBar) {
+		synchronized(fragments) {
+			fragments.clear();
+		}
 		final LoadWorker lw = new LoadWorker(path, statusBar, progressBar);
 		progressBar.progressProperty().bind(lw.progressProperty());
 		new Thread(lw).start();
@@ -439,33 +594,35 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 			final SVGDocument doc = new SVGDocument();
 			final SVGSVGElement root = doc.getFirstChild();
 			final SVGGElement g = new SVGGElement(doc);
-			final int padding = 20;
-			final Optional<Point> opttl = drawing.getShapes().parallelStream().map(sh -> sh.getTopLeftPoint()).
-				reduce((p1, p2) -> ShapeFactory.INST.createPoint(p1.getX() < p2.getX() ? p1.getX() : p2.getX(), p1.getY() < p2.getY() ? p1.getY() : p2.getY()));
-			final Optional<Point> optbr = drawing.getShapes().parallelStream().map(sh -> sh.getBottomRightPoint()).
-				reduce((p1, p2) -> ShapeFactory.INST.createPoint(p1.getX() > p2.getX() ? p1.getX() : p2.getX(), p1.getY() > p2.getY() ? p1.getY() : p2.getY()));
-
-			opttl.ifPresent(tl -> optbr.ifPresent(br ->
-				root.setAttribute("viewBox", MathUtils.INST.format.format(tl.getX() - padding) + " " + //NON-NLS
-					MathUtils.INST.format.format(tl.getY() - padding) + " " +
-					MathUtils.INST.format.format(br.getX() - tl.getX() + padding * 2) + " " +
-					MathUtils.INST.format.format(br.getY() - tl.getY() + padding * 2))));
+			setViewBox(root, drawing.getShapes());
 
+			final SVGDefsElement defs = new SVGDefsElement(doc);
 			root.appendChild(g);
 			root.setAttribute("xmlns:" + LNamespace.LATEXDRAW_NAMESPACE, LNamespace.LATEXDRAW_NAMESPACE_URI); //NON-NLS
-			root.appendChild(new SVGDefsElement(doc));
+			root.appendChild(defs);
 
-			try {
-				shapes.forEach(sh -> {
-					// For each shape an SVG element is created.
-					final SVGElement elt = svgFactory.createSVGElement(sh, doc);
-					if(elt != null) {
-						g.appendChild(elt);
-					}
-					Platform.runLater(() -> updateProgress(getProgress() + incr, 100d));
-				});
-			}catch(final IllegalArgumentException ex) {
-				BadaboomCollector.INSTANCE.add(ex);
+			// The previous SVG elements of the shapes are reused when the whole drawing is saved.
+			synchronized(fragments) {
+				final Map<Shape, ShapeFragment> generated = new IdentityHashMap<>();
+				try {
+					shapes.forEach(sh -> {
+						// For each shape an SVG element is created or reused.
+						final ShapeFragment fragment = getShapeFragment(sh, doc, defs, onlySelection ? null : fragments.get(sh));
+						if(fragment != null) {
+							g.appendChild(fragment.element);
+							fragment.defs.forEach(def -> defs.appendChild(def));
+							generated.put(sh, fragment);
+						}
+						Platform.runLater(() -> updateProgress(getProgress() + incr, 100d));
+					});
+				}catch(final IllegalArgumentException ex) {
+					BadaboomCollector.INSTANCE.add(ex);
+				}
+
+				if(!onlySelection) {
+					fragments.clear();
+					fragments.putAll(generated);
+				}
 			}
 
 			// Setting SVG attributes to the created document.
@@ -476,6 +633,38 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 		}
 
 
+		/**
+		 * Gets the SVG elements of the given shape: the cached ones if the shape has not been modified since, or new ones.
+		 * @param sh The shape to convert.
+		 * @param doc The SVG document that will contain the elements.
+		 * @param defs The defs element of the document, where the definitions (gradients, arrows, etc.) of the shape are created.
+		 * @param cached The SVG elements of the shape produced by the previous save, or null.
+		 * @return The SVG elements of the shape or null if the shape cannot be converted.
+		 */
+		private @Nullable ShapeFragment getShapeFragment(final @NotNull Shape sh, final @NotNull SVGDocument doc, final @NotNull SVGDefsElement defs,
+			final @Nullable ShapeFragment cached) {
+			// The stamp is read before the generation: a modification that occurs during the generation will be caught by the next save.
+			final long stamp = sh.getModificationStamp();
+
+			if(cached != null && cached.stamp == stamp) {
+				cached.element.setOwnerDocument(doc);
+				cached.defs.forEach(def -> def.setOwnerDocument(doc));
+				return cached;
+			}
+
+			final NodeList defNodes = defs.getChildNodes();
+			final int nbDefs = defNodes.getLength();
+			final SVGElement elt = svgFactory.createSVGElement(sh, doc);
+
+			if(elt == null) {
+				return null;
+			}
+
+			return new ShapeFragment(stamp, elt, IntStream.range(nbDefs, defNodes.getLength()).mapToObj(i -> defNodes.item(i)).
+				filter(node -> node instanceof SVGElement).map(node -> (SVGElement) node).collect(Collectors.toList()));
+		}
+
+
 		@Override
 		protected Boolean call() throws Exception {
 			super.call();
@@ -504,7 +693,12 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 				app.save(false, LNamespace.LATEXDRAW_NAMESPACE, doc, metaLTD);
 				Platform.runLater(() -> drawing.setTitle(getDocumentName()));
 			}
-			return doc.saveSVGDocument(path);
+
+			final boolean saved = doc.saveSVGDocument(path);
+			if(saved && saveParameters) {
+				Platform.runLater(() -> notifyDocumentListeners(path));
+			}
+			return saved;
 		}
 
 		@Override
@@ -518,6 +712,24 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 	}
 
 
+	/**
+	 * The SVG elements of a shape: its element and its definitions (gradients, arrows, etc.).
+	 */
+	private static final class ShapeFragment {
+		/** The modification stamp of the shape when the elements were generated. */
+		final long stamp;
+		final @NotNull SVGElement element;
+		final @NotNull List<SVGElement> defs;
+
+		ShapeFragment(final long stamp, final @NotNull SVGElement element, final @NotNull List<SVGElement> defs) {
+			super();
+			this.stamp = stamp;
+			this.element = element;
+			this.defs = defs;
+		}
+	}
+
+
 	private abstract class LoadShapesWorker extends IOWorker {
 		LoadShapesWorker(final String path, final Label statusBar, final ProgressBar bar) {
 			super(path, statusBar, bar);
@@ -530,18 +742,7 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 		 * @return The created shapes or null.
 		 */
 		protected List<Shape> toLatexdraw(final SVGDocument doc, final double incrProgressBar) {
-			final NodeList elts = doc.getDocumentElement().getChildNodes();
-			final List<Shape> shapes = IntStream.range(0, elts.getLength()).mapToObj(i -> {
-				updateProgress(getProgress() + incrProgressBar, 100d);
-				return elts.item(i);
-			}).filter(node -> node instanceof SVGElement).map(node -> svgFactory.createShape((SVGElement) node)).
-				filter(sh -> sh != null).collect(Collectors.toList());
-
-			if(shapes.size() == 1 && shapes.get(0) instanceof Group) {
-				return ((Group) shapes.get(0)).getShapes();
-			}
-
-			return shapes;
+			return toShapes(doc, svgFactory, () -> updateProgress(getProgress() + incrProgressBar, 100d));
 		}
 	}
 
@@ -618,6 +819,8 @@ public class SVGDocumentGenerator implements OpenSaver<Label> {
 
 						drawing.setTitle(getDocumentName());
 					});
+
+					notifyDocumentListeners(path);
 				});
 
 				return Boolean.TRUE;
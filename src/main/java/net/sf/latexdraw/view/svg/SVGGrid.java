@@ -235,7 +235,7 @@ class SVGGrid extends SVGShape<Grid> {
 		subgridDots.setAttribute(prefix + LNamespace.XML_GRID_WIDTH, String.valueOf(subGridWidth));
 
 		if(subGridColour.getO() < 1d) {
-			subgridDots.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.format.format(subGridColour.getO()));
+			subgridDots.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.getFormat().format(subGridColour.getO()));
 		}
 
 		for(double i = 0, n = tlx; i < nbX; i++, n += xSubStep) {
@@ -292,7 +292,7 @@ class SVGGrid extends SVGShape<Grid> {
 		subgrids.setAttribute(prefix + LNamespace.XML_GRID_SUB_DIV, String.valueOf(subGridDiv));
 
 		if(subGridColour.getO() < 1d) {
-			subgrids.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(subGridColour.getO()));
+			subgrids.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(subGridColour.getO()));
 		}
 
 		for(k = minX, i = posX; k < maxX; i += xStep, k++) {
@@ -345,7 +345,7 @@ class SVGGrid extends SVGShape<Grid> {
 		gridDotsElt.setAttribute(prefix + LNamespace.XML_GRID_WIDTH, String.valueOf(gridWidth));
 
 		if(linesColour.getO() < 1d) {
-			gridDotsElt.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.format.format(linesColour.getO()));
+			gridDotsElt.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.getFormat().format(linesColour.getO()));
 		}
 
 		for(k = minX, i = posX; k <= maxX; i += xStep, k++) {
@@ -399,7 +399,7 @@ class SVGGrid extends SVGShape<Grid> {
 		grids.setAttribute(prefix + LNamespace.XML_TYPE, LNamespace.XML_TYPE_GRID);
 
 		if(linesColour.getO() < 1d) {
-			grids.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(linesColour.getO()));
+			grids.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(linesColour.getO()));
 		}
 
 		for(k = minX, i = posX; k <= maxX; i += xStep, k++) {
@@ -487,7 +487,7 @@ class SVGGrid extends SVGShape<Grid> {
 		texts.setAttribute(prefix + LNamespace.XML_TYPE, LNamespace.XML_TYPE_TEXT);
 
 		if(gridLabelsColor.getO() < 1d) {
-			texts.setAttribute(SVGAttributes.SVG_OPACITY, MathUtils.INST.format.format(gridLabelsColor.getO()));
+			texts.setAttribute(SVGAttributes.SVG_OPACITY, MathUtils.INST.getFormat().format(gridLabelsColor.getO()));
 		}
 
 		produceSVGGridLabelsTexts(document, texts, gridWidth, xorigin, yorigin, fooText, minX, maxX, minY, maxY, tlx, tly, labelWidth, labelHeight, absStep);
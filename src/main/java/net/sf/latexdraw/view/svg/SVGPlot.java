@@ -16,6 +16,7 @@ import net.sf.latexdraw.model.api.shape.Dot;
 import net.sf.latexdraw.model.api.shape.Plot;
 import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
+import net.sf.latexdraw.parser.PlotDataReader;
 import net.sf.latexdraw.parser.svg.SVGAttributes;
 import net.sf.latexdraw.parser.svg.SVGDocument;
 import net.sf.latexdraw.parser.svg.SVGElement;
@@ -38,6 +39,7 @@ class SVGPlot extends SVGShape<Plot> implements PlotViewComputation {
 	static final String XML_YSCALE = "yscale"; //NON-NLS
 	static final String XML_POLAR = "polar"; //NON-NLS
 	static final String XML_STYLE = "plotstyle"; //NON-NLS
+	static final String XML_DATA = "data"; //NON-NLS
 
 	private final SVGShapeProducer shapeProducer;
 
@@ -138,6 +140,11 @@ class SVGPlot extends SVGShape<Plot> implements PlotViewComputation {
 		}catch(final NumberFormatException | NullPointerException ex) {
 			BadaboomCollector.INSTANCE.add(ex);
 		}
+
+		final String data = elt.getAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + XML_DATA);
+		if(data != null && !data.isEmpty()) {
+			shape.setPlotData(PlotDataReader.INSTANCE.read(data));
+		}
 	}
 
 	private void toSVGShape(final @NotNull SVGDocument doc, final @NotNull SVGElement elt) {
@@ -204,6 +211,9 @@ class SVGPlot extends SVGShape<Plot> implements PlotViewComputation {
 		root.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + XML_YSCALE, Double.toString(shape.getYScale()));
 		root.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_POSITION_X, Double.toString(shape.getX()));
 		root.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_POSITION_Y, Double.toString(shape.getY()));
+		if(shape.getPlotData() != null) {
+			root.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + XML_DATA, shape.getPlotData().appendCoordinates(new StringBuilder()).toString());
+		}
 		root.setAttribute(SVGAttributes.SVG_ID, getSVGID());
 		setSVGAttributes(doc, root, true);
 		setSVGRotationAttribute(root);
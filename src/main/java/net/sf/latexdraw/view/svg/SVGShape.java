@@ -695,12 +695,12 @@ abstract class SVGShape<S extends Shape> {
 
 		if(shape.hasDbleBord()) {
 			elt.setAttribute(SVGAttributes.SVG_STROKE, CSSColors.INSTANCE.getColorName(shape.getDbleBordCol(), true));
-			elt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.format.format(shape.getDbleBordSep()));
+			elt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.getFormat().format(shape.getDbleBordSep()));
 			elt.setAttribute(SVGAttributes.SVG_FILL, SVGAttributes.SVG_VALUE_NONE);
 			elt.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_TYPE, LNamespace.XML_TYPE_DBLE_BORDERS);
 
 			if(shape.getDbleBordCol().getO() < 1d) {
-				elt.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(shape.getDbleBordCol().getO()));
+				elt.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(shape.getDbleBordCol().getO()));
 			}
 		}
 	}
@@ -724,16 +724,16 @@ abstract class SVGShape<S extends Shape> {
 
 			elt.setAttribute(SVGAttributes.SVG_TRANSFORM, new SVGTransform.SVGTranslateTransformation(shape.getShadowSize(), 0.) + " " +
 				new SVGTransform.SVGTranslateTransformation(pt.getX() - gcx - shape.getShadowSize(), pt.getY() - gcy));
-			elt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.format.format(shape.hasDbleBord() ?
+			elt.setAttribute(SVGAttributes.SVG_STROKE_WIDTH, MathUtils.INST.getFormat().format(shape.hasDbleBord() ?
 				shape.getThickness() * 2d + shape.getDbleBordSep() : shape.getThickness()));
 			elt.setAttribute(SVGAttributes.SVG_FILL, filledShadow ? CSSColors.INSTANCE.getColorName(shape.getShadowCol(), true) : SVGAttributes.SVG_VALUE_NONE);
 			elt.setAttribute(SVGAttributes.SVG_STROKE, CSSColors.INSTANCE.getColorName(shape.getShadowCol(), true));
 			elt.setAttribute(LNamespace.LATEXDRAW_NAMESPACE + ':' + LNamespace.XML_TYPE, LNamespace.XML_TYPE_SHADOW);
 
 			if(shape.getShadowCol().getO() < 1d) {
-				elt.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(shape.getShadowCol().getO()));
+				elt.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(shape.getShadowCol().getO()));
 				if(filledShadow) {
-					elt.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.format.format(shape.getShadowCol().getO()));
+					elt.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.getFormat().format(shape.getShadowCol().getO()));
 				}
 			}
 		}
@@ -743,7 +743,7 @@ abstract class SVGShape<S extends Shape> {
 	private void setSVGFill(final SVGElement root) {
 		root.setAttribute(SVGAttributes.SVG_FILL, CSSColors.INSTANCE.getColorName(shape.getFillingCol(), true));
 		if(shape.getFillingCol().getO() < 1d) {
-			root.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.format.format(shape.getFillingCol().getO()));
+			root.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.getFormat().format(shape.getFillingCol().getO()));
 		}
 	}
 
@@ -753,7 +753,7 @@ abstract class SVGShape<S extends Shape> {
 		if(shape.isThicknessable()) {
 			SVGShape.setThickness(root, shape.getThickness(), shape.hasDbleBord(), shape.getDbleBordSep());
 			if(shape.getLineColour().getO() < 1d) {
-				root.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(shape.getLineColour().getO()));
+				root.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(shape.getLineColour().getO()));
 			}
 		}
 	}
@@ -775,17 +775,17 @@ abstract class SVGShape<S extends Shape> {
 		stop1.setAttribute(SVGAttributes.SVG_STOP_COLOR, CSSColors.INSTANCE.getColorName(shape.getGradColStart(), true));
 
 		if(shape.getGradColStart().getO() < 1d) {
-			stop1.setAttribute(SVGAttributes.SVG_STOP_OPACITY, MathUtils.INST.format.format(shape.getGradColStart().getO()));
+			stop1.setAttribute(SVGAttributes.SVG_STOP_OPACITY, MathUtils.INST.getFormat().format(shape.getGradColStart().getO()));
 		}
 
 		grad.appendChild(stop1);
 
 		final SVGStopElement stop2 = new SVGStopElement(doc);
-		stop2.setAttribute(SVGAttributes.SVG_OFFSET, MathUtils.INST.format.format(gradMidPt));
+		stop2.setAttribute(SVGAttributes.SVG_OFFSET, MathUtils.INST.getFormat().format(gradMidPt));
 		stop2.setAttribute(SVGAttributes.SVG_STOP_COLOR, CSSColors.INSTANCE.getColorName(shape.getGradColEnd(), true));
 
 		if(shape.getGradColEnd().getO() < 1d) {
-			stop2.setAttribute(SVGAttributes.SVG_STOP_OPACITY, MathUtils.INST.format.format(shape.getGradColEnd().getO()));
+			stop2.setAttribute(SVGAttributes.SVG_STOP_OPACITY, MathUtils.INST.getFormat().format(shape.getGradColEnd().getO()));
 		}
 
 		grad.appendChild(stop2);
@@ -817,7 +817,7 @@ abstract class SVGShape<S extends Shape> {
 		gPath.setAttribute(SVGAttributes.SVG_STROKE_DASHARRAY, SVGAttributes.SVG_VALUE_NONE);
 
 		if(shape.getHatchingsCol().getO() < 1d) {
-			gPath.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.format.format(shape.getHatchingsCol().getO()));
+			gPath.setAttribute(SVGAttributes.SVG_STROKE_OPACITY, MathUtils.INST.getFormat().format(shape.getHatchingsCol().getO()));
 		}
 
 		path.setAttribute(SVGAttributes.SVG_D, getSVGHatchingsPath().toString());
@@ -829,7 +829,7 @@ abstract class SVGShape<S extends Shape> {
 			fill.setAttribute(SVGAttributes.SVG_FILL, CSSColors.INSTANCE.getColorName(shape.getFillingCol(), true));
 
 			if(shape.getFillingCol().getO() < 1d) {
-				fill.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.format.format(shape.getFillingCol().getO()));
+				fill.setAttribute(SVGAttributes.SVG_FILL_OPACITY, MathUtils.INST.getFormat().format(shape.getFillingCol().getO()));
 			}
 
 			fill.setAttribute(SVGAttributes.SVG_STROKE, SVGAttributes.SVG_VALUE_NONE);
@@ -0,0 +1,129 @@
+package net.sf.latexdraw.command;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.Group;
+import javafx.scene.paint.Color;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import net.sf.latexdraw.view.jfx.TiledSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.framework.junit5.ApplicationExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public class TestExportPicture {
+	@TempDir Path dir;
+	BufferedImage picture;
+	List<Double> progress;
+
+	@BeforeEach
+	void setUp() {
+		picture = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+		progress = new ArrayList<>();
+	}
+
+	@Test
+	void testExportPNG() throws IOException {
+		final File file = dir.resolve("foo.png").toFile();
+		assertTrue(Export.exportAsPicture(file, "png", picture, 300, p -> progress.add(p), () -> false));
+		final BufferedImage read = ImageIO.read(file);
+		assertEquals(300, read.getWidth());
+		assertEquals(200, read.getHeight());
+	}
+
+	@Test
+	void testExportJPG() {
+		final File file = dir.resolve("foo.jpg").toFile();
+		assertTrue(Export.exportAsPicture(file, "jpg", picture, 300, p -> progress.add(p), () -> false));
+		assertTrue(file.exists());
+	}
+
+	@Test
+	void testExportProgress() {
+		Export.exportAsPicture(dir.resolve("foo.png").toFile(), "png", picture, 300, p -> progress.add(p), () -> false);
+		assertFalse(progress.isEmpty());
+		assertTrue(progress.stream().allMatch(p -> p >= 0d && p <= 1d));
+	}
+
+	/**
+	 * A picture of 4x7 tiles of 32 pixels: red on the top-left, blue on the bottom-left, green on the right.
+	 */
+	TiledSnapshot createTiledPicture() {
+		final javafx.scene.shape.Rectangle red = new javafx.scene.shape.Rectangle(0d, 0d, 40d, 100d);
+		final javafx.scene.shape.Rectangle blue = new javafx.scene.shape.Rectangle(0d, 100d, 40d, 100d);
+		final javafx.scene.shape.Rectangle green = new javafx.scene.shape.Rectangle(40d, 0d, 60d, 200d);
+		red.setFill(Color.RED);
+		blue.setFill(Color.BLUE);
+		green.setFill(Color.LIME);
+		return new TiledSnapshot(new Group(red, blue, green), 1d, false, 32);
+	}
+
+	@Test
+	void testTiledPictureGrid() {
+		final TiledSnapshot tiled = createTiledPicture();
+		assertEquals(100, tiled.getWidth());
+		assertEquals(200, tiled.getHeight());
+		assertEquals(4, tiled.getNumXTiles());
+		assertEquals(7, tiled.getNumYTiles());
+		assertEquals(new Rectangle(64, 192, 32, 8), tiled.getTile(2, 6).getBounds());
+	}
+
+	@Test
+	void testTiledPictureDataAcrossTiles() {
+		final Raster data = createTiledPicture().getData(new Rectangle(20, 80, 40, 40));
+		assertEquals(0xFF0000, data.getSample(30, 90, 0) << 16 | data.getSample(30, 90, 1) << 8 | data.getSample(30, 90, 2));
+		assertEquals(0x0000FF, data.getSample(30, 110, 0) << 16 | data.getSample(30, 110, 1) << 8 | data.getSample(30, 110, 2));
+		assertEquals(0x00FF00, data.getSample(50, 110, 0) << 16 | data.getSample(50, 110, 1) << 8 | data.getSample(50, 110, 2));
+	}
+
+	@Test
+	void testExportTiledPicture() throws IOException {
+		final File file = dir.resolve("foo.png").toFile();
+		assertTrue(Export.exportAsPicture(file, "png", createTiledPicture(), 150, p -> progress.add(p), () -> false));
+		final BufferedImage read = ImageIO.read(file);
+		assertEquals(100, read.getWidth());
+		assertEquals(200, read.getHeight());
+		assertEquals(0xFF0000, read.getRGB(10, 10) & 0xFFFFFF);
+		assertEquals(0x0000FF, read.getRGB(10, 190) & 0xFFFFFF);
+		assertEquals(0x00FF00, read.getRGB(90, 10) & 0xFFFFFF);
+		assertEquals(0x00FF00, read.getRGB(70, 150) & 0xFFFFFF);
+	}
+
+	@Test
+	void testExportTiledPictureResolution() throws IOException {
+		final File file = dir.resolve("foo.png").toFile();
+		Export.exportAsPicture(file, "png", createTiledPicture(), 150, p -> progress.add(p), () -> false);
+		final ImageReader reader = ImageIO.getImageReadersByFormatName("png").next();
+		try(final ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			reader.setInput(in);
+			final IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(0).getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName);
+			final IIOMetadataNode pixelSize = (IIOMetadataNode) root.getElementsByTagName("HorizontalPixelSize").item(0);
+			assertEquals(25.4 / 150d, Double.parseDouble(pixelSize.getAttribute("value")), 0.001);
+		}finally {
+			reader.dispose();
+		}
+	}
+
+	@Test
+	void testExportCancelledDeletesFile() {
+		final File file = dir.resolve("foo.png").toFile();
+		assertFalse(Export.exportAsPicture(file, "png", picture, 300, p -> progress.add(p), () -> true));
+		assertFalse(file.exists());
+	}
+}
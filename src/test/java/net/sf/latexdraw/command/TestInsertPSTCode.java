@@ -0,0 +1,83 @@
+package net.sf.latexdraw.command;
+
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.service.PreferencesService;
+import net.sf.latexdraw.util.BadaboomCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.util.WaitForAsyncUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public class TestInsertPSTCode {
+	Drawing drawing;
+	ResourceBundle lang;
+
+	@BeforeEach
+	void setUp() {
+		drawing = ShapeFactory.INST.createDrawing();
+		lang = new PreferencesService().getBundle();
+	}
+
+	@AfterEach
+	void tearDown() {
+		BadaboomCollector.INSTANCE.clear();
+	}
+
+	/** A code large enough to be converted in background. */
+	static String largeCode() {
+		return IntStream.range(0, 1500).mapToObj(i -> "\\psframe(" + i + ",0)(" + (i + 1) + ",1)").collect(Collectors.joining("\n")); //NON-NLS
+	}
+
+	@Test
+	void testSmallCodeInserted() {
+		final InsertPSTCode cmd = new InsertPSTCode("\\psframe(0,0)(1,1)", null, null, drawing, lang); //NON-NLS
+		cmd.doIt();
+		assertEquals(1, drawing.size());
+		assertTrue(cmd.hadEffect());
+	}
+
+	@Test
+	void testLargeCodeInsertedInBackground() throws TimeoutException {
+		final InsertPSTCode cmd = new InsertPSTCode(largeCode(), null, null, drawing, lang);
+		WaitForAsyncUtils.asyncFx(() -> cmd.doIt());
+		WaitForAsyncUtils.waitFor(20, TimeUnit.SECONDS, () -> drawing.size() == 1);
+		assertTrue(BadaboomCollector.INSTANCE.errorsProperty().isEmpty());
+	}
+
+	@Test
+	void testUndoDuringConversionThenRedoRestartsConversion() throws TimeoutException {
+		final InsertPSTCode cmd = new InsertPSTCode(largeCode(), null, null, drawing, lang);
+		WaitForAsyncUtils.asyncFx(() -> {
+			cmd.doIt();
+			cmd.undo();
+			cmd.redo();
+		});
+		WaitForAsyncUtils.waitFor(20, TimeUnit.SECONDS, () -> drawing.size() == 1);
+		assertTrue(cmd.hadEffect());
+		assertTrue(BadaboomCollector.INSTANCE.errorsProperty().isEmpty());
+	}
+
+	@Test
+	void testUndoDuringConversionNoShapeInserted() throws TimeoutException {
+		final InsertPSTCode cmd = new InsertPSTCode(largeCode(), null, null, drawing, lang);
+		WaitForAsyncUtils.waitFor(WaitForAsyncUtils.asyncFx(() -> {
+			cmd.doIt();
+			cmd.undo();
+		}));
+		WaitForAsyncUtils.sleep(500, TimeUnit.MILLISECONDS);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(0, drawing.size());
+	}
+}
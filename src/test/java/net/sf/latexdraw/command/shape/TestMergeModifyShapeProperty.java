@@ -0,0 +1,96 @@
+package net.sf.latexdraw.command.shape;
+
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Rectangle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.malai.command.Command;
+import org.malai.command.CommandsRegistry;
+import org.malai.undo.UndoCollector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMergeModifyShapeProperty {
+	Rectangle rec;
+	ModifyShapeProperty<Double> first;
+
+	@BeforeEach
+	void setUp() {
+		rec = ShapeFactory.INST.createRectangle();
+		rec.setThickness(1d);
+		first = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 2d);
+		first.doIt();
+		first.done();
+	}
+
+	@AfterEach
+	void tearDown() {
+		CommandsRegistry.INSTANCE.clear();
+		UndoCollector.INSTANCE.clear();
+	}
+
+	Group group() {
+		final Group group = ShapeFactory.INST.createGroup();
+		group.addShape(rec);
+		return group;
+	}
+
+	@Test
+	void testMergeUpdatesThePreviousCommand() {
+		final ModifyShapeProperty<Double> second = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 3d);
+		assertTrue(second.mergeInto(first));
+		second.doIt();
+		assertEquals(3d, rec.getThickness(), 0.0001);
+		assertEquals(Command.RegistrationPolicy.NONE, second.getRegistrationPolicy());
+	}
+
+	@Test
+	void testUndoMergedRestoresTheInitialValue() {
+		final ModifyShapeProperty<Double> second = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 3d);
+		second.mergeInto(first);
+		second.doIt();
+		first.undo();
+		assertEquals(1d, rec.getThickness(), 0.0001);
+	}
+
+	@Test
+	void testRedoMergedGivesTheLatestValue() {
+		final ModifyShapeProperty<Double> second = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 3d);
+		second.mergeInto(first);
+		second.doIt();
+		first.undo();
+		first.redo();
+		assertEquals(3d, rec.getThickness(), 0.0001);
+	}
+
+	@Test
+	void testNoMergeOtherProperty() {
+		assertFalse(new ModifyShapeProperty<>(ShapeProperties.SHADOW_SIZE, group(), 3d).mergeInto(first));
+	}
+
+	@Test
+	void testNoMergeOtherShapes() {
+		final Group group = group();
+		group.addShape(ShapeFactory.INST.createRectangle());
+		assertFalse(new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group, 3d).mergeInto(first));
+	}
+
+	@Test
+	void testNoMergeNotExecuted() {
+		final ModifyShapeProperty<Double> cmd = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 3d);
+		assertFalse(new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 4d).mergeInto(cmd));
+	}
+
+	@Test
+	void testNoMergeIntoMerged() {
+		final ModifyShapeProperty<Double> second = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 3d);
+		second.mergeInto(first);
+		second.doIt();
+		second.done();
+		assertFalse(new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, group(), 4d).mergeInto(second));
+	}
+}
@@ -0,0 +1,44 @@
+package net.sf.latexdraw.command.shape;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRunLengthValues {
+	@Test
+	void testEmpty() {
+		assertTrue(RunLengthValues.empty().toList().isEmpty());
+		assertEquals(0, RunLengthValues.empty().size());
+	}
+
+	@Test
+	void testOfEmptyList() {
+		assertTrue(RunLengthValues.of(Collections.emptyList()).toList().isEmpty());
+	}
+
+	@Test
+	void testSameValuesOneRun() {
+		final RunLengthValues<Double> values = RunLengthValues.of(Collections.nCopies(50_000, Optional.of(2d)));
+		assertEquals(1, values.getNbRuns());
+		assertEquals(50_000, values.size());
+	}
+
+	@Test
+	void testDecodedAsEncoded() {
+		final List<Optional<String>> list = Arrays.asList(Optional.of("a"), Optional.of("a"), Optional.empty(), Optional.empty(),
+			Optional.of("b"), Optional.of("a"));
+		final RunLengthValues<String> values = RunLengthValues.of(list);
+		assertEquals(4, values.getNbRuns());
+		assertEquals(list, values.toList());
+	}
+
+	@Test
+	void testEqualValuesMerged() {
+		assertEquals(1, RunLengthValues.of(Arrays.asList(Optional.of(new String("a")), Optional.of(new String("a")))).getNbRuns());
+	}
+}
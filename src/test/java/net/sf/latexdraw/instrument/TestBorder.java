@@ -1,19 +1,28 @@
 package net.sf.latexdraw.instrument;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javafx.application.Platform;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Arc;
 import javafx.scene.transform.Rotate;
 import javafx.stage.Stage;
 import net.sf.latexdraw.CollectionMatcher;
 import net.sf.latexdraw.handler.Handler;
+import net.sf.latexdraw.handler.MovePtHandler;
 import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Line;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.util.Injector;
+import net.sf.latexdraw.view.jfx.Canvas;
 import net.sf.latexdraw.view.jfx.ViewRectangle;
+import net.sf.latexdraw.view.jfx.ViewShape;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -29,6 +38,11 @@ public class TestBorder extends BaseTestCanvas implements CollectionMatcher {
 	final double txDown = 50;
 	final double tyDown = 200d;
 	final GUIVoidCommand rotateDown = () -> drag(border.rotHandler).dropBy(txDown, tyDown);
+	final GUIVoidCommand addDenseLines = () -> Platform.runLater(() -> {
+		addedPolyline = ShapeFactory.INST.createPolyline(IntStream.range(0, 1000).
+			mapToObj(i -> ShapeFactory.INST.createPoint(-Canvas.ORIGIN.getX() + 50d + i / 10d, -Canvas.ORIGIN.getY() + 250d)).collect(Collectors.toList()));
+		canvas.getDrawing().addShape(addedPolyline);
+	});
 
 	@Override
 	protected Injector createInjector() {
@@ -133,6 +147,52 @@ public class TestBorder extends BaseTestCanvas implements CollectionMatcher {
 		selectShape.execute(0);
 	}
 
+	@Test
+	public void testSelectDensePointsShapeFewerHandlers() {
+		new CompositeGUIVoidCommand(addDenseLines, selectAllShapes).execute();
+		assertTrue(border.mvPtHandlers.size() <= 100d / Border.MIN_HANDLER_GAP + 2d);
+		assertEquals(addedPolyline.getPtAt(0), border.mvPtHandlers.get(0).getPoint());
+	}
+
+	@Test
+	public void testPointHandlersReusedOnSelectionChanges() {
+		new CompositeGUIVoidCommand(addLines, addRec).execute();
+		selectShape.execute(0);
+		final List<MovePtHandler> handlers = new ArrayList<>(border.mvPtHandlers);
+		selectShape.execute(1);
+		selectShape.execute(0);
+		assertEquals(handlers.size(), border.mvPtHandlers.size());
+		assertTrue(handlers.containsAll(border.mvPtHandlers));
+	}
+
+	@Test
+	public void testHiddenPointHandlerShownOnHoverAndReleasedOnExit() {
+		final double size = Handler.DEFAULT_SIZE;
+		final double cell = Math.ceil((-Canvas.ORIGIN.getX() + 50d) / size) * size;
+		final double y = -Canvas.ORIGIN.getY() + 250d;
+		// The second point shares the cell of the first one: it has no handler and is not under the handler of the first one.
+		final Point hidden = ShapeFactory.INST.createPoint(cell + 0.95 * size, y);
+		Platform.runLater(() -> {
+			addedPolyline = ShapeFactory.INST.createPolyline(List.of(ShapeFactory.INST.createPoint(cell + 0.05 * size, y), hidden,
+				ShapeFactory.INST.createPoint(cell + 2.5 * size, y)));
+			canvas.getDrawing().addShape(addedPolyline);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		selectAllShapes.execute();
+		final Point hiddenPt = addedPolyline.getPtAt(1);
+		assertEquals(2, border.mvPtHandlers.size());
+
+		moveTo(canvas.getWidgetLayer().localToScreen(hiddenPt.getX(), hiddenPt.getY()));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(3, border.mvPtHandlers.size());
+		assertTrue(border.mvPtHandlers.stream().anyMatch(h -> h.getPoint() == hiddenPt && h.isVisible()));
+
+		moveBy(0d, 100d);
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(2, border.mvPtHandlers.size());
+		assertTrue(border.mvPtHandlers.stream().noneMatch(h -> h.getPoint() == hiddenPt));
+	}
+
 	@Test
 	public void testMovePtHandlerMovePt() {
 		new CompositeGUIVoidCommand(addLines, selectAllShapes).execute();
@@ -206,6 +266,66 @@ public class TestBorder extends BaseTestCanvas implements CollectionMatcher {
 			((Rotate) ((ViewRectangle) canvas.getSelectedViews().get(0)).getBorder().getTransforms().get(0)).getAngle(), 1d);
 	}
 
+	@Test
+	public void testRotationPreviewedDuringDrag() {
+		new CompositeGUIVoidCommand(addRec, selectAllShapes).execute();
+		drag(border.rotHandler);
+		waitFXEvents.execute();
+		moveBy(txDown, tyDown);
+		waitFXEvents.execute();
+		assertEquals(0d, addedRec.getRotationAngle(), 0.0001);
+		assertTrue("No rotation previewed", Math.abs(canvas.getSelectedViews().get(0).getLocalToParentTransform().getMxy()) > 0.1);
+		drop();
+		waitFXEvents.execute();
+		assertEquals(0d, canvas.getSelectedViews().get(0).getLocalToParentTransform().getMxy(), 0.0001);
+		assertTrue(Math.abs(addedRec.getRotationAngle()) > 0.1);
+	}
+
+	@Test
+	public void testRotationPreviewOfRotatedText() {
+		new CompositeGUIVoidCommand(addText).execute();
+		final Shape text = canvas.getDrawing().getShapeAt(0).orElseThrow();
+		Platform.runLater(() -> text.setRotationAngle(0.5));
+		new CompositeGUIVoidCommand(waitFXEvents, selectAllShapes).execute();
+		final ViewShape<?> view = canvas.getSelectedViews().get(0);
+		final Point2D local = new Point2D(view.getLayoutBounds().getMinX(), view.getLayoutBounds().getMinY());
+		final Point before = ShapeFactory.INST.createPoint(view.localToParent(local));
+		final Point gc = text.getGravityCentre();
+		drag(border.rotHandler);
+		waitFXEvents.execute();
+		moveBy(txDown, tyDown);
+		waitFXEvents.execute();
+		final Point during = ShapeFactory.INST.createPoint(view.localToParent(local));
+		drop();
+		waitFXEvents.execute();
+		// The preview rotates the view around the gravity centre of the selection, by the angle then applied on the text.
+		final Point expected = before.rotatePoint(gc, text.getRotationAngle() - 0.5);
+		assertEquals(expected.getX(), during.getX(), 1.5);
+		assertEquals(expected.getY(), during.getY(), 1.5);
+	}
+
+	@Test
+	public void testScalePreviewOfRotatedText() {
+		new CompositeGUIVoidCommand(addText).execute();
+		final Shape text = canvas.getDrawing().getShapeAt(0).orElseThrow();
+		Platform.runLater(() -> text.setRotationAngle(0.3));
+		new CompositeGUIVoidCommand(waitFXEvents, selectAllShapes).execute();
+		final ViewShape<?> view = canvas.getSelectedViews().get(0);
+		drag(border.scaleHandlers.get(4));
+		waitFXEvents.execute();
+		moveBy(50d, 10d);
+		waitFXEvents.execute();
+		// The selection border (a widget) and the view must be scaled the same way.
+		final Bounds expected = canvas.getSelectionBorder().localToScene(canvas.getSelectionBorder().getBoundsInLocal());
+		final Bounds previewed = view.localToScene(view.getBoundsInLocal());
+		drop();
+		waitFXEvents.execute();
+		assertEquals(expected.getMinX(), previewed.getMinX(), 2d);
+		assertEquals(expected.getMaxX(), previewed.getMaxX(), 2d);
+		assertEquals(expected.getMinY(), previewed.getMinY(), 2d);
+		assertEquals(expected.getMaxY(), previewed.getMaxY(), 2d);
+	}
+
 	@Test
 	public void testRotateTwoRectangles() {
 		new CompositeGUIVoidCommand(addRec, addRec).execute();
@@ -296,6 +416,22 @@ public class TestBorder extends BaseTestCanvas implements CollectionMatcher {
 		assertEquals(tl.getY(), addedRec.getTopLeftPoint().getY(), 2d);
 	}
 
+	@Test
+	public void testScalePreviewedDuringDrag() {
+		new CompositeGUIVoidCommand(addRec, selectAllShapes).execute();
+		final double width = addedRec.getWidth();
+		drag(border.scaleHandlers.get(4));
+		waitFXEvents.execute();
+		moveBy(50d, 10d);
+		waitFXEvents.execute();
+		assertEquals(width, addedRec.getWidth(), 0.001);
+		assertEquals((width + 50d) / width, canvas.getSelectedViews().get(0).getLocalToParentTransform().getMxx(), 0.1);
+		drop();
+		waitFXEvents.execute();
+		assertEquals(1d, canvas.getSelectedViews().get(0).getLocalToParentTransform().getMxx(), 0.0001);
+		assertEquals(width + 50d, addedRec.getWidth(), 3d);
+	}
+
 	@Test
 	public void testScaleERectangle() {
 		new CompositeGUIVoidCommand(addRec, selectAllShapes).execute();
@@ -1,7 +1,9 @@
 package net.sf.latexdraw.instrument;
 
 import java.lang.reflect.InvocationTargetException;
+import javafx.application.Platform;
 import javafx.scene.Group;
+import javafx.scene.transform.Translate;
 import javafx.stage.Stage;
 import net.sf.latexdraw.util.Injector;
 import net.sf.latexdraw.view.jfx.MagneticGrid;
@@ -65,6 +67,18 @@ public class TestCanvas extends BaseTestCanvas {
 		assertEquals(Canvas.ORIGIN.getY(), group.getLayoutY(), 0.000001);
 	}
 
+	@Test
+	public void testTransformPreviewWithoutSelectionClearedOnce() {
+		final int nbTransforms = canvas.getWidgetLayer().getTransforms().size();
+		Platform.runLater(() -> {
+			canvas.setSelectionTransformPreview(new Translate(10d, 20d));
+			canvas.setSelectionTransformPreview(new Translate(20d, 30d));
+			canvas.clearSelectionTransformPreview();
+		});
+		waitFXEvents.execute();
+		assertEquals(nbTransforms, canvas.getWidgetLayer().getTransforms().size());
+	}
+
 	@Test
 	public void testShapeAddedViewCreated() {
 		new CompositeGUIVoidCommand(addRec).execute();
@@ -1,12 +1,18 @@
 package net.sf.latexdraw.instrument;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.stream.Collectors;
 import javafx.application.Platform;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import net.sf.latexdraw.data.ShapeData;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Dot;
+import net.sf.latexdraw.model.api.shape.DotStyle;
 import net.sf.latexdraw.model.api.shape.Picture;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.Shape;
@@ -96,6 +102,82 @@ public class TestCanvasTranslation extends BaseTestCanvas {
 		assertEquals(tl.getY() + 163d, sh.getTopLeftPoint().getY(), 5d);
 	}
 
+	@Test
+	public void testTranslationPreviewedDuringDrag() {
+		new CompositeGUIVoidCommand(addRec, selectAllShapes).execute();
+		final Shape sh = canvas.getDrawing().getShapeAt(0).orElseThrow();
+		sh.setFilled(true);
+		final Point tl = sh.getTopLeftPoint();
+		drag(canvas.getViews().getChildren().get(0));
+		waitFXEvents.execute();
+		moveBy(100d, 200d);
+		waitFXEvents.execute();
+		assertEquals(tl.getX(), sh.getTopLeftPoint().getX(), 0.0001);
+		assertEquals(tl.getY(), sh.getTopLeftPoint().getY(), 0.0001);
+		assertEquals(100d, canvas.getViews().getChildren().get(0).getLocalToParentTransform().getTx(), 1d);
+		assertEquals(200d, canvas.getViews().getChildren().get(0).getLocalToParentTransform().getTy(), 1d);
+		drop();
+		waitFXEvents.execute();
+		assertEquals(0d, canvas.getViews().getChildren().get(0).getLocalToParentTransform().getTx(), 0.0001);
+		assertEquals(0d, canvas.getViews().getChildren().get(0).getLocalToParentTransform().getTy(), 0.0001);
+		assertEquals(tl.getX() + 100d, sh.getTopLeftPoint().getX(), 1d);
+		assertEquals(tl.getY() + 200d, sh.getTopLeftPoint().getY(), 1d);
+	}
+
+	@Test
+	public void testTranslationPreviewOfShapesWithBoundPosition() {
+		// The translation of the views of texts, grids, and plots is bound to the position of their shape: the preview must not set it.
+		new CompositeGUIVoidCommand(addText, addGrid, addPlot, waitFXEvents, selectAllShapes).execute();
+		canvas.getSelectionBorder().setFill(new Color(1d, 1d, 1d, 0.1d));
+		final List<Point> positions = canvas.getDrawing().getShapes().stream().map(sh -> ShapeFactory.INST.createPoint(sh.getTopLeftPoint()))
+			.collect(Collectors.toList());
+		final List<Bounds> bounds = canvas.getSelectedViews().stream().map(view -> view.getBoundsInParent()).collect(Collectors.toList());
+		drag(canvas.getSelectionBorder());
+		waitFXEvents.execute();
+		moveBy(100d, 200d);
+		waitFXEvents.execute();
+		for(int i = 0; i < bounds.size(); i++) {
+			assertEquals(positions.get(i), canvas.getDrawing().getShapeAt(i).orElseThrow().getTopLeftPoint());
+			assertEquals(bounds.get(i).getMinX() + 100d, canvas.getSelectedViews().get(i).getBoundsInParent().getMinX(), 1d);
+			assertEquals(bounds.get(i).getMinY() + 200d, canvas.getSelectedViews().get(i).getBoundsInParent().getMinY(), 1d);
+		}
+		drop();
+		waitFXEvents.execute();
+		for(int i = 0; i < positions.size(); i++) {
+			assertEquals(positions.get(i).getX() + 100d, canvas.getDrawing().getShapeAt(i).orElseThrow().getTopLeftPoint().getX(), 1d);
+			assertEquals(positions.get(i).getY() + 200d, canvas.getDrawing().getShapeAt(i).orElseThrow().getTopLeftPoint().getY(), 1d);
+		}
+	}
+
+	@Test
+	public void testTranslationPreviewOfRotatedPositionedShapes() {
+		final Dot dot = ShapeFactory.INST.createDot(ShapeFactory.INST.createPoint(-Canvas.ORIGIN.getX() + 150, -Canvas.ORIGIN.getY() + 150));
+		dot.setDiametre(40d);
+		dot.setDotStyle(DotStyle.SQUARE);
+		dot.setRotationAngle(0.7);
+		Platform.runLater(() -> canvas.getDrawing().addShape(dot));
+		new CompositeGUIVoidCommand(addText, waitFXEvents).execute();
+		final Shape text = canvas.getDrawing().getShapeAt(1).orElseThrow();
+		Platform.runLater(() -> text.setRotationAngle(-0.4));
+		new CompositeGUIVoidCommand(waitFXEvents, selectAllShapes).execute();
+		canvas.getSelectionBorder().setFill(new Color(1d, 1d, 1d, 0.1d));
+		final Bounds dotBounds = canvas.getSelectedViews().get(0).getBoundsInParent();
+		final Bounds textBounds = canvas.getSelectedViews().get(1).getBoundsInParent();
+		drag(canvas.getSelectionBorder());
+		waitFXEvents.execute();
+		moveBy(100d, 200d);
+		waitFXEvents.execute();
+		final Bounds dotPreview = canvas.getSelectedViews().get(0).getBoundsInParent();
+		final Bounds textPreview = canvas.getSelectedViews().get(1).getBoundsInParent();
+		drop();
+		waitFXEvents.execute();
+		// The translation is previewed in the coordinates of the drawing, whatever the rotation and the position of the views.
+		assertEquals(dotBounds.getMinX() + 100d, dotPreview.getMinX(), 1d);
+		assertEquals(dotBounds.getMinY() + 200d, dotPreview.getMinY(), 1d);
+		assertEquals(textBounds.getMinX() + 100d, textPreview.getMinX(), 1d);
+		assertEquals(textBounds.getMinY() + 200d, textPreview.getMinY(), 1d);
+	}
+
 	@Test
 	public void testTranslateSeveralShapesUsingOne() {
 		new CompositeGUIVoidCommand(addRec, addRec2, selectAllShapes).execute();
@@ -2,6 +2,7 @@ package net.sf.latexdraw.instrument;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javafx.application.HostServices;
 import javafx.application.Platform;
@@ -88,10 +89,17 @@ public class TestCodeInserter {
 	}
 
 	@Test
-	public void testTypeBadCodeOK(final FxRobot robot) {
+	public void testTypeBadCodeOK(final FxRobot robot) throws TimeoutException {
 		robot.clickOn(inserter.text).write("\\gridGapProp \\psframe[gridGapProp=10]");
-		WaitForAsyncUtils.waitForFxEvents();
-		assertFalse(inserter.errorLog.getText().isEmpty());
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !inserter.errorLog.getText().isEmpty());
+	}
+
+	@Test
+	public void testOnlyLatestCodeErrorsReported(final FxRobot robot) throws TimeoutException {
+		robot.clickOn(inserter.text).write("\\gridGapProp \\psframe[gridGapProp=10]");
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> !inserter.errorLog.getText().isEmpty());
+		Platform.runLater(() -> inserter.text.setText("\\psframe(0,0)(100,100)"));
+		WaitForAsyncUtils.waitFor(5, TimeUnit.SECONDS, () -> inserter.errorLog.getText().isEmpty());
 	}
 
 	@Test
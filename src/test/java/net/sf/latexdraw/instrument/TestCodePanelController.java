@@ -0,0 +1,177 @@
+package net.sf.latexdraw.instrument;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import net.sf.latexdraw.command.shape.TranslateShapes;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Rectangle;
+import net.sf.latexdraw.service.LaTeXDataService;
+import net.sf.latexdraw.service.PreferencesService;
+import net.sf.latexdraw.view.jfx.Canvas;
+import net.sf.latexdraw.view.jfx.MagneticGrid;
+import net.sf.latexdraw.view.latex.DrawingCodeLines;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import net.sf.latexdraw.view.pst.PSTCodeGenerator;
+import net.sf.latexdraw.view.pst.PSTViewsFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.malai.command.CommandsRegistry;
+import org.malai.undo.UndoCollector;
+import org.mockito.Mockito;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.util.WaitForAsyncUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(ApplicationExtension.class)
+public class TestCodePanelController {
+	Canvas canvas;
+	Drawing drawing;
+	PSTViewsFactory factory;
+	CodePanelController controller;
+	TabPane tabs;
+	Rectangle rec1;
+	Rectangle rec2;
+
+	@BeforeEach
+	void setUp() {
+		drawing = ShapeFactory.INST.createDrawing();
+		rec1 = ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(10d, 20d), 100d, 200d);
+		rec2 = ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(30d, 40d), 50d, 60d);
+		drawing.addShape(rec1);
+		drawing.addShape(rec2);
+		canvas = Mockito.mock(Canvas.class);
+		when(canvas.getDrawing()).thenReturn(drawing);
+		when(canvas.getOriginDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint());
+		when(canvas.getTopRightDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(500d, 0d));
+		when(canvas.getBottomLeftDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(0d, 500d));
+		when(canvas.getPPCDrawing()).thenReturn(50);
+		factory = Mockito.spy(new PSTViewsFactory(new PreferencesService().getBundle()));
+		controller = new CodePanelController(canvas, Mockito.mock(MagneticGrid.class), new PSTCodeGenerator(drawing, canvas, factory, new LaTeXDataService()));
+		controller.codeView = new ListView<>();
+		controller.tabPST = new Tab();
+		tabs = new TabPane(new Tab(), controller.tabPST);
+		WaitForAsyncUtils.asyncFx(() -> {
+			controller.initialize(null, null);
+			tabs.getSelectionModel().select(controller.tabPST);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+	}
+
+	@AfterEach
+	void tearDown() {
+		CommandsRegistry.INSTANCE.clear();
+		CommandsRegistry.INSTANCE.removeAllHandlers();
+		UndoCollector.INSTANCE.clear();
+		UndoCollector.INSTANCE.removeAllHandlers();
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	/** The code a generator that knows nothing about the previous generations produces. */
+	DrawingCodeLines freshCode() {
+		return new PSTCodeGenerator(drawing, canvas, new PSTViewsFactory(new PreferencesService().getBundle()), new LaTeXDataService()).getDrawingCodeLines();
+	}
+
+	void update() {
+		WaitForAsyncUtils.asyncFx(() -> controller.update());
+		WaitForAsyncUtils.waitForFxEvents();
+	}
+
+	TranslateShapes translateRec2() {
+		final Group group = ShapeFactory.INST.createGroup();
+		group.addShape(rec2);
+		final TranslateShapes cmd = new TranslateShapes(drawing, group);
+		cmd.setT(15d, 25d);
+		return cmd;
+	}
+
+	@Test
+	void testCodeShown() {
+		assertEquals(freshCode().getLines(), controller.codeView.getItems());
+	}
+
+	@Test
+	void testIncrementalUpdateGeneratesOnlyModifiedShape() {
+		Mockito.clearInvocations(factory);
+		final String rec1Line = controller.codeView.getItems().get(freshCode().getShapeLines(rec1).orElseThrow().a);
+		rec2.translate(15d, 25d);
+		update();
+		verify(factory, times(1)).createView(any());
+		final DrawingCodeLines expected = freshCode();
+		assertEquals(expected.getLines(), controller.codeView.getItems());
+		assertSame(rec1Line, controller.codeView.getItems().get(expected.getShapeLines(rec1).orElseThrow().a));
+	}
+
+	@Test
+	void testIncrementalUpdateKeepsShapesLocation() {
+		rec1.translate(15d, 25d);
+		update();
+		WaitForAsyncUtils.asyncFx(() -> drawing.getSelection().addShape(rec2));
+		WaitForAsyncUtils.waitForFxEvents();
+		final DrawingCodeLines expected = freshCode();
+		final int first = expected.getShapeLines(rec2).orElseThrow().a;
+		final int last = expected.getShapeLines(rec2).orElseThrow().b;
+		assertEquals(expected.getLines().subList(first, last), new ArrayList<>(controller.codeView.getSelectionModel().getSelectedItems()));
+	}
+
+	@Test
+	void testShapeAddedUpdatesAll() {
+		drawing.addShape(ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(300d, 40d), 20d, 60d));
+		update();
+		assertEquals(freshCode().getLines(), controller.codeView.getItems());
+	}
+
+	@Test
+	void testUndoRedo() {
+		final List<String> before = new ArrayList<>(controller.codeView.getItems());
+		final TranslateShapes cmd = translateRec2();
+		WaitForAsyncUtils.asyncFx(() -> {
+			cmd.doIt();
+			UndoCollector.INSTANCE.add(cmd, null);
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		update();
+		final List<String> after = new ArrayList<>(controller.codeView.getItems());
+		assertNotEquals(before, after);
+
+		WaitForAsyncUtils.asyncFx(() -> UndoCollector.INSTANCE.undo());
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(before, controller.codeView.getItems());
+
+		WaitForAsyncUtils.asyncFx(() -> UndoCollector.INSTANCE.redo());
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(after, controller.codeView.getItems());
+	}
+
+	@Test
+	void testNotUpdatedWhileHidden() {
+		final List<String> before = new ArrayList<>(controller.codeView.getItems());
+		WaitForAsyncUtils.asyncFx(() -> tabs.getSelectionModel().select(0));
+		WaitForAsyncUtils.waitForFxEvents();
+		final TranslateShapes cmd = translateRec2();
+		WaitForAsyncUtils.asyncFx(() -> {
+			cmd.doIt();
+			UndoCollector.INSTANCE.add(cmd, null);
+			UndoCollector.INSTANCE.undo();
+			UndoCollector.INSTANCE.redo();
+		});
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(before, controller.codeView.getItems());
+		WaitForAsyncUtils.asyncFx(() -> tabs.getSelectionModel().select(controller.tabPST));
+		WaitForAsyncUtils.waitForFxEvents();
+		assertEquals(freshCode().getLines(), controller.codeView.getItems());
+	}
+}
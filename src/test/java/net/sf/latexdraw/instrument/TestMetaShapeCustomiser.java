@@ -15,6 +15,7 @@ import net.sf.latexdraw.view.jfx.MagneticGrid;
 import net.sf.latexdraw.view.jfx.Canvas;
 import org.junit.Before;
 import org.junit.Test;
+import org.malai.command.Command;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertFalse;
@@ -85,6 +86,16 @@ public class TestMetaShapeCustomiser implements CollectionMatcher {
 		getPropInstruments().forEach(ins -> Mockito.verify(ins, Mockito.times(1)).update(Mockito.any()));
 	}
 
+	@Test
+	public void testOnlyAffectedInstrumentsUpdatedOnCmdDone() {
+		final ShapeBorderCustomiser border = injector.getInstance(ShapeBorderCustomiser.class);
+		final Command cmd = Mockito.mock(Command.class);
+		Mockito.when(border.isAffectedBy(cmd)).thenReturn(true);
+		meta.onCmdDone(cmd);
+		Mockito.verify(border, Mockito.times(1)).update(Mockito.any());
+		getPropInstruments().filter(ins -> ins != border).forEach(ins -> Mockito.verify(ins, Mockito.never()).update(Mockito.any()));
+	}
+
 	@Test
 	public void testAllInstrumentClearEvents() {
 		meta.clearEvents();
@@ -2,8 +2,11 @@ package net.sf.latexdraw.instrument.hand;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import javafx.application.Platform;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import net.sf.latexdraw.command.shape.ModifyShapeProperty;
+import net.sf.latexdraw.command.shape.ShapeProperties;
 import net.sf.latexdraw.instrument.CompositeGUIVoidCommand;
 import net.sf.latexdraw.instrument.Hand;
 import net.sf.latexdraw.instrument.MetaShapeCustomiser;
@@ -17,6 +20,7 @@ import net.sf.latexdraw.model.api.shape.BorderPos;
 import net.sf.latexdraw.model.api.shape.LineStyle;
 import net.sf.latexdraw.model.api.shape.Rectangle;
 import net.sf.latexdraw.util.Injector;
+import net.sf.latexdraw.view.latex.DviPsColors;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -151,4 +155,30 @@ public class TestHandLineStyle extends TestLineStyleGUI {
 		assertEquals(lineColButton.getValue(), drawing.getSelection().getShapeAt(1).orElseThrow().getLineColour().toJFX());
 		assertNotEquals(col, lineColButton.getValue());
 	}
+
+	@Test
+	public void testNotUpdatedByCmdOnUndisplayedProperty() {
+		new CompositeGUIVoidCommand(activateHand, selectionAddRec, updateIns).execute();
+		final double thickness = thicknessField.getValue();
+		// Modified without command: only an update of the instrument can show the new thickness.
+		drawing.getSelection().getShapeAt(0).orElseThrow().setThickness(thickness + 5d);
+		final ModifyShapeProperty<?> cmd = new ModifyShapeProperty<>(ShapeProperties.COLOUR_FILLING, drawing.getSelection(), DviPsColors.RED);
+		cmd.doIt();
+		Platform.runLater(() -> ins.onCmdDone(cmd));
+		waitFXEvents.execute();
+		assertFalse(ins.isAffectedBy(cmd));
+		assertEquals(thickness, thicknessField.getValue(), 0.0001);
+	}
+
+	@Test
+	public void testUpdatedByCmdOnDisplayedProperty() {
+		new CompositeGUIVoidCommand(activateHand, selectionAddRec, updateIns).execute();
+		final double thickness = thicknessField.getValue();
+		final ModifyShapeProperty<Double> cmd = new ModifyShapeProperty<>(ShapeProperties.LINE_THICKNESS, drawing.getSelection(), thickness + 5d);
+		cmd.doIt();
+		Platform.runLater(() -> ins.onCmdDone(cmd));
+		waitFXEvents.execute();
+		assertTrue(ins.isAffectedBy(cmd));
+		assertEquals(thickness + 5d, thicknessField.getValue(), 0.0001);
+	}
 }
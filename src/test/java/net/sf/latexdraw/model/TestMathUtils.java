@@ -1,6 +1,10 @@
 package net.sf.latexdraw.model;
 
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import net.sf.latexdraw.data.DoubleSupplier;
 import org.junit.jupiter.api.DynamicTest;
@@ -15,6 +19,8 @@ import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumingThat;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
@@ -132,4 +138,27 @@ public class TestMathUtils {
 	void testParserDoubleKODouble() {
 		assertEquals(-1.2, MathUtils.INST.parserDouble("-1.2").orElseThrow(), 0.000001);
 	}
+
+	@Test
+	void testFormat() {
+		assertEquals("-1.235", MathUtils.INST.getFormat().format(-1.23456));
+		assertEquals("10000", MathUtils.INST.getFormat().format(10000d));
+	}
+
+	@Test
+	void testFormatOnePerThread() throws InterruptedException {
+		final DecimalFormat[] other = new DecimalFormat[1];
+		final Thread thread = new Thread(() -> other[0] = MathUtils.INST.getFormat());
+		thread.start();
+		thread.join();
+		assertNotSame(MathUtils.INST.getFormat(), other[0]);
+		assertSame(MathUtils.INST.getFormat(), MathUtils.INST.getFormat());
+	}
+
+	@Test
+	void testFormatConcurrently() {
+		final List<String> expected = IntStream.range(0, 10000).mapToObj(i -> String.valueOf(i / 8d)).collect(Collectors.toList());
+		final List<String> formatted = IntStream.range(0, 10000).parallel().mapToObj(i -> MathUtils.INST.getFormat().format(i / 8d)).collect(Collectors.toList());
+		assertEquals(expected.stream().map(str -> str.endsWith(".0") ? str.substring(0, str.length() - 2) : str).collect(Collectors.toList()), formatted);
+	}
 }
@@ -0,0 +1,96 @@
+package net.sf.latexdraw.model.api.shape;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPlotData {
+	static PlotData createSeries(final int size) {
+		final double[] coords = IntStream.range(0, size * 2).mapToDouble(i -> i % 2 == 0 ? i / 2 : Math.sin(i / 2 * 0.01)).toArray();
+		return new PlotData(coords, coords.length);
+	}
+
+	@Test
+	void testSize() {
+		assertEquals(2, new PlotData(new double[] {1d, 2d, 3d, 4d, 5d}, 5).size());
+	}
+
+	@Test
+	void testBounds() {
+		final PlotData data = new PlotData(new double[] {1d, -2d, -3d, 4d, 5d, 0d}, 6);
+		assertEquals(-3d, data.getMinX(), 0.00001);
+		assertEquals(5d, data.getMaxX(), 0.00001);
+		assertEquals(-2d, data.getMinY(), 0.00001);
+		assertEquals(4d, data.getMaxY(), 0.00001);
+	}
+
+	@Test
+	void testCoordinatesCopied() {
+		final double[] coords = {1d, 2d, 3d, 4d};
+		final PlotData data = new PlotData(coords, coords.length);
+		coords[0] = 10d;
+		assertEquals(1d, data.getX(0), 0.00001);
+	}
+
+	@Test
+	void testSmallSeriesNotDecimated() {
+		final PlotData data = createSeries(100);
+		assertSame(data, data.decimate(100));
+	}
+
+	@Test
+	void testDecimateLargeSeries() {
+		final PlotData data = createSeries(500_000);
+		final PlotData decimated = data.decimate(1000);
+		assertTrue(decimated.size() <= 4000);
+		assertEquals(data.getMinY(), decimated.getMinY(), 0.00001);
+		assertEquals(data.getMaxY(), decimated.getMaxY(), 0.00001);
+		assertEquals(data.getMinX(), decimated.getMinX(), 0.00001);
+		assertEquals(data.getMaxX(), decimated.getMaxX(), 0.00001);
+	}
+
+	@Test
+	void testDecimateKeepsOrder() {
+		final PlotData decimated = createSeries(100_000).decimate(500);
+		IntStream.range(1, decimated.size()).forEach(i -> assertTrue(decimated.getX(i - 1) < decimated.getX(i)));
+	}
+
+	@Test
+	void testAppendCoordinatesNoExponent() {
+		final PlotData data = new PlotData(new double[] {0.00001, 1e7, -2.5, 3d}, 4);
+		assertEquals("0.00001 10000000 -2.5 3", data.appendCoordinates(new StringBuilder()).toString());
+	}
+
+	@Test
+	void testAppendCoordinatesPointsPerLine() {
+		final PlotData data = new PlotData(new double[] {0d, 1d, 2d, 3d, 4d, 5d, 6d, 7d, 8d, 9d}, 10);
+		assertEquals("0 1 2 3\n4 5 6 7\n8 9", data.appendCoordinates(new StringBuilder(), 2, "\n").toString());
+	}
+
+	@Test
+	void testAppendCoordinatesLargeSeriesMaxLineLength() {
+		final String code = createSeries(100_000).appendCoordinates(new StringBuilder(), 10, "\n").toString();
+		final String[] lines = code.split("\n");
+		assertEquals(10_000, lines.length);
+		assertTrue(Arrays.stream(lines).allMatch(line -> line.length() < 500));
+		assertTrue(Arrays.stream(lines).allMatch(line -> line.split(" ").length == 20));
+	}
+
+	@Test
+	void testNonFinitePointsIgnored() {
+		final PlotData data = new PlotData(new double[] {0d, 1d, Double.NaN, 2d, 3d, Double.POSITIVE_INFINITY, 4d, 5d}, 8);
+		assertEquals(2, data.size());
+		assertEquals(5d, data.getMaxY(), 0.00001);
+		assertEquals("0 1 4 5", data.appendCoordinates(new StringBuilder()).toString());
+	}
+
+	@Test
+	void testEquals() {
+		assertEquals(createSeries(10), createSeries(10));
+		assertEquals(createSeries(10).hashCode(), createSeries(10).hashCode());
+	}
+}
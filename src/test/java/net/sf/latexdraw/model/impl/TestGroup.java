@@ -29,6 +29,7 @@ import org.junit.runner.RunWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -771,4 +772,20 @@ public class TestGroup implements HelperTest {
 		shape.getShapes().stream().filter(sh -> sh.isInteriorStylable()).
 			forEach(sh -> assertEquals(FillingStyle.GRAD, sh.getFillingStyle()));
 	}
+
+	@Test
+	public void testModificationStampChangesWhenShapeAdded() {
+		final long stamp = shape.getModificationStamp();
+		shape.addShape(sh1);
+		assertThat(shape.getModificationStamp(), greaterThan(stamp));
+	}
+
+	@Test
+	public void testModificationStampChangesWhenShapeModified() {
+		shape.addShape(sh1);
+		shape.addShape(sh2);
+		final long stamp = shape.getModificationStamp();
+		sh1.setThickness(sh1.getThickness() + 1d);
+		assertThat(shape.getModificationStamp(), greaterThan(stamp));
+	}
 }
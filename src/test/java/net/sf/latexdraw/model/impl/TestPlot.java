@@ -11,6 +11,7 @@ import net.sf.latexdraw.model.api.shape.Circle;
 import net.sf.latexdraw.model.api.shape.Dot;
 import net.sf.latexdraw.model.api.shape.DotStyle;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
 import net.sf.latexdraw.model.api.shape.Point;
 import net.sf.latexdraw.model.api.shape.PositionShape;
@@ -384,4 +385,50 @@ public class TestPlot implements HelperTest {
 	public void testYScalePropertyNotNull() {
 		assertNotNull(shape.yScaleProperty());
 	}
+
+	@Test
+	public void testPlotDataPropertyNotNull() {
+		assertNotNull(shape.plotDataProperty());
+	}
+
+	@Test
+	public void testSetPlotDataSetsBounds() {
+		shape.setPlotData(new PlotData(new double[] {-10d, 1d, 20d, 2d}, 4));
+		assertEquals(-10d, shape.getPlotMinX(), 0.0001);
+		assertEquals(20d, shape.getPlotMaxX(), 0.0001);
+	}
+
+	@Test
+	public void testSetPlotDataBoundsAboveCurrentBounds() {
+		shape.setPlotData(new PlotData(new double[] {1000d, 1d, 2000d, 2d}, 4));
+		assertEquals(1000d, shape.getPlotMinX(), 0.0001);
+		assertEquals(2000d, shape.getPlotMaxX(), 0.0001);
+	}
+
+	@Test
+	public void testSetPlotDataSingleAbscissaSetsBounds() {
+		shape.setPlotData(new PlotData(new double[] {1000d, 1d, 1000d, 2d}, 4));
+		assertEquals(999d, shape.getPlotMinX(), 0.0001);
+		assertEquals(1001d, shape.getPlotMaxX(), 0.0001);
+	}
+
+	@Test
+	public void testSetPlotDataEmptySetsBounds() {
+		shape.setPlotData(new PlotData(new double[] {}, 0));
+		assertEquals(-1d, shape.getPlotMinX(), 0.0001);
+		assertEquals(1d, shape.getPlotMaxX(), 0.0001);
+	}
+
+	@Test
+	public void testPlotDataBoundingBox() {
+		shape.setPlotData(new PlotData(new double[] {0d, -1d, 2d, 3d}, 4));
+		assertEquals(shape.getPosition().getY() - 3d * Shape.PPC * shape.getYScale(), shape.getTopLeftPoint().getY(), 0.0001);
+		assertEquals(shape.getPosition().getY() + Shape.PPC * shape.getYScale(), shape.getBottomRightPoint().getY(), 0.0001);
+	}
+
+	@Test
+	public void testDuplicatePlotData() {
+		shape.setPlotData(new PlotData(new double[] {0d, -1d, 2d, 3d}, 4));
+		assertEquals(shape.getPlotData(), shape.duplicate().getPlotData());
+	}
 }
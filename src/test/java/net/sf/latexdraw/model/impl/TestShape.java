@@ -19,6 +19,7 @@ import org.junit.runner.RunWith;
 
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -605,4 +606,26 @@ public class TestShape implements HelperTest {
 		shape.setFillingStyle(style);
 		assertEquals(style, shape.getFillingStyle());
 	}
+
+	@Theory
+	public void testModificationStampChangesOnTranslate(@ShapeData final Shape shape) {
+		final long stamp = shape.getModificationStamp();
+		shape.translate(11d, 12d);
+		assertThat(shape.getModificationStamp(), greaterThan(stamp));
+	}
+
+	@Theory
+	public void testModificationStampChangesOnSetProperty(@ShapeData final Shape shape) {
+		final long stamp = shape.getModificationStamp();
+		shape.setLineColour(DviPsColors.APRICOT);
+		assertThat(shape.getModificationStamp(), greaterThan(stamp));
+	}
+
+	@Theory
+	public void testModificationStampStableWhenNotModified(@ShapeData final Shape shape) {
+		final long stamp = shape.getModificationStamp();
+		shape.getTopLeftPoint();
+		ShapeFactory.INST.createRectangle().setThickness(23d);
+		assertEquals(stamp, shape.getModificationStamp());
+	}
 }
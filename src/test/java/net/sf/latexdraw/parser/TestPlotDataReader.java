@@ -0,0 +1,54 @@
+package net.sf.latexdraw.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.model.api.shape.PlotData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestPlotDataReader {
+	@Test
+	void testSpaceSeparated() {
+		final PlotData data = PlotDataReader.INSTANCE.read("0 1\n2 3.5");
+		assertEquals(2, data.size());
+		assertEquals(3.5, data.getY(1), 0.00001);
+	}
+
+	@Test
+	void testBracedPairs() {
+		final PlotData data = PlotDataReader.INSTANCE.read("{0,1} {2,-3}, {4, 1e2}");
+		assertEquals(3, data.size());
+		assertEquals(-3d, data.getY(1), 0.00001);
+		assertEquals(100d, data.getY(2), 0.00001);
+	}
+
+	@Test
+	void testComments() {
+		final PlotData data = PlotDataReader.INSTANCE.read("% time value 12 13\n0 1 % 5 6\n2 3");
+		assertEquals(2, data.size());
+		assertEquals(2d, data.getX(1), 0.00001);
+	}
+
+	@Test
+	void testNotNumbersIgnored() {
+		assertEquals(1, PlotDataReader.INSTANCE.read("x y 0 1").size());
+	}
+
+	@Test
+	void testOutOfRangeNumbersIgnored() {
+		final PlotData data = PlotDataReader.INSTANCE.read("1e999 0 1 -1e999");
+		assertEquals(1, data.size());
+		assertEquals(1d, data.getY(0), 0.00001);
+	}
+
+	@Test
+	void testLargeInput() throws IOException {
+		final String input = IntStream.range(0, 100_000).mapToObj(i -> i + "\t" + (i * 2)).collect(Collectors.joining("\n"));
+		final PlotData data = PlotDataReader.INSTANCE.read(new StringReader(input));
+		assertEquals(100_000, data.size());
+		assertEquals(199_998d, data.getY(99_999), 0.00001);
+	}
+}
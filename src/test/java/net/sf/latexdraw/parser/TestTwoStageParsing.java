@@ -0,0 +1,157 @@
+package net.sf.latexdraw.parser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.parser.pst.PSTContext;
+import net.sf.latexdraw.parser.pst.PSTLatexdrawListener;
+import net.sf.latexdraw.parser.pst.PSTLexer;
+import net.sf.latexdraw.parser.pst.PSTParser;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTwoStageParsing {
+	PSTParser parser;
+	PSTLatexdrawListener listener;
+	AtomicInteger errors;
+
+	@BeforeEach
+	void setUp() {
+		errors = new AtomicInteger();
+		listener = new PSTLatexdrawListener();
+		parser = new PSTParser(new CommonTokenStream(new PSTLexer(CharStreams.fromString("\\psframe(0,0)(1,1)\\psline(1,2)(3,4)"))));
+		parser.addParseListener(listener);
+		parser.addErrorListener(new BaseErrorListener() {
+			@Override
+			public void syntaxError(final Recognizer<?, ?> recognizer, final Object offendingSymbol, final int line, final int charPositionInLine,
+				final String msg, final RecognitionException e) {
+				errors.incrementAndGet();
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	@Test
+	void testWellFormedCodeParsedInSLL() {
+		assertTrue(TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset));
+		assertEquals(2, listener.flatShapes().size());
+		assertEquals(0, errors.get());
+	}
+
+	@Test
+	void testFallbackToLL() {
+		final AtomicInteger calls = new AtomicInteger();
+		final AtomicInteger resets = new AtomicInteger();
+
+		final boolean sll = TwoStageParsing.INSTANCE.parse(parser, p -> {
+			if(calls.incrementAndGet() == 1) {
+				p.pstCode(new PSTContext());
+				throw new ParseCancellationException(new InputMismatchException(p));
+			}
+			assertEquals(PredictionMode.LL, p.getInterpreter().getPredictionMode());
+			p.pstCode(new PSTContext());
+		}, () -> {
+			resets.incrementAndGet();
+			listener.reset();
+		});
+
+		assertFalse(sll);
+		assertEquals(2, calls.get());
+		assertEquals(1, resets.get());
+		assertEquals(2, listener.flatShapes().size());
+	}
+
+	@Test
+	void testColoursDefinedDuringSLLRolledBack() {
+		parser = new PSTParser(new CommonTokenStream(new PSTLexer(CharStreams.fromString(
+			"\\psframe[linecolor=foo](0,0)(1,1)\\definecolor{foo}{rgb}{1,0,0}"))));
+		parser.addParseListener(listener);
+		final AtomicInteger calls = new AtomicInteger();
+
+		TwoStageParsing.INSTANCE.parse(parser, p -> {
+			p.pstCode(new PSTContext());
+			if(calls.incrementAndGet() == 1) {
+				throw new ParseCancellationException(new InputMismatchException(p));
+			}
+		}, listener::reset);
+
+		// The colour defined at the end of the SLL stage must not be used before its definition during the LL stage.
+		assertEquals(DviPsColors.BLACK, listener.flatShapes().get(0).getLineColour());
+	}
+
+	@Test
+	void testDefinedColoursNotRegisteredDuringParsing() {
+		DviPsColors.INSTANCE.addUserColour(DviPsColors.GREEN, "foo");
+		parser = new PSTParser(new CommonTokenStream(new PSTLexer(CharStreams.fromString(
+			"\\definecolor{foo}{rgb}{1,0,0}\\definecolor{bar}{rgb}{0,0,1}\\psframe[linecolor=foo](0,0)(1,1)"))));
+		parser.addParseListener(listener);
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset);
+
+		assertEquals(ShapeFactory.INST.createColor(1d, 0d, 0d), listener.flatShapes().get(0).getLineColour());
+		assertEquals(DviPsColors.GREEN, DviPsColors.INSTANCE.getColour("foo").orElseThrow());
+		assertTrue(DviPsColors.INSTANCE.getColour("bar").isEmpty());
+
+		listener.registerDefinedColours();
+		assertEquals(ShapeFactory.INST.createColor(1d, 0d, 0d), DviPsColors.INSTANCE.getColour("foo").orElseThrow());
+		assertEquals(ShapeFactory.INST.createColor(0d, 0d, 1d), DviPsColors.INSTANCE.getColour("bar").orElseThrow());
+	}
+
+	@Test
+	void testErrorListenersRestored() {
+		final int nbListeners = parser.getErrorListeners().size();
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset);
+		assertEquals(nbListeners, parser.getErrorListeners().size());
+	}
+
+	@Test
+	void testErrorStrategyRestored() {
+		final DefaultErrorStrategy strategy = new DefaultErrorStrategy();
+		parser.setErrorHandler(strategy);
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset);
+		assertSame(strategy, parser.getErrorHandler());
+	}
+
+	@Test
+	void testErrorStrategyUsedByLLStage() {
+		final DefaultErrorStrategy strategy = new DefaultErrorStrategy();
+		final AtomicInteger calls = new AtomicInteger();
+		parser.setErrorHandler(strategy);
+
+		assertFalse(TwoStageParsing.INSTANCE.parse(parser, p -> {
+			if(calls.incrementAndGet() == 1) {
+				throw new ParseCancellationException(new InputMismatchException(p));
+			}
+			assertSame(strategy, p.getErrorHandler());
+			p.pstCode(new PSTContext());
+		}, listener::reset));
+		assertEquals(2, calls.get());
+		assertSame(strategy, parser.getErrorHandler());
+	}
+
+	@Test
+	void testClientCancellationNotCaught() {
+		assertThrows(ParseCancellationException.class, () -> TwoStageParsing.INSTANCE.parse(parser, p -> {
+			throw new ParseCancellationException();
+		}, listener::reset));
+	}
+}
@@ -0,0 +1,68 @@
+package net.sf.latexdraw.parser.pst;
+
+import java.util.stream.IntStream;
+import net.sf.latexdraw.view.pst.PSTricksConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestPSTContext {
+	PSTContext ctx;
+
+	@BeforeEach
+	void setUp() {
+		ctx = new PSTContext();
+	}
+
+	@Test
+	void testDefaultValue() {
+		assertEquals(PSTricksConstants.DEFAULT_LINE_WIDTH, ctx.get(PSTParam.LINE_WIDTH), 0.0001);
+	}
+
+	@Test
+	void testSetValue() {
+		ctx.set(PSTParam.LINE_WIDTH, 12d);
+		assertEquals(12d, ctx.get(PSTParam.LINE_WIDTH), 0.0001);
+	}
+
+	@Test
+	void testChildGetsParentValue() {
+		ctx.set(PSTParam.LINE_STYLE, "dashed");
+		assertEquals("dashed", new PSTContext(ctx, false).get(PSTParam.LINE_STYLE));
+	}
+
+	@Test
+	void testChildValueDoesNotChangeParent() {
+		final PSTContext child = new PSTContext(ctx, false);
+		child.set(PSTParam.LINE_WIDTH, 12d);
+		assertEquals(PSTricksConstants.DEFAULT_LINE_WIDTH, ctx.get(PSTParam.LINE_WIDTH), 0.0001);
+	}
+
+	@Test
+	void testParentValueSetAfterDoesNotChangeChild() {
+		final PSTContext child = new PSTContext(ctx, false);
+		ctx.set(PSTParam.LINE_WIDTH, 12d);
+		assertEquals(PSTricksConstants.DEFAULT_LINE_WIDTH, child.get(PSTParam.LINE_WIDTH), 0.0001);
+	}
+
+	@Test
+	void testManyValuesSet() {
+		IntStream.range(0, 100).forEach(i -> ctx.set(PSTParam.PLOT_POINTS, i));
+		ctx.set(PSTParam.LINE_STYLE, "dotted");
+		final PSTContext child = new PSTContext(ctx, false);
+		IntStream.range(0, 100).forEach(i -> child.set(PSTParam.DOT_ANGLE, (double) i));
+		assertEquals(99, (int) child.get(PSTParam.PLOT_POINTS));
+		assertEquals(99d, child.get(PSTParam.DOT_ANGLE), 0.0001);
+		assertEquals("dotted", child.get(PSTParam.LINE_STYLE));
+		assertEquals(PSTricksConstants.DEFAULT_DOT_ANGLE, ctx.get(PSTParam.DOT_ANGLE), 0.0001);
+	}
+
+	@Test
+	void testSharedTexts() {
+		assertSame(ctx.textParsed, new PSTContext(ctx, true).textParsed);
+		assertNotSame(ctx.textParsed, new PSTContext(ctx, false).textParsed);
+	}
+}
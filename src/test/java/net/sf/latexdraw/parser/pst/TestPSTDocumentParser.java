@@ -0,0 +1,199 @@
+package net.sf.latexdraw.parser.pst;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.parser.TwoStageParsing;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPSTDocumentParser {
+	@AfterEach
+	void tearDown() {
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	static List<Shape> parseSequentially(final String code) {
+		final PSTLatexdrawListener listener = new PSTLatexdrawListener();
+		final PSTParser parser = new PSTParser(new CommonTokenStream(new PSTLexer(CharStreams.fromString(code))));
+		parser.addParseListener(listener);
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset);
+		return listener.flatShapes();
+	}
+
+	/** A document of the given number of shapes that mixes several commands, parameters and blocks. */
+	static String generateDocument(final int nbShapes) {
+		return IntStream.range(0, nbShapes).mapToObj(i -> {
+			switch(i % 5) {
+				case 0: return "\\psframe[linewidth=0.04,linecolor=blue,fillstyle=solid](" + i + ",0)(" + (i + 1) + ",1.5)";
+				case 1: return "\\psline[linestyle=dashed,dash=0.16cm 0.16cm]{<->}(" + i + ",0)(" + i + ",2)(" + (i + 2) + ",3)";
+				case 2: return "{\\psset{linecolor=red}\\pscircle[dimen=outer](" + i + ",1){0.5}}";
+				case 3: return "\\psbezier[showpoints=true](" + i + ",0)(1,1)(2,2)(" + i + ",3)";
+				default: return "\\rput(" + i + ",2){\\psellipse[hatchangle=45,fillstyle=hlines](0,0)(1,0.5)}";
+			}
+		}).collect(Collectors.joining("\n", "\\begin{pspicture}(0,0)(" + nbShapes + ",10)\n", "\n\\end{pspicture}"));
+	}
+
+	static void assertSameShapes(final List<Shape> expected, final List<Shape> shapes) {
+		assertEquals(expected.size(), shapes.size());
+		IntStream.range(0, expected.size()).forEach(i -> {
+			assertEquals(expected.get(i).getClass(), shapes.get(i).getClass());
+			assertEquals(expected.get(i).getTopLeftPoint(), shapes.get(i).getTopLeftPoint());
+			assertEquals(expected.get(i).getThickness(), shapes.get(i).getThickness(), 0.0001);
+			if(expected.get(i) instanceof Group) {
+				assertSameShapes(((Group) expected.get(i)).getShapes(), ((Group) shapes.get(i)).getShapes());
+			}
+		});
+	}
+
+	@Test
+	void testSmallDocumentNotChunked() {
+		assertFalse(new PSTDocumentParser("\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)").isChunked());
+	}
+
+	@Test
+	void testSmallDocumentParsed() {
+		assertEquals(2, new PSTDocumentParser("\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)").parse(p -> { }, () -> false).size());
+	}
+
+	@Test
+	void testLargePictureChunked() {
+		assertTrue(new PSTDocumentParser(generateDocument(3000)).isChunked());
+	}
+
+	@Test
+	void testLargePictureSameShapesAsSequentialParsing() {
+		final String code = generateDocument(3000);
+		assertSameShapes(parseSequentially(code), new PSTDocumentParser(code).parse(p -> { }, () -> false));
+	}
+
+	@Test
+	void testLargeTopLevelListSameShapesAsSequentialParsing() {
+		final String code = IntStream.range(0, 3000).mapToObj(i -> "\\psframe(" + i + ",0)(" + (i + 1) + ",1)").collect(Collectors.joining("\n"));
+		final PSTDocumentParser parser = new PSTDocumentParser(code);
+		assertTrue(parser.isChunked());
+		assertSameShapes(parseSequentially(code), parser.parse(p -> { }, () -> false));
+	}
+
+	@Test
+	void testPssetReplayedInNextChunks() {
+		final String code = IntStream.range(0, 3000).mapToObj(i -> "\\psframe(" + i + ",0)(" + (i + 1) + ",1)").
+			collect(Collectors.joining("\n", "\\begin{pspicture}(0,0)(10,10)\n\\psset{linewidth=0.5cm}\n", "\n\\end{pspicture}"));
+		final List<Shape> shapes = new PSTDocumentParser(code).parse(p -> { }, () -> false);
+		assertEquals(3000, shapes.size());
+		assertEquals(shapes.get(0).getThickness(), shapes.get(2999).getThickness(), 0.0001);
+	}
+
+	@Test
+	void testPssetSharingALineReplayedInNextChunks() {
+		final String code = IntStream.range(0, 3000).mapToObj(i -> "\\psframe(" + i + ",0)(" + (i + 1) + ",1)").
+			collect(Collectors.joining("\n", "\\begin{pspicture}(0,0)(10,10)\n\\psset{linewidth=0.5cm}\\psframe(-1,0)(0,1)\n", "\n\\end{pspicture}"));
+		final List<Shape> shapes = new PSTDocumentParser(code).parse(p -> { }, () -> false);
+		assertEquals(3001, shapes.size());
+		assertSameShapes(parseSequentially(code), shapes);
+	}
+
+	@Test
+	void testDefinecolorSharingALineReplayedInNextChunks() {
+		final String code = IntStream.range(0, 3000).mapToObj(i -> "\\psframe[linecolor=myc](" + i + ",0)(" + (i + 1) + ",1)").
+			collect(Collectors.joining("\n", "\\psframe(-1,0)(0,1)\\definecolor{myc}{rgb}{0.1,0.2,0.3}\n", ""));
+		final PSTDocumentParser parser = new PSTDocumentParser(code);
+		assertTrue(parser.isChunked());
+		final List<Shape> shapes = parser.parse(p -> { }, () -> false);
+		assertEquals(3001, shapes.size());
+		assertEquals(DviPsColors.INSTANCE.getColour("myc").orElseThrow(), shapes.get(3000).getLineColour());
+	}
+
+	@Test
+	void testColourRedefinedInAnotherChunk() {
+		final String frames = IntStream.range(0, 600).mapToObj(i -> "\\psframe[linecolor=myc](" + i + ",0)(" + (i + 1) + ",1)\n").collect(Collectors.joining());
+		final String code = "\\definecolor{myc}{rgb}{1,0,0}\n" + frames + "\\definecolor{myc}{rgb}{0,0,1}\n" + frames;
+		final PSTDocumentParser parser = new PSTDocumentParser(code);
+		assertTrue(parser.isChunked());
+		// The chunks are parsed in parallel: the colours must not depend on the scheduling.
+		for(int i = 0; i < 5; i++) {
+			final List<Shape> shapes = parser.parse(p -> { }, () -> false);
+			assertEquals(1200, shapes.size());
+			assertTrue(shapes.subList(0, 600).stream().allMatch(sh -> sh.getLineColour().equals(DviPsColors.RED)));
+			assertTrue(shapes.subList(600, 1200).stream().allMatch(sh -> sh.getLineColour().equals(DviPsColors.BLUE)));
+			assertEquals(DviPsColors.BLUE, DviPsColors.INSTANCE.getColour("myc").orElseThrow());
+			DviPsColors.INSTANCE.clearUserColours();
+		}
+	}
+
+	@Test
+	void testGetStateCmdsOnlyTheStateCmds() {
+		assertEquals(List.of("\\psset{linewidth=1}", "\\definecolor{foo}{rgb}{1,0,0}"),
+			PSTDocumentParser.getStateCmds("\\psset{linewidth=1}\\psframe(0,0)(1,1) \\definecolor{foo}{rgb}{1,0,0}\\psline(1,1)(2,2)\n"));
+	}
+
+	@Test
+	void testGetStateCmdsNoPssetInGroups() {
+		assertEquals(List.of("\\definecolor{foo}{rgb}{1,0,0}"),
+			PSTDocumentParser.getStateCmds("{\\psset{linewidth=1}\\definecolor{foo}{rgb}{1,0,0}\\psline(1,1)(2,2)} % \\psset{linewidth=2}\n"));
+	}
+
+	@Test
+	void testGetStateCmdsWithOptionalArgs() {
+		assertEquals(List.of("\\readdata[nStep=2]{\\data}{foo.dat}", "\\savedata{\\pts}[{1,2}]"),
+			PSTDocumentParser.getStateCmds("\\readdata[nStep=2]{\\data}{foo.dat} \\savedata{\\pts}[{1,2}]\\psline(1,1)(2,2)"));
+	}
+
+	@Test
+	void testTopLevelTextParsedSequentially() {
+		final String code = IntStream.range(0, 3000).mapToObj(i -> "\\psframe(" + i + ",0)(" + (i + 1) + ",1)").
+			collect(Collectors.joining("\n", "foo\n", "\nbar"));
+		assertSameShapes(parseSequentially(code), new PSTDocumentParser(code).parse(p -> { }, () -> false));
+	}
+
+	@Test
+	void testProgressCompleted() {
+		final double[] progress = {0d};
+		new PSTDocumentParser(generateDocument(3000)).parse(p -> progress[0] = p, () -> false);
+		assertEquals(1d, progress[0], 0.0001);
+	}
+
+	@Test
+	void testCancelled() {
+		final PSTDocumentParser parser = new PSTDocumentParser(generateDocument(3000));
+		assertThrows(CancellationException.class, () -> parser.parse(p -> { }, () -> true));
+	}
+
+	@Test
+	void testSplitTopLevelInGroupsAndEnvironments() {
+		final List<String> segments = PSTDocumentParser.splitTopLevel("\\psframe(0,0)(1,1)\n{\\psline(1,2)\n\\psline(3,4)}\n" +
+			"\\begin{pspicture}\n\\psdot(1,1)\n\\end{pspicture}\n% \\psline{\n\\psdot(2,2)");
+		assertEquals(List.of("\\psframe(0,0)(1,1)\n", "{\\psline(1,2)\n\\psline(3,4)}\n", "\\begin{pspicture}\n\\psdot(1,1)\n\\end{pspicture}\n% \\psline{\n",
+			"\\psdot(2,2)"), segments);
+	}
+
+	@Test
+	void testSplitTopLevelUnbalanced() {
+		assertNull(PSTDocumentParser.splitTopLevel("{\\psline(1,2)\n\\psline(3,4)"));
+	}
+
+	@Test
+	void testRelativeDataFileResolvedAgainstDocumentDir(@TempDir final Path dir) throws IOException {
+		Files.writeString(dir.resolve("data.dat"), "0 1\n1 2\n2 4\n");
+		final List<Shape> shapes = new PSTDocumentParser("\\readdata{\\mydata}{data.dat}\\listplot{\\mydata}", dir).parse(progress -> { }, () -> false);
+		assertEquals(1, shapes.size());
+		assertEquals(3, ((Plot) shapes.get(0)).getPlotData().size());
+	}
+}
@@ -0,0 +1,156 @@
+package net.sf.latexdraw.parser.pst;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPSTIncrementalParser {
+	PSTIncrementalParser parser;
+
+	@BeforeEach
+	void setUp() {
+		parser = new PSTIncrementalParser();
+	}
+
+	@AfterEach
+	void tearDown() {
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	List<Shape> parse(final String code) {
+		return parser.parse(code, p -> { }, () -> false);
+	}
+
+	@Test
+	void testSameShapesAsSequentialParsing() {
+		final String code = "\\psframe(0,0)(1,1)\n{\\psset{linewidth=0.3}\n\\psline(1,2)(3,4)}\n\\psdot(2,2)";
+		TestPSTDocumentParser.assertSameShapes(TestPSTDocumentParser.parseSequentially(code), parse(code));
+	}
+
+	@Test
+	void testPictureSameShapesAsSequentialParsing() {
+		final String code = "\\begin{pspicture}(-1,-1)(10,10)\n\\psset{linewidth=0.5}\n\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)\n\\end{pspicture}";
+		TestPSTDocumentParser.assertSameShapes(TestPSTDocumentParser.parseSequentially(code), parse(code));
+	}
+
+	@Test
+	void testTopLevelTextSameShapesAsSequentialParsing() {
+		final String code = "foo \\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)\nbar";
+		TestPSTDocumentParser.assertSameShapes(TestPSTDocumentParser.parseSequentially(code), parse(code));
+	}
+
+	@Test
+	void testUnbalancedSameShapesAsSequentialParsing() {
+		final String code = "\\psframe(0,0)(1,1)\n{\\psline(1,2)(3,4)";
+		TestPSTDocumentParser.assertSameShapes(TestPSTDocumentParser.parseSequentially(code), parse(code));
+	}
+
+	@Test
+	void testUnmodifiedCommandsReused() {
+		final List<Shape> shapes1 = parse("\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)\n\\psdot(2,2)");
+		final List<Shape> shapes2 = parse("\\psframe(0,0)(1,1)\n\\psline(1,2)(5,6)\n\\psdot(2,2)");
+		assertEquals(3, shapes2.size());
+		assertSame(shapes1.get(0), shapes2.get(0));
+		assertNotSame(shapes1.get(1), shapes2.get(1));
+		assertSame(shapes1.get(2), shapes2.get(2));
+	}
+
+	@Test
+	void testCommandsAfterModifiedStateParsedAgain() {
+		final List<Shape> shapes1 = parse("\\psset{linewidth=0.1}\n\\psframe(0,0)(1,1)");
+		final List<Shape> shapes2 = parse("\\psset{linewidth=0.2}\n\\psframe(0,0)(1,1)");
+		assertNotEquals(shapes1.get(0).getThickness(), shapes2.get(0).getThickness(), 0.0001);
+	}
+
+	@Test
+	void testErrorsOfTheCode() {
+		parse("\\psframe[foo=1](0,0)(1,1)\n\\psline(1,2)(3,4)");
+		assertTrue(parser.getLog().contains("foo"));
+	}
+
+	@Test
+	void testErrorsOfStateCommandReportedOnce() {
+		parse("\\psset{foo=1}\n\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)");
+		assertEquals(parser.getLog().indexOf("foo"), parser.getLog().lastIndexOf("foo"));
+	}
+
+	@Test
+	void testErrorsOfTheLatestVersion() {
+		parse("\\psframe[foo=1](0,0)(1,1)\n\\psline(1,2)(3,4)");
+		parse("\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)");
+		assertTrue(parser.getLog().isEmpty());
+	}
+
+	@Test
+	void testSuccessiveStatesSameShapesAsSequentialParsing() {
+		final String code = "\\begin{pspicture}(0,0)(10,10)\n\\psset{linewidth=0.1}\n\\psframe(0,0)(1,1)\n\\psset{linecolor=red}\n" +
+			"\\psline(1,2)(3,4)\n\\psset{linewidth=0.4}\\psdot(2,2)\n\\psframe(0,0)(2,2)\n\\end{pspicture}";
+		TestPSTDocumentParser.assertSameShapes(TestPSTDocumentParser.parseSequentially(code), parse(code));
+	}
+
+	@Test
+	void testRedefinedColourAppliesToTheFollowingCommandsOnly() {
+		final String code = "\\definecolor{foo}{rgb}{1,0,0}\n\\psframe[linecolor=foo](0,0)(1,1)\n" +
+			"\\definecolor{foo}{rgb}{0,0,1}\n\\psframe[linecolor=foo](0,0)(1,1)";
+		final List<Shape> shapes = parse(code);
+		assertEquals(ShapeFactory.INST.createColor(1d, 0d, 0d), shapes.get(0).getLineColour());
+		assertEquals(ShapeFactory.INST.createColor(0d, 0d, 1d), shapes.get(1).getLineColour());
+	}
+
+	@Test
+	void testModifiedColourDefinitionParsedAgain() {
+		parse("\\definecolor{foo}{rgb}{1,0,0}\n\\psframe[linecolor=foo](0,0)(1,1)");
+		final List<Shape> shapes = parse("\\definecolor{foo}{rgb}{0,1,0}\n\\psframe[linecolor=foo](0,0)(1,1)");
+		assertEquals(ShapeFactory.INST.createColor(0d, 1d, 0d), shapes.get(0).getLineColour());
+	}
+
+	@Test
+	void testErrorsOfTheEnclosingCodeReported() {
+		parse("\\begin{pspicture}(0,0)(foo,5)\n\\psframe(0,0)(1,1)\n\\end{pspicture}");
+		assertFalse(parser.getLog().isEmpty());
+	}
+
+	@Test
+	void testErrorsOfTheEnclosingCodeReportedOnce() {
+		parse("\\begin{pspicture}(0,0)(foo,5)\n\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)\n\\end{pspicture}");
+		assertEquals(parser.getLog().indexOf("foo"), parser.getLog().lastIndexOf("foo"));
+	}
+
+	@Test
+	void testCancelledKeepsPreviousResults() {
+		parse("\\psframe[foo=1](0,0)(1,1)");
+		assertThrows(CancellationException.class, () -> parser.parse("\\psline(1,2)(3,4)", p -> { }, () -> true));
+		assertTrue(parser.getLog().contains("foo"));
+	}
+
+	@Test
+	void testDataFileParsedAgainWhenDocumentDirChanges(@TempDir final Path dir) throws IOException {
+		final String code = "\\readdata{\\mydata}{data.dat}\n\\listplot{\\mydata}";
+		Files.createDirectory(dir.resolve("a"));
+		Files.createDirectory(dir.resolve("b"));
+		Files.writeString(dir.resolve("a").resolve("data.dat"), "0 1\n1 2\n");
+		Files.writeString(dir.resolve("b").resolve("data.dat"), "0 1\n1 2\n2 4\n");
+		parser.setDocumentDir(dir.resolve("a"));
+		assertEquals(2, ((Plot) parse(code).get(0)).getPlotData().size());
+		parser.setDocumentDir(dir.resolve("b"));
+		assertEquals(3, ((Plot) parse(code).get(0)).getPlotData().size());
+	}
+}
@@ -5,6 +5,7 @@ import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 import net.sf.latexdraw.util.BadaboomCollector;
 import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.parser.TwoStageParsing;
 import net.sf.latexdraw.view.latex.DviPsColors;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStreams;
@@ -63,7 +64,9 @@ public abstract class TestPSTParser {
 		parser.addParseListener(listener);
 		final ErrorListener errList = new ErrorListener();
 		parser.addErrorListener(errList);
-		parser.pstCode(new PSTContext());
+		// Parses the code as the application does (SLL first, then LL on syntax errors), so that the tests cover the production path.
+		TwoStageParsing.INSTANCE.parse(parser, p -> p.pstCode(new PSTContext()), listener::reset);
+		listener.registerDefinedColours();
 		parsedShapes = listener.flatShapes();
 		parser.removeParseListener(listener);
 		parser.removeErrorListener(errList);
@@ -1,14 +1,20 @@
 package net.sf.latexdraw.parser.pst;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import net.sf.latexdraw.model.api.shape.FillingStyle;
 import net.sf.latexdraw.model.api.shape.Plot;
 import net.sf.latexdraw.model.api.shape.PlotStyle;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class TestParsingPlotCommands extends TestPSTParser {
@@ -73,4 +79,63 @@ public class TestParsingPlotCommands extends TestPSTParser {
 		final Plot plot = getShapeAt(0);
 		assertFalse(plot.isPolar());
 	}
+
+	@Test
+	public void testPsplotNoData() {
+		parser("\\psplot{0}{720}{x sin}");
+		final Plot plot = getShapeAt(0);
+		assertNull(plot.getPlotData());
+	}
+
+	@Test
+	public void testListplotValues() {
+		parser("\\listplot{0 1 2 3 4 -5}");
+		final Plot plot = getShapeAt(0);
+		assertNotNull(plot.getPlotData());
+		assertEquals(3, plot.getPlotData().size());
+		assertEquals(-5d, plot.getPlotData().getY(2), 0.00001);
+		assertEquals(0d, plot.getPlotMinX(), 0.00001);
+		assertEquals(4d, plot.getPlotMaxX(), 0.00001);
+	}
+
+	@Test
+	public void testListplotSavedata() {
+		parser("\\savedata{\\mydata}[{0,1},{2,3},{4,5}]\\listplot[plotstyle=dots]{\\mydata}");
+		final Plot plot = getShapeAt(0);
+		assertEquals(3, plot.getPlotData().size());
+		assertEquals(5d, plot.getPlotData().getY(2), 0.00001);
+		assertEquals(PlotStyle.DOTS, plot.getPlotStyle());
+	}
+
+	@Test
+	public void testDataplotSavedata() {
+		parser("\\savedata{\\mydata}[0 1 2 3]\\dataplot{\\mydata}");
+		final Plot plot = getShapeAt(0);
+		assertEquals(2, plot.getPlotData().size());
+	}
+
+	@Test
+	public void testListplotStar() {
+		parser("\\listplot*{0 1 2 3 4 5}");
+		final Plot plot = getShapeAt(0);
+		assertEquals(FillingStyle.PLAIN, plot.getFillingStyle());
+	}
+
+	@Test
+	public void testReaddataListplot(@TempDir final Path dir) throws IOException {
+		final Path file = Files.writeString(dir.resolve("data.dat"), "% x y\n0 1\n1 2\n2 4\n3 8\n");
+		parser("\\readdata{\\mydata}{" + file.toString().replace('\\', '/') + "}\\listplot{\\mydata}");
+		final Plot plot = getShapeAt(0);
+		assertEquals(4, plot.getPlotData().size());
+		assertEquals(8d, plot.getPlotData().getMaxY(), 0.00001);
+	}
+
+	@Test
+	public void testFileplot(@TempDir final Path dir) throws IOException {
+		final Path file = Files.writeString(dir.resolve("data.dat"), "{0,1}\n{1,2}\n{2,4}\n");
+		parser("\\fileplot[xunit=0.5]{" + file.toString().replace('\\', '/') + "}");
+		final Plot plot = getShapeAt(0);
+		assertEquals(3, plot.getPlotData().size());
+		assertEquals(0.5, plot.getXScale(), 0.00001);
+	}
 }
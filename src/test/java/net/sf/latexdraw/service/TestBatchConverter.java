@@ -0,0 +1,114 @@
+package net.sf.latexdraw.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBatchConverter {
+	final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	@AfterEach
+	void tearDown() {
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	int convert(final BatchConverter.Format format, final Path outputDir, final List<Path> files) {
+		return new BatchConverter(format, 2, outputDir, ResourceBundle.getBundle("lang.bundle")).
+			convert(files, new PrintStream(out, true, StandardCharsets.UTF_8));
+	}
+
+	String getReport() {
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testFormatFromName() {
+		assertEquals(Optional.of(BatchConverter.Format.PDF_CROP), BatchConverter.Format.fromName("pdf-crop"));
+		assertEquals(Optional.of(BatchConverter.Format.TEX), BatchConverter.Format.fromName("pst"));
+		assertEquals(Optional.of(BatchConverter.Format.SVG), BatchConverter.Format.fromName("SVG"));
+		assertTrue(BatchConverter.Format.fromName("png").isEmpty());
+	}
+
+	@Test
+	void testPSTToTeX(@TempDir final Path dir) throws IOException {
+		final Path pst = Files.writeString(dir.resolve("foo.pst"), "\\psframe(0,0)(1,1)\n\\psline(1,2)(3,4)");
+		assertEquals(0, convert(BatchConverter.Format.TEX, null, List.of(pst)));
+		final String code = Files.readString(dir.resolve("foo.tex"));
+		assertTrue(code.contains("\\psframe"));
+		assertTrue(code.contains("\\psline"));
+	}
+
+	@Test
+	void testPSTToSVGToTeX(@TempDir final Path dir) throws IOException {
+		final Path pst = Files.writeString(dir.resolve("foo.tex"), "\\psframe(0,0)(1,1)");
+		final Path outDir = Files.createDirectory(dir.resolve("out"));
+		assertEquals(0, convert(BatchConverter.Format.SVG, outDir, List.of(pst)));
+		assertEquals(0, convert(BatchConverter.Format.TEX, outDir, List.of(outDir.resolve("foo.svg"))));
+		assertTrue(Files.readString(outDir.resolve("foo.tex")).contains("\\psframe"));
+	}
+
+	@Test
+	void testSameColourNameInParallelConversions(@TempDir final Path dir) throws IOException {
+		final Path pst1 = Files.writeString(dir.resolve("a.pst"), "\\definecolor{myc}{rgb}{0.1,0.2,0.3}\n\\psframe[linecolor=myc](0,0)(1,1)");
+		final Path pst2 = Files.writeString(dir.resolve("b.pst"), "\\definecolor{myc}{rgb}{0.7,0.8,0.9}\n\\psframe[linecolor=myc](0,0)(1,1)");
+		assertEquals(0, convert(BatchConverter.Format.TEX, null, List.of(pst1, pst2)));
+		final String code1 = Files.readString(dir.resolve("a.tex"));
+		final String code2 = Files.readString(dir.resolve("b.tex"));
+		assertTrue(code1.contains("{0.1,0.2,0.3}"));
+		assertFalse(code1.contains("{0.7,0.8,0.9}"));
+		assertTrue(code2.contains("{0.7,0.8,0.9}"));
+		assertFalse(code2.contains("{0.1,0.2,0.3}"));
+	}
+
+	@Test
+	void testSameOutputFileReported(@TempDir final Path dir) throws IOException {
+		final Path pst1 = Files.writeString(Files.createDirectory(dir.resolve("a")).resolve("foo.pst"), "\\psframe(0,0)(1,1)");
+		final Path pst2 = Files.writeString(Files.createDirectory(dir.resolve("b")).resolve("foo.pst"), "\\psline(1,2)(3,4)");
+		final Path outDir = Files.createDirectory(dir.resolve("out"));
+		assertEquals(1, convert(BatchConverter.Format.TEX, outDir, List.of(pst1, pst2)));
+		assertTrue(Files.readString(outDir.resolve("foo.tex")).contains("\\psframe"));
+		assertTrue(getReport().contains("FAILED\t" + pst2));
+	}
+
+	@Test
+	void testFailuresReported(@TempDir final Path dir) throws IOException {
+		final Path ok = Files.writeString(dir.resolve("ok.pst"), "\\psframe(0,0)(1,1)");
+		final Path unsupported = Files.writeString(dir.resolve("foo.png"), "");
+		assertEquals(2, convert(BatchConverter.Format.TEX, null, List.of(ok, unsupported, dir.resolve("missing.svg"))));
+		assertTrue(getReport().contains("OK\t" + ok));
+		assertTrue(getReport().contains("FAILED\t" + unsupported));
+		assertTrue(getReport().contains("1 converted, 2 failed"));
+	}
+
+	@Test
+	void testExpandGlob(@TempDir final Path dir) throws IOException {
+		Files.writeString(dir.resolve("a.svg"), "");
+		Files.writeString(dir.resolve("b.svg"), "");
+		Files.writeString(dir.resolve("c.tex"), "");
+		assertEquals(List.of(dir.resolve("a.svg"), dir.resolve("b.svg")), BatchConverter.expandFiles(List.of(dir + "/*.svg")));
+	}
+
+	@Test
+	void testExpandNoGlob() throws IOException {
+		assertEquals(List.of(Path.of("foo.svg")), BatchConverter.expandFiles(List.of("foo.svg")));
+	}
+
+	@Test
+	void testExpandGlobNoMatch(@TempDir final Path dir) throws IOException {
+		assertFalse(BatchConverter.expandFiles(List.of(dir + "/*.pst")).iterator().hasNext());
+	}
+}
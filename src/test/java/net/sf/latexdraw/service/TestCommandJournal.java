@@ -0,0 +1,297 @@
+package net.sf.latexdraw.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import net.sf.latexdraw.command.shape.AddShape;
+import net.sf.latexdraw.command.shape.DeleteShapes;
+import net.sf.latexdraw.command.shape.ModifyShapeProperty;
+import net.sf.latexdraw.command.shape.MoveCtrlPoint;
+import net.sf.latexdraw.command.shape.MovePointShape;
+import net.sf.latexdraw.command.shape.ShapeProperties;
+import net.sf.latexdraw.command.shape.TranslateShapes;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.BezierCurve;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Group;
+import net.sf.latexdraw.model.api.shape.LineStyle;
+import net.sf.latexdraw.model.api.shape.Polyline;
+import net.sf.latexdraw.model.api.shape.Rectangle;
+import net.sf.latexdraw.model.api.shape.Shape;
+import net.sf.latexdraw.view.jfx.ViewFactory;
+import net.sf.latexdraw.view.svg.SVGDocumentGenerator;
+import net.sf.latexdraw.view.svg.SVGShapesFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junitpioneer.jupiter.TempDirectory;
+import org.malai.command.CommandsRegistry;
+import org.malai.undo.UndoCollector;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(TempDirectory.class)
+class TestCommandJournal {
+	String path;
+	Drawing drawing;
+	SVGDocumentGenerator svgGen;
+	SVGShapesFactory svgFactory;
+	CommandJournal journal;
+
+	@BeforeEach
+	void setUp(@TempDirectory.TempDir final Path tempDir) {
+		path = tempDir.toString() + File.separator + "test.journal";
+		drawing = ShapeFactory.INST.createDrawing();
+		// The shapes are really serialised: only the loading of the base document is mocked.
+		svgGen = Mockito.mock(SVGDocumentGenerator.class);
+		svgFactory = new SVGShapesFactory(new ViewFactory(new LaTeXDataService()));
+		journal = new CommandJournal(drawing, svgGen, svgFactory, path);
+	}
+
+	@AfterEach
+	void tearDown() {
+		journal.close();
+		CommandsRegistry.INSTANCE.removeAllHandlers();
+		UndoCollector.INSTANCE.clear();
+		UndoCollector.INSTANCE.removeAllHandlers();
+	}
+
+	Drawing recover() {
+		final Drawing recovered = ShapeFactory.INST.createDrawing();
+		final CommandJournal journal2 = new CommandJournal(recovered, svgGen, svgFactory, path);
+		assertTrue(journal2.canRecover());
+		journal2.recover(Mockito.mock(ProgressBar.class), Mockito.mock(Label.class));
+		return recovered;
+	}
+
+	List<String> readRecords() throws IOException {
+		final List<String> lines = Files.readAllLines(Path.of(path), StandardCharsets.UTF_8);
+		return lines.subList(2, lines.size());
+	}
+
+	void addShape(final Shape sh) {
+		drawing.addShape(sh);
+		final AddShape cmd = Mockito.mock(AddShape.class);
+		when(cmd.hadEffect()).thenReturn(true);
+		journal.onCmdDone(cmd);
+	}
+
+	Group group(final Shape... shapes) {
+		final Group group = ShapeFactory.INST.createGroup();
+		for(final Shape sh : shapes) {
+			group.addShape(sh);
+		}
+		return group;
+	}
+
+	<T> ModifyShapeProperty<T> modifyProperty(final ShapeProperties<T> property, final T value, final Shape... shapes) {
+		final ModifyShapeProperty<T> cmd = new ModifyShapeProperty<>(property, group(shapes), value);
+		cmd.doIt();
+		cmd.done();
+		journal.onCmdDone(cmd);
+		return cmd;
+	}
+
+	@Test
+	void testCannotRecoverEmptyJournal() {
+		journal.start();
+		journal.flush();
+		assertFalse(new CommandJournal(drawing, svgGen, svgFactory, path).canRecover());
+	}
+
+	@Test
+	void testRecoverAddedShapes() {
+		journal.start();
+		addShape(ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(10d, 20d), 30d, 40d));
+		addShape(ShapeFactory.INST.createRectangle());
+		journal.flush();
+		final Drawing recovered = recover();
+		assertEquals(2, recovered.size());
+		assertTrue(recovered.getShapeAt(0).orElseThrow() instanceof Rectangle);
+		assertEquals(ShapeFactory.INST.createPoint(10d, 20d), recovered.getShapeAt(0).orElseThrow().getTopLeftPoint());
+	}
+
+	@Test
+	void testRecoverRemovedShapes() {
+		journal.start();
+		final Rectangle rec = ShapeFactory.INST.createRectangle();
+		addShape(ShapeFactory.INST.createRectangle());
+		addShape(rec);
+		drawing.removeShape(rec);
+		final DeleteShapes cmd = Mockito.mock(DeleteShapes.class);
+		when(cmd.hadEffect()).thenReturn(true);
+		journal.onCmdDone(cmd);
+		journal.flush();
+		assertEquals(1, recover().size());
+	}
+
+	@Test
+	void testRecoverTranslatedShapes() {
+		journal.start();
+		final Rectangle rec = ShapeFactory.INST.createRectangle();
+		addShape(rec);
+		rec.translate(10d, 20d);
+		final TranslateShapes cmd = Mockito.mock(TranslateShapes.class);
+		when(cmd.hadEffect()).thenReturn(true);
+		when(cmd.getShape()).thenReturn(group(rec));
+		when(cmd.getPerformedTx()).thenReturn(10d);
+		when(cmd.getPerformedTy()).thenReturn(20d);
+		journal.onCmdDone(cmd);
+		journal.flush();
+		final Drawing recovered = recover();
+		assertEquals(rec.getTopLeftPoint(), recovered.getShapeAt(0).orElseThrow().getTopLeftPoint());
+	}
+
+	@Test
+	void testShapesJournaledInTheirStateWhenJournaled() {
+		journal.start();
+		final Rectangle rec = ShapeFactory.INST.createRectangle();
+		rec.setThickness(3d);
+		addShape(rec);
+		// Modification not journaled: the journaled shape must not be the live shape serialised by the flusher.
+		rec.setThickness(9d);
+		journal.flush();
+		assertEquals(3d, recover().getShapeAt(0).orElseThrow().getThickness(), 0.0001);
+	}
+
+	@Test
+	void testModifiedPropertiesJournaledAsDeltas() throws IOException {
+		journal.start();
+		final Rectangle rec1 = ShapeFactory.INST.createRectangle();
+		final Rectangle rec2 = ShapeFactory.INST.createRectangle();
+		rec1.setThickness(1d);
+		rec2.setThickness(2d);
+		addShape(rec1);
+		addShape(rec2);
+		journal.flush();
+		final int nbRecords = readRecords().size();
+		modifyProperty(ShapeProperties.LINE_THICKNESS, 5d, rec1, rec2);
+		journal.flush();
+		final List<String> records = readRecords();
+		assertEquals(nbRecords + 2, records.size());
+		assertEquals("p LINE_THICKNESS d:5.0 d:1.0 0", records.get(nbRecords));
+		assertEquals("p LINE_THICKNESS d:5.0 d:2.0 1", records.get(nbRecords + 1));
+	}
+
+	@Test
+	void testRecoverModifiedProperties() {
+		journal.start();
+		final Rectangle rec1 = ShapeFactory.INST.createRectangle();
+		final Rectangle rec2 = ShapeFactory.INST.createRectangle();
+		addShape(rec1);
+		addShape(rec2);
+		modifyProperty(ShapeProperties.LINE_THICKNESS, 7d, rec1, rec2);
+		modifyProperty(ShapeProperties.COLOUR_LINE, ShapeFactory.INST.createColor(0.1, 0.2, 0.3, 0.4), rec2);
+		modifyProperty(ShapeProperties.LINE_STYLE, LineStyle.DASHED, rec1);
+		journal.flush();
+		final Drawing recovered = recover();
+		assertEquals(7d, recovered.getShapeAt(0).orElseThrow().getThickness(), 0.0001);
+		assertEquals(7d, recovered.getShapeAt(1).orElseThrow().getThickness(), 0.0001);
+		assertEquals(ShapeFactory.INST.createColor(0.1, 0.2, 0.3, 0.4), recovered.getShapeAt(1).orElseThrow().getLineColour());
+		assertEquals(LineStyle.DASHED, recovered.getShapeAt(0).orElseThrow().getLineStyle());
+		assertEquals(LineStyle.SOLID, recovered.getShapeAt(1).orElseThrow().getLineStyle());
+	}
+
+	@Test
+	void testRecoverUndoneProperty() {
+		journal.start();
+		final Rectangle rec = ShapeFactory.INST.createRectangle();
+		rec.setThickness(2d);
+		addShape(rec);
+		final ModifyShapeProperty<Double> cmd = modifyProperty(ShapeProperties.LINE_THICKNESS, 6d, rec);
+		cmd.undo();
+		journal.onUndoableUndo(cmd);
+		journal.flush();
+		assertEquals(2d, recover().getShapeAt(0).orElseThrow().getThickness(), 0.0001);
+	}
+
+	@Test
+	void testRecoverMovedPoint() throws IOException {
+		journal.start();
+		final Polyline line = ShapeFactory.INST.createPolyline(List.of(ShapeFactory.INST.createPoint(0d, 0d),
+			ShapeFactory.INST.createPoint(10d, 10d), ShapeFactory.INST.createPoint(20d, 0d)));
+		addShape(line);
+		final MovePointShape cmd = new MovePointShape(line, line.getPtAt(1));
+		cmd.setNewCoord(ShapeFactory.INST.createPoint(15d, 30d));
+		cmd.doIt();
+		cmd.done();
+		journal.onCmdDone(cmd);
+		journal.flush();
+		assertTrue(readRecords().get(readRecords().size() - 1).startsWith("m 0 1 "));
+		assertEquals(ShapeFactory.INST.createPoint(15d, 30d), recover().getShapeAt(0).orElseThrow().getPtAt(1));
+	}
+
+	@Test
+	void testRecoverMovedCtrlPoint() {
+		journal.start();
+		final BezierCurve curve = ShapeFactory.INST.createBezierCurve(List.of(ShapeFactory.INST.createPoint(0d, 0d),
+			ShapeFactory.INST.createPoint(100d, 0d)));
+		addShape(curve);
+		final MoveCtrlPoint cmd = new MoveCtrlPoint(curve, curve.getFirstCtrlPtAt(1), true);
+		cmd.setNewCoord(ShapeFactory.INST.createPoint(120d, 40d));
+		cmd.doIt();
+		cmd.done();
+		journal.onCmdDone(cmd);
+		journal.flush();
+		final BezierCurve recovered = (BezierCurve) recover().getShapeAt(0).orElseThrow();
+		assertEquals(curve.getFirstCtrlPtAt(1), recovered.getFirstCtrlPtAt(1));
+		assertEquals(curve.getSecondCtrlPtAt(1), recovered.getSecondCtrlPtAt(1));
+	}
+
+	@Test
+	void testEncodeDecodeValues() {
+		assertEquals(LineStyle.DOTTED, CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.of(LineStyle.DOTTED))));
+		assertEquals("a text, with spaces", CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.of("a text, with spaces"))));
+		assertEquals(ShapeFactory.INST.createPoint(1.5, -2d), CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.of(ShapeFactory.INST.createPoint(1.5, -2d)))));
+		assertEquals(12, CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.of(12))));
+		assertEquals(Boolean.TRUE, CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.of(Boolean.TRUE))));
+		assertNull(CommandJournal.decodeValue(CommandJournal.encodeValue(Optional.empty())));
+	}
+
+	@Test
+	void testCloseRemovesJournal() {
+		journal.start();
+		addShape(ShapeFactory.INST.createRectangle());
+		journal.flush();
+		journal.close();
+		assertFalse(new File(path).exists());
+	}
+
+	@Test
+	void testCloseDuringFlushRemovesJournal() throws InterruptedException {
+		final CountDownLatch flushing = new CountDownLatch(1);
+		final SVGShapesFactory slowFactory = Mockito.spy(svgFactory);
+		Mockito.doAnswer(invocation -> {
+			flushing.countDown();
+			final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300L);
+			while(System.nanoTime() < end) {
+				LockSupport.parkNanos(end - System.nanoTime());
+			}
+			return invocation.callRealMethod();
+		}).when(slowFactory).createSVGElement(Mockito.any(), Mockito.any());
+		journal.close();
+		journal = new CommandJournal(drawing, svgGen, slowFactory, path);
+		journal.start();
+		addShape(ShapeFactory.INST.createRectangle());
+		assertTrue(flushing.await(5L, TimeUnit.SECONDS));
+		journal.close();
+		assertFalse(new File(path).exists());
+		Thread.sleep(500L);
+		assertFalse(new File(path).exists());
+	}
+}
@@ -0,0 +1,46 @@
+package net.sf.latexdraw.service;
+
+import net.sf.latexdraw.command.ModifyEditingParameter;
+import net.sf.latexdraw.command.shape.ShapeProperties;
+import net.sf.latexdraw.instrument.EditionChoice;
+import net.sf.latexdraw.model.api.property.DotProp;
+import net.sf.latexdraw.model.api.shape.Group;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEditingService {
+	EditingService editing;
+
+	@BeforeEach
+	void setUp() {
+		editing = new EditingService();
+	}
+
+	@Test
+	void testShapePrototypeCached() {
+		assertSame(editing.getShapePrototype(), editing.getShapePrototype());
+	}
+
+	@Test
+	void testShapePrototypeNewOnChoiceChange() {
+		final Group proto = editing.getShapePrototype();
+		editing.setCurrentChoice(EditionChoice.DOT);
+		final Group newProto = editing.getShapePrototype();
+		assertNotSame(proto, newProto);
+		assertTrue(newProto.getShapeAt(0).orElseThrow() instanceof DotProp);
+	}
+
+	@Test
+	void testShapePrototypeNewOnParameterChange() {
+		final Group proto = editing.getShapePrototype();
+		new ModifyEditingParameter<>(ShapeProperties.LINE_THICKNESS, editing, 12.5).doIt();
+		final Group newProto = editing.getShapePrototype();
+		assertNotSame(proto, newProto);
+		assertEquals(12.5, newProto.getThickness(), 0.0001);
+	}
+}
@@ -35,6 +35,7 @@ class TestPreferencesService {
 		assertEquals(p1.getLang(), p2.getLang());
 		assertEquals(p1.openGLProperty().get(), p2.openGLProperty().get());
 		assertEquals(p1.nbRecentFilesProperty().get(), p2.nbRecentFilesProperty().get());
+		assertEquals(p1.getUndoMemory(), p2.getUndoMemory());
 	}
 
 	@Nested
@@ -222,6 +223,7 @@ class TestPreferencesService {
 			prefs.langProperty().set(prefs.getSupportedLocales().stream().filter(l -> l != prefs.langProperty().get()).findFirst().orElseThrow());
 			prefs.openGLProperty().set(!prefs.openGLProperty().get());
 			prefs.nbRecentFilesProperty().set(prefs.nbRecentFilesProperty().get() * 3);
+			prefs.undoMemoryProperty().set(prefs.getUndoMemory() * 2);
 
 			prefs.writePreferences();
 			final PreferencesService p2 = new PreferencesService(prefs.getPreferencesPath());
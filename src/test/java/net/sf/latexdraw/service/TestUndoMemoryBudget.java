@@ -0,0 +1,212 @@
+package net.sf.latexdraw.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.command.UndoFootprint;
+import net.sf.latexdraw.command.shape.DeleteShapes;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Rectangle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.malai.undo.UndoCollector;
+import org.malai.undo.Undoable;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestUndoMemoryBudget {
+	long budget;
+	int sizeMax;
+
+	@BeforeEach
+	void setUp() {
+		budget = UndoMemoryBudget.INSTANCE.getBudget();
+		sizeMax = UndoCollector.INSTANCE.getSizeMax();
+		UndoCollector.INSTANCE.clear();
+		UndoCollector.INSTANCE.removeAllHandlers();
+		UndoMemoryBudget.INSTANCE.onUndoableCleared();
+		UndoCollector.INSTANCE.addHandler(UndoMemoryBudget.INSTANCE);
+		UndoCollector.INSTANCE.setSizeMax(30);
+		UndoMemoryBudget.INSTANCE.setBudget(1000L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		UndoCollector.INSTANCE.clear();
+		UndoCollector.INSTANCE.removeAllHandlers();
+		UndoMemoryBudget.INSTANCE.onUndoableCleared();
+		UndoCollector.INSTANCE.setSizeMax(sizeMax);
+		UndoMemoryBudget.INSTANCE.setBudget(budget);
+	}
+
+	static Undoable createUndoable(final long footprint) {
+		final Undoable undoable = Mockito.mock(Undoable.class, Mockito.withSettings().extraInterfaces(UndoFootprint.class));
+		Mockito.when(((UndoFootprint) undoable).getUndoFootprint()).thenReturn(footprint);
+		return undoable;
+	}
+
+	static List<Undoable> addUndoables(final int nb, final long footprint) {
+		final List<Undoable> undoables = IntStream.range(0, nb).mapToObj(i -> createUndoable(footprint)).collect(Collectors.toList());
+		undoables.forEach(undoable -> UndoCollector.INSTANCE.add(undoable, null));
+		return undoables;
+	}
+
+	@Test
+	void testUnderBudgetNothingEvicted() {
+		addUndoables(3, 300L);
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(900L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+	}
+
+	@Test
+	void testOverBudgetEvictsOldestUndoables() {
+		final List<Undoable> undoables = addUndoables(5, 300L);
+
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(900L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+		// The maximal size of the collector is restored once the oldest undoables evicted.
+		assertEquals(30, UndoCollector.INSTANCE.getSizeMax());
+
+		// Only the three latest undoables remain in the collector.
+		for(int i = 4; i >= 2; i--) {
+			assertSame(undoables.get(i), UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+			UndoCollector.INSTANCE.undo();
+		}
+		assertTrue(UndoCollector.INSTANCE.getLastUndo().isEmpty());
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbRedoables());
+	}
+
+	@Test
+	void testLatestUndoableAlwaysKept() {
+		addUndoables(2, 300L);
+		final Undoable large = createUndoable(5000L);
+		UndoCollector.INSTANCE.add(large, null);
+
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertSame(large, UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+	}
+
+	@Test
+	void testInSyncThroughUndoRedo() {
+		final List<Undoable> undoables = addUndoables(5, 300L);
+
+		UndoCollector.INSTANCE.undo();
+		UndoCollector.INSTANCE.undo();
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(2, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertEquals(300L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+
+		UndoCollector.INSTANCE.redo();
+		assertEquals(2, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertSame(undoables.get(3), UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+		assertSame(undoables.get(4), UndoCollector.INSTANCE.getLastRedo().orElseThrow());
+
+		// A new undoable clears the redoables of both.
+		addUndoables(2, 300L);
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertTrue(UndoCollector.INSTANCE.getLastRedo().isEmpty());
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(900L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+	}
+
+	@Test
+	void testCollectorSizeMaxFollowed() {
+		UndoCollector.INSTANCE.setSizeMax(2);
+		UndoMemoryBudget.INSTANCE.setBudget(1_000_000L);
+		addUndoables(5, 300L);
+		assertEquals(2, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		UndoCollector.INSTANCE.undo();
+		UndoCollector.INSTANCE.undo();
+		assertTrue(UndoCollector.INSTANCE.getLastUndo().isEmpty());
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbUndoables());
+	}
+
+	@Test
+	void testClearEmptiesHistory() {
+		addUndoables(3, 300L);
+		UndoCollector.INSTANCE.undo();
+		UndoCollector.INSTANCE.clear();
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertEquals(0L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+		assertTrue(UndoMemoryBudget.INSTANCE.checkMirrors());
+	}
+
+	@Test
+	void testAddAfterClearAccountsNewUndoablesOnly() {
+		addUndoables(3, 300L);
+		UndoCollector.INSTANCE.clear();
+		final List<Undoable> undoables = addUndoables(4, 300L);
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(900L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+		assertSame(undoables.get(3), UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+	}
+
+	@Test
+	void testRedoablesFlushedOnAdd() {
+		addUndoables(3, 300L);
+		UndoCollector.INSTANCE.undo();
+		UndoCollector.INSTANCE.undo();
+		addUndoables(1, 300L);
+		assertEquals(0, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertEquals(2, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertTrue(UndoMemoryBudget.INSTANCE.checkMirrors());
+	}
+
+	@Test
+	void testLowerBudgetAppliedOnNextAdd() {
+		addUndoables(3, 300L);
+		UndoMemoryBudget.INSTANCE.setBudget(500L);
+		assertEquals(3, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		final List<Undoable> undoables = addUndoables(1, 300L);
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertSame(undoables.get(0), UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+		UndoCollector.INSTANCE.undo();
+		assertTrue(UndoCollector.INSTANCE.getLastUndo().isEmpty());
+	}
+
+	@Test
+	void testClearedWithoutNotificationResynchronised() {
+		addUndoables(3, 300L);
+		UndoCollector.INSTANCE.removeAllHandlers();
+		UndoCollector.INSTANCE.clear();
+		UndoCollector.INSTANCE.addHandler(UndoMemoryBudget.INSTANCE);
+		final List<Undoable> undoables = addUndoables(1, 300L);
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(300L, UndoMemoryBudget.INSTANCE.getUndoFootprint());
+		assertSame(undoables.get(0), UndoCollector.INSTANCE.getLastUndo().orElseThrow());
+	}
+
+	@Test
+	void testUndoWithoutNotificationResynchronised() {
+		addUndoables(3, 300L);
+		UndoCollector.INSTANCE.removeAllHandlers();
+		UndoCollector.INSTANCE.undo();
+		UndoCollector.INSTANCE.addHandler(UndoMemoryBudget.INSTANCE);
+		assertFalse(UndoMemoryBudget.INSTANCE.checkMirrors());
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbUndoables());
+		assertEquals(1, UndoMemoryBudget.INSTANCE.getNbRedoables());
+		assertTrue(UndoMemoryBudget.INSTANCE.checkMirrors());
+	}
+
+	@Test
+	void testDeletedShapesFootprint() {
+		final Drawing drawing = ShapeFactory.INST.createDrawing();
+		final DeleteShapes cmd = new DeleteShapes(drawing);
+		IntStream.range(0, 1000).forEach(i -> {
+			final Rectangle rec = ShapeFactory.INST.createRectangle();
+			drawing.addShape(rec);
+			cmd.getShapes().add(rec);
+		});
+		cmd.doIt();
+		assertTrue(cmd.getUndoFootprint() >= 1000L * (UndoFootprint.SHAPE_SIZE + 4L * UndoFootprint.POINT_SIZE));
+	}
+}
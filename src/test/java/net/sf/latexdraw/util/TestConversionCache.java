@@ -0,0 +1,89 @@
+package net.sf.latexdraw.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestConversionCache {
+	@TempDir Path dir;
+	ConversionCache cache;
+	Path source;
+	String sourceHash;
+
+	@BeforeEach
+	void setUp() throws IOException, NoSuchAlgorithmException {
+		cache = new ConversionCache(dir.resolve("cache"), 1024L);
+		source = Files.writeString(dir.resolve("foo.eps"), "%!PS-Adobe-3.0 EPSF-3.0");
+		sourceHash = hash(Files.readAllBytes(source));
+		Files.createDirectories(dir.resolve("cache"));
+	}
+
+	static String hash(final byte[] content) throws NoSuchAlgorithmException {
+		return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+	}
+
+	@Test
+	void testConvertCached() throws IOException, NoSuchAlgorithmException {
+		final Path artifact = Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg"), "converted");
+		Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg.sha256"), hash("converted".getBytes()));
+		final Path target = dir.resolve("out.jpg");
+		assertEquals(Optional.of(target), cache.convert(source, ".jpg", target));
+		assertEquals("converted", Files.readString(target));
+		assertTrue(Files.isRegularFile(artifact));
+	}
+
+	@Test
+	void testConvertGivesACopy() throws IOException, NoSuchAlgorithmException {
+		final Path artifact = Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg"), "converted");
+		Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg.sha256"), hash("converted".getBytes()));
+		final Path target = dir.resolve("out.jpg");
+		cache.convert(source, ".jpg", target);
+		Files.writeString(target, "modified");
+		assertEquals("converted", Files.readString(artifact));
+		assertEquals(Optional.of(target), cache.convert(source, ".jpg", target));
+		assertEquals("converted", Files.readString(target));
+	}
+
+	@Test
+	void testConvertCachedOtherFormat() throws IOException, NoSuchAlgorithmException {
+		Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg"), "converted");
+		Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg.sha256"), hash("converted".getBytes()));
+		final Path target = dir.resolve("out.png");
+		// Converted if ImageMagick is installed.
+		if(cache.convert(source, ".png", target).isPresent()) {
+			assertNotEquals("converted", Files.readString(target));
+		}
+	}
+
+	@Test
+	void testConvertCorruptedNotReused() throws IOException, NoSuchAlgorithmException {
+		final Path artifact = Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg"), "corrupted");
+		Files.writeString(dir.resolve("cache").resolve(sourceHash + ".jpg.sha256"), hash("converted".getBytes()));
+		final Path target = dir.resolve("out.jpg");
+		final Optional<Path> converted = cache.convert(source, ".jpg", target);
+		// Converted again if ImageMagick is installed.
+		if(converted.isPresent()) {
+			assertNotEquals("corrupted", Files.readString(artifact));
+			assertNotEquals("corrupted", Files.readString(target));
+		}else {
+			assertTrue(Files.notExists(artifact));
+			assertTrue(Files.notExists(target));
+		}
+	}
+
+	@Test
+	void testConvertUnknownSource() {
+		assertTrue(cache.convert(dir.resolve("bar.eps"), ".jpg", dir.resolve("out.jpg")).isEmpty());
+	}
+}
@@ -0,0 +1,78 @@
+package net.sf.latexdraw.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+import net.sf.latexdraw.data.ParameteriseShapeData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.framework.junit5.ApplicationExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(ApplicationExtension.class)
+public class TestImageCache {
+	@TempDir Path dir;
+	String path;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		path = ParameteriseShapeData.INST.getTestPNG(dir).toString();
+	}
+
+	@Test
+	void testPreviewSizeMin() {
+		assertEquals(64, ImageCache.getPreviewSize(10d));
+	}
+
+	@Test
+	void testPreviewSizePowerOfTwo() {
+		assertEquals(256, ImageCache.getPreviewSize(200.5));
+	}
+
+	@Test
+	void testPreviewSizeExactPowerOfTwo() {
+		assertEquals(128, ImageCache.getPreviewSize(128d));
+	}
+
+	@Test
+	void testGetSizeSameAsImage() {
+		final Dimension2D size = ImageCache.INSTANCE.getSize(path).orElseThrow();
+		final Image image = ImageCache.INSTANCE.getImage(path);
+		assertEquals(image.getWidth(), size.getWidth(), 0.0001);
+		assertEquals(image.getHeight(), size.getHeight(), 0.0001);
+	}
+
+	@Test
+	void testGetSizeUnknownFile() {
+		assertTrue(ImageCache.INSTANCE.getSize(dir.resolve("foo.png").toString()).isEmpty());
+	}
+
+	@Test
+	void testGetImageShared() {
+		assertSame(ImageCache.INSTANCE.getImage(path), ImageCache.INSTANCE.getImage(path));
+	}
+
+	@Test
+	void testGetPreviewSharedForCloseSizes() {
+		assertSame(ImageCache.INSTANCE.getPreview(path, 20d, 10d), ImageCache.INSTANCE.getPreview(path, 30d, 12d));
+	}
+
+	@Test
+	void testGetPreviewNotTheFullImage() {
+		assertNotSame(ImageCache.INSTANCE.getImage(path), ImageCache.INSTANCE.getPreview(path, 20d, 10d));
+	}
+
+	@Test
+	void testGetPreviewModifiedFile() {
+		final Image preview = ImageCache.INSTANCE.getPreview(path, 20d, 10d);
+		assertTrue(dir.resolve("LaTeXDrawSmall.png").toFile().setLastModified(System.currentTimeMillis() - 100_000L));
+		assertNotSame(preview, ImageCache.INSTANCE.getPreview(path, 20d, 10d));
+	}
+}
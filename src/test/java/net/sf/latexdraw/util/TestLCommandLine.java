@@ -0,0 +1,75 @@
+package net.sf.latexdraw.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import net.sf.latexdraw.service.BatchConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestLCommandLine {
+	LCommandLine cmdLine;
+
+	@BeforeEach
+	void setUp() {
+		cmdLine = new LCommandLine();
+	}
+
+	@Test
+	void testNoArgs() {
+		assertEquals(LCommandLine.CmdLineState.APPLICATION, cmdLine.parse(new String[0]));
+	}
+
+	@Test
+	void testHelp() {
+		assertEquals(LCommandLine.CmdLineState.STOP, cmdLine.parse(new String[] {"-h"}));
+	}
+
+	@Test
+	void testFileName() {
+		assertEquals(LCommandLine.CmdLineState.APPLICATION_FILENAME, cmdLine.parse(new String[] {"foo.svg"}));
+		assertEquals("foo.svg", cmdLine.getFilename());
+	}
+
+	@Test
+	void testBatch(@TempDir final Path dir) throws IOException {
+		final Path file = Files.writeString(dir.resolve("foo.svg"), "");
+		assertEquals(LCommandLine.CmdLineState.BATCH, cmdLine.parse(new String[] {"-b", "-f", "pdf", "-j", "3", "-o", dir.toString(), file.toString()}));
+		assertEquals(BatchConverter.Format.PDF, cmdLine.getBatchFormat());
+		assertEquals(3, cmdLine.getNbWorkers());
+		assertEquals(dir, cmdLine.getOutputDir());
+		assertEquals(List.of(file), cmdLine.getBatchFiles());
+	}
+
+	@Test
+	void testBatchGlob(@TempDir final Path dir) throws IOException {
+		Files.writeString(dir.resolve("a.tex"), "");
+		Files.writeString(dir.resolve("b.tex"), "");
+		assertEquals(LCommandLine.CmdLineState.BATCH, cmdLine.parse(new String[] {"-b", "-f", "svg", dir + "/*.tex"}));
+		assertEquals(List.of(dir.resolve("a.tex"), dir.resolve("b.tex")), cmdLine.getBatchFiles());
+	}
+
+	@Test
+	void testBatchNoFormat() {
+		assertEquals(LCommandLine.CmdLineState.ERROR, cmdLine.parse(new String[] {"-b", "foo.svg"}));
+	}
+
+	@Test
+	void testBatchUnsupportedFormat() {
+		assertEquals(LCommandLine.CmdLineState.ERROR, cmdLine.parse(new String[] {"-b", "-f", "png", "foo.svg"}));
+	}
+
+	@Test
+	void testBatchBadWorkers() {
+		assertEquals(LCommandLine.CmdLineState.ERROR, cmdLine.parse(new String[] {"-b", "-f", "svg", "-j", "foo", "foo.svg"}));
+	}
+
+	@Test
+	void testBatchNoFile() {
+		assertEquals(LCommandLine.CmdLineState.ERROR, cmdLine.parse(new String[] {"-b", "-f", "svg"}));
+	}
+}
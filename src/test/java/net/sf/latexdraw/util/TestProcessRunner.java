@@ -0,0 +1,104 @@
+package net.sf.latexdraw.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestProcessRunner {
+	@Test
+	void testToolName() {
+		assertEquals("latex", ProcessRunner.getToolName(new String[] {"/usr/bin/latex", "foo.tex"}));
+	}
+
+	@Test
+	void testToolNameWindows() {
+		assertEquals("pdflatex", ProcessRunner.getToolName(new String[] {"PDFLATEX.EXE"}));
+	}
+
+	@Test
+	void testToolNameEmpty() {
+		assertEquals("", ProcessRunner.getToolName(new String[0]));
+	}
+
+	@Test
+	void testExecuteEmpty() {
+		assertFalse(ProcessRunner.INSTANCE.execute(new String[0], null).a);
+	}
+
+	@Test
+	void testExecuteUnknownTool() {
+		assertFalse(ProcessRunner.INSTANCE.execute(new String[] {"latexdraw-unknown-tool"}, null).a);
+	}
+
+	@Test
+	void testExecuteStreamsOutput() {
+		final List<String> lines = new ArrayList<>();
+		final Tuple<Boolean, String> res = ProcessRunner.INSTANCE.execute(new String[] {"java", "-version"}, null, line -> lines.add(line));
+		assertTrue(res.a);
+		assertFalse(lines.isEmpty());
+		assertTrue(res.b.contains(lines.get(0)));
+	}
+
+	@Test
+	void testExecuteMetrics() {
+		final int nbRuns = ProcessRunner.INSTANCE.getMetrics().containsKey("java") ? ProcessRunner.INSTANCE.getMetrics().get("java").getNbRuns() : 0;
+		ProcessRunner.INSTANCE.execute(new String[] {"java", "-version"}, null);
+		assertEquals(nbRuns + 1, ProcessRunner.INSTANCE.getMetrics().get("java").getNbRuns());
+	}
+
+	@Test
+	@EnabledOnOs(OS.LINUX)
+	void testExecuteTimeout() {
+		ProcessRunner.INSTANCE.setTimeout("sleep", Duration.ofMillis(200));
+		final ProcessRunner.ProcessMetrics before = ProcessRunner.INSTANCE.getMetrics().get("sleep");
+		final int nbTimeouts = before == null ? 0 : before.getNbTimeouts();
+		final Tuple<Boolean, String> res = ProcessRunner.INSTANCE.execute(new String[] {"sleep", "10"}, null);
+		assertFalse(res.a);
+		assertTrue(res.b.contains("Timeout"));
+		assertEquals(nbTimeouts + 1, ProcessRunner.INSTANCE.getMetrics().get("sleep").getNbTimeouts());
+	}
+
+	@Test
+	@EnabledOnOs(OS.LINUX)
+	void testExecuteBackgroundDescendantDoesNotBlock() {
+		final long start = System.nanoTime();
+		final Tuple<Boolean, String> res = ProcessRunner.INSTANCE.execute(new String[] {"sh", "-c", "echo started; sleep 20 &"}, null);
+		assertTrue(res.a);
+		assertTrue(res.b.contains("started"));
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 10L);
+	}
+
+	@Test
+	void testBadConcurrencyLimit() {
+		assertThrows(IllegalArgumentException.class, () -> ProcessRunner.INSTANCE.setConcurrencyLimit("latex", 0));
+	}
+
+	@Test
+	void testBadTimeout() {
+		assertThrows(IllegalArgumentException.class, () -> ProcessRunner.INSTANCE.setTimeout("latex", Duration.ZERO));
+	}
+
+	@Test
+	void testScratchDirEmptiedAndReused() throws IOException {
+		final File dir;
+		try(final ProcessRunner.ScratchDir scratch = ProcessRunner.INSTANCE.acquireScratchDir().orElseThrow()) {
+			dir = scratch.getDir();
+			Files.writeString(new File(dir, "foo.tex").toPath(), "foo");
+		}
+		try(final ProcessRunner.ScratchDir scratch = ProcessRunner.INSTANCE.acquireScratchDir().orElseThrow()) {
+			assertEquals(dir, scratch.getDir());
+			assertEquals(0, dir.list().length);
+		}
+	}
+}
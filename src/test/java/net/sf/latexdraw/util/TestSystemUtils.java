@@ -5,6 +5,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestSystemUtils {
@@ -22,4 +23,14 @@ public class TestSystemUtils {
 		assertEquals("valueElt", elt.getTextContent());
 		assertEquals(root, elt.getParentNode());
 	}
+
+	@Test
+	void testExecuteInterruptedNotRun() {
+		Thread.currentThread().interrupt();
+		try {
+			assertFalse(SystemUtils.getInstance().execute(new String[] {"java", "-version"}, null).a);
+		}finally {
+			Thread.interrupted();
+		}
+	}
 }
@@ -1,11 +1,24 @@
 package net.sf.latexdraw.view.jfx;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javafx.geometry.Bounds;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import net.sf.latexdraw.data.ParameteriseShapeData;
 import net.sf.latexdraw.data.ShapeSupplier;
 import net.sf.latexdraw.model.api.shape.Picture;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.util.WaitForAsyncUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestViewPicture extends TestViewShape<ViewPicture, Picture> {
 	@Override
@@ -30,4 +43,28 @@ public class TestViewPicture extends TestViewShape<ViewPicture, Picture> {
 		view.getChildren().get(0).setTranslateY(19d);
 		assertEquals(before, view.getBoundsInParent());
 	}
+
+	Image renderAt(final ViewPicture pic, final double scale) throws ExecutionException, InterruptedException, TimeoutException {
+		final Future<?> loading = WaitForAsyncUtils.asyncFx(() -> pic.setRenderScale(scale)).get(10, TimeUnit.SECONDS);
+		loading.get(10, TimeUnit.SECONDS);
+		return ((ImageView) pic.getChildren().get(0)).getImage();
+	}
+
+	@Test
+	void testRenderScaleNoPicture() {
+		assertTrue(view.setRenderScale(3d).isDone());
+	}
+
+	@Test
+	void testRenderScaleLoadsPreviewAtScale(@TempDir final Path dir) throws IOException, ExecutionException, InterruptedException, TimeoutException {
+		model.setPathSource(ParameteriseShapeData.INST.getTestPNG(dir).toString());
+		final ViewPicture pic = new ViewPicture(model);
+		final Image small = renderAt(pic, 0.1);
+		final Image large = renderAt(pic, 4d);
+		assertFalse(small.isError());
+		assertTrue(small.getWidth() <= 64d);
+		assertFalse(large.isError());
+		assertEquals(449d, large.getWidth(), 0.0001);
+		pic.flush();
+	}
 }
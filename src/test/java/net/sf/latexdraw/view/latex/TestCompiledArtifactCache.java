@@ -0,0 +1,142 @@
+package net.sf.latexdraw.view.latex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompiledArtifactCache {
+	@TempDir Path dir;
+	CompiledArtifactCache cache;
+	Path file;
+	Path target;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		cache = new CompiledArtifactCache(2);
+		file = Files.writeString(dir.resolve("foo.ps"), "%!PS");
+		target = dir.resolve("target.ps");
+	}
+
+	@AfterEach
+	void tearDown() {
+		cache.clear();
+	}
+
+	@Test
+	void testKeySameParts() {
+		assertEquals(cache.key("\\psline(1,1)", "2cm,3cm"), cache.key("\\psline(1,1)", "2cm,3cm"));
+	}
+
+	@Test
+	void testKeyDifferentParts() {
+		assertNotEquals(cache.key("\\psline(1,1)", "2cm,3cm"), cache.key("\\psline(1,1)", "4cm,3cm"));
+	}
+
+	@Test
+	void testKeyPartsSeparated() {
+		assertNotEquals(cache.key("ab", "c"), cache.key("a", "bc"));
+	}
+
+	@Test
+	void testKeyIncludedFileContent() throws IOException {
+		final Path eps = Files.writeString(dir.resolve("pic.eps"), "%!PS-Adobe-3.0 EPSF-3.0");
+		final String key = cache.key(List.of(eps), "\\includegraphics{pic.eps}");
+		assertEquals(key, cache.key(List.of(eps), "\\includegraphics{pic.eps}"));
+		assertNotEquals(cache.key("\\includegraphics{pic.eps}"), key);
+		Files.writeString(eps, "%!PS-Adobe-3.0 EPSF-3.0 modified");
+		assertNotEquals(key, cache.key(List.of(eps), "\\includegraphics{pic.eps}"));
+	}
+
+	@Test
+	void testKeyMissingIncludedFile() {
+		final Path eps = dir.resolve("missing.eps");
+		assertEquals(cache.key(List.of(eps), "foo"), cache.key(List.of(eps), "foo"));
+	}
+
+	@Test
+	void testGetNotCached() {
+		assertTrue(cache.get("foo", target).isEmpty());
+	}
+
+	@Test
+	void testPutGet() throws IOException {
+		assertTrue(cache.put("foo", file).isPresent());
+		assertEquals(Optional.of(target), cache.get("foo", target));
+		assertEquals("%!PS", Files.readString(target));
+	}
+
+	@Test
+	void testGetGivesCopy() throws IOException {
+		final Path cached = cache.put("foo", file).orElseThrow();
+		cache.get("foo", target);
+		Files.writeString(target, "modified");
+		assertEquals("%!PS", Files.readString(cached));
+	}
+
+	@Test
+	void testEvictionDoesNotDeleteGivenCopy() throws IOException {
+		cache.put("a", file);
+		cache.get("a", target);
+		cache.put("b", file);
+		cache.put("c", file);
+		assertEquals("%!PS", Files.readString(target));
+	}
+
+	@Test
+	void testPutCopiesTheFile() throws IOException {
+		cache.put("foo", file);
+		Files.delete(file);
+		assertTrue(cache.get("foo", target).isPresent());
+	}
+
+	@Test
+	void testPutKeepsExtension() {
+		assertTrue(cache.put("foo", file).orElseThrow().toString().endsWith(".ps"));
+	}
+
+	@Test
+	void testEvictsLeastRecentlyUsed() {
+		final Path evicted = cache.put("a", file).orElseThrow();
+		cache.put("b", file);
+		cache.put("c", file);
+		assertTrue(cache.get("a", target).isEmpty());
+		assertTrue(cache.get("b", target).isPresent());
+		assertTrue(cache.get("c", target).isPresent());
+		assertFalse(Files.exists(evicted));
+	}
+
+	@Test
+	void testGetRefreshesEntry() {
+		cache.put("a", file);
+		cache.put("b", file);
+		cache.get("a", target);
+		cache.put("c", file);
+		assertTrue(cache.get("a", target).isPresent());
+		assertTrue(cache.get("b", target).isEmpty());
+	}
+
+	@Test
+	void testGetRemovedFile() throws IOException {
+		Files.delete(cache.put("foo", file).orElseThrow());
+		assertTrue(cache.get("foo", target).isEmpty());
+	}
+
+	@Test
+	void testToolVersionComputedOnce() {
+		final AtomicInteger nb = new AtomicInteger();
+		cache.getToolVersion("latex", () -> "v" + nb.incrementAndGet());
+		assertEquals("v1", cache.getToolVersion("latex", () -> "v" + nb.incrementAndGet()));
+	}
+}
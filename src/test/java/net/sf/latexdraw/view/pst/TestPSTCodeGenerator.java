@@ -0,0 +1,228 @@
+package net.sf.latexdraw.view.pst;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.data.ConfigureInjection;
+import net.sf.latexdraw.data.InjectionExtension;
+import net.sf.latexdraw.model.ShapeFactory;
+import net.sf.latexdraw.model.api.shape.Drawing;
+import net.sf.latexdraw.model.api.shape.Point;
+import net.sf.latexdraw.model.api.shape.Rectangle;
+import net.sf.latexdraw.service.LaTeXDataService;
+import net.sf.latexdraw.service.PreferencesService;
+import net.sf.latexdraw.util.Injector;
+import net.sf.latexdraw.util.SystemUtils;
+import net.sf.latexdraw.util.Tuple;
+import net.sf.latexdraw.view.ViewsSynchroniserHandler;
+import net.sf.latexdraw.view.latex.DrawingCodeLines;
+import net.sf.latexdraw.view.latex.DviPsColors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(InjectionExtension.class)
+public class TestPSTCodeGenerator {
+	PSTViewsFactory factory;
+	ViewsSynchroniserHandler handler;
+	Drawing drawing;
+	PSTCodeGenerator gen;
+	Rectangle rec1;
+	Rectangle rec2;
+
+	@ConfigureInjection
+	Injector configureInjection() {
+		return new Injector() {
+			@Override
+			protected void configure() throws IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
+				bindAsEagerSingleton(PreferencesService.class);
+				bindWithCommand(ResourceBundle.class, PreferencesService.class, pref -> pref.getBundle());
+				bindAsEagerSingleton(PSTViewsFactory.class);
+			}
+		};
+	}
+
+	@BeforeEach
+	void setUp(final PSTViewsFactory factory) {
+		this.factory = Mockito.spy(factory);
+		handler = Mockito.mock(ViewsSynchroniserHandler.class);
+		when(handler.getOriginDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint());
+		when(handler.getTopRightDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(500d, 0d));
+		when(handler.getBottomLeftDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(0d, 500d));
+		when(handler.getPPCDrawing()).thenReturn(50);
+		drawing = ShapeFactory.INST.createDrawing();
+		rec1 = ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(10d, 20d), 100d, 200d);
+		rec2 = ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(30d, 40d), 50d, 60d);
+		drawing.addShape(rec1);
+		drawing.addShape(rec2);
+		gen = new PSTCodeGenerator(drawing, handler, this.factory, new LaTeXDataService());
+	}
+
+	@AfterEach
+	void tearDown() {
+		DviPsColors.INSTANCE.clearUserColours();
+	}
+
+	@Test
+	void testUnmodifiedShapesNotGeneratedAgain() {
+		final String code = gen.getDrawingCode();
+		assertEquals(code, gen.getDrawingCode());
+		verify(factory, times(2)).createView(any());
+	}
+
+	@Test
+	void testModifiedShapeGeneratedAgain() {
+		final String code = gen.getDrawingCode();
+		rec2.setLineColour(DviPsColors.APRICOT);
+		final String code2 = gen.getDrawingCode();
+		assertNotEquals(code, code2);
+		verify(factory, times(1)).createView(rec1);
+		verify(factory, times(2)).createView(rec2);
+	}
+
+	@Test
+	void testColoursOfCachedShapesStillDefined() {
+		rec1.setLineColour(ShapeFactory.INST.createColorInt(12, 34, 56));
+		assertTrue(gen.getDrawingCode().contains("\\definecolor"));
+		rec2.translate(10d, 10d);
+		assertTrue(gen.getDrawingCode().contains("\\definecolor"));
+	}
+
+	@Test
+	void testOriginChangeGeneratesAgain() {
+		gen.getDrawingCode();
+		when(handler.getOriginDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(10d, 10d));
+		gen.getDrawingCode();
+		verify(factory, times(4)).createView(any());
+	}
+
+	@Test
+	void testShapeCodeLinesOfModifiedShape() {
+		gen.getDrawingCodeLines();
+		rec2.translate(10d, 10d);
+		final DrawingCodeLines expected = gen.getDrawingCodeLines();
+		final Tuple<Integer, Integer> range = expected.getShapeLines(rec2).orElseThrow();
+		rec2.translate(-10d, -10d);
+		gen.getDrawingCodeLines();
+		rec2.translate(10d, 10d);
+		assertEquals(expected.getLines().subList(range.a, range.b), gen.getShapeCodeLines(rec2).orElseThrow());
+	}
+
+	@Test
+	void testShapeCodeLinesNewColour() {
+		gen.getDrawingCodeLines();
+		rec2.setLineColour(ShapeFactory.INST.createColorInt(12, 34, 56));
+		assertTrue(gen.getShapeCodeLines(rec2).isEmpty());
+	}
+
+	@Test
+	void testShapeCodeLinesUnknownShape() {
+		assertTrue(gen.getShapeCodeLines(rec2).isEmpty());
+	}
+
+	@Test
+	void testDrawingHeaderFooterLines() {
+		final DrawingCodeLines lines = gen.getDrawingCodeLines();
+		final Tuple<List<String>, List<String>> headerFooter = gen.getDrawingHeaderFooterLines();
+		assertEquals(lines.getLines().subList(0, lines.getHeaderSize()), headerFooter.a);
+		assertEquals(lines.getLines().subList(lines.getLines().size() - lines.getFooterSize(), lines.getLines().size()), headerFooter.b);
+	}
+
+	@Test
+	void testWriteDrawingCodeSameAsGetDrawingCode() throws IOException {
+		final StringWriter writer = new StringWriter();
+		gen.writeDrawingCode(writer);
+		assertEquals(gen.getDrawingCode(), writer.toString());
+	}
+
+	@Test
+	void testWriteDocumentCodeContainsDrawingCode() throws IOException {
+		final StringWriter writer = new StringWriter();
+		gen.writeDocumentCode(writer);
+		assertTrue(writer.toString().contains(gen.getDrawingCode()));
+		assertTrue(writer.toString().endsWith("\\end{document}"));
+	}
+
+	@Test
+	void testLargeDrawingSameCodeAsSequentialGeneration() {
+		drawing.clear();
+		IntStream.range(0, 300).forEach(i -> {
+			final Rectangle rec = ShapeFactory.INST.createRectangle(ShapeFactory.INST.createPoint(i, i), 10d, 10d);
+			rec.setLineColour(ShapeFactory.INST.createColorInt(i % 256, i / 256, 10));
+			drawing.addShape(rec);
+		});
+		// The reference is generated sequentially, shape after shape in z-order, as the generator does for small drawings.
+		final Point origin = handler.getOriginDrawingPoint();
+		final Set<String> addedColours = new HashSet<>();
+		final StringBuilder colours = new StringBuilder();
+		final StringBuilder shapes = new StringBuilder();
+		drawing.getShapes().forEach(sh -> factory.createView(sh).ifPresent(view -> {
+			shapes.append(view.getCode(origin, handler.getPPCDrawing())).append(SystemUtils.getInstance().EOL);
+			colours.append(view.generateColourCode(addedColours)).append(SystemUtils.getInstance().EOL);
+		}));
+		DviPsColors.INSTANCE.clearUserColours();
+
+		final String code = gen.getDrawingCode();
+		assertTrue(code.contains(colours.toString() + shapes));
+		// The colours are named in z-order, as in a sequential generation.
+		assertTrue(code.indexOf("{colour0}") < code.indexOf("{colour1}"));
+		assertTrue(code.indexOf("{colour1}") < code.indexOf("{colour299}"));
+	}
+
+	@Test
+	void testDrawingCodeLinesSameAsDrawingCode() {
+		assertEquals(gen.getDrawingCode().lines().collect(Collectors.toList()), gen.getDrawingCodeLines().getLines());
+	}
+
+	@Test
+	void testDrawingCodeLinesOfShapes() {
+		final DrawingCodeLines code = gen.getDrawingCodeLines();
+		final Tuple<Integer, Integer> lines = code.getShapeLines(rec2).orElseThrow();
+		assertEquals(String.join("", code.getLines().subList(lines.a, lines.b)), factory.createView(rec2).orElseThrow().
+			getCode(handler.getOriginDrawingPoint(), handler.getPPCDrawing()).replace(SystemUtils.getInstance().EOL, ""));
+	}
+
+	@Test
+	void testDrawingCodeLinesUnmodifiedShapesNotGeneratedAgain() {
+		gen.getDrawingCodeLines();
+		gen.getDrawingCodeLines();
+		verify(factory, times(2)).createView(any());
+	}
+
+	@Test
+	void testDrawingCodeLinesEmptyDrawing() {
+		drawing.clear();
+		assertTrue(gen.getDrawingCodeLines().getLines().isEmpty());
+	}
+
+	@Test
+	void testSnapshotSameCode() {
+		assertEquals(gen.getDrawingCode(), gen.createSnapshot().getDrawingCode());
+	}
+
+	@Test
+	void testSnapshotNotAffectedByModifications() {
+		final PSTCodeGenerator snapshot = gen.createSnapshot();
+		final String code = snapshot.getDrawingCode();
+		rec1.translate(100d, 100d);
+		drawing.removeShape(rec2);
+		when(handler.getTopRightDrawingPoint()).thenReturn(ShapeFactory.INST.createPoint(1000d, 0d));
+		assertEquals(code, snapshot.getDrawingCode());
+	}
+}
@@ -1,7 +1,26 @@
 package net.sf.latexdraw.view.pst;
 
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import net.sf.latexdraw.model.ShapeFactory;
 import net.sf.latexdraw.model.api.shape.Plot;
+import net.sf.latexdraw.model.api.shape.PlotData;
+import net.sf.latexdraw.model.api.shape.Shape;
 import net.sf.latexdraw.view.PolymorphPlotTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestPSTPlot extends TestPSTBase<Plot> implements PolymorphPlotTest {
+	@Test
+	void testListplotOfLargeSeriesOnShortLines() {
+		final Plot plot = ShapeFactory.INST.createPlot(ShapeFactory.INST.createPoint(), 1d, 10d, "x", false);
+		final double[] coords = IntStream.range(0, 20_000).mapToDouble(i -> i % 2 == 0 ? i / 2 : Math.cos(i * 0.001)).toArray();
+		plot.setPlotData(new PlotData(coords, coords.length));
+		final String code = factory.createView(plot).orElseThrow().getCode(ShapeFactory.INST.createPoint(), Shape.PPC);
+
+		assertTrue(Arrays.stream(code.split("\\R")).allMatch(line -> line.length() < 500));
+		assertEquals(plot.getPlotData(), produceOutputShapeFrom(plot).getPlotData());
+	}
 }